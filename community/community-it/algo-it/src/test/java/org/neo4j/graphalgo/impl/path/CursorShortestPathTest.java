@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.path;
+
+import common.Neo4jAlgoTestCase;
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.graphalgo.BasicEvaluationContext;
+import org.neo4j.graphalgo.PathFinder;
+import org.neo4j.graphdb.Path;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.impl.StandardExpander;
+import org.neo4j.memory.LocalMemoryTracker;
+
+import static common.Neo4jAlgoTestCase.MyRelTypes.R1;
+import static common.Neo4jAlgoTestCase.MyRelTypes.R2;
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.neo4j.graphalgo.GraphAlgoFactory.shortestPath;
+import static org.neo4j.graphdb.Direction.BOTH;
+import static org.neo4j.graphdb.Direction.INCOMING;
+import static org.neo4j.graphdb.Direction.OUTGOING;
+import static org.neo4j.graphdb.PathExpanders.allTypesAndDirections;
+import static org.neo4j.graphdb.PathExpanders.forDirection;
+import static org.neo4j.graphdb.PathExpanders.forType;
+import static org.neo4j.graphdb.PathExpanders.forTypeAndDirection;
+import static org.neo4j.graphdb.PathExpanders.forTypesAndDirections;
+
+class CursorShortestPathTest extends Neo4jAlgoTestCase
+{
+    @Test
+    void shouldFindPathsOverParallelRelationships()
+    {
+        // Layout:
+        //    __
+        //   /  \
+        // (s)  (t)
+        //   \__/
+        try ( Transaction transaction = graphDb.beginTx() )
+        {
+            graph.makeEdge( transaction, "s", "t" );
+            graph.makeEdge( transaction, "s", "t" );
+            PathFinder<Path> finder = new CursorShortestPath( new BasicEvaluationContext( transaction, graphDb ), 1, BOTH, R1 );
+
+            assertPaths( finder.findAllPaths( graph.getNode( transaction, "s" ), graph.getNode( transaction, "t" ) ), "s,t", "s,t" );
+            assertPaths( asList( finder.findSinglePath( graph.getNode( transaction, "s" ), graph.getNode( transaction, "t" ) ) ), "s,t" );
+            transaction.commit();
+        }
+    }
+
+    @Test
+    void shouldFindAllShortestPaths()
+    {
+        // Layout:
+        //   (m)
+        //   /  \
+        // (s)  (o)---(t)
+        //   \  /       \
+        //   (n)---(p)---(q)
+        try ( Transaction transaction = graphDb.beginTx() )
+        {
+            graph.makeEdge( transaction, "s", "m" );
+            graph.makeEdge( transaction, "m", "o" );
+            graph.makeEdge( transaction, "s", "n" );
+            graph.makeEdge( transaction, "n", "p" );
+            graph.makeEdge( transaction, "p", "q" );
+            graph.makeEdge( transaction, "q", "t" );
+            graph.makeEdge( transaction, "n", "o" );
+            graph.makeEdge( transaction, "o", "t" );
+            PathFinder<Path> finder = new CursorShortestPath( new BasicEvaluationContext( transaction, graphDb ), 6, BOTH );
+
+            assertPaths( finder.findAllPaths( graph.getNode( transaction, "s" ), graph.getNode( transaction, "t" ) ), "s,m,o,t", "s,n,o,t" );
+            assertPaths( finder.findAllPaths( graph.getNode( transaction, "t" ), graph.getNode( transaction, "s" ) ), "t,o,m,s", "t,o,n,s" );
+            assertThat( finder.metadata().getNumberOfPathsReturned() ).isEqualTo( 2 );
+            transaction.commit();
+        }
+    }
+
+    @Test
+    void shouldRespectDirection()
+    {
+        // Layout:
+        // (a)-->(b)-->(c)-->(d)
+        //   \                ^
+        //    `-----(e)<-----'
+        try ( Transaction transaction = graphDb.beginTx() )
+        {
+            graph.makeEdgeChain( transaction, "a,b,c,d" );
+            graph.makeEdge( transaction, "d", "e" );
+            graph.makeEdge( transaction, "e", "a" );
+            var context = new BasicEvaluationContext( transaction, graphDb );
+
+            assertPaths( new CursorShortestPath( context, 10, OUTGOING ).findAllPaths(
+                    graph.getNode( transaction, "a" ), graph.getNode( transaction, "d" ) ), "a,b,c,d" );
+            assertPaths( new CursorShortestPath( context, 10, INCOMING ).findAllPaths(
+                    graph.getNode( transaction, "a" ), graph.getNode( transaction, "d" ) ), "a,e,d" );
+            assertPaths( new CursorShortestPath( context, 10, BOTH ).findAllPaths(
+                    graph.getNode( transaction, "a" ), graph.getNode( transaction, "d" ) ), "a,e,d" );
+            transaction.commit();
+        }
+    }
+
+    @Test
+    void shouldNotReturnPathsLongerThanMaxDepth()
+    {
+        try ( Transaction transaction = graphDb.beginTx() )
+        {
+            graph.makeEdgeChain( transaction, "a,b,c,d,e" );
+            var context = new BasicEvaluationContext( transaction, graphDb );
+
+            assertNull( new CursorShortestPath( context, 3, BOTH ).findSinglePath(
+                    graph.getNode( transaction, "a" ), graph.getNode( transaction, "e" ) ) );
+            assertPaths( asList( new CursorShortestPath( context, 4, BOTH ).findSinglePath(
+                    graph.getNode( transaction, "a" ), graph.getNode( transaction, "e" ) ) ), "a,b,c,d,e" );
+            transaction.commit();
+        }
+    }
+
+    @Test
+    void shouldOnlyTraverseGivenRelationshipTypes()
+    {
+        try ( Transaction transaction = graphDb.beginTx() )
+        {
+            graph.makeEdgeChain( transaction, "a,b,c" );
+            graph.setCurrentRelType( R2 );
+            graph.makeEdge( transaction, "a", "c" );
+            graph.setCurrentRelType( R1 );
+            var context = new BasicEvaluationContext( transaction, graphDb );
+
+            assertPaths( new CursorShortestPath( context, 10, BOTH, R1 ).findAllPaths(
+                    graph.getNode( transaction, "a" ), graph.getNode( transaction, "c" ) ), "a,b,c" );
+            assertPaths( new CursorShortestPath( context, 10, BOTH, R1, R2 ).findAllPaths(
+                    graph.getNode( transaction, "a" ), graph.getNode( transaction, "c" ) ), "a,c" );
+            assertNull( new CursorShortestPath( context, 10, BOTH, RelationshipType.withName( "MISSING" ) ).findSinglePath(
+                    graph.getNode( transaction, "a" ), graph.getNode( transaction, "c" ) ) );
+            transaction.commit();
+        }
+    }
+
+    @Test
+    void shouldLimitNumberOfReturnedPaths()
+    {
+        // Layout, all paths from s to t are of length 2:
+        //   (a)
+        //  /   \
+        // (s)-(b)-(t)
+        //  \   /
+        //   (c)
+        try ( Transaction transaction = graphDb.beginTx() )
+        {
+            graph.makeEdgeChain( transaction, "s,a,t" );
+            graph.makeEdgeChain( transaction, "s,b,t" );
+            graph.makeEdgeChain( transaction, "s,c,t" );
+            var context = new BasicEvaluationContext( transaction, graphDb );
+
+            Iterable<Path> paths = new CursorShortestPath( context, 10, 2, new LocalMemoryTracker(), BOTH ).findAllPaths(
+                    graph.getNode( transaction, "s" ), graph.getNode( transaction, "t" ) );
+            assertThat( paths ).hasSize( 2 );
+            for ( Path path : paths )
+            {
+                assertThat( path.length() ).isEqualTo( 2 );
+            }
+            transaction.commit();
+        }
+    }
+
+    @Test
+    void shouldBeUsedByGraphAlgoFactoryForPlainTypeAndDirectionExpanders()
+    {
+        try ( Transaction transaction = graphDb.beginTx() )
+        {
+            graph.makeEdgeChain( transaction, "a,b,c" );
+            var context = new BasicEvaluationContext( transaction, graphDb );
+
+            assertThat( shortestPath( context, allTypesAndDirections(), 10 ) ).isInstanceOf( CursorShortestPath.class );
+            assertThat( shortestPath( context, forDirection( OUTGOING ), 10 ) ).isInstanceOf( CursorShortestPath.class );
+            assertThat( shortestPath( context, forTypeAndDirection( R1, INCOMING ), 10, 1 ) ).isInstanceOf( CursorShortestPath.class );
+            assertThat( shortestPath( context, forTypesAndDirections( R1, OUTGOING, R2, INCOMING ), 10 ) ).isInstanceOf( ShortestPath.class );
+            assertThat( shortestPath( context, ((StandardExpander) forType( R1 )).addNodeFilter( node -> true ), 10 ) )
+                    .isInstanceOf( ShortestPath.class );
+
+            assertPaths( shortestPath( context, forTypeAndDirection( R1, OUTGOING ), 10 ).findAllPaths(
+                    graph.getNode( transaction, "a" ), graph.getNode( transaction, "c" ) ), "a,b,c" );
+            assertNull( shortestPath( context, forTypeAndDirection( R1, INCOMING ), 10 ).findSinglePath(
+                    graph.getNode( transaction, "a" ), graph.getNode( transaction, "c" ) ) );
+            transaction.commit();
+        }
+    }
+}
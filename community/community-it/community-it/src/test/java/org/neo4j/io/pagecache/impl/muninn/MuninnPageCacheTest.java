@@ -34,6 +34,7 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
 import java.util.function.IntSupplier;
 import java.util.function.LongSupplier;
+import java.util.stream.LongStream;
 
 import org.neo4j.configuration.Config;
 import org.neo4j.configuration.pagecache.ConfigurableIOBufferFactory;
@@ -43,6 +44,8 @@ import org.neo4j.io.fs.DelegatingFileSystemAbstraction;
 import org.neo4j.io.fs.DelegatingStoreChannel;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.mem.NumaTopology;
 import org.neo4j.io.memory.ByteBuffers;
 import org.neo4j.io.pagecache.DelegatingPageSwapper;
 import org.neo4j.io.pagecache.IOLimiter;
@@ -52,7 +55,9 @@ import org.neo4j.io.pagecache.PageEvictionCallback;
 import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.PageSwapperFactory;
 import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.ResidencyQuota;
 import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.monitoring.PagedFileCounters;
 import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.DelegatingPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
@@ -65,9 +70,12 @@ import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 import org.neo4j.io.pagecache.tracing.recording.RecordingPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.recording.RecordingPageCursorTracer;
 import org.neo4j.io.pagecache.tracing.recording.RecordingPageCursorTracer.Fault;
+import org.neo4j.memory.LocalMemoryTracker;
 import org.neo4j.memory.ScopedMemoryTracker;
+import org.neo4j.time.Clocks;
 
 import static java.time.Duration.ofMillis;
+import static org.eclipse.collections.api.factory.Sets.immutable;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -79,6 +87,9 @@ import static org.junit.jupiter.api.Assumptions.assumeFalse;
 import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_buffered_flush_enabled;
 import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_flush_buffer_size_in_pages;
+import static org.neo4j.io.pagecache.PageCacheOpenOptions.HIGH_PRIORITY;
+import static org.neo4j.io.pagecache.PageCacheOpenOptions.LOW_PRIORITY;
+import static org.neo4j.io.pagecache.PagedFile.PF_BYPASS_CACHE;
 import static org.neo4j.io.pagecache.PagedFile.PF_NO_GROW;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
@@ -189,7 +200,7 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
             assertEquals( 1, cursorTracer.faults() );
             assertEquals( 1, tracer.faults() );
 
-            long clockArm = pageCache.evictPages( 1, 1, tracer.beginPageEvictions( 1 ) );
+            long clockArm = pageCache.evictPages( pageCache.partitions[0], 1, 1, tracer.beginPageEvictions( 1 ) );
             assertThat( clockArm ).isEqualTo( 1L );
             assertNotNull( tracer.observe( Evict.class ) );
         }
@@ -216,7 +227,7 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
             assertEquals( 1, cursorTracer.faults() );
             assertEquals( 1, tracer.faults() );
 
-            long clockArm = pageCache.evictPages( 1, 0, tracer.beginPageEvictions( 1 ) );
+            long clockArm = pageCache.evictPages( pageCache.partitions[0], 1, 0, tracer.beginPageEvictions( 1 ) );
             assertThat( clockArm ).isEqualTo( 1L );
             assertNotNull( tracer.observe( Evict.class ) );
 
@@ -226,6 +237,290 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         }
     }
 
+    @Test
+    void numaPartitionedPageCacheMustFaultAndEvictPagesOfAllPartitions() throws Exception
+    {
+        int maxPages = 2048;
+        int filePages = 3 * maxPages;
+        var memoryTracker = new LocalMemoryTracker();
+        MemoryAllocator allocator = MemoryAllocator.createAllocator( MuninnPageCache.memoryRequiredForPages( maxPages ), memoryTracker );
+        NumaTopology topology = NumaTopology.of( List.of( "0", "1" ) );
+        try ( MuninnPageCache pageCache = new MuninnPageCache( new SingleFilePageSwapperFactory( fs ), allocator, PageCacheTracer.NULL, EMPTY, jobScheduler,
+                Clocks.nanoClock(), memoryTracker, DISABLED_BUFFER_FACTORY, topology );
+                PagedFile pagedFile = map( pageCache, file( "a" ), pageCache.pageSize() ) )
+        {
+            assertThat( pageCache.partitions ).hasSize( 2 );
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+            {
+                for ( int pageId = 0; pageId < filePages; pageId++ )
+                {
+                    assertTrue( cursor.next( pageId ) );
+                    cursor.putLong( pageId );
+                }
+            }
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, NULL ) )
+            {
+                for ( int pageId = 0; pageId < filePages; pageId++ )
+                {
+                    assertTrue( cursor.next( pageId ) );
+                    long value;
+                    do
+                    {
+                        value = cursor.getLong( 0 );
+                    }
+                    while ( cursor.shouldRetry() );
+                    assertEquals( pageId, value );
+                }
+            }
+        }
+        finally
+        {
+            allocator.close();
+        }
+    }
+
+    @Test
+    void mustNotEvictPagesOfFileAtMinimumResidency() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+
+        try ( MuninnPageCache pageCache = createPageCache( fs, 2, tracer );
+                MuninnPagedFile pagedFile = (MuninnPagedFile) map( pageCache, file( "a" ), 8, immutable.of( ResidencyQuota.atLeast( 1 ) ) ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, NULL ) )
+            {
+                assertTrue( cursor.next() );
+            }
+            assertThat( pagedFile.residency.residentPages() ).isOne();
+
+            pageCache.evictPages( pageCache.partitions[0], 1, 0, tracer.beginPageEvictions( 1 ) );
+            assertThat( pagedFile.residency.residentPages() ).isOne();
+            assertThat( tracer.evictions() ).isZero();
+            assertThat( tracer.residencyProtections() ).isPositive();
+        }
+    }
+
+    @Test
+    void mustEagerlyEvictPagesOfLowPriorityFile() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+
+        try ( MuninnPageCache pageCache = createPageCache( fs, 2, tracer );
+                MuninnPagedFile pagedFile = (MuninnPagedFile) map( pageCache, file( "a" ), 8, immutable.of( LOW_PRIORITY ) ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, NULL ) )
+            {
+                for ( int i = 0; i < 4; i++ )
+                {
+                    assertTrue( cursor.next( 0 ) );
+                }
+            }
+
+            // The page has been used a lot, but will still be evicted the first time the clock arm reaches it.
+            long clockArm = pageCache.evictPages( pageCache.partitions[0], 1, 0, tracer.beginPageEvictions( 1 ) );
+            assertThat( clockArm ).isEqualTo( 1L );
+            assertThat( pagedFile.residency.residentPages() ).isZero();
+            assertThat( tracer.evictions() ).isOne();
+            assertThat( tracer.residencyEvictions() ).isOne();
+        }
+    }
+
+    @Test
+    void mustEagerlyEvictPagesOfFileAboveMaximumResidency() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+
+        try ( MuninnPageCache pageCache = createPageCache( fs, 4, tracer );
+                MuninnPagedFile pagedFile = (MuninnPagedFile) map( pageCache, file( "a" ), 8, immutable.of( ResidencyQuota.atMost( 1 ) ) ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, NULL ) )
+            {
+                assertTrue( cursor.next( 0 ) );
+                assertTrue( cursor.next( 0 ) );
+                assertTrue( cursor.next( 1 ) );
+            }
+            assertThat( pagedFile.residency.residentPages() ).isEqualTo( 2 );
+
+            pageCache.evictPages( pageCache.partitions[0], 1, 0, tracer.beginPageEvictions( 1 ) );
+            assertThat( pagedFile.residency.residentPages() ).isOne();
+            assertThat( tracer.residencyEvictions() ).isOne();
+        }
+    }
+
+    @Test
+    void pagesOfHighPriorityFileMustOnlyAgeOnEveryOtherLap() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+
+        try ( MuninnPageCache pageCache = createPageCache( fs, 2, tracer );
+                MuninnPagedFile pagedFile = (MuninnPagedFile) map( pageCache, file( "a" ), 8, immutable.of( HIGH_PRIORITY ) ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, NULL ) )
+            {
+                assertTrue( cursor.next() );
+            }
+
+            PagePartition partition = pageCache.partitions[0];
+            partition.clockLap = 1;
+            pageCache.evictPages( partition, 1, 0, tracer.beginPageEvictions( 1 ) );
+            assertThat( partition.clockLap ).isEqualTo( 2 );
+            assertThat( pagedFile.residency.residentPages() ).isZero();
+            assertThat( tracer.evictions() ).isOne();
+        }
+    }
+
+    @Test
+    void bypassingCursorMustReadPagesWithoutFaultingThemIn() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        RecordingPageCacheTracer tracer = new RecordingPageCacheTracer();
+        RecordingPageCursorTracer cursorTracer = new RecordingPageCursorTracer( tracer, "bypassingCursorMustReadPagesWithoutFaultingThemIn" );
+
+        try ( MuninnPageCache pageCache = createPageCache( fs, 2, tracer );
+                PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_BYPASS_CACHE, cursorTracer ) )
+            {
+                assertTrue( cursor.next() );
+                assertThat( cursor.getLong() ).isEqualTo( x );
+                assertFalse( cursor.shouldRetry() );
+                assertTrue( cursor.next() );
+                assertThat( cursor.getLong() ).isEqualTo( y );
+                assertThat( cursor.getLong( 4 ) ).isZero();
+                assertTrue( cursor.checkAndClearBoundsFlag() );
+                assertFalse( cursor.next() );
+            }
+            cursorTracer.reportEvents();
+            assertEquals( 0, cursorTracer.faults() );
+            assertEquals( 0, tracer.faults() );
+        }
+    }
+
+    @Test
+    void bypassingCursorMustReadPagesInTheCacheFromTheCache() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 2, PageCacheTracer.NULL );
+                PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 1, PF_SHARED_WRITE_LOCK, NULL ) )
+            {
+                assertTrue( cursor.next() );
+                cursor.putLong( x );
+            }
+
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_BYPASS_CACHE, NULL ) )
+            {
+                assertTrue( cursor.next() );
+                assertThat( cursor.getLong() ).isEqualTo( x );
+                assertTrue( cursor.next() );
+                long value;
+                do
+                {
+                    value = cursor.getLong();
+                }
+                while ( cursor.shouldRetry() );
+                assertThat( value ).isEqualTo( x );
+            }
+        }
+    }
+
+    @Test
+    void bypassingCursorMustRetryFromTheFileWhenCachedPageIsEvicted() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 2, tracer );
+                PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 1, PF_SHARED_WRITE_LOCK, NULL ) )
+            {
+                assertTrue( cursor.next() );
+                cursor.putLong( x );
+            }
+
+            try ( PageCursor cursor = pagedFile.io( 1, PF_SHARED_READ_LOCK | PF_BYPASS_CACHE, NULL ) )
+            {
+                assertTrue( cursor.next() );
+                assertThat( cursor.getLong() ).isEqualTo( x );
+
+                // Evicting the page flushes it, so reading the file again on retry must see the change.
+                pageCache.evictPages( pageCache.partitions[0], 1, 0, tracer.beginPageEvictions( 1 ) );
+                assertThat( tracer.evictions() ).isOne();
+                assertTrue( cursor.shouldRetry() );
+                assertThat( cursor.getCurrentPageId() ).isOne();
+                assertThat( cursor.getLong() ).isEqualTo( x );
+                assertFalse( cursor.shouldRetry() );
+                assertFalse( cursor.checkAndClearBoundsFlag() );
+            }
+        }
+    }
+
+    @Test
+    void bypassingCursorMaySeePagesAsTheyWereWhenTheirBlockWasRead() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 2, tracer );
+                PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+        {
+            try ( PageCursor scan = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_BYPASS_CACHE, NULL ) )
+            {
+                // Reads the block with both pages of the file.
+                assertTrue( scan.next() );
+                assertThat( scan.getLong() ).isEqualTo( x );
+
+                // The second page is faulted in, changed, flushed and evicted, before the scan gets to it.
+                try ( PageCursor cursor = pagedFile.io( 1, PF_SHARED_WRITE_LOCK, NULL ) )
+                {
+                    assertTrue( cursor.next() );
+                    cursor.putLong( x );
+                }
+                pageCache.evictPages( pageCache.partitions[0], 1, 0, tracer.beginPageEvictions( 1 ) );
+                assertThat( tracer.evictions() ).isOne();
+
+                assertTrue( scan.next() );
+                assertThat( scan.getLong() ).isEqualTo( y );
+                assertFalse( scan.shouldRetry() );
+            }
+
+            try ( PageCursor scan = pagedFile.io( 1, PF_SHARED_READ_LOCK | PF_BYPASS_CACHE, NULL ) )
+            {
+                assertTrue( scan.next() );
+                assertThat( scan.getLong() ).isEqualTo( x );
+            }
+        }
+    }
+
+    @Test
+    void bypassingCursorMustNotMovePastEndOfFile() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 2, PageCacheTracer.NULL );
+                PagedFile pagedFile = map( pageCache, file( "a" ), 8 );
+                PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_BYPASS_CACHE, NULL ) )
+        {
+            assertFalse( cursor.next( 2 ) );
+            assertThat( cursor.getCurrentPageId() ).isEqualTo( PageCursor.UNBOUND_PAGE_ID );
+            assertFalse( cursor.shouldRetry() );
+            assertThat( cursor.getLong() ).isZero();
+            assertTrue( cursor.checkAndClearBoundsFlag() );
+
+            assertTrue( cursor.next( 1 ) );
+            assertThat( cursor.getLong() ).isEqualTo( y );
+            assertFalse( cursor.shouldRetry() );
+            assertFalse( cursor.next() );
+            assertFalse( cursor.shouldRetry() );
+            assertThat( cursor.getCurrentPageId() ).isEqualTo( PageCursor.UNBOUND_PAGE_ID );
+            assertThat( cursor.getLong() ).isZero();
+            assertTrue( cursor.checkAndClearBoundsFlag() );
+        }
+    }
+
     @Test
     void mustFlushDirtyPagesOnEvictingLastPage() throws Exception
     {
@@ -246,7 +541,7 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
             assertEquals( 1, cursorTracer.faults() );
             assertEquals( 1, tracer.faults() );
 
-            long clockArm = pageCache.evictPages( 1, 0, tracer.beginPageEvictions( 1 ) );
+            long clockArm = pageCache.evictPages( pageCache.partitions[0], 1, 0, tracer.beginPageEvictions( 1 ) );
             assertThat( clockArm ).isEqualTo( 1L );
             assertNotNull( tracer.observe( Evict.class ) );
 
@@ -280,7 +575,7 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
             assertEquals( 2, cursorTracer.faults() );
             assertEquals( 2, tracer.faults() );
 
-            long clockArm = pageCache.evictPages( 2, 0, tracer.beginPageEvictions( 2 ) );
+            long clockArm = pageCache.evictPages( pageCache.partitions[0], 2, 0, tracer.beginPageEvictions( 2 ) );
             assertThat( clockArm ).isEqualTo( 2L );
             assertNotNull( tracer.observe( Evict.class ) );
             assertNotNull( tracer.observe( Evict.class ) );
@@ -1129,7 +1424,7 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
                 cursor.putLong( value + 1 );
             }
 
-            long clockArm = pageCache.evictPages( 1, 0, EvictionRunEvent.NULL );
+            long clockArm = pageCache.evictPages( pageCache.partitions[0], 1, 0, EvictionRunEvent.NULL );
             assertThat( clockArm ).isEqualTo( 1L );
 
             ByteBuffer buf = readIntoBuffer( "a" );
@@ -1231,7 +1526,7 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
                 }
 
                 // This will run into that exception, in background eviction:
-                pageCache.evictPages( 1, 0, EvictionRunEvent.NULL );
+                pageCache.evictPages( pageCache.partitions[0], 1, 0, EvictionRunEvent.NULL );
 
                 // We now have a background eviction exception. A successful flushAndForce should clear it, though.
                 throwException.setFalse();
@@ -1292,6 +1587,54 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         } );
     }
 
+    @Test
+    void mustBreakPageCacheActivityDownByFileWhenAsked() throws Exception
+    {
+        Path fileA = existingFile( "a" );
+        Path fileB = existingFile( "b" );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer( true );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 10, tracer );
+              PagedFile pagedFileA = map( pageCache, fileA, filePageSize );
+              PagedFile pagedFileB = map( pageCache, fileB, filePageSize ) )
+        {
+            try ( PageCursor cursor = pagedFileA.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+            {
+                assertTrue( cursor.next() );
+                cursor.putLong( 1 );
+            }
+            try ( PageCursor cursor = pagedFileA.io( 0, PF_SHARED_READ_LOCK, NULL ) )
+            {
+                assertTrue( cursor.next() );
+            }
+            try ( PageCursor cursor = pagedFileB.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+            {
+                assertTrue( cursor.next() );
+            }
+            pagedFileA.flushAndForce();
+            evictAllPages( pageCache );
+
+            PagedFileCounters countersA = pagedFileCounters( tracer, fileA );
+            assertThat( countersA.faults() ).isEqualTo( 1 );
+            assertThat( countersA.writeCursorFaults() ).isEqualTo( 1 );
+            assertThat( countersA.hits() ).isEqualTo( 1 );
+            assertThat( countersA.readCursorHits() ).isEqualTo( 1 );
+            assertThat( countersA.flushes() ).isEqualTo( 1 );
+            assertThat( countersA.bytesWritten() ).isEqualTo( filePageSize );
+            assertThat( countersA.evictions() ).isEqualTo( 1 );
+            assertThat( LongStream.of( countersA.faultLatencyHistogram() ).sum() ).isEqualTo( 1 );
+
+            PagedFileCounters countersB = pagedFileCounters( tracer, fileB );
+            assertThat( countersB.faults() ).isEqualTo( 1 );
+            assertThat( countersB.hits() ).isZero();
+            assertThat( countersB.evictions() ).isEqualTo( 1 );
+        }
+    }
+
+    private static PagedFileCounters pagedFileCounters( PageCacheTracer tracer, Path path )
+    {
+        return tracer.pagedFileCounters().stream().filter( counters -> counters.path().equals( path ) ).findFirst().orElseThrow();
+    }
+
     @Test
     void unlimitedShouldFlushInParallel()
     {
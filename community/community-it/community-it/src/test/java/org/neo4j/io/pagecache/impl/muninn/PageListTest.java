@@ -1614,6 +1614,41 @@ public class PageListTest
         assertTrue( pageList.decrementUsage( pageRef ) );
     }
 
+    @ParameterizedTest( name = "pageRef = {0}" )
+    @MethodSource( "argumentsProvider" )
+    public void sampledUsageIncrementMustAlwaysIncrementUnusedPage( int pageId )
+    {
+        init( pageId );
+
+        pageList.incrementUsageSampled( pageRef );
+        pageList.incrementUsage( pageRef );
+        pageList.incrementUsage( pageRef );
+        pageList.incrementUsage( pageRef );
+        assertFalse( pageList.decrementUsage( pageRef ) );
+        assertFalse( pageList.decrementUsage( pageRef ) );
+        assertFalse( pageList.decrementUsage( pageRef ) );
+        assertTrue( pageList.decrementUsage( pageRef ) );
+    }
+
+    @ParameterizedTest( name = "pageRef = {0}" )
+    @MethodSource( "argumentsProvider" )
+    public void sampledUsageIncrementMustEventuallyTruncateAtFour( int pageId )
+    {
+        init( pageId );
+
+        for ( int i = 0; i < 10_000; i++ )
+        {
+            pageList.incrementUsageSampled( pageRef );
+        }
+        assertFalse( pageList.decrementUsage( pageRef ) );
+        assertFalse( pageList.decrementUsage( pageRef ) );
+        assertFalse( pageList.decrementUsage( pageRef ) );
+        assertTrue( pageList.decrementUsage( pageRef ) );
+        assertTrue( pageList.decrementUsage( pageRef ) );
+        assertTrue( pageList.decrementUsage( prevPageRef ) );
+        assertTrue( pageList.decrementUsage( nextPageRef ) );
+    }
+
     @ParameterizedTest( name = "pageRef = {0}" )
     @MethodSource( "argumentsProvider" )
     public void incrementingUsageCounterMustNotInterfereWithAdjacentUsageCounters( int pageId )
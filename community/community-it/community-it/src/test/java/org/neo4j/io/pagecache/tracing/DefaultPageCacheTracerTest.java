@@ -24,9 +24,12 @@ import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
 
 import org.neo4j.io.ByteUnit;
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.monitoring.PagedFileCounters;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.within;
@@ -208,6 +211,89 @@ public class DefaultPageCacheTracerTest
         assertThat( tracer.usageRatio() ).isCloseTo( 0, within( 0.0001 ) );
     }
 
+    @Test
+    void mustNotBreakActivityDownByFileUnlessAsked()
+    {
+        assertThat( tracer.pagedFileTracer( Path.of( "a" ) ) ).isSameAs( PagedFileTracer.NULL );
+        assertThat( tracer.pagedFileCounters() ).isEmpty();
+    }
+
+    @Test
+    void mustBreakActivityDownByFile()
+    {
+        tracer = new DefaultPageCacheTracer( true );
+        PagedFileTracer a = tracer.pagedFileTracer( Path.of( "a" ) );
+        PagedFileTracer b = tracer.pagedFileTracer( Path.of( "b" ) );
+        assertThat( tracer.pagedFileTracer( Path.of( "a" ) ) ).isSameAs( a );
+
+        a.hit( false );
+        a.hit( true );
+        a.hit( false );
+        a.faulted( false, 8192, TimeUnit.MICROSECONDS.toNanos( 3 ) );
+        a.flushed( 3, 3 * 8192 );
+        b.faulted( true, 100, 10 );
+        b.evicted();
+
+        assertThat( tracer.pagedFileCounters() ).hasSize( 2 );
+        PagedFileCounters countersA = counters( Path.of( "a" ) );
+        assertThat( countersA.hits() ).isEqualTo( 3 );
+        assertThat( countersA.readCursorHits() ).isEqualTo( 2 );
+        assertThat( countersA.writeCursorHits() ).isEqualTo( 1 );
+        assertThat( countersA.faults() ).isEqualTo( 1 );
+        assertThat( countersA.readCursorFaults() ).isEqualTo( 1 );
+        assertThat( countersA.writeCursorFaults() ).isZero();
+        assertThat( countersA.bytesRead() ).isEqualTo( 8192 );
+        assertThat( countersA.flushes() ).isEqualTo( 3 );
+        assertThat( countersA.bytesWritten() ).isEqualTo( 3 * 8192 );
+        assertThat( countersA.evictions() ).isZero();
+        PagedFileCounters countersB = counters( Path.of( "b" ) );
+        assertThat( countersB.hits() ).isZero();
+        assertThat( countersB.faults() ).isEqualTo( 1 );
+        assertThat( countersB.writeCursorFaults() ).isEqualTo( 1 );
+        assertThat( countersB.bytesRead() ).isEqualTo( 100 );
+        assertThat( countersB.evictions() ).isEqualTo( 1 );
+    }
+
+    @Test
+    void mustForgetCountersOfUnmappedFiles()
+    {
+        tracer = new DefaultPageCacheTracer( true );
+        PagedFileTracer a = tracer.pagedFileTracer( Path.of( "a" ) );
+        tracer.pagedFileTracer( Path.of( "b" ) );
+        a.hit( false );
+
+        tracer.unmappedFile( Path.of( "a" ) );
+
+        assertThat( tracer.pagedFileCounters() ).extracting( PagedFileCounters::path ).containsExactly( Path.of( "b" ) );
+        assertThat( tracer.pagedFileTracer( Path.of( "a" ) ) ).isNotSameAs( a );
+        assertThat( counters( Path.of( "a" ) ).hits() ).isZero();
+    }
+
+    @Test
+    void mustBucketFaultLatenciesByPowersOfTwoMicroseconds()
+    {
+        DefaultPagedFileTracer fileTracer = new DefaultPagedFileTracer( Path.of( "a" ) );
+        fileTracer.faulted( false, 0, 500 );
+        fileTracer.faulted( false, 0, TimeUnit.MICROSECONDS.toNanos( 1 ) );
+        fileTracer.faulted( false, 0, TimeUnit.MICROSECONDS.toNanos( 3 ) );
+        fileTracer.faulted( false, 0, TimeUnit.MICROSECONDS.toNanos( 4 ) );
+        fileTracer.faulted( false, 0, TimeUnit.MICROSECONDS.toNanos( 7 ) );
+        fileTracer.faulted( false, 0, TimeUnit.DAYS.toNanos( 1 ) );
+
+        long[] histogram = fileTracer.faultLatencyHistogram();
+        assertThat( histogram[0] ).isEqualTo( 1 );
+        assertThat( histogram[1] ).isEqualTo( 1 );
+        assertThat( histogram[2] ).isEqualTo( 1 );
+        assertThat( histogram[3] ).isEqualTo( 2 );
+        assertThat( histogram[histogram.length - 1] ).isEqualTo( 1 );
+        assertThat( LongStream.of( histogram ).sum() ).isEqualTo( fileTracer.faults() );
+    }
+
+    private PagedFileCounters counters( Path path )
+    {
+        return tracer.pagedFileCounters().stream().filter( counters -> counters.path().equals( path ) ).findFirst().orElseThrow();
+    }
+
     private void assertCounts( long pins, long unpins, long hits, long faults, long evictions, long evictionExceptions, long flushes, long merges,
             long bytesRead, long bytesWritten, long filesMapped, long filesUnmapped, double hitRatio )
     {
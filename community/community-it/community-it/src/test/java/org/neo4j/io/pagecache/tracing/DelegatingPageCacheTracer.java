@@ -20,8 +20,10 @@
 package org.neo4j.io.pagecache.tracing;
 
 import java.nio.file.Path;
+import java.util.Collection;
 
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.monitoring.PagedFileCounters;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 
 /**
@@ -110,12 +112,36 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         delegate.unmappedFile( path );
     }
 
+    @Override
+    public PagedFileTracer pagedFileTracer( Path path )
+    {
+        return delegate.pagedFileTracer( path );
+    }
+
     @Override
     public long evictionExceptions()
     {
         return delegate.evictionExceptions();
     }
 
+    @Override
+    public long residencyProtections()
+    {
+        return delegate.residencyProtections();
+    }
+
+    @Override
+    public long residencyEvictions()
+    {
+        return delegate.residencyEvictions();
+    }
+
+    @Override
+    public Collection<PagedFileCounters> pagedFileCounters()
+    {
+        return delegate.pagedFileCounters();
+    }
+
     @Override
     public double hitRatio()
     {
@@ -170,6 +196,18 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         delegate.evictionExceptions( evictionExceptions );
     }
 
+    @Override
+    public void residencyProtections( long residencyProtections )
+    {
+        delegate.residencyProtections( residencyProtections );
+    }
+
+    @Override
+    public void residencyEvictions( long residencyEvictions )
+    {
+        delegate.residencyEvictions( residencyEvictions );
+    }
+
     @Override
     public void bytesWritten( long bytesWritten )
     {
@@ -20,11 +20,15 @@
 package org.neo4j.io.pagecache.tracing.linear;
 
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
 
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.monitoring.PagedFileCounters;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PagedFileTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 
 import static org.neo4j.io.pagecache.tracing.linear.HEvents.EvictionRunHEvent;
@@ -67,6 +71,12 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
         tracer.add( new UnmappedFileHEvent( path ) );
     }
 
+    @Override
+    public PagedFileTracer pagedFileTracer( Path path )
+    {
+        return PagedFileTracer.NULL;
+    }
+
     @Override
     public EvictionRunEvent beginPageEvictions( int pageCountToEvict )
     {
@@ -157,6 +167,24 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
         return 0;
     }
 
+    @Override
+    public long residencyProtections()
+    {
+        return 0;
+    }
+
+    @Override
+    public long residencyEvictions()
+    {
+        return 0;
+    }
+
+    @Override
+    public Collection<PagedFileCounters> pagedFileCounters()
+    {
+        return Collections.emptyList();
+    }
+
     @Override
     public double hitRatio()
     {
@@ -204,6 +232,16 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
     {
     }
 
+    @Override
+    public void residencyProtections( long residencyProtections )
+    {
+    }
+
+    @Override
+    public void residencyEvictions( long residencyEvictions )
+    {
+    }
+
     @Override
     public void bytesWritten( long bytesWritten )
     {
@@ -21,14 +21,18 @@ package org.neo4j.io.pagecache.tracing.recording;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.monitoring.PagedFileCounters;
 import org.neo4j.io.pagecache.tracing.EvictionEvent;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PagedFileTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 
 public class RecordingPageCacheTracer extends RecordingTracer implements PageCacheTracer
@@ -60,6 +64,12 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
         // we currently do not record these
     }
 
+    @Override
+    public PagedFileTracer pagedFileTracer( Path path )
+    {
+        return PagedFileTracer.NULL;
+    }
+
     @Override
     public EvictionRunEvent beginPageEvictions( int pageCountToEvict )
     {
@@ -162,6 +172,24 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
         return 0;
     }
 
+    @Override
+    public long residencyProtections()
+    {
+        return 0;
+    }
+
+    @Override
+    public long residencyEvictions()
+    {
+        return 0;
+    }
+
+    @Override
+    public Collection<PagedFileCounters> pagedFileCounters()
+    {
+        return Collections.emptyList();
+    }
+
     @Override
     public double hitRatio()
     {
@@ -212,6 +240,16 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
     {
     }
 
+    @Override
+    public void residencyProtections( long residencyProtections )
+    {
+    }
+
+    @Override
+    public void residencyEvictions( long residencyEvictions )
+    {
+    }
+
     @Override
     public void bytesWritten( long bytesWritten )
     {
@@ -53,6 +53,7 @@ import org.neo4j.io.fs.FileUtils;
 import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
 import org.neo4j.kernel.impl.pagecache.ConfiguringPageCacheFactory;
 import org.neo4j.kernel.impl.scheduler.JobSchedulerFactory;
@@ -314,6 +315,57 @@ public class ConsistencyCheckServiceIntegrationTest
         assertTrue( result.isSuccessful() );
     }
 
+    @Test
+    void incrementalCheckShouldSucceedIfChangedRecordsAreConsistent() throws Exception
+    {
+        // given
+        long fromTransactionId = lastCommittedTransactionId() + 1;
+        Label label = Label.label( "Item" );
+        createIndex( label, "key" );
+        fixture.apply( tx ->
+        {
+            Node node1 = set( tx.createNode( label ), property( "key", "value" ) );
+            Node node2 = set( tx.createNode(), property( "key", 1 ) );
+            node1.createRelationshipTo( node2, RelationshipType.withName( "C" ) );
+        } );
+
+        // when
+        Result result = runIncrementalConsistencyCheck( new ConsistencyCheckService(), Config.defaults( settings() ), fromTransactionId );
+
+        // then
+        assertTrue( result.isSuccessful() );
+    }
+
+    @Test
+    void incrementalCheckShouldFailIfChangedRecordsAreNotConsistent() throws Exception
+    {
+        // given
+        long fromTransactionId = lastCommittedTransactionId() + 1;
+        breakNodeStore();
+
+        // when
+        Result result = runIncrementalConsistencyCheck( new ConsistencyCheckService(), Config.defaults( settings() ), fromTransactionId );
+
+        // then
+        assertFalse( result.isSuccessful() );
+        assertThat( Files.readString( result.reportFile() ) ).contains( "The referenced relationship record is not in use." );
+    }
+
+    @Test
+    void incrementalCheckShouldOnlyCheckRecordsChangedByTransactions() throws Exception
+    {
+        // given a relationship chain broken outside of any transaction
+        prepareDbWithDeletedRelationshipPartOfTheChain();
+        long fromTransactionId = lastCommittedTransactionId() + 1;
+        fixture.apply( tx -> set( tx.createNode(), property( "key", "value" ) ) );
+
+        // when
+        Result result = runIncrementalConsistencyCheck( new ConsistencyCheckService(), Config.defaults( settings() ), fromTransactionId );
+
+        // then
+        assertTrue( result.isSuccessful() );
+    }
+
     private void createIndex( Label label, String propKey )
     {
         fixture.apply( tx -> tx.schema().indexFor( label ).on( propKey ).create() );
@@ -421,6 +473,27 @@ public class ConsistencyCheckServiceIntegrationTest
                 configuration, ProgressMonitorFactory.NONE, NullLogProvider.getInstance(), false );
     }
 
+    private long lastCommittedTransactionId()
+    {
+        return fixture.neoStores().getMetaDataStore().getLastCommittedTransactionId();
+    }
+
+    private Result runIncrementalConsistencyCheck( ConsistencyCheckService service, Config configuration, long fromTransactionId )
+            throws ConsistencyCheckIncompleteException
+    {
+        fixture.close();
+        JobScheduler jobScheduler = JobSchedulerFactory.createScheduler();
+        ConfiguringPageCacheFactory pageCacheFactory =
+                new ConfiguringPageCacheFactory( fs, configuration, PageCacheTracer.NULL, NullLog.getInstance(), EmptyVersionContextSupplier.EMPTY,
+                        jobScheduler, Clocks.nanoClock(), new MemoryPools( false ) );
+        try ( Lifespan life = new Lifespan( jobScheduler );
+              PageCache pageCache = pageCacheFactory.getOrCreatePageCache() )
+        {
+            return service.runIncrementalConsistencyCheck( fixture.databaseLayout(), configuration, ProgressMonitorFactory.NONE,
+                    NullLogProvider.getInstance(), fs, pageCache, false, ConsistencyFlags.DEFAULT, fromTransactionId, PageCacheTracer.NULL, INSTANCE );
+        }
+    }
+
     protected String getRecordFormatName()
     {
         return StringUtils.EMPTY;
@@ -174,7 +174,10 @@ class CheckerTestBase
     @AfterEach
     void tearDownDb()
     {
-        countsState.close();
+        if ( countsState != null )
+        {
+            countsState.close();
+        }
         dbms.shutdown();
     }
 
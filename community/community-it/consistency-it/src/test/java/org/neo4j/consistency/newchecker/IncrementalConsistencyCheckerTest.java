@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.consistency.newchecker;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.consistency.LookupAccessorsFromRunningDb;
+import org.neo4j.consistency.RecordType;
+import org.neo4j.consistency.checking.full.ConsistencyFlags;
+import org.neo4j.consistency.checking.index.IndexAccessors;
+import org.neo4j.consistency.report.ConsistencySummaryStatistics;
+import org.neo4j.consistency.report.InconsistencyMessageLogger;
+import org.neo4j.consistency.report.InconsistencyReport;
+import org.neo4j.exceptions.KernelException;
+import org.neo4j.internal.helpers.collection.LongRange;
+import org.neo4j.internal.helpers.progress.ProgressMonitorFactory;
+import org.neo4j.internal.recordstorage.Command;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.impl.api.index.IndexProviderMap;
+import org.neo4j.kernel.impl.api.index.IndexSamplingConfig;
+import org.neo4j.kernel.impl.api.index.IndexingService;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.RecordLoad;
+import org.neo4j.kernel.impl.store.record.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.logging.NullLog;
+import org.neo4j.token.TokenHolders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.configuration.GraphDatabaseSettings.neo4j_home;
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+
+class IncrementalConsistencyCheckerTest extends CheckerTestBase
+{
+    private int type;
+    private ChangedRecords changes;
+
+    @Override
+    void initialData( KernelTransaction tx ) throws KernelException
+    {
+        type = tx.tokenWrite().relationshipTypeGetOrCreateForName( "A" );
+    }
+
+    @BeforeEach
+    void setUpChanges()
+    {
+        changes = new ChangedRecords();
+    }
+
+    @Test
+    void shouldReportInconsistentChangedNode() throws Exception
+    {
+        // given
+        try ( AutoCloseable ignored = tx() )
+        {
+            // (N) referencing a relationship which is not in use
+            long node = node( nodeStore.nextId( PageCursorTracer.NULL ), relationshipStore.nextId( PageCursorTracer.NULL ), false );
+            changedNode( node );
+        }
+
+        // when
+        ConsistencySummaryStatistics summary = check();
+
+        // then
+        assertThat( summary.getInconsistencyCountForRecordType( RecordType.NODE ) ).isEqualTo( 1 );
+        assertThat( summary.getTotalInconsistencyCount() ).isEqualTo( 1 );
+    }
+
+    @Test
+    void shouldReportInconsistentChangedRelationship() throws Exception
+    {
+        // given
+        try ( AutoCloseable ignored = tx() )
+        {
+            // (N)-[R]->(N) where the source node is not in use
+            long relationship = relationshipStore.nextId( PageCursorTracer.NULL );
+            long source = nodeStore.nextId( PageCursorTracer.NULL );
+            long target = node( nodeStore.nextId( PageCursorTracer.NULL ), relationship, false );
+            relationship( relationship, source, target, type, NULL, NULL, NULL, NULL, true, true );
+            changedRelationship( relationship );
+        }
+
+        // when
+        ConsistencySummaryStatistics summary = check();
+
+        // then
+        assertThat( summary.getInconsistencyCountForRecordType( RecordType.RELATIONSHIP ) ).isGreaterThan( 0 );
+    }
+
+    @Test
+    void shouldReportInconsistentChangedRelationshipGroup() throws Exception
+    {
+        // given
+        try ( AutoCloseable ignored = tx() )
+        {
+            // Dense (N) with a group referencing an outgoing relationship which is not in use
+            long group = relationshipGroupStore.nextId( PageCursorTracer.NULL );
+            long node = node( nodeStore.nextId( PageCursorTracer.NULL ), group, true );
+            relationshipGroup( group, NULL, node, type, relationshipStore.nextId( PageCursorTracer.NULL ), NULL, NULL );
+            changedRelationshipGroup( group );
+        }
+
+        // when
+        ConsistencySummaryStatistics summary = check();
+
+        // then
+        assertThat( summary.getInconsistencyCountForRecordType( RecordType.RELATIONSHIP_GROUP ) ).isEqualTo( 1 );
+        assertThat( summary.getTotalInconsistencyCount() ).isEqualTo( 1 );
+    }
+
+    @Test
+    void shouldNotReportInconsistentUnchangedNeighbours() throws Exception
+    {
+        // given
+        try ( AutoCloseable ignored = tx() )
+        {
+            // Inconsistent nodes, relationship and group with ids next to those of consistent changed records
+            node( nodeStore.nextId( PageCursorTracer.NULL ), relationshipStore.nextId( PageCursorTracer.NULL ), false );
+            long relationship = relationshipStore.nextId( PageCursorTracer.NULL );
+            long source = node( nodeStore.nextId( PageCursorTracer.NULL ), relationship, false );
+            long target = node( nodeStore.nextId( PageCursorTracer.NULL ), relationship, false );
+            relationship( relationship, source, target, type, NULL, NULL, NULL, NULL, true, true );
+            relationship( relationshipStore.nextId( PageCursorTracer.NULL ), nodeStore.nextId( PageCursorTracer.NULL ),
+                    nodeStore.nextId( PageCursorTracer.NULL ), type, NULL, NULL, NULL, NULL, true, true );
+            long group = relationshipGroupStore.nextId( PageCursorTracer.NULL );
+            long denseNode = node( nodeStore.nextId( PageCursorTracer.NULL ), group, true );
+            relationshipGroup( group, NULL, denseNode, type, NULL, NULL, NULL );
+            relationshipGroup( relationshipGroupStore.nextId( PageCursorTracer.NULL ), NULL, denseNode, type,
+                    relationshipStore.nextId( PageCursorTracer.NULL ), NULL, NULL );
+            node( nodeStore.nextId( PageCursorTracer.NULL ), relationshipStore.nextId( PageCursorTracer.NULL ), false );
+            changedRelationship( relationship );
+            changedRelationshipGroup( group );
+        }
+
+        // when
+        ConsistencySummaryStatistics summary = check();
+
+        // then
+        assertThat( summary.isConsistent() ).isTrue();
+    }
+
+    @Test
+    void shouldReportInconsistentChangedNodesAmongManyAdjacentChangedNodes() throws Exception
+    {
+        // given
+        try ( AutoCloseable ignored = tx() )
+        {
+            // A run of adjacent changed nodes, checked as one range, where every third node references a relationship which is not in use
+            for ( int i = 0; i < 30; i++ )
+            {
+                long nextRel = i % 3 == 0 ? relationshipStore.nextId( PageCursorTracer.NULL ) : NULL;
+                changedNode( node( nodeStore.nextId( PageCursorTracer.NULL ), nextRel, false ) );
+            }
+        }
+
+        // when
+        ConsistencySummaryStatistics summary = check();
+
+        // then
+        assertThat( summary.getInconsistencyCountForRecordType( RecordType.NODE ) ).isEqualTo( 10 );
+    }
+
+    @Test
+    void shouldMergeAdjacentIdsIntoRanges()
+    {
+        long[] ids = {1, 2, 3, 5, 7, 8, 10};
+
+        assertThat( IncrementalConsistencyChecker.idRanges( ids, 0, ids.length ) ).extracting( LongRange::toString ).containsExactly(
+                LongRange.range( 1, 4 ).toString(), LongRange.range( 5, 6 ).toString(), LongRange.range( 7, 9 ).toString(),
+                LongRange.range( 10, 11 ).toString() );
+        assertThat( IncrementalConsistencyChecker.idRanges( ids, 1, 5 ) ).extracting( LongRange::toString ).containsExactly(
+                LongRange.range( 2, 4 ).toString(), LongRange.range( 5, 6 ).toString(), LongRange.range( 7, 8 ).toString() );
+        assertThat( IncrementalConsistencyChecker.idRanges( ids, 3, 3 ) ).isEmpty();
+    }
+
+    private long node( long id, long nextRel, boolean dense )
+    {
+        NodeRecord node = new NodeRecord( id ).initialize( true, NULL, dense, nextRel, 0 );
+        nodeStore.updateRecord( node, PageCursorTracer.NULL );
+        return id;
+    }
+
+    private void changedNode( long id ) throws Exception
+    {
+        changes.visit( new Command.NodeCommand( new NodeRecord( id ), loadNode( id ) ) );
+    }
+
+    private void changedRelationship( long id ) throws Exception
+    {
+        RelationshipRecord relationship = relationshipStore.getRecord( id, relationshipStore.newRecord(), RecordLoad.NORMAL, PageCursorTracer.NULL );
+        changes.visit( new Command.RelationshipCommand( new RelationshipRecord( id ), relationship ) );
+    }
+
+    private void changedRelationshipGroup( long id ) throws Exception
+    {
+        RelationshipGroupRecord group =
+                relationshipGroupStore.getRecord( id, relationshipGroupStore.newRecord(), RecordLoad.NORMAL, PageCursorTracer.NULL );
+        changes.visit( new Command.RelationshipGroupCommand( new RelationshipGroupRecord( id ), group ) );
+    }
+
+    private ConsistencySummaryStatistics check() throws Exception
+    {
+        Config config = Config.defaults( neo4j_home, directory.homePath() );
+        IndexProviderMap indexProviders = db.getDependencyResolver().resolveDependency( IndexProviderMap.class );
+        IndexingService indexingService = db.getDependencyResolver().resolveDependency( IndexingService.class );
+        TokenHolders tokenHolders = db.getDependencyResolver().resolveDependency( TokenHolders.class );
+        PageCache pageCache = db.getDependencyResolver().resolveDependency( PageCache.class );
+        ConsistencySummaryStatistics summary = new ConsistencySummaryStatistics();
+        InconsistencyReport report = new InconsistencyReport( new InconsistencyMessageLogger( NullLog.getInstance() ), summary );
+        try ( IndexAccessors indexAccessors = new IndexAccessors( indexProviders, neoStores, new IndexSamplingConfig( config ),
+                      new LookupAccessorsFromRunningDb( indexingService, false ), PageCacheTracer.NULL, tokenHolders );
+              IncrementalConsistencyChecker checker = new IncrementalConsistencyChecker( pageCache, neoStores, changes, labelIndex, relationshipTypeIndex,
+                      indexAccessors, report, ProgressMonitorFactory.NONE, false, ConsistencyFlags.DEFAULT, NodeBasedMemoryLimiter.DEFAULT,
+                      PageCacheTracer.NULL, INSTANCE ) )
+        {
+            checker.check();
+        }
+        return summary;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.javacompat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
+import org.neo4j.cypher.internal.ExecutionEngineQueryCacheMonitor;
+import org.neo4j.cypher.internal.QueryCache;
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.internal.helpers.collection.Pair;
+import org.neo4j.kernel.impl.query.QueryExecutionEngine;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.monitoring.Monitors;
+import org.neo4j.test.TestDatabaseManagementServiceBuilder;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.testdirectory.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
+import static org.neo4j.test.assertion.Assert.assertEventually;
+
+@TestDirectoryExtension
+class QueryCacheWarmupIT
+{
+    private static final String PARAMETERIZED_QUERY = "MATCH (n:Person) WHERE n.name = $name RETURN n";
+    private static final String LITERAL_QUERY = "MATCH (n:Person) WHERE n.name = 'Alice' RETURN n";
+
+    @Inject
+    private TestDirectory directory;
+    private DatabaseManagementService managementService;
+
+    @AfterEach
+    void tearDown()
+    {
+        if ( managementService != null )
+        {
+            managementService.shutdown();
+        }
+    }
+
+    @Test
+    void shouldWarmUpQueryCacheWithParameterizedQueriesOnRestart()
+    {
+        GraphDatabaseAPI db = startDatabase();
+        execute( db, PARAMETERIZED_QUERY, Map.of( "name", "Bob" ) );
+        execute( db, LITERAL_QUERY, Map.of() );
+        managementService.shutdown();
+
+        GraphDatabaseAPI restarted = startDatabase();
+        assertEventually( () -> cachedQueries( restarted ), queries -> queries.contains( PARAMETERIZED_QUERY ), 1, MINUTES );
+
+        CompilationCounter counter = new CompilationCounter();
+        restarted.getDependencyResolver().resolveDependency( Monitors.class ).addMonitorListener( counter );
+        execute( restarted, PARAMETERIZED_QUERY, Map.of( "name", "Carol" ) );
+        assertThat( counter.hits.get() ).isEqualTo( 1 );
+        assertThat( counter.compilations.get() ).isZero();
+
+        // Queries with literals are not written to the warm-up file, so they are compiled when they are first executed.
+        execute( restarted, LITERAL_QUERY, Map.of() );
+        assertThat( counter.compilations.get() ).isEqualTo( 1 );
+    }
+
+    private GraphDatabaseAPI startDatabase()
+    {
+        managementService = new TestDatabaseManagementServiceBuilder( directory.homePath() )
+                .setConfig( GraphDatabaseInternalSettings.cypher_query_cache_warmup_enabled, true )
+                .build();
+        return (GraphDatabaseAPI) managementService.database( DEFAULT_DATABASE_NAME );
+    }
+
+    private static void execute( GraphDatabaseAPI db, String query, Map<String,Object> parameters )
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            tx.execute( query, parameters ).close();
+            tx.commit();
+        }
+    }
+
+    private static List<String> cachedQueries( GraphDatabaseAPI db )
+    {
+        ExecutionEngine engine = (ExecutionEngine) db.getDependencyResolver().resolveDependency( QueryExecutionEngine.class );
+        return engine.getCypherExecutionEngine().cachedQueries().stream().map( Pair::first ).collect( Collectors.toList() );
+    }
+
+    private static class CompilationCounter implements ExecutionEngineQueryCacheMonitor
+    {
+        private final AtomicInteger hits = new AtomicInteger();
+        private final AtomicInteger compilations = new AtomicInteger();
+
+        @Override
+        public void cacheHit( Pair<String,QueryCache.ParameterTypeMap> key )
+        {
+            hits.incrementAndGet();
+        }
+
+        @Override
+        public void cacheCompile( Pair<String,QueryCache.ParameterTypeMap> key )
+        {
+            compilations.incrementAndGet();
+        }
+
+        @Override
+        public void cacheCompileWithExpressionCodeGen( Pair<String,QueryCache.ParameterTypeMap> key )
+        {
+            compilations.incrementAndGet();
+        }
+    }
+}
@@ -242,6 +242,13 @@ public class GraphDatabaseInternalSettings implements SettingsDeclaration
     public static final Setting<Integer> cypher_pipelined_operator_fusion_over_pipeline_limit =
             newBuilder( "unsupported.cypher.pipelined.operator_fusion_over_pipeline_limit", INT, 8 ).build();
 
+    @Internal
+    @Description( "Enable warm-up of the query cache. When a database stops, the texts and parameter types of the queries in its query cache are " +
+                  "written to a file in the database directory. When the database starts again, those queries are planned again in the background, " +
+                  "so that the query cache does not start out cold. Plans compiled this way are subject to the usual staleness checks." )
+    public static final Setting<Boolean> cypher_query_cache_warmup_enabled =
+            newBuilder( "unsupported.cypher.query_cache_warmup_enabled", BOOL, false ).build();
+
     public enum CypherParser
     {
         DEFAULT, PARBOILED, JAVACC
@@ -325,6 +332,13 @@ public class GraphDatabaseInternalSettings implements SettingsDeclaration
     public static final Setting<Integer> index_population_workers =
             newBuilder( "unsupported.dbms.index_population.workers", INT, 8 ).addConstraint( min( 0 ) ).build();
 
+    @Internal
+    @Description( "How long a scheduled index population waits before it starts scanning the store. " +
+            "Indexes created separately while a population is waiting to start join it and are populated by the same store scan, " +
+            "instead of scanning the store once per index. Zero means that populations start as soon as there is a thread available for them." )
+    public static final Setting<Duration> index_population_coalescing_window =
+            newBuilder( "unsupported.dbms.index_population.coalescing_window", DURATION, Duration.ZERO ).build();
+
     @Internal
     @Description( "The default index provider used for managing full-text indexes. Only 'fulltext-1.0' is supported." )
     public static final Setting<String> default_fulltext_provider =
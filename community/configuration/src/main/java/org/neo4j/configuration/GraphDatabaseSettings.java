@@ -545,6 +545,15 @@ public class GraphDatabaseSettings implements SettingsDeclaration
     @Description( "Specify if Neo4j should try to preallocate logical log file in advance." )
     public static final Setting<Boolean> preallocate_logical_logs = newBuilder( "dbms.tx_log.preallocate", BOOL, true ).dynamic().build();
 
+    @Description( "Specify if Neo4j should recycle pruned logical log files as future log files instead of deleting them. " +
+            "Recycled files are cleared when pruned and keep their allocated space, so that log rotation does not have to create and allocate a new file." )
+    public static final Setting<Boolean> recycle_logical_logs = newBuilder( "dbms.tx_log.recycle", BOOL, false ).dynamic().build();
+
+    @Description( "If `true`, the commands of larger transactions are compressed before being appended to the transaction log. " +
+            "This reduces the size of the transaction logs at the expense of some CPU when committing and reading transactions. " +
+            "Transaction logs containing compressed transactions can not be read by earlier versions of Neo4j." )
+    public static final Setting<Boolean> compress_logical_logs = newBuilder( "dbms.tx_log.compress", BOOL, false ).dynamic().build();
+
     @Description( "If `true`, Neo4j will abort recovery if transaction log files are missing. Setting " +
             "this to `false` will allow Neo4j to create new empty missing files for the already existing  " +
             "database, but the integrity of the database might be compromised." )
@@ -582,15 +591,13 @@ public class GraphDatabaseSettings implements SettingsDeclaration
             newBuilder( "dbms.memory.pagecache.flush.buffer.size_in_pages", INT, 128 ).addConstraint( range( 1, 512 ) ).dynamic().build();
 
     @Description( "The profiling frequency for the page cache. Accurate profiles allow the page cache to do active " +
-            "warmup after a restart, reducing the mean time to performance. " +
-            "This feature available in Neo4j Enterprise Edition." )
+            "warmup after a restart, reducing the mean time to performance." )
     public static final Setting<Duration> pagecache_warmup_profiling_interval =
             newBuilder( "dbms.memory.pagecache.warmup.profile.interval", DURATION, ofMinutes( 1 ) ).build();
 
     @Description( "Page cache can be configured to perform usage sampling of loaded pages that can be used to construct active load profile. " +
             "According to that profile pages can be reloaded on the restart, replication, etc. " +
-            "This setting allows disabling that behavior. " +
-            "This feature available in Neo4j Enterprise Edition." )
+            "This setting allows disabling that behavior." )
     public static final Setting<Boolean> pagecache_warmup_enabled =
             newBuilder( "dbms.memory.pagecache.warmup.enable", BOOL, true ).build();
 
@@ -615,6 +622,24 @@ public class GraphDatabaseSettings implements SettingsDeclaration
     public static final Setting<Boolean> pagecache_direct_io =
             newBuilder( "dbms.memory.pagecache.directio", BOOL, false ).build();
 
+    @Description( "Advise the operating system to back page cache memory by transparent huge pages, to reduce the number of TLB misses when " +
+            "randomly accessing a large page cache. Page cache memory is then reserved in large regions that are aligned to the huge page size. " +
+            "Setting is supported only on Linux, with transparent huge pages enabled in either 'always' or 'madvise' mode." )
+    public static final Setting<Boolean> pagecache_huge_pages =
+            newBuilder( "dbms.memory.pagecache.huge_pages", BOOL, false ).build();
+
+    @Description( "Partition the page cache by NUMA node, such that every node has its own free list and eviction thread, and page faults " +
+            "prefer memory of the node the faulting thread runs on. Setting is supported only on Linux, and has no effect on machines " +
+            "with a single NUMA node." )
+    public static final Setting<Boolean> pagecache_numa_aware =
+            newBuilder( "dbms.memory.pagecache.numa_aware", BOOL, false ).build();
+
+    @Description( "Break the page cache hits, faults, flushes, evictions and page fault latencies down by mapped file, in addition to " +
+            "the totals for the page cache as a whole. This makes it possible to tell which store or index files cause page faults, " +
+            "at the cost of some extra tracing overhead on every page access." )
+    public static final Setting<Boolean> pagecache_per_file_metrics =
+            newBuilder( "dbms.memory.pagecache.per_file_metrics", BOOL, false ).build();
+
     @Description( "Allows the enabling or disabling of the file watcher service." +
             " This is an auxiliary service but should be left enabled in almost all cases." )
     public static final Setting<Boolean> filewatcher_enabled = newBuilder( "dbms.filewatcher.enabled", BOOL, true ).build();
@@ -29,6 +29,8 @@ import org.neo4j.configuration.GraphDatabaseSettings;
 import org.neo4j.consistency.checking.full.ConsistencyCheckIncompleteException;
 import org.neo4j.consistency.checking.full.ConsistencyFlags;
 import org.neo4j.consistency.checking.full.FullCheck;
+import org.neo4j.consistency.newchecker.ChangedRecords;
+import org.neo4j.consistency.newchecker.IncrementalConsistencyChecker;
 import org.neo4j.consistency.newchecker.NodeBasedMemoryLimiter;
 import org.neo4j.consistency.report.ConsistencySummaryStatistics;
 import org.neo4j.consistency.statistics.AccessStatistics;
@@ -48,6 +50,7 @@ import org.neo4j.internal.id.DefaultIdGeneratorFactory;
 import org.neo4j.internal.index.label.LabelScanStore;
 import org.neo4j.internal.index.label.RelationshipTypeScanStore;
 import org.neo4j.internal.index.label.TokenScanStore;
+import org.neo4j.internal.recordstorage.RecordStorageCommandReaderFactory;
 import org.neo4j.internal.recordstorage.StoreTokens;
 import org.neo4j.io.fs.DefaultFileSystemAbstraction;
 import org.neo4j.io.fs.FileSystemAbstraction;
@@ -63,6 +66,7 @@ import org.neo4j.kernel.impl.scheduler.JobSchedulerFactory;
 import org.neo4j.kernel.impl.store.NeoStores;
 import org.neo4j.kernel.impl.store.StoreAccess;
 import org.neo4j.kernel.impl.store.StoreFactory;
+import org.neo4j.kernel.impl.transaction.log.ReadOnlyTransactionStore;
 import org.neo4j.kernel.impl.transaction.state.DefaultIndexProviderMap;
 import org.neo4j.kernel.lifecycle.LifeSupport;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
@@ -201,6 +205,70 @@ public class ConsistencyCheckService
             ProgressMonitorFactory progressFactory, final LogProvider logProvider, final FileSystemAbstraction fileSystem, final PageCache pageCache,
             final boolean verbose, Path reportDir, ConsistencyFlags consistencyFlags, PageCacheTracer pageCacheTracer, MemoryTracker memoryTracker )
             throws ConsistencyCheckIncompleteException
+    {
+        return runConsistencyCheck( databaseLayout, config, logProvider, fileSystem, pageCache, verbose, reportDir, pageCacheTracer, memoryTracker,
+                ( stores, statistics, numberOfThreads, countsManager, log ) ->
+                {
+                    FullCheck check = new FullCheck( progressFactory, statistics, numberOfThreads, consistencyFlags, config, verbose,
+                            NodeBasedMemoryLimiter.DEFAULT );
+                    return check.execute( pageCache, stores, countsManager, null, pageCacheTracer, memoryTracker, log );
+                } );
+    }
+
+    public Result runIncrementalConsistencyCheck( DatabaseLayout databaseLayout, Config config, ProgressMonitorFactory progressFactory,
+            LogProvider logProvider, FileSystemAbstraction fileSystem, PageCache pageCache, boolean verbose, ConsistencyFlags consistencyFlags,
+            long fromTransactionId, PageCacheTracer pageCacheTracer, MemoryTracker memoryTracker ) throws ConsistencyCheckIncompleteException
+    {
+        return runIncrementalConsistencyCheck( databaseLayout, config, progressFactory, logProvider, fileSystem, pageCache, verbose,
+                defaultReportDir( config ), consistencyFlags, fromTransactionId, pageCacheTracer, memoryTracker );
+    }
+
+    /**
+     * Checks the records changed by the transactions from {@code fromTransactionId} and onwards, as read from the transaction logs of the database,
+     * instead of the whole store. This is meant for keeping a store which has been fully checked at some point verified, where {@code fromTransactionId}
+     * is the transaction after the last transaction covered by the previous check, see {@link IncrementalConsistencyChecker} for what is checked.
+     * All transactions from {@code fromTransactionId} must still be available in the transaction logs.
+     */
+    public Result runIncrementalConsistencyCheck( DatabaseLayout databaseLayout, Config config, ProgressMonitorFactory progressFactory,
+            LogProvider logProvider, FileSystemAbstraction fileSystem, PageCache pageCache, boolean verbose, Path reportDir, ConsistencyFlags consistencyFlags,
+            long fromTransactionId, PageCacheTracer pageCacheTracer, MemoryTracker memoryTracker ) throws ConsistencyCheckIncompleteException
+    {
+        return runConsistencyCheck( databaseLayout, config, logProvider, fileSystem, pageCache, verbose, reportDir, pageCacheTracer, memoryTracker,
+                ( stores, statistics, numberOfThreads, countsManager, log ) ->
+                {
+                    ChangedRecords changes = readChangedRecords( databaseLayout, config, fileSystem, pageCache, fromTransactionId );
+                    log.info( "Checking records changed by %d transactions from %d to %d", changes.numberOfTransactions(), fromTransactionId,
+                            changes.lastTransactionId() );
+                    FullCheck check = new FullCheck( progressFactory, statistics, numberOfThreads, consistencyFlags, config, verbose,
+                            NodeBasedMemoryLimiter.DEFAULT );
+                    return check.executeIncremental( pageCache, stores, changes, null, pageCacheTracer, memoryTracker, log );
+                } );
+    }
+
+    private static ChangedRecords readChangedRecords( DatabaseLayout databaseLayout, Config config, FileSystemAbstraction fileSystem, PageCache pageCache,
+            long fromTransactionId ) throws ConsistencyCheckIncompleteException
+    {
+        LifeSupport life = new LifeSupport();
+        try
+        {
+            ReadOnlyTransactionStore transactionStore = life.add( new ReadOnlyTransactionStore( pageCache, fileSystem, databaseLayout, config,
+                    new Monitors(), RecordStorageCommandReaderFactory.INSTANCE ) );
+            life.start();
+            return ChangedRecords.fromTransactions( transactionStore, fromTransactionId );
+        }
+        catch ( Exception e )
+        {
+            throw new ConsistencyCheckIncompleteException( e );
+        }
+        finally
+        {
+            life.shutdown();
+        }
+    }
+
+    private Result runConsistencyCheck( DatabaseLayout databaseLayout, Config config, LogProvider logProvider, FileSystemAbstraction fileSystem,
+            PageCache pageCache, boolean verbose, Path reportDir, PageCacheTracer pageCacheTracer, MemoryTracker memoryTracker, StoreCheck storeCheck )
+            throws ConsistencyCheckIncompleteException
     {
         assertRecovered( databaseLayout, config, fileSystem, memoryTracker );
         Log log = logProvider.getLog( getClass() );
@@ -274,8 +342,7 @@ public class ConsistencyCheckService
             DirectStoreAccess stores =
                     new DirectStoreAccess( storeAccess, labelScanStore, relationshipTypeScanstore, indexes, tokenHolders, indexStatisticsStore,
                             idGeneratorFactory );
-            FullCheck check = new FullCheck( progressFactory, statistics, numberOfThreads, consistencyFlags, config, verbose, NodeBasedMemoryLimiter.DEFAULT );
-            summary = check.execute( pageCache, stores, countsManager, null, pageCacheTracer, memoryTracker, new DuplicatingLog( log, reportLog ) );
+            summary = storeCheck.check( stores, statistics, numberOfThreads, countsManager, new DuplicatingLog( log, reportLog ) );
         }
         finally
         {
@@ -291,6 +358,13 @@ public class ConsistencyCheckService
         return Result.success( reportFile, summary );
     }
 
+    @FunctionalInterface
+    private interface StoreCheck
+    {
+        ConsistencySummaryStatistics check( DirectStoreAccess stores, Statistics statistics, int numberOfThreads, CountsManager countsManager, Log log )
+                throws ConsistencyCheckIncompleteException;
+    }
+
     private void assertRecovered( DatabaseLayout databaseLayout, Config config, FileSystemAbstraction fileSystem, MemoryTracker memoryTracker )
             throws ConsistencyCheckIncompleteException
     {
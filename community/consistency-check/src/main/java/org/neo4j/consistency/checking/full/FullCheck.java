@@ -31,6 +31,8 @@ import org.neo4j.consistency.checking.CheckDecorator;
 import org.neo4j.consistency.checking.cache.CacheAccess;
 import org.neo4j.consistency.checking.cache.DefaultCacheAccess;
 import org.neo4j.consistency.checking.index.IndexAccessors;
+import org.neo4j.consistency.newchecker.ChangedRecords;
+import org.neo4j.consistency.newchecker.IncrementalConsistencyChecker;
 import org.neo4j.consistency.newchecker.NodeBasedMemoryLimiter;
 import org.neo4j.consistency.newchecker.RecordStorageConsistencyChecker;
 import org.neo4j.consistency.report.ConsistencyReporter;
@@ -156,14 +158,7 @@ public class FullCheck
         try ( IndexAccessors indexes = new IndexAccessors( directStoreAccess.indexes(), directStoreAccess.nativeStores().getRawNeoStores(), samplingConfig,
                 indexAccessorLookup, pageCacheTracer, directStoreAccess.tokenHolders().lookupWithIds() ) )
         {
-            if ( !config.get( RelationshipTypeScanStoreSettings.enable_relationship_type_scan_store ) && flags.isCheckRelationshipTypeScanStore() )
-            {
-                report.warning( "Consistency checker was configured to validate consistency of relationship type scan store, " +
-                        "but this auxiliary store is not enabled and can therefore not be validated." );
-                report.updateSummary( RecordType.RELATIONSHIP_TYPE_SCAN_DOCUMENT, 0, 1 );
-                flags = new ConsistencyFlags( flags.isCheckGraph(), flags.isCheckIndexes(), flags.isCheckIndexStructure(), flags.isCheckLabelScanStore(), false,
-                        flags.isCheckPropertyOwners() );
-            }
+            disableRelationshipTypeScanStoreCheckIfNotEnabled( report );
 
             if ( flags.isCheckIndexStructure() )
             {
@@ -214,6 +209,55 @@ public class FullCheck
         }
     }
 
+    /**
+     * Checks only the records changed by some transactions, see {@link IncrementalConsistencyChecker}. Unlike a full check this doesn't
+     * check the counts store, index structures or the contents of the schema indexes other than the entries of the changed entities.
+     */
+    public ConsistencySummaryStatistics executeIncremental( PageCache pageCache, DirectStoreAccess stores, ChangedRecords changes,
+            IndexAccessors.IndexAccessorLookup indexAccessorLookup, PageCacheTracer pageCacheTracer, MemoryTracker memoryTracker, Log log )
+            throws ConsistencyCheckIncompleteException
+    {
+        ConsistencySummaryStatistics summary = new ConsistencySummaryStatistics();
+        InconsistencyReport report = new InconsistencyReport( new InconsistencyMessageLogger( log ), summary );
+        try ( IndexAccessors indexes = new IndexAccessors( stores.indexes(), stores.nativeStores().getRawNeoStores(), samplingConfig,
+                indexAccessorLookup, pageCacheTracer, stores.tokenHolders().lookupWithIds() ) )
+        {
+            disableRelationshipTypeScanStoreCheckIfNotEnabled( report );
+            try ( IncrementalConsistencyChecker checker = new IncrementalConsistencyChecker( pageCache, stores.nativeStores().getRawNeoStores(), changes,
+                    stores.labelScanStore(), stores.relationshipTypeScanStore(), indexes, report, progressFactory, verbose, flags, memoryLimit,
+                    pageCacheTracer, memoryTracker ) )
+            {
+                checker.check();
+            }
+        }
+        catch ( ConsistencyCheckIncompleteException e )
+        {
+            throw e;
+        }
+        catch ( Exception e )
+        {
+            throw new ConsistencyCheckIncompleteException( e );
+        }
+
+        if ( !summary.isConsistent() )
+        {
+            log.warn( "Inconsistencies found: " + summary );
+        }
+        return summary;
+    }
+
+    private void disableRelationshipTypeScanStoreCheckIfNotEnabled( InconsistencyReport report )
+    {
+        if ( !config.get( RelationshipTypeScanStoreSettings.enable_relationship_type_scan_store ) && flags.isCheckRelationshipTypeScanStore() )
+        {
+            report.warning( "Consistency checker was configured to validate consistency of relationship type scan store, " +
+                    "but this auxiliary store is not enabled and can therefore not be validated." );
+            report.updateSummary( RecordType.RELATIONSHIP_TYPE_SCAN_DOCUMENT, 0, 1 );
+            flags = new ConsistencyFlags( flags.isCheckGraph(), flags.isCheckIndexes(), flags.isCheckIndexStructure(), flags.isCheckLabelScanStore(), false,
+                    flags.isCheckPropertyOwners() );
+        }
+    }
+
     private List<IdGenerator> allIdGenerators( DirectStoreAccess directStoreAccess )
     {
         List<IdGenerator> idGenerators = new ArrayList<>();
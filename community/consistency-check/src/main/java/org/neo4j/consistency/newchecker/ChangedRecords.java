@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.consistency.newchecker;
+
+import org.eclipse.collections.api.set.primitive.LongSet;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+
+import java.io.IOException;
+
+import org.neo4j.internal.helpers.collection.Visitor;
+import org.neo4j.internal.recordstorage.Command;
+import org.neo4j.internal.recordstorage.CommandVisitor;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.LogicalTransactionStore;
+import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
+import org.neo4j.storageengine.api.StorageCommand;
+
+/**
+ * Ids of the node, relationship and relationship group records changed by committed transactions, as seen in their commands.
+ * Records which may have become inconsistent by a change without being changed themselves are included too, i.e. the start and end nodes
+ * of changed relationships and the owners of changed properties and relationship groups. This is what {@link IncrementalConsistencyChecker}
+ * checks, instead of checking every record in the store.
+ */
+public class ChangedRecords extends CommandVisitor.Adapter implements Visitor<StorageCommand,IOException>
+{
+    private final MutableLongSet nodes = new LongHashSet();
+    private final MutableLongSet relationships = new LongHashSet();
+    private final MutableLongSet relationshipGroups = new LongHashSet();
+    private long numberOfTransactions;
+    private long lastTransactionId = -1;
+
+    /**
+     * @param transactionStore store to read committed transactions from.
+     * @param fromTransactionId id of the first transaction to include, typically the one after the last transaction of the previous check.
+     * @return the records changed by all transactions from {@code fromTransactionId} up to the last transaction in {@code transactionStore}.
+     * @throws IOException on error reading the transactions.
+     */
+    public static ChangedRecords fromTransactions( LogicalTransactionStore transactionStore, long fromTransactionId ) throws IOException
+    {
+        ChangedRecords changes = new ChangedRecords();
+        try ( TransactionCursor transactions = transactionStore.getTransactions( fromTransactionId ) )
+        {
+            while ( transactions.next() )
+            {
+                changes.add( transactions.get() );
+            }
+        }
+        return changes;
+    }
+
+    public void add( CommittedTransactionRepresentation transaction ) throws IOException
+    {
+        transaction.accept( this );
+        numberOfTransactions++;
+        lastTransactionId = transaction.getCommitEntry().getTxId();
+    }
+
+    @Override
+    public boolean visit( StorageCommand command ) throws IOException
+    {
+        return ((Command) command).handle( this );
+    }
+
+    @Override
+    public boolean visitNodeCommand( Command.NodeCommand command )
+    {
+        nodes.add( command.getKey() );
+        return false;
+    }
+
+    @Override
+    public boolean visitRelationshipCommand( Command.RelationshipCommand command )
+    {
+        relationships.add( command.getKey() );
+        addNodesOf( command.getBefore() );
+        addNodesOf( command.getAfter() );
+        return false;
+    }
+
+    @Override
+    public boolean visitRelationshipGroupCommand( Command.RelationshipGroupCommand command )
+    {
+        relationshipGroups.add( command.getKey() );
+        addOwnerOf( command.getBefore() );
+        addOwnerOf( command.getAfter() );
+        return false;
+    }
+
+    @Override
+    public boolean visitPropertyCommand( Command.PropertyCommand command )
+    {
+        addOwnerOf( command.getBefore() );
+        addOwnerOf( command.getAfter() );
+        return false;
+    }
+
+    private void addNodesOf( RelationshipRecord relationship )
+    {
+        if ( relationship.inUse() )
+        {
+            nodes.add( relationship.getFirstNode() );
+            nodes.add( relationship.getSecondNode() );
+        }
+    }
+
+    private void addOwnerOf( RelationshipGroupRecord group )
+    {
+        if ( group.inUse() )
+        {
+            nodes.add( group.getOwningNode() );
+        }
+    }
+
+    private void addOwnerOf( PropertyRecord property )
+    {
+        if ( property.inUse() )
+        {
+            if ( property.isNodeSet() )
+            {
+                nodes.add( property.getNodeId() );
+            }
+            else if ( property.isRelSet() )
+            {
+                relationships.add( property.getRelId() );
+            }
+        }
+    }
+
+    public LongSet nodes()
+    {
+        return nodes;
+    }
+
+    public LongSet relationships()
+    {
+        return relationships;
+    }
+
+    public LongSet relationshipGroups()
+    {
+        return relationshipGroups;
+    }
+
+    public long numberOfTransactions()
+    {
+        return numberOfTransactions;
+    }
+
+    /**
+     * @return id of the last added transaction, or {@code -1} if no transaction was added.
+     */
+    public long lastTransactionId()
+    {
+        return lastTransactionId;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format( "%s[transactions:%d, lastTransactionId:%d, nodes:%d, relationships:%d, relationshipGroups:%d]", getClass().getSimpleName(),
+                numberOfTransactions, lastTransactionId, nodes.size(), relationships.size(), relationshipGroups.size() );
+    }
+}
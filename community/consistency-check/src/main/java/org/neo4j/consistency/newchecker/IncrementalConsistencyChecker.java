@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.consistency.newchecker;
+
+import org.eclipse.collections.api.map.primitive.MutableIntObjectMap;
+import org.eclipse.collections.api.set.primitive.LongSet;
+import org.eclipse.collections.api.set.primitive.MutableIntSet;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.map.mutable.primitive.IntObjectHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+import org.neo4j.consistency.checking.cache.CacheAccess;
+import org.neo4j.consistency.checking.cache.DefaultCacheAccess;
+import org.neo4j.consistency.checking.full.ConsistencyCheckIncompleteException;
+import org.neo4j.consistency.checking.full.ConsistencyFlags;
+import org.neo4j.consistency.checking.index.IndexAccessors;
+import org.neo4j.consistency.report.ConsistencyReport;
+import org.neo4j.consistency.report.ConsistencyReporter;
+import org.neo4j.consistency.report.InconsistencyReport;
+import org.neo4j.consistency.statistics.Counts;
+import org.neo4j.consistency.store.DirectRecordAccess;
+import org.neo4j.internal.helpers.collection.LongRange;
+import org.neo4j.internal.helpers.progress.ProgressListener;
+import org.neo4j.internal.helpers.progress.ProgressMonitorFactory;
+import org.neo4j.internal.index.label.LabelScanStore;
+import org.neo4j.internal.index.label.RelationshipTypeScanStore;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.StoreAccess;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.memory.MemoryTracker;
+import org.neo4j.token.DelegatingTokenHolder;
+import org.neo4j.token.ReadOnlyTokenCreator;
+import org.neo4j.token.TokenHolders;
+import org.neo4j.token.api.TokenHolder;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static org.neo4j.common.EntityType.NODE;
+import static org.neo4j.consistency.checking.cache.DefaultCacheAccess.defaultByteArray;
+import static org.neo4j.consistency.newchecker.ParallelExecution.DEFAULT_IDS_PER_CHUNK;
+import static org.neo4j.consistency.newchecker.RecordStorageConsistencyChecker.DEFAULT_SLOT_SIZES;
+import static org.neo4j.consistency.newchecker.RelationshipLink.SOURCE_PREV;
+import static org.neo4j.consistency.newchecker.RelationshipLink.TARGET_PREV;
+import static org.neo4j.kernel.impl.store.record.Record.NULL_REFERENCE;
+
+/**
+ * A consistency checker for a {@link NeoStores} which only checks the records that were changed by a set of transactions, as collected
+ * by {@link ChangedRecords}, and the references between those records and the records around them. This lets a store that was
+ * fully checked at some point be kept verified by checking only what its transactions changed since, which is typically a tiny
+ * part of the store.
+ * <p>
+ * The changed records are checked by the same {@link NodeChecker}, {@link RelationshipGroupChecker} and {@link RelationshipChecker} as
+ * {@link RecordStorageConsistencyChecker} uses, only restricted to the changed ids. The changed nodes are cached in ranges, sized by the
+ * same {@link NodeBasedMemoryLimiter} as a full check, but only up to the highest changed node. The first relationship or relationship
+ * group of each changed node is checked too, so that the changed nodes can be checked for referencing them. The relationship chain
+ * pointers of the changed relationships are checked here, since {@link RelationshipChainChecker} can only check whole chains.
+ * <p>
+ * Checks which need to see the whole store, like comparing the counts store to observed counts or finding index entries for
+ * deleted entities in schema indexes, are only done by {@link RecordStorageConsistencyChecker}.
+ */
+public class IncrementalConsistencyChecker implements AutoCloseable
+{
+    private static final String INCREMENTAL_CONSISTENCY_CHECKER_TAG = "incrementalConsistencyChecker";
+
+    private final NeoStores neoStores;
+    private final ChangedRecords changes;
+    private final TokenHolders tokenHolders;
+    private final ConsistencyReport.Reporter reporter;
+    private final NodeBasedMemoryLimiter limiter;
+    private final CacheAccess cacheAccess;
+    private final CountsState observedCounts;
+    private final CheckerContext context;
+    private final RecordLoading recordLoader;
+    private final ProgressMonitorFactory progressFactory;
+    private final PageCacheTracer cacheTracer;
+
+    public IncrementalConsistencyChecker( PageCache pageCache, NeoStores neoStores, ChangedRecords changes, LabelScanStore labelScanStore,
+            RelationshipTypeScanStore relationshipTypeScanStore, IndexAccessors indexAccessors, InconsistencyReport report,
+            ProgressMonitorFactory progressFactory, boolean debug, ConsistencyFlags consistencyFlags, NodeBasedMemoryLimiter.Factory memoryLimit,
+            PageCacheTracer cacheTracer, MemoryTracker memoryTracker )
+    {
+        this.neoStores = neoStores;
+        this.changes = changes;
+        this.progressFactory = progressFactory;
+        this.cacheTracer = cacheTracer;
+        this.reporter = new ConsistencyReporter( new DirectRecordAccess( new StoreAccess( neoStores ), null ), report, ConsistencyReporter.NO_MONITOR,
+                cacheTracer );
+        this.tokenHolders = new TokenHolders(
+                new DelegatingTokenHolder( new ReadOnlyTokenCreator(), TokenHolder.TYPE_PROPERTY_KEY ),
+                new DelegatingTokenHolder( new ReadOnlyTokenCreator(), TokenHolder.TYPE_LABEL ),
+                new DelegatingTokenHolder( new ReadOnlyTokenCreator(), TokenHolder.TYPE_RELATIONSHIP_TYPE ) );
+        // The records are checked one by one on the calling thread, the only thing executed in parallel is checking of the schema
+        ParallelExecution execution = new ParallelExecution( 1, ParallelExecution.NOOP_EXCEPTION_HANDLER, DEFAULT_IDS_PER_CHUNK );
+        this.recordLoader = new RecordLoading( neoStores );
+        // Only the changed nodes are cached, so the cache doesn't need to cover more than up to the highest changed node
+        long pageCacheMemory = pageCache.maxCachedPages() * pageCache.pageSize();
+        long highChangedNodeId = min( neoStores.getNodeStore().getHighId(), changes.nodes().isEmpty() ? 0 : changes.nodes().max() + 1 );
+        this.limiter = memoryLimit.create( pageCacheMemory, max( 1, highChangedNodeId ) );
+        this.cacheAccess = new DefaultCacheAccess( defaultByteArray( limiter.rangeSize(), memoryTracker ), Counts.NONE, 1 );
+        this.observedCounts = new CountsState( neoStores, cacheAccess, memoryTracker );
+        // Progress is reported per checked record by this checker instead, the checkers would report it per record in the stores
+        this.context = new CheckerContext( neoStores, indexAccessors, labelScanStore, relationshipTypeScanStore, execution, reporter, cacheAccess,
+                tokenHolders, recordLoader, observedCounts, limiter, ProgressMonitorFactory.NONE.multipleParts( "Incremental consistency check" ),
+                pageCache, cacheTracer, memoryTracker, debug, consistencyFlags );
+    }
+
+    public void check() throws ConsistencyCheckIncompleteException
+    {
+        try
+        {
+            context.debug( "Checking %s", changes );
+            context.debug( limiter.toString() );
+            loadTokens();
+            MutableIntObjectMap<MutableIntSet> mandatoryNodeProperties = new IntObjectHashMap<>();
+            MutableIntObjectMap<MutableIntSet> mandatoryRelationshipProperties = new IntObjectHashMap<>();
+            try ( var cursorTracer = cacheTracer.createPageCursorTracer( INCREMENTAL_CONSISTENCY_CHECKER_TAG ) )
+            {
+                new SchemaChecker( context ).check( mandatoryNodeProperties, mandatoryRelationshipProperties, cursorTracer );
+            }
+
+            // Check the records in id order, which makes the reads from each store as sequential as they can be
+            long[] nodes = idsInStore( changes.nodes(), neoStores.getNodeStore().getHighId() );
+            long[] relationships = idsInStore( changes.relationships(), neoStores.getRelationshipStore().getHighId() );
+            long[] relationshipGroups = idsInStore( changes.relationshipGroups(), neoStores.getRelationshipGroupStore().getHighId() );
+            long[] nodeRelationships;
+            long[] nodeRelationshipGroups;
+            try ( var cursorTracer = cacheTracer.createPageCursorTracer( INCREMENTAL_CONSISTENCY_CHECKER_TAG ) )
+            {
+                // The changed nodes are marked as needing to be checked when cached and the mark is cleared when checking the relationship
+                // or relationship group they reference, so those need to be checked too for changed nodes to not be reported for them
+                MutableLongSet nodeRelationshipIds = changes.relationships().toSet();
+                MutableLongSet nodeRelationshipGroupIds = changes.relationshipGroups().toSet();
+                for ( long nodeId : nodes )
+                {
+                    NodeRecord node = recordLoader.node( nodeId, cursorTracer );
+                    if ( node.inUse() && node.getNextRel() >= 0 )
+                    {
+                        ( node.isDense() ? nodeRelationshipGroupIds : nodeRelationshipIds ).add( node.getNextRel() );
+                    }
+                }
+                nodeRelationships = idsInStore( nodeRelationshipIds, neoStores.getRelationshipStore().getHighId() );
+                nodeRelationshipGroups = idsInStore( nodeRelationshipGroupIds, neoStores.getRelationshipGroupStore().getHighId() );
+            }
+
+            NodeChecker nodeChecker = new NodeChecker( context, mandatoryNodeProperties, context.indexAccessors.onlineRules( NODE ) );
+            RelationshipGroupChecker relationshipGroupChecker = new RelationshipGroupChecker( context );
+            RelationshipChecker relationshipChecker = new RelationshipChecker( context, mandatoryRelationshipProperties );
+            // Adjacent ids are checked as one range, with one label or relationship type index reader for the whole range
+            List<LongRange> nodeRelationshipRanges = idRanges( nodeRelationships, 0, nodeRelationships.length );
+            List<LongRange> nodeRelationshipGroupRanges = idRanges( nodeRelationshipGroups, 0, nodeRelationshipGroups.length );
+            ProgressListener progress = progressFactory.singlePart( "Incremental consistency check",
+                    nodes.length + (long) limiter.numberOfRanges() * ( nodeRelationships.length + nodeRelationshipGroups.length ) + relationships.length );
+            progress.started();
+            while ( limiter.hasNext() && !context.isCancelled() )
+            {
+                LongRange range = limiter.next();
+                context.initializeRange();
+                cacheAccess.setPivotId( range.from() );
+                cacheAccess.setCacheSlotSizesAndClear( DEFAULT_SLOT_SIZES );
+
+                int fromIndex = insertionPoint( nodes, range.from() );
+                int toIndex = insertionPoint( nodes, range.to() );
+                List<LongRange> nodeRanges = idRanges( nodes, fromIndex, toIndex );
+                LongPredicate cachedNodes = nodeId -> Arrays.binarySearch( nodes, fromIndex, toIndex, nodeId ) >= 0;
+                boolean firstRange = limiter.isFirst( range );
+                if ( nodeChecker.shouldBeChecked( context.consistencyFlags ) )
+                {
+                    nodeChecker.check( nodeRanges );
+                }
+                progress.add( toIndex - fromIndex );
+                if ( relationshipGroupChecker.shouldBeChecked( context.consistencyFlags ) && !context.isCancelled() )
+                {
+                    relationshipGroupChecker.check( range, firstRange, nodeRelationshipGroupRanges, cachedNodes );
+                }
+                progress.add( nodeRelationshipGroups.length );
+                if ( relationshipChecker.shouldBeChecked( context.consistencyFlags ) && !context.isCancelled() )
+                {
+                    relationshipChecker.check( range, firstRange, nodeRelationshipRanges, nodeRanges, cachedNodes );
+                }
+                progress.add( nodeRelationships.length );
+            }
+
+            if ( context.consistencyFlags.isCheckGraph() )
+            {
+                checkRelationshipChains( relationships, progress );
+            }
+            progress.done();
+        }
+        catch ( Exception e )
+        {
+            context.cancel();
+            throw new ConsistencyCheckIncompleteException( e );
+        }
+    }
+
+    private void checkRelationshipChains( long[] relationships, ProgressListener progress )
+    {
+        try ( var cursorTracer = cacheTracer.createPageCursorTracer( INCREMENTAL_CONSISTENCY_CHECKER_TAG ) )
+        {
+            for ( int i = 0; i < relationships.length && !context.isCancelled(); i++ )
+            {
+                RelationshipRecord relationship = recordLoader.relationship( relationships[i], cursorTracer );
+                if ( relationship.inUse() )
+                {
+                    // Chains of the start and end nodes, in both directions
+                    for ( RelationshipLink link : RelationshipLink.values() )
+                    {
+                        checkRelationshipLink( relationship, link, cursorTracer );
+                    }
+                }
+                progress.add( 1 );
+            }
+        }
+    }
+
+    private void checkRelationshipLink( RelationshipRecord relationship, RelationshipLink link, PageCursorTracer cursorTracer )
+    {
+        if ( link.endOfChain( relationship ) )
+        {
+            return;
+        }
+        long nodeId = link.node( relationship );
+        RelationshipRecord other = recordLoader.relationship( link.link( relationship ), cursorTracer );
+        if ( !other.inUse() )
+        {
+            link.reportNotUsedRelationshipReferencedInChain( reporter, relationship, other );
+            return;
+        }
+
+        // The other relationship should point back to this one from the same node's chain, in the opposite direction
+        boolean prev = link == SOURCE_PREV || link == TARGET_PREV;
+        long otherReference;
+        if ( other.getFirstNode() == nodeId )
+        {
+            otherReference = prev ? other.getFirstNextRel() : other.isFirstInFirstChain() ? NULL_REFERENCE.longValue() : other.getFirstPrevRel();
+        }
+        else if ( other.getSecondNode() == nodeId )
+        {
+            otherReference = prev ? other.getSecondNextRel() : other.isFirstInSecondChain() ? NULL_REFERENCE.longValue() : other.getSecondPrevRel();
+        }
+        else
+        {
+            link.reportOtherNode( reporter, relationship, other );
+            return;
+        }
+        if ( otherReference != relationship.getId() )
+        {
+            link.reportDoesNotReferenceBack( reporter, relationship, other );
+        }
+    }
+
+    private static long[] idsInStore( LongSet ids, long highId )
+    {
+        return ids.select( id -> id >= 0 && id < highId ).toSortedArray();
+    }
+
+    /**
+     * @return the ids in {@code sortedIds} between {@code fromIndex} (inclusive) and {@code toIndex} (exclusive), as ranges of adjacent ids.
+     */
+    static List<LongRange> idRanges( long[] sortedIds, int fromIndex, int toIndex )
+    {
+        List<LongRange> ranges = new ArrayList<>();
+        int rangeStart = fromIndex;
+        for ( int i = fromIndex + 1; i <= toIndex; i++ )
+        {
+            if ( i == toIndex || sortedIds[i] != sortedIds[i - 1] + 1 )
+            {
+                ranges.add( LongRange.range( sortedIds[rangeStart], sortedIds[i - 1] + 1 ) );
+                rangeStart = i;
+            }
+        }
+        return ranges;
+    }
+
+    private static int insertionPoint( long[] sortedIds, long id )
+    {
+        int index = Arrays.binarySearch( sortedIds, id );
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private void loadTokens()
+    {
+        try ( var cursorTracer = cacheTracer.createPageCursorTracer( INCREMENTAL_CONSISTENCY_CHECKER_TAG ) )
+        {
+            tokenHolders.relationshipTypeTokens().setInitialTokens( RecordLoading.safeLoadTokens( neoStores.getRelationshipTypeTokenStore(), cursorTracer ) );
+            tokenHolders.labelTokens().setInitialTokens( RecordLoading.safeLoadTokens( neoStores.getLabelTokenStore(), cursorTracer ) );
+            tokenHolders.propertyKeyTokens().setInitialTokens( RecordLoading.safeLoadTokens( neoStores.getPropertyKeyTokenStore(), cursorTracer ) );
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        context.cancel();
+        observedCounts.close();
+    }
+}
@@ -83,6 +83,14 @@ class NodeChecker implements Checker
     private final List<IndexDescriptor> smallIndexes;
 
     NodeChecker( CheckerContext context, MutableIntObjectMap<MutableIntSet> mandatoryProperties )
+    {
+        this( context, mandatoryProperties, context.indexSizes.smallIndexes( NODE ) );
+    }
+
+    /**
+     * @param smallIndexes the indexes to check per node. Large indexes are more efficiently checked by {@link IndexChecker}, when checking all nodes.
+     */
+    NodeChecker( CheckerContext context, MutableIntObjectMap<MutableIntSet> mandatoryProperties, List<IndexDescriptor> smallIndexes )
     {
         this.context = context;
         this.reporter = context.reporter;
@@ -92,7 +100,7 @@ class NodeChecker implements Checker
         this.neoStores = context.neoStores;
         this.mandatoryProperties = mandatoryProperties;
         this.nodeProgress = context.roundInsensitiveProgressReporter( this, "Nodes", neoStores.getNodeStore().getHighId() );
-        this.smallIndexes = context.indexSizes.smallIndexes( NODE );
+        this.smallIndexes = smallIndexes;
     }
 
     @Override
@@ -110,6 +118,20 @@ class NodeChecker implements Checker
         }
     }
 
+    /**
+     * Checks only the nodes in the given ranges, and caches them like {@link #check(LongRange, boolean, boolean)} does, but doesn't check the indexes
+     * against the nodes since that needs all nodes of the range in the cache. The label index is only read for the given ranges.
+     *
+     * @param nodeIdRanges ranges of node ids to check in ascending order, all within the range that the cache is currently pivoted at.
+     */
+    void check( List<LongRange> nodeIdRanges ) throws Exception
+    {
+        for ( int i = 0; i < nodeIdRanges.size() && !context.isCancelled(); i++ )
+        {
+            check( nodeIdRanges.get( i ).from(), nodeIdRanges.get( i ).to(), false );
+        }
+    }
+
     @Override
     public boolean shouldBeChecked( ConsistencyFlags flags )
     {
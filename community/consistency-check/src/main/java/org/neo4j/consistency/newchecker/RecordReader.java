@@ -37,10 +37,19 @@ class RecordReader<RECORD extends AbstractBaseRecord> implements AutoCloseable
     private final PageCursor cursor;
 
     RecordReader( CommonAbstractStore<RECORD,?> store, PageCursorTracer cursorTracer )
+    {
+        this( store, false, cursorTracer );
+    }
+
+    /**
+     * @param sequential whether or not records will be read in id order, through large parts of the store. Such reads bypass the page cache
+     * for pages not already in it, see {@link CommonAbstractStore#openPageCursorForScanning(long, PageCursorTracer)}.
+     */
+    RecordReader( CommonAbstractStore<RECORD,?> store, boolean sequential, PageCursorTracer cursorTracer )
     {
         this.store = store;
         this.record = store.newRecord();
-        this.cursor = store.openPageCursorForReading( 0, cursorTracer );
+        this.cursor = sequential ? store.openPageCursorForScanning( 0, cursorTracer ) : store.openPageCursorForReading( 0, cursorTracer );
     }
 
     RECORD read( long id )
@@ -116,7 +116,7 @@ class RelationshipChainChecker implements Checker
         {
             RelationshipRecord relationship = relationshipStore.newRecord();
             try ( var cursorTracer = context.pageCacheTracer.createPageCursorTracer( RELATIONSHIP_CONSISTENCY_CHECKER_TAG );
-                  var cursor = relationshipStore.openPageCursorForReadingWithPrefetching( 0, cursorTracer ) )
+                  var cursor = relationshipStore.openPageCursorForScanning( 0, cursorTracer ) )
             {
                 int recordsPerPage = relationshipStore.getRecordsPerPage();
                 long id = direction.startingId( highId );
@@ -27,6 +27,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.LongPredicate;
 
 import org.neo4j.consistency.checking.cache.CacheAccess;
 import org.neo4j.consistency.checking.cache.CacheSlots;
@@ -104,13 +105,39 @@ class RelationshipChecker implements Checker
     public void check( LongRange nodeIdRange, boolean firstRange, boolean lastRange ) throws Exception
     {
         execution.run( getClass().getSimpleName() + "-relationships", execution.partition( neoStores.getRelationshipStore(),
-                ( from, to, last ) -> () -> check( nodeIdRange, firstRange, from, to, lastRange && last ) ) );
+                ( from, to, last ) -> () -> check( nodeIdRange, firstRange, from, to, lastRange && last, nodeId -> true ) ) );
         // Let's not report progress for this since it's so much faster than store checks, it's just scanning the cache
         execution.run( getClass().getSimpleName() + "-unusedRelationships", execution.partition( nodeIdRange,
                 ( from, to, last ) -> () -> checkNodesReferencingUnusedRelationships( from, to, context.pageCacheTracer ) ) );
     }
 
-    private void check( LongRange nodeIdRange, boolean firstRound, long fromRelationshipId, long toRelationshipId, boolean last ) throws Exception
+    /**
+     * Checks only the relationships in the given ranges, like {@link #check(LongRange, boolean, boolean)} checks all relationships, but only against
+     * the given nodes. The given nodes must have been cached by {@link NodeChecker#check(List)}, and those of them that reference a relationship
+     * which was not checked are reported afterwards. The relationship type index is only read for the given ranges.
+     *
+     * @param relationshipIdRanges ranges of relationship ids to check in ascending order.
+     * @param nodeIdRanges ranges of the cached nodes in ascending order, all within {@code nodeIdRange}.
+     * @param cachedNodes which of the nodes within {@code nodeIdRange} are in the cache.
+     */
+    void check( LongRange nodeIdRange, boolean firstRange, List<LongRange> relationshipIdRanges, List<LongRange> nodeIdRanges, LongPredicate cachedNodes )
+            throws Exception
+    {
+        for ( int i = 0; i < relationshipIdRanges.size() && !context.isCancelled(); i++ )
+        {
+            check( nodeIdRange, firstRange, relationshipIdRanges.get( i ).from(), relationshipIdRanges.get( i ).to(), false, cachedNodes );
+        }
+        for ( int i = 0; i < nodeIdRanges.size() && !context.isCancelled(); i++ )
+        {
+            checkNodesReferencingUnusedRelationships( nodeIdRanges.get( i ).from(), nodeIdRanges.get( i ).to(), context.pageCacheTracer );
+        }
+    }
+
+    /**
+     * @param cachedNodes which of the nodes within {@code nodeIdRange} are in the cache, to check the relationships against.
+     */
+    private void check( LongRange nodeIdRange, boolean firstRound, long fromRelationshipId, long toRelationshipId, boolean last, LongPredicate cachedNodes )
+            throws Exception
     {
         RelationshipCounter counter = observedCounts.instantiateRelationshipCounter();
         long[] typeHolder = new long[1];
@@ -141,7 +168,7 @@ class RelationshipChecker implements Checker
 
                 // Start/end nodes
                 long startNode = relationshipCursor.getFirstNode();
-                boolean startNodeIsWithinRange = nodeIdRange.isWithinRangeExclusiveTo( startNode );
+                boolean startNodeIsWithinRange = nodeIdRange.isWithinRangeExclusiveTo( startNode ) && cachedNodes.test( startNode );
                 boolean startNodeIsNegativeOnFirstRound = startNode < 0 && firstRound;
                 if ( startNodeIsWithinRange || startNodeIsNegativeOnFirstRound )
                 {
@@ -153,7 +180,7 @@ class RelationshipChecker implements Checker
                             relationship -> reporter.forRelationship( relationship ).illegalSourceNode(), cursorTracer );
                 }
                 long endNode = relationshipCursor.getSecondNode();
-                boolean endNodeIsWithinRange = nodeIdRange.isWithinRangeExclusiveTo( endNode );
+                boolean endNodeIsWithinRange = nodeIdRange.isWithinRangeExclusiveTo( endNode ) && cachedNodes.test( endNode );
                 boolean endNodeIsNegativeOnFirstRound = endNode < 0 && firstRound;
                 if ( endNodeIsWithinRange || endNodeIsNegativeOnFirstRound )
                 {
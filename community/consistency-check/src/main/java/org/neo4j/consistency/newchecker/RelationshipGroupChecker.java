@@ -19,8 +19,10 @@
  */
 package org.neo4j.consistency.newchecker;
 
+import java.util.List;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.LongPredicate;
 
 import org.neo4j.consistency.checking.cache.CacheAccess;
 import org.neo4j.consistency.checking.cache.CacheSlots;
@@ -63,7 +65,22 @@ class RelationshipGroupChecker implements Checker
     {
         ParallelExecution execution = context.execution;
         execution.run( getClass().getSimpleName(), execution.partition( neoStores.getRelationshipGroupStore(),
-                ( from, to, last ) -> () -> check( nodeIdRange, firstRange, from, to, context.pageCacheTracer ) ) );
+                ( from, to, last ) -> () -> check( nodeIdRange, firstRange, from, to, nodeId -> true, context.pageCacheTracer ) ) );
+    }
+
+    /**
+     * Checks only the relationship groups in the given ranges, like {@link #check(LongRange, boolean, boolean)} checks all groups, but only against
+     * the given nodes, which must have been cached by {@link NodeChecker#check(List)}.
+     *
+     * @param groupIdRanges ranges of relationship group ids to check in ascending order.
+     * @param cachedNodes which of the nodes within {@code nodeIdRange} are in the cache.
+     */
+    void check( LongRange nodeIdRange, boolean firstRange, List<LongRange> groupIdRanges, LongPredicate cachedNodes )
+    {
+        for ( int i = 0; i < groupIdRanges.size() && !context.isCancelled(); i++ )
+        {
+            check( nodeIdRange, firstRange, groupIdRanges.get( i ).from(), groupIdRanges.get( i ).to(), cachedNodes, context.pageCacheTracer );
+        }
     }
 
     @Override
@@ -72,10 +89,11 @@ class RelationshipGroupChecker implements Checker
         return flags.isCheckGraph();
     }
 
-    private void check( LongRange nodeIdRange, boolean firstRound, long fromGroupId, long toGroupId, PageCacheTracer pageCacheTracer )
+    private void check( LongRange nodeIdRange, boolean firstRound, long fromGroupId, long toGroupId, LongPredicate cachedNodes,
+            PageCacheTracer pageCacheTracer )
     {
         try ( var cursorTracer = pageCacheTracer.createPageCursorTracer( RELATIONSHIP_GROUPS_CHECKER_TAG );
-              RecordReader<RelationshipGroupRecord> groupReader = new RecordReader<>( neoStores.getRelationshipGroupStore(), cursorTracer );
+              RecordReader<RelationshipGroupRecord> groupReader = new RecordReader<>( neoStores.getRelationshipGroupStore(), true, cursorTracer );
               RecordReader<RelationshipGroupRecord> comparativeReader = new RecordReader<>( neoStores.getRelationshipGroupStore(), cursorTracer );
               RecordStorageReader reader = new RecordStorageReader( neoStores );
               RecordRelationshipScanCursor relationshipCursor = reader.allocateRelationshipScanCursor( cursorTracer ) )
@@ -92,7 +110,7 @@ class RelationshipGroupChecker implements Checker
                 }
 
                 long owningNode = record.getOwningNode();
-                if ( nodeIdRange.isWithinRangeExclusiveTo( owningNode ) )
+                if ( nodeIdRange.isWithinRangeExclusiveTo( owningNode ) && cachedNodes.test( owningNode ) )
                 {
                     long cachedOwnerNextRel = client.getFromCache( owningNode, CacheSlots.NodeLink.SLOT_RELATIONSHIP_ID );
                     boolean nodeIsInUse = client.getBooleanFromCache( owningNode, CacheSlots.NodeLink.SLOT_IN_USE );
@@ -28,6 +28,7 @@ import org.neo4j.cypher.internal.CypherRuntimeConfiguration;
 import org.neo4j.cypher.internal.cache.CaffeineCacheFactory;
 import org.neo4j.cypher.internal.cache.ExecutorBasedCaffeineCacheFactory;
 import org.neo4j.cypher.internal.compiler.CypherPlannerConfiguration;
+import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.kernel.impl.query.QueryEngineProvider;
 import org.neo4j.kernel.impl.query.QueryExecutionEngine;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
@@ -71,14 +72,21 @@ public class CommunityCypherEngineProvider extends QueryEngineProvider
                     new CommunityCompilerFactory( queryService,spi.monitors(), cacheFactory, spi.logProvider(), innerPlannerConfig, runtimeConfig );
             return new SystemExecutionEngine( queryService, cacheFactory, spi.logProvider(), compilerFactory, innerCompilerFactory );
         }
-        else if ( spi.config().get( GraphDatabaseInternalSettings.snapshot_query ) )
+        ExecutionEngine engine;
+        if ( spi.config().get( GraphDatabaseInternalSettings.snapshot_query ) )
         {
-            return new SnapshotExecutionEngine( queryService, spi.config(), cacheFactory, spi.logProvider(), compilerFactory );
+            engine = new SnapshotExecutionEngine( queryService, spi.config(), cacheFactory, spi.logProvider(), compilerFactory );
         }
         else
         {
-            return new ExecutionEngine( queryService, cacheFactory, spi.logProvider(), compilerFactory );
+            engine = new ExecutionEngine( queryService, cacheFactory, spi.logProvider(), compilerFactory );
         }
+        if ( spi.config().get( GraphDatabaseInternalSettings.cypher_query_cache_warmup_enabled ) )
+        {
+            FileSystemAbstraction fs = graphAPI.getDependencyResolver().resolveDependency( FileSystemAbstraction.class );
+            spi.lifeSupport().add( new QueryCacheWarmup( engine, graphAPI, queryService, fs, spi.jobScheduler(), spi.logProvider() ) );
+        }
+        return engine;
     }
 
     private CaffeineCacheFactory makeCacheFactory( SPI spi )
@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.javacompat;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.cypher.internal.QueryCache;
+import org.neo4j.internal.helpers.collection.Pair;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.impl.coreapi.InternalTransaction;
+import org.neo4j.kernel.impl.factory.KernelTransactionFactory;
+import org.neo4j.kernel.impl.query.Neo4jTransactionalContextFactory;
+import org.neo4j.kernel.impl.query.TransactionalContext;
+import org.neo4j.kernel.impl.query.TransactionalContextFactory;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.Log;
+import org.neo4j.logging.LogProvider;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.values.AnyValue;
+import org.neo4j.values.storable.Values;
+import org.neo4j.values.virtual.MapValue;
+import org.neo4j.values.virtual.MapValueBuilder;
+import org.neo4j.values.virtual.VirtualValues;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.neo4j.internal.kernel.api.security.LoginContext.AUTH_DISABLED;
+import static org.neo4j.scheduler.JobMonitoringParams.systemJob;
+
+/**
+ * Keeps the query cache of a database warm across restarts.
+ *
+ * When the database stops, the text and parameter types of every query in the query cache that can be compiled
+ * again from its text alone, and that has no string or number literals, are written to a file in the database directory. When the database starts again, those
+ * queries are compiled into the query cache, without being executed, by a background job. The queries are planned
+ * against the current statistics of the database, and the resulting plans are subject to the usual staleness checks
+ * of the query cache.
+ * <p>
+ * A query is only compiled again if a representative value can be created for the type of each of its parameters,
+ * since parameter types are part of the cache key.
+ */
+public class QueryCacheWarmup extends LifecycleAdapter
+{
+    static final String WARMUP_FILE_NAME = "query-cache-warmup";
+    private static final int FORMAT_VERSION = 1;
+    private static final long AVAILABILITY_POLL_MILLIS = 1000;
+    private static final Map<String,AnyValue> REPRESENTATIVE_VALUES = representativeValues(
+            Values.longValue( 0 ), Values.intValue( 0 ), Values.shortValue( (short) 0 ), Values.byteValue( (byte) 0 ),
+            Values.doubleValue( 0 ), Values.floatValue( 0 ), Values.TRUE, Values.FALSE, Values.charValue( 'a' ),
+            Values.stringValue( "a" ), Values.utf8Value( "a" ), Values.EMPTY_STRING, Values.NO_VALUE,
+            VirtualValues.EMPTY_MAP, VirtualValues.map( new String[]{"a"}, new AnyValue[]{Values.NO_VALUE} ),
+            VirtualValues.EMPTY_LIST, VirtualValues.list( Values.NO_VALUE ), VirtualValues.fromList( List.of( Values.NO_VALUE ) ) );
+
+    private final ExecutionEngine engine;
+    private final GraphDatabaseAPI database;
+    private final GraphDatabaseCypherService queryService;
+    private final FileSystemAbstraction fs;
+    private final JobScheduler scheduler;
+    private final Log log;
+    private final Path warmupFile;
+    private TransactionalContextFactory contextFactory;
+    private volatile boolean stopped;
+    private JobHandle<?> warmupJob;
+
+    public QueryCacheWarmup( ExecutionEngine engine, GraphDatabaseAPI database, GraphDatabaseCypherService queryService, FileSystemAbstraction fs,
+            JobScheduler scheduler, LogProvider logProvider )
+    {
+        this.engine = engine;
+        this.database = database;
+        this.queryService = queryService;
+        this.fs = fs;
+        this.scheduler = scheduler;
+        this.log = logProvider.getLog( getClass() );
+        this.warmupFile = database.databaseLayout().file( WARMUP_FILE_NAME );
+    }
+
+    @Override
+    public void start()
+    {
+        stopped = false;
+        if ( fs.fileExists( warmupFile ) )
+        {
+            KernelTransactionFactory transactionFactory = queryService.getDependencyResolver().resolveDependency( KernelTransactionFactory.class );
+            contextFactory = Neo4jTransactionalContextFactory.create( () -> queryService, transactionFactory );
+            warmupJob = scheduler.schedule( Group.CYPHER_CACHE, systemJob( database.databaseName(), "Query cache warm-up" ), this::warmup );
+        }
+    }
+
+    @Override
+    public void stop()
+    {
+        stopped = true;
+        if ( warmupJob != null )
+        {
+            warmupJob.cancel();
+            warmupJob = null;
+        }
+        List<Pair<String,QueryCache.ParameterTypeMap>> queries = engine.getCypherExecutionEngine().cachedQueries();
+        try
+        {
+            writeQueries( queries );
+        }
+        catch ( IOException e )
+        {
+            log.warn( "Failed to write the query cache warm-up file " + warmupFile, e );
+        }
+    }
+
+    private void warmup()
+    {
+        List<Pair<String,MapValue>> queries;
+        try
+        {
+            queries = readQueries();
+        }
+        catch ( IOException e )
+        {
+            log.warn( "Failed to read the query cache warm-up file " + warmupFile, e );
+            return;
+        }
+
+        while ( !database.isAvailable( AVAILABILITY_POLL_MILLIS ) )
+        {
+            if ( stopped )
+            {
+                return;
+            }
+        }
+
+        int compiled = 0;
+        for ( Pair<String,MapValue> query : queries )
+        {
+            if ( stopped )
+            {
+                return;
+            }
+            if ( compile( query.first(), query.other() ) )
+            {
+                compiled++;
+            }
+        }
+        log.info( "Warmed up the query cache with %d of %d queries from before the restart", compiled, queries.size() );
+    }
+
+    private boolean compile( String query, MapValue parameters )
+    {
+        try ( InternalTransaction tx = database.beginTransaction( KernelTransaction.Type.EXPLICIT, AUTH_DISABLED ) )
+        {
+            TransactionalContext context = contextFactory.newContext( tx, query, parameters );
+            try
+            {
+                engine.getCypherExecutionEngine().compileIntoCache( query, parameters, context );
+                return true;
+            }
+            finally
+            {
+                context.close();
+            }
+        }
+        catch ( Exception e )
+        {
+            log.debug( "Failed to compile query during query cache warm-up: " + query, e );
+            return false;
+        }
+    }
+
+    void writeQueries( List<Pair<String,QueryCache.ParameterTypeMap>> queries ) throws IOException
+    {
+        Path tempFile = warmupFile.resolveSibling( WARMUP_FILE_NAME + ".tmp" );
+        try ( DataOutputStream out = new DataOutputStream( fs.openAsOutputStream( tempFile, false ) ) )
+        {
+            out.writeInt( FORMAT_VERSION );
+            out.writeInt( queries.size() );
+            for ( Pair<String,QueryCache.ParameterTypeMap> query : queries )
+            {
+                writeString( out, query.first() );
+                Map<String,Class<?>> parameterTypes = query.other().parameterTypes();
+                out.writeInt( parameterTypes.size() );
+                for ( Map.Entry<String,Class<?>> parameter : parameterTypes.entrySet() )
+                {
+                    writeString( out, parameter.getKey() );
+                    writeString( out, parameter.getValue().getName() );
+                }
+            }
+        }
+        fs.renameFile( tempFile, warmupFile, ATOMIC_MOVE, REPLACE_EXISTING );
+    }
+
+    /**
+     * @return the queries in the warm-up file, with representative parameter values, skipping queries with parameters of unknown types.
+     */
+    List<Pair<String,MapValue>> readQueries() throws IOException
+    {
+        List<Pair<String,MapValue>> queries = new ArrayList<>();
+        try ( DataInputStream in = new DataInputStream( fs.openAsInputStream( warmupFile ) ) )
+        {
+            if ( in.readInt() != FORMAT_VERSION )
+            {
+                return queries;
+            }
+            int numberOfQueries = in.readInt();
+            for ( int i = 0; i < numberOfQueries; i++ )
+            {
+                String query = readString( in );
+                int numberOfParameters = in.readInt();
+                MapValueBuilder parameters = new MapValueBuilder();
+                boolean representable = true;
+                for ( int j = 0; j < numberOfParameters; j++ )
+                {
+                    String name = readString( in );
+                    AnyValue value = REPRESENTATIVE_VALUES.get( readString( in ) );
+                    if ( value == null )
+                    {
+                        representable = false;
+                    }
+                    else
+                    {
+                        parameters.add( name, value );
+                    }
+                }
+                if ( representable )
+                {
+                    queries.add( Pair.of( query, parameters.build() ) );
+                }
+            }
+        }
+        return queries;
+    }
+
+    private static void writeString( DataOutputStream out, String string ) throws IOException
+    {
+        byte[] bytes = string.getBytes( UTF_8 );
+        out.writeInt( bytes.length );
+        out.write( bytes );
+    }
+
+    private static String readString( DataInputStream in ) throws IOException
+    {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully( bytes );
+        return new String( bytes, UTF_8 );
+    }
+
+    private static Map<String,AnyValue> representativeValues( AnyValue... values )
+    {
+        Map<String,AnyValue> valuesByType = new HashMap<>();
+        for ( AnyValue value : values )
+        {
+            valuesByType.put( value.getClass().getName(), value );
+        }
+        return valuesByType;
+    }
+}
@@ -70,7 +70,8 @@ class DefaultPlanStalenessCaller[EXECUTABLE_QUERY](clock: Clock,
         Stale(((currentTimeMillis - f.creationTimeMillis) / 1000).toInt,
           Option(s"${divergence.key} changed from ${divergence.before} to ${divergence.after}, " +
             s"which is a divergence of ${divergence.divergence} which is greater than " +
-            s"threshold $threshold"))
+            s"threshold $threshold"),
+          usableWhileReplanning = true)
       } else {
         ref.fingerprint = f.copy(lastCheckTimeMillis = currentTimeMillis, txId = currentTxId)
         NotStale
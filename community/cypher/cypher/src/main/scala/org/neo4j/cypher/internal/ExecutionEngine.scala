@@ -25,13 +25,20 @@ import java.time.Clock
 import org.neo4j.cypher.CypherExecutionMode
 import org.neo4j.cypher.internal.QueryCache.ParameterTypeMap
 import org.neo4j.cypher.internal.cache.CaffeineCacheFactory
+import org.neo4j.cypher.internal.compiler.Neo4jCypherExceptionFactory
+import org.neo4j.cypher.internal.expressions.NumberLiteral
+import org.neo4j.cypher.internal.expressions.StringLiteral
 import org.neo4j.cypher.internal.expressions.functions.FunctionInfo
+import org.neo4j.cypher.internal.parser.CypherParser
 import org.neo4j.cypher.internal.planning.CypherCacheMonitor
 import org.neo4j.cypher.internal.runtime.InputDataStream
 import org.neo4j.cypher.internal.runtime.NoInput
 import org.neo4j.cypher.internal.tracing.CompilationTracer
 import org.neo4j.cypher.internal.tracing.CompilationTracer.QueryCompilationEvent
 import org.neo4j.exceptions.ParameterNotFoundException
+import org.neo4j.graphdb.ExecutionPlanDescription
+import org.neo4j.graphdb.Notification
+import org.neo4j.graphdb.QueryExecutionType
 import org.neo4j.internal.helpers.collection.Pair
 import org.neo4j.internal.kernel.api.security.AccessMode
 import org.neo4j.kernel.GraphDatabaseQueryService
@@ -45,6 +52,7 @@ import org.neo4j.monitoring.Monitors
 import org.neo4j.values.virtual.MapValue
 
 import scala.collection.JavaConverters.seqAsJavaListConverter
+import scala.util.Try
 
 /**
  * See comment in MonitoringCacheTracer for justification of the existence of this type.
@@ -219,9 +227,29 @@ class ExecutionEngine(val queryService: GraphDatabaseQueryService,
       context.executingQuery().onCompilationCompleted(executableQuery.compilerInfo, executableQuery.queryType, () => executableQuery.planDescription())
     }
 
-    executableQuery.execute(context, isOutermostQuery, query.options, combinedParams, prePopulate, input, queryMonitor, subscriber)
+    // A query profiled on request of a query monitor runs the plan cached for normal execution with profiling instrumentation,
+    // so that sampling neither compiles nor caches a second plan for the query.
+    val profileOnRequest = isOutermostQuery && shouldProfileOnRequest(query, context)
+    val executionOptions = if (profileOnRequest) query.options.withExecutionMode(CypherExecutionMode.profile) else query.options
+
+    val execution = executableQuery.execute(context, isOutermostQuery, executionOptions, combinedParams, prePopulate, input, queryMonitor, subscriber)
+    if (profileOnRequest) {
+      context.executingQuery().onProfilingStarted(() => execution.executionPlanDescription())
+      new ProfiledOnRequestQueryExecution(execution, () => executableQuery.planDescription())
+    } else {
+      execution
+    }
   }
 
+  /*
+   * Queries are only profiled on request of a query monitor if neither the client nor the query asked for
+   * an execution mode of their own, and never on the system database.
+   */
+  private def shouldProfileOnRequest(query: InputQuery, context: TransactionalContext): Boolean =
+    context.executingQuery().isProfilingRequested &&
+      query.options.executionMode == CypherExecutionMode.normal &&
+      !compilerLibrary.supportsAdministrativeCommands()
+
   /*
    * Return the CompilerWithExpressionCodeGenOption to be used.
    */
@@ -294,6 +322,42 @@ class ExecutionEngine(val queryService: GraphDatabaseQueryService,
     throw new IllegalStateException("Could not compile query due to insanely frequent schema changes")
   }
 
+  /**
+   * Compiles a query into the query cache, unless a plan for it that is not stale is already cached, without executing it.
+   *
+   * @param query the query to compile
+   * @param params parameters with the types that the query will be executed with
+   * @param context the transactional context in which to compile the query
+   */
+  def compileIntoCache(query: String, params: MapValue, context: TransactionalContext): Unit = {
+    val queryTracer = tracer.compileQuery(query)
+    try {
+      getOrCompile(context, preParser.preParseQuery(query), queryTracer, params)
+    } finally {
+      queryTracer.close()
+    }
+  }
+
+  /**
+   * The queries in the query cache that can be compiled again from their query text alone,
+   * i.e. those whose text pre-parses to the same cache key, together with the types of their parameters.
+   * Queries with string or number literals are left out, since the literals could be user data that should
+   * not end up outside of the store. Only queries that pass such values as parameters are returned.
+   *
+   * @return pairs of query text and parameter types
+   */
+  def cachedQueries(): java.util.List[Pair[String, ParameterTypeMap]] =
+    queryCache.cachedKeys().collect {
+      case (key, queryText) if Try(preParser.preParseQuery(queryText)).toOption.exists(query => query.cacheKey == key.first() && hasNoLiterals(query)) =>
+        Pair.of(queryText, key.other())
+    }.asJava
+
+  private def hasNoLiterals(query: PreParsedQuery): Boolean =
+    Try(new CypherParser().parse(query.statement, Neo4jCypherExceptionFactory(query.statement, None))).toOption.exists(statement =>
+      !statement.treeExists {
+        case _: StringLiteral | _: NumberLiteral => true
+      })
+
   def clearQueryCaches(): Long =
     List(masterCompiler.clearCaches(), queryCache.clear(), preParser.clearCache()).max
 
@@ -327,6 +391,27 @@ class ExecutionEngine(val queryService: GraphDatabaseQueryService,
   }
 }
 
+/**
+ * An execution that was profiled on request of a query monitor, but that should look like a normal execution to the client.
+ * The profiled plan is only handed to the query monitor, the client gets the plan description of a normal execution.
+ */
+class ProfiledOnRequestQueryExecution(inner: QueryExecution, planDescription: () => ExecutionPlanDescription) extends QueryExecution {
+
+  override def executionType(): QueryExecutionType = QueryExecutionType.query(inner.executionType().queryType())
+
+  override def executionPlanDescription(): ExecutionPlanDescription = planDescription()
+
+  override def getNotifications: lang.Iterable[Notification] = inner.getNotifications
+
+  override def fieldNames(): Array[String] = inner.fieldNames()
+
+  override def request(numberOfRecords: Long): Unit = inner.request(numberOfRecords)
+
+  override def cancel(): Unit = inner.cancel()
+
+  override def await(): Boolean = inner.await()
+}
+
 case class FunctionWithInformation(f: FunctionInfo) extends FunctionInformation {
 
   override def getFunctionName: String = f.getFunctionName
@@ -101,6 +101,8 @@ case class QueryOptions(offset: InputPosition,
 
   def withRecompilationLimitReached: QueryOptions = copy(recompilationLimitReached = true)
 
+  def withExecutionMode(executionMode: CypherExecutionMode): QueryOptions = copy(executionMode = executionMode)
+
   def cacheKey: QueryOptions.CacheKey = QueryOptions.CacheKey(
     version = version.name,
     executionMode match {
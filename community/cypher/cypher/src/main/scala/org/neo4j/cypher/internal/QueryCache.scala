@@ -19,9 +19,14 @@
  */
 package org.neo4j.cypher.internal
 
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
 import com.github.benmanes.caffeine.cache.Cache
 import com.github.benmanes.caffeine.cache.Caffeine
 import org.neo4j.cypher.CypherReplanOption
+import org.neo4j.cypher.internal.QueryCache.COMPILATION_WAIT_SLICE_MILLIS
 import org.neo4j.cypher.internal.QueryCache.NOT_PRESENT
 import org.neo4j.cypher.internal.QueryCache.ParameterTypeMap
 import org.neo4j.cypher.internal.cache.CaffeineCacheFactory
@@ -34,6 +39,8 @@ import org.neo4j.internal.kernel.api.TokenRead
 import org.neo4j.kernel.impl.query.TransactionalContext
 import org.neo4j.values.virtual.MapValue
 
+import scala.collection.JavaConverters.mapAsScalaConcurrentMapConverter
+
 /**
  * Tracer for cache activity.
  */
@@ -102,7 +109,11 @@ trait CompilerWithExpressionCodeGenOption[EXECUTABLE_QUERY] {
 
 sealed trait Staleness
 case object NotStale extends Staleness
-case class Stale(secondsSincePlan: Int, maybeReason: Option[String]) extends Staleness
+/**
+ * @param usableWhileReplanning whether the stale plan still produces correct results, and can be used by other
+ *                              queries while one of them replans it.
+ */
+case class Stale(secondsSincePlan: Int, maybeReason: Option[String], usableWhileReplanning: Boolean = false) extends Staleness
 
 /**
  * Callback interface to find out if a query has become stale
@@ -120,9 +131,15 @@ trait PlanStalenessCaller[EXECUTABLE_QUERY] {
  * PlanStalenessCaller to verify that CEQs are reusable before returning. A CEQ
  * which is detected in the cache, but is found to be stale
  *
+ * Only one thread at a time compiles a query for a given key. Other threads that miss
+ * the cache for that key wait for that compilation, and then look in the cache again.
+ * Other threads that find a stale plan that is usable while replanning use that plan
+ * instead of waiting.
+ *
  * @param maximumSize Maximum size of this cache
  * @param stalenessCaller Decided whether CachedExecutionPlans are stale
  * @param tracer Traces cache activity
+ * @param maxCompilationWaitMillis How long to wait in total for another compilation of the same query
  */
 class QueryCache[QUERY_REP <: AnyRef,
                  QUERY_KEY <: Pair[QUERY_REP, ParameterTypeMap],
@@ -130,15 +147,27 @@ class QueryCache[QUERY_REP <: AnyRef,
                                                        val cacheFactory: CaffeineCacheFactory,
                                                        val maximumSize: Int,
                                                        val stalenessCaller: PlanStalenessCaller[EXECUTABLE_QUERY],
-                                                       val tracer: CacheTracer[Pair[QUERY_REP, ParameterTypeMap]]) {
+                                                       val tracer: CacheTracer[Pair[QUERY_REP, ParameterTypeMap]],
+                                                       val maxCompilationWaitMillis: Long = QueryCache.MAX_COMPILATION_WAIT_MILLIS) {
 
   private val inner: Cache[QUERY_KEY, CachedValue] = cacheFactory.createCache[QUERY_KEY, CachedValue](maximumSize)
 
+  /*
+   * Compilations in progress, by the key they will be cached under.
+   */
+  private val compilations = new ConcurrentHashMap[QUERY_KEY, CountDownLatch]()
+
+  /*
+   * Keys whose most recent compilation produced a query that should not be cached. No caller can benefit from
+   * another caller compiling such a key, so they are compiled by every caller without waiting for each other.
+   */
+  private val uncacheableKeys: Cache[QUERY_KEY, java.lang.Boolean] = cacheFactory.createCache[QUERY_KEY, java.lang.Boolean](maximumSize)
+
   /*
     * The cached value wraps the value and maintains a count of how many times it has been fetched from the cache
     * and whether or not it has been recompiled with expression code generation.
     */
-  private class CachedValue(val value: EXECUTABLE_QUERY, val recompiledWithExpressionCodeGen: Boolean) {
+  private class CachedValue(val value: EXECUTABLE_QUERY, val recompiledWithExpressionCodeGen: Boolean, val metaData: String) {
 
     @volatile private var _numberOfHits = 0
 
@@ -191,7 +220,9 @@ class QueryCache[QUERY_REP <: AnyRef,
           if (replanStrategy == CypherReplanOption.force)
             compileWithExpressionCodeGenAndCache(queryKey, compiler, metaData)
           else
-            compileAndCache(queryKey, compiler, metaData)
+            compileOnce(queryKey,
+              compileAndCache(queryKey, compiler, metaData),
+              otherCompilation => awaitAndRetry(otherCompilation, queryKey, tc, compiler, replanStrategy, metaData))
 
         case cachedValue =>
           //mark as seen from cache
@@ -210,16 +241,84 @@ class QueryCache[QUERY_REP <: AnyRef,
                   } else {
                     recompileOrGet(cachedValue, compiler, queryKey, metaData)
                   }
-                case Stale(secondsSincePlan, maybeReason) =>
-                  tracer.queryCacheStale(queryKey, secondsSincePlan, metaData, maybeReason)
-                  if (cachedValue.recompiledWithExpressionCodeGen) compileWithExpressionCodeGenAndCache(queryKey, compiler, metaData)
-                  else compileAndCache(queryKey, compiler, metaData)
+                case Stale(secondsSincePlan, maybeReason, usableWhileReplanning) =>
+                  compileOnce(queryKey, {
+                    tracer.queryCacheStale(queryKey, secondsSincePlan, metaData, maybeReason)
+                    if (cachedValue.recompiledWithExpressionCodeGen) compileWithExpressionCodeGenAndCache(queryKey, compiler, metaData)
+                    else compileAndCache(queryKey, compiler, metaData)
+                  }, otherCompilation =>
+                    if (usableWhileReplanning) hit(queryKey, cachedValue, metaData)
+                    else awaitAndRetry(otherCompilation, queryKey, tc, compiler, replanStrategy, metaData)
+                  )
               }
           }
       }
     }
   }
 
+  /**
+   * Compile a query, unless another thread is already compiling a query for the same key.
+   * Keys known to compile to queries that should not be cached are always compiled right away.
+   *
+   * @param compile compiles and caches the query
+   * @param whileOtherCompilation what to do instead, given the latch that is released when the other compilation completes
+   */
+  private def compileOnce(queryKey: QUERY_KEY,
+                          compile: => EXECUTABLE_QUERY,
+                          whileOtherCompilation: CountDownLatch => EXECUTABLE_QUERY
+                         ): EXECUTABLE_QUERY = {
+    if (uncacheableKeys.getIfPresent(queryKey) != null) {
+      return compile
+    }
+    val compilation = new CountDownLatch(1)
+    val otherCompilation = compilations.putIfAbsent(queryKey, compilation)
+    if (otherCompilation != null) {
+      whileOtherCompilation(otherCompilation)
+    } else {
+      try {
+        compile
+      } finally {
+        compilations.remove(queryKey, compilation)
+        compilation.countDown()
+      }
+    }
+  }
+
+  /**
+   * Wait for another compilation of the same key to complete, and look in the cache again.
+   * The other compilation might have failed, or produced a query that should not be cached,
+   * in which case we end up compiling the query ourselves. If interrupted while waiting,
+   * we compile the query ourselves right away. If the transaction of the caller is terminated,
+   * e.g. killed or timed out, while waiting, we stop waiting and fail.
+   *
+   * The wait is invisible to deadlock detection, so the other compilation could be waiting for locks
+   * held by the transaction of the caller. We therefore only wait up to [[maxCompilationWaitMillis]],
+   * and then compile the query ourselves like when interrupted.
+   */
+  private def awaitAndRetry(otherCompilation: CountDownLatch,
+                            queryKey: QUERY_KEY,
+                            tc: TransactionalContext,
+                            compiler: CompilerWithExpressionCodeGenOption[EXECUTABLE_QUERY],
+                            replanStrategy: CypherReplanOption,
+                            metaData: String
+                           ): EXECUTABLE_QUERY = {
+    val completed = try {
+      val deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxCompilationWaitMillis)
+      var released = otherCompilation.await(COMPILATION_WAIT_SLICE_MILLIS, TimeUnit.MILLISECONDS)
+      while (!released && System.nanoTime() - deadline < 0) {
+        tc.kernelTransaction().assertOpen()
+        released = otherCompilation.await(COMPILATION_WAIT_SLICE_MILLIS, TimeUnit.MILLISECONDS)
+      }
+      released
+    } catch {
+      case _: InterruptedException =>
+        Thread.currentThread().interrupt()
+        false
+    }
+    if (completed) computeIfAbsentOrStale(queryKey, tc, compiler, replanStrategy, metaData)
+    else compileAndCache(queryKey, compiler, metaData)
+  }
+
   /**
    * Check if certain warnings are not valid anymore.
    */
@@ -259,7 +358,7 @@ class QueryCache[QUERY_REP <: AnyRef,
       compiler.maybeCompileWithExpressionCodeGen(cachedValue.numberOfHits) match {
         case Some(recompiledQuery) =>
           tracer.queryCompileWithExpressionCodeGen(queryKey, metaData)
-          val recompiled = new CachedValue(recompiledQuery, recompiledWithExpressionCodeGen = true)
+          val recompiled = new CachedValue(recompiledQuery, recompiledWithExpressionCodeGen = true, metaData)
           inner.put(queryKey, recompiled)
           recompiled
         case None => cachedValue
@@ -304,13 +403,15 @@ class QueryCache[QUERY_REP <: AnyRef,
                                                            ): EXECUTABLE_QUERY = {
     val newExecutableQuery = compile()
     if (newExecutableQuery.shouldBeCached) {
-      val cachedValue = new CachedValue(newExecutableQuery, recompiledWithExpressionCodeGen = false)
+      uncacheableKeys.invalidate(queryKey)
+      val cachedValue = new CachedValue(newExecutableQuery, recompiledWithExpressionCodeGen = false, metaData)
       inner.put(queryKey, cachedValue)
       if (hitCache)
         hit(queryKey, cachedValue, metaData)
       else
         miss(queryKey, newExecutableQuery, metaData)
     } else {
+      uncacheableKeys.put(queryKey, java.lang.Boolean.TRUE)
       miss(queryKey, newExecutableQuery, metaData)
     }
   }
@@ -331,6 +432,13 @@ class QueryCache[QUERY_REP <: AnyRef,
     newExecutableQuery
   }
 
+  /**
+   * Snapshot of the keys currently in the cache, together with the meta data that was
+   * passed in when their values were compiled.
+   */
+  def cachedKeys(): Seq[(QUERY_KEY, String)] =
+    inner.asMap().asScala.map { case (key, cachedValue) => (key, cachedValue.metaData) }.toVector
+
   /**
    * Method for clearing the LRUCache
    *
@@ -340,6 +448,7 @@ class QueryCache[QUERY_REP <: AnyRef,
     val priorSize = inner.estimatedSize()
     inner.invalidateAll()
     inner.cleanUp()
+    uncacheableKeys.invalidateAll()
     tracer.queryCacheFlush(priorSize)
     priorSize
   }
@@ -348,6 +457,16 @@ class QueryCache[QUERY_REP <: AnyRef,
 object QueryCache {
   val NOT_PRESENT: ExecutableQuery = null
 
+  /**
+   * How long to wait for another compilation of the same key at a time, before checking whether the waiting transaction has been terminated.
+   */
+  val COMPILATION_WAIT_SLICE_MILLIS = 100L
+
+  /**
+   * How long to wait for another compilation of the same key in total, before compiling the query independently.
+   */
+  val MAX_COMPILATION_WAIT_MILLIS = 5000L
+
   /**
     * Representation of the query parameter types for a query invocation.
     *
@@ -357,6 +476,11 @@ object QueryCache {
   class ParameterTypeMap private[QueryCache](private val resultMap: java.util.Map[String, Class[_]], _hashCode: Int) {
     override def hashCode(): Int = _hashCode
 
+    /**
+     * @return the value class of each parameter, by parameter name
+     */
+    def parameterTypes: java.util.Map[String, Class[_]] = java.util.Collections.unmodifiableMap(resultMap)
+
     override def equals(obj: Any): Boolean = {
       obj match {
         case other: ParameterTypeMap =>
@@ -19,15 +19,26 @@
  */
 package org.neo4j.cypher.internal
 
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.atomic.AtomicInteger
+
 import org.mockito.Mockito.atLeastOnce
+import org.mockito.Mockito.doThrow
 import org.mockito.Mockito.verify
+import org.mockito.Mockito.when
 import org.neo4j.cypher.CypherReplanOption
+import org.neo4j.cypher.internal.QueryCacheTest.Key
+import org.neo4j.cypher.internal.QueryCacheTest.MyValue
 import org.neo4j.cypher.internal.QueryCacheTest.TC
 import org.neo4j.cypher.internal.QueryCacheTest.compilerWithExpressionCodeGenOption
 import org.neo4j.cypher.internal.QueryCacheTest.newCache
 import org.neo4j.cypher.internal.QueryCacheTest.newKey
 import org.neo4j.cypher.internal.QueryCacheTest.newTracer
 import org.neo4j.cypher.internal.util.test_helpers.CypherFunSuite
+import org.neo4j.graphdb.TransactionTerminatedException
+import org.neo4j.kernel.api.KernelTransaction
+import org.neo4j.kernel.api.exceptions.Status
+import org.neo4j.kernel.impl.query.TransactionalContext
 
 import scala.concurrent.Await
 import scala.concurrent.ExecutionContext.Implicits.global
@@ -70,4 +81,139 @@ class QueryCacheStressTest extends CypherFunSuite {
     verify(tracer, atLeastOnce()).queryCacheHit(key, "")
     verify(tracer, atLeastOnce()).queryCacheMiss(key, "")
   }
+
+  test("should compile only once when missing the cache from multiple threads") {
+    // Given
+    val cache = newCache()
+    val key = newKey("foo")
+    val compilations = new AtomicInteger()
+    val compilationStarted = new CountDownLatch(1)
+    val releaseCompilation = new CountDownLatch(1)
+    val compiler = blockingCompiler(key, compilations, compilationStarted, releaseCompilation)
+
+    // When
+    val futures = Future.sequence((1 to 10).map(_ => Future {
+      cache.computeIfAbsentOrStale(key, TC, compiler, CypherReplanOption.default)
+    }))
+    compilationStarted.await()
+    releaseCompilation.countDown()
+
+    // Then
+    Await.result(futures, 60.seconds) should have size 10
+    compilations.get() should equal(1)
+  }
+
+  test("should use stale plan that is usable while replanning while another thread replans") {
+    // Given
+    val stalenessCaller: PlanStalenessCaller[MyValue] = (_, _) => Stale(1, None, usableWhileReplanning = true)
+    val cache = newCache(stalenessCaller = stalenessCaller)
+    val key = newKey("foo")
+    val stalePlan = cache.computeIfAbsentOrStale(key, TC, compilerWithExpressionCodeGenOption(key), CypherReplanOption.skip)
+    val compilationStarted = new CountDownLatch(1)
+    val releaseCompilation = new CountDownLatch(1)
+    val replanning = Future {
+      cache.computeIfAbsentOrStale(key, TC, blockingCompiler(key, new AtomicInteger(), compilationStarted, releaseCompilation), CypherReplanOption.default)
+    }
+    compilationStarted.await()
+
+    // When
+    val plan = cache.computeIfAbsentOrStale(key, TC, compilerWithExpressionCodeGenOption(key), CypherReplanOption.default)
+
+    // Then
+    plan should be theSameInstanceAs stalePlan
+    replanning.isCompleted should be(false)
+    releaseCompilation.countDown()
+    (Await.result(replanning, 60.seconds) eq stalePlan) should be(false)
+  }
+
+  test("should not wait for other compilations of queries that should not be cached") {
+    // Given
+    val cache = newCache()
+    val key = newKey("foo")
+    cache.computeIfAbsentOrStale(key, TC, uncacheableCompiler(key), CypherReplanOption.default)
+    val compilationStarted = new CountDownLatch(1)
+    val releaseCompilation = new CountDownLatch(1)
+    val blocked = Future {
+      cache.computeIfAbsentOrStale(key, TC, blockingCompiler(key, new AtomicInteger(), compilationStarted, releaseCompilation, cacheable = false),
+        CypherReplanOption.default)
+    }
+    compilationStarted.await()
+
+    // When
+    val compiled = cache.computeIfAbsentOrStale(key, TC, uncacheableCompiler(key), CypherReplanOption.default)
+
+    // Then
+    compiled.shouldBeCached should be(false)
+    blocked.isCompleted should be(false)
+    releaseCompilation.countDown()
+    Await.result(blocked, 60.seconds)
+  }
+
+  test("should stop waiting for another compilation when the transaction is terminated") {
+    // Given
+    val cache = newCache()
+    val key = newKey("foo")
+    val compilationStarted = new CountDownLatch(1)
+    val releaseCompilation = new CountDownLatch(1)
+    val compiling = Future {
+      cache.computeIfAbsentOrStale(key, TC, blockingCompiler(key, new AtomicInteger(), compilationStarted, releaseCompilation), CypherReplanOption.default)
+    }
+    compilationStarted.await()
+    val terminatedTransaction = mock[KernelTransaction]
+    doThrow(new TransactionTerminatedException(Status.Transaction.Terminated)).when(terminatedTransaction).assertOpen()
+    val terminatedTC = mock[TransactionalContext]
+    when(terminatedTC.kernelTransaction()).thenReturn(terminatedTransaction)
+
+    // When, Then
+    a[TransactionTerminatedException] should be thrownBy
+      cache.computeIfAbsentOrStale(key, terminatedTC, compilerWithExpressionCodeGenOption(key), CypherReplanOption.default)
+    compiling.isCompleted should be(false)
+    releaseCompilation.countDown()
+    Await.result(compiling, 60.seconds)
+  }
+
+  test("should compile independently when another compilation takes longer than the maximum wait") {
+    // Given
+    val cache = newCache(maxCompilationWaitMillis = 300)
+    val key = newKey("foo")
+    val compilationStarted = new CountDownLatch(1)
+    val releaseCompilation = new CountDownLatch(1)
+    val compiling = Future {
+      cache.computeIfAbsentOrStale(key, TC, blockingCompiler(key, new AtomicInteger(), compilationStarted, releaseCompilation), CypherReplanOption.default)
+    }
+    compilationStarted.await()
+
+    // When
+    val compiled = cache.computeIfAbsentOrStale(key, TC, compilerWithExpressionCodeGenOption(key), CypherReplanOption.default)
+
+    // Then
+    compiled.key should equal(key.first())
+    compiling.isCompleted should be(false)
+    releaseCompilation.countDown()
+    Await.result(compiling, 60.seconds)
+  }
+
+  private def uncacheableCompiler(key: Key): CompilerWithExpressionCodeGenOption[MyValue] =
+    blockingCompiler(key, new AtomicInteger(), new CountDownLatch(1), new CountDownLatch(0), cacheable = false)
+
+  private def blockingCompiler(key: Key,
+                               compilations: AtomicInteger,
+                               compilationStarted: CountDownLatch,
+                               releaseCompilation: CountDownLatch,
+                               cacheable: Boolean = true): CompilerWithExpressionCodeGenOption[MyValue] =
+    new CompilerWithExpressionCodeGenOption[MyValue] {
+      override def compile(): MyValue = {
+        compilations.incrementAndGet()
+        compilationStarted.countDown()
+        releaseCompilation.await()
+        if (cacheable) MyValue(key.first())(compiledWithExpressionCodeGen = false)
+        else new MyValue(key.first())(compiledWithExpressionCodeGen = false) {
+          override def shouldBeCached: Boolean = false
+        }
+      }
+
+      override def compileWithExpressionCodeGen(): MyValue = compile()
+
+      override def maybeCompileWithExpressionCodeGen(hitCount: Int): Option[MyValue] = None
+    }
 }
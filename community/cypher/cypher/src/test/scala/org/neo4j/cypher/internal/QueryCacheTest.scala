@@ -36,6 +36,7 @@ import org.neo4j.cypher.internal.cache.TestExecutorCaffeineCacheFactory
 import org.neo4j.cypher.internal.util.InternalNotification
 import org.neo4j.cypher.internal.util.test_helpers.CypherFunSuite
 import org.neo4j.internal.helpers.collection.Pair
+import org.neo4j.kernel.api.KernelTransaction
 import org.neo4j.kernel.impl.query.TransactionalContext
 import org.neo4j.values.storable.Values
 import org.neo4j.values.virtual.VirtualValues
@@ -319,6 +320,28 @@ class QueryCacheTest extends CypherFunSuite {
     verifyNoMoreInteractions(tracer)
   }
 
+  test("cached keys should contain the keys in the cache with the meta data they were compiled with") {
+    // Given
+    val cache = newCache()
+    val key1 = newKey("key1")
+    val key2 = newKey("key2")
+
+    // When
+    cache.computeIfAbsentOrStale(key1, TC, compilerWithExpressionCodeGenOption(key1), CypherReplanOption.default, "meta1")
+    cache.computeIfAbsentOrStale(key2, TC, compilerWithExpressionCodeGenOption(key2), CypherReplanOption.default, "meta2")
+
+    // Then
+    cache.cachedKeys() should contain theSameElementsAs Seq((key1, "meta1"), (key2, "meta2"))
+  }
+
+  test("parameterTypeMap should expose the parameter types") {
+    val params = VirtualValues.map(Array("a", "b"), Array(Values.longValue(3), Values.utf8Value("hi")))
+    val typeMap = QueryCache.extractParameterTypeMap(params)
+    typeMap.parameterTypes.get("a") shouldBe Values.longValue(3).getClass
+    typeMap.parameterTypes.get("b") shouldBe Values.utf8Value("hi").getClass
+    typeMap.parameterTypes.size() shouldBe 2
+  }
+
   test("parameterTypeMap should equal if same parameters") {
     val params1 = VirtualValues.map(Array("a", "b", "c"), Array(Values.of(3), Values.of("hi"), VirtualValues.list(Values.of(false), Values.of(true))))
     val params2 = VirtualValues.map(Array("a", "b", "c"), Array(Values.of(3), Values.of("hi"), VirtualValues.list(Values.of(false), Values.of(true))))
@@ -372,6 +395,7 @@ object QueryCacheTest extends MockitoSugar {
   }
 
   val TC: TransactionalContext = mock[TransactionalContext]
+  Mockito.when(TC.kernelTransaction()).thenReturn(mock[KernelTransaction])
   private val RECOMPILE_LIMIT = 2
   private val cacheFactory = TestExecutorCaffeineCacheFactory
 
@@ -390,8 +414,9 @@ object QueryCacheTest extends MockitoSugar {
 
   def newKey(string: String): Key = Pair.of(string, ParameterTypeMap.empty)
 
-  def newCache(tracer: Tracer = newTracer(), stalenessCaller: PlanStalenessCaller[MyValue] = neverStale(), size: Int = 10): QueryCache[String, Pair[String, ParameterTypeMap], MyValue] = {
-    new QueryCache[String, Pair[String, ParameterTypeMap], MyValue](cacheFactory, size, stalenessCaller, tracer)
+  def newCache(tracer: Tracer = newTracer(), stalenessCaller: PlanStalenessCaller[MyValue] = neverStale(), size: Int = 10,
+               maxCompilationWaitMillis: Long = QueryCache.MAX_COMPILATION_WAIT_MILLIS): QueryCache[String, Pair[String, ParameterTypeMap], MyValue] = {
+    new QueryCache[String, Pair[String, ParameterTypeMap], MyValue](cacheFactory, size, stalenessCaller, tracer, maxCompilationWaitMillis)
   }
 
   def newTracer(): Tracer = mock[Tracer]
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.javacompat
+
+import java.nio.file.Path
+
+import org.mockito.Mockito.when
+import org.neo4j.cypher.internal.QueryCache
+import org.neo4j.cypher.internal.util.test_helpers.CypherFunSuite
+import org.neo4j.internal.helpers.collection.Pair
+import org.neo4j.io.fs.EphemeralFileSystemAbstraction
+import org.neo4j.io.layout.DatabaseLayout
+import org.neo4j.kernel.internal.GraphDatabaseAPI
+import org.neo4j.logging.NullLogProvider
+import org.neo4j.scheduler.JobScheduler
+import org.neo4j.values.storable.DateValue
+import org.neo4j.values.storable.Values
+import org.neo4j.values.virtual.MapValue
+import org.neo4j.values.virtual.VirtualValues
+
+import scala.collection.JavaConverters.asScalaBufferConverter
+import scala.collection.JavaConverters.seqAsJavaListConverter
+
+class QueryCacheWarmupTest extends CypherFunSuite {
+
+  private var fs: EphemeralFileSystemAbstraction = _
+
+  override protected def beforeEach(): Unit = {
+    super.beforeEach()
+    fs = new EphemeralFileSystemAbstraction()
+  }
+
+  override protected def afterEach(): Unit = {
+    fs.close()
+    super.afterEach()
+  }
+
+  test("should read back written queries with parameters of the same types") {
+    val warmup = newWarmup()
+    val params = VirtualValues.map(Array("a", "b", "c"), Array(Values.longValue(42), Values.utf8Value("hi"), VirtualValues.list(Values.TRUE)))
+
+    warmup.writeQueries(Seq(
+      Pair.of("MATCH (n) RETURN n", QueryCache.extractParameterTypeMap(VirtualValues.EMPTY_MAP)),
+      Pair.of("CYPHER runtime=slotted MATCH (n) WHERE n.a = $a AND n.b = $b AND n.c IN $c RETURN n", QueryCache.extractParameterTypeMap(params))
+    ).asJava)
+
+    val queries = warmup.readQueries().asScala
+    queries.map(_.first()) should equal(Seq("MATCH (n) RETURN n", "CYPHER runtime=slotted MATCH (n) WHERE n.a = $a AND n.b = $b AND n.c IN $c RETURN n"))
+    queries.map(query => QueryCache.extractParameterTypeMap(query.other())) should equal(
+      Seq(QueryCache.extractParameterTypeMap(VirtualValues.EMPTY_MAP), QueryCache.extractParameterTypeMap(params)))
+  }
+
+  test("should skip queries with parameters of types that have no representative value") {
+    val warmup = newWarmup()
+    val params = VirtualValues.map(Array("a", "date"), Array(Values.longValue(42), DateValue.date(2020, 1, 1)))
+
+    warmup.writeQueries(Seq(
+      Pair.of("RETURN $a, $date", QueryCache.extractParameterTypeMap(params)),
+      Pair.of("RETURN 1", QueryCache.extractParameterTypeMap(VirtualValues.EMPTY_MAP))
+    ).asJava)
+
+    warmup.readQueries().asScala.map(_.first()) should equal(Seq("RETURN 1"))
+  }
+
+  test("should replace previously written queries") {
+    val warmup = newWarmup()
+    val noParams: MapValue = VirtualValues.EMPTY_MAP
+
+    warmup.writeQueries(Seq(Pair.of("RETURN 1", QueryCache.extractParameterTypeMap(noParams))).asJava)
+    warmup.writeQueries(Seq(Pair.of("RETURN 2", QueryCache.extractParameterTypeMap(noParams))).asJava)
+
+    warmup.readQueries().asScala.map(_.first()) should equal(Seq("RETURN 2"))
+  }
+
+  private def newWarmup(): QueryCacheWarmup = {
+    val databaseDirectory = Path.of("data", "databases", "neo4j")
+    fs.mkdirs(databaseDirectory)
+    val database = mock[GraphDatabaseAPI]
+    when(database.databaseLayout()).thenReturn(DatabaseLayout.ofFlat(databaseDirectory))
+    new QueryCacheWarmup(mock[ExecutionEngine], database, mock[GraphDatabaseCypherService], fs, mock[JobScheduler], NullLogProvider.getInstance())
+  }
+}
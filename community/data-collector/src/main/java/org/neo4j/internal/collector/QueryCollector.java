@@ -23,25 +23,31 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 import org.neo4j.kernel.api.exceptions.InvalidArgumentsException;
 import org.neo4j.kernel.api.query.ExecutingQuery;
-import org.neo4j.kernel.api.query.QuerySnapshot;
 import org.neo4j.kernel.database.NamedDatabaseId;
 import org.neo4j.kernel.impl.query.QueryExecutionMonitor;
 import org.neo4j.scheduler.Group;
 import org.neo4j.scheduler.JobMonitoringParams;
 import org.neo4j.scheduler.JobScheduler;
 
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
 /**
  * Thread-safe query collector.
  *
  * Delegates to {@link RecentQueryBuffer} to hard limit the number of collected queries at any point in time.
+ *
+ * If configured with a profile sample interval, a random sample of the collected queries is also profiled by the query engine,
+ * and the profiler statistics of each operator are collected with the query.
  */
 class QueryCollector extends CollectorStateMachine<Iterator<TruncatedQuerySnapshot>> implements QueryExecutionMonitor
 {
     private volatile boolean isCollecting;
+    private volatile int profileSampleInterval;
     private final RecentQueryBuffer recentQueryBuffer;
     private final NamedDatabaseId databaseId;
     private final JobScheduler jobScheduler;
@@ -68,12 +74,14 @@ class QueryCollector extends CollectorStateMachine<Iterator<TruncatedQuerySnapsh
     @Override
     protected Result doCollect( Map<String,Object> config, long collectionId ) throws InvalidArgumentsException
     {
-        int collectSeconds = QueryCollectorConfig.of( config ).collectSeconds;
+        QueryCollectorConfig collectorConfig = QueryCollectorConfig.of( config );
+        int collectSeconds = collectorConfig.collectSeconds;
         if ( collectSeconds > 0 )
         {
             var monitoringParams = JobMonitoringParams.systemJob( databaseId.name(), "Timeout of query collection" );
             jobScheduler.schedule( Group.DATA_COLLECTOR, monitoringParams, () -> QueryCollector.this.stop( collectionId ), collectSeconds, TimeUnit.SECONDS );
         }
+        profileSampleInterval = collectorConfig.profileSampleInterval;
         isCollecting = true;
         return success( "Collection started." );
     }
@@ -105,6 +113,11 @@ class QueryCollector extends CollectorStateMachine<Iterator<TruncatedQuerySnapsh
     @Override
     public void startProcessing( ExecutingQuery query )
     {
+        int sampleInterval = profileSampleInterval;
+        if ( isCollecting && sampleInterval > 0 && ThreadLocalRandom.current().nextInt( sampleInterval ) == 0 )
+        {
+            query.requestProfiling();
+        }
     }
 
     @Override
@@ -127,22 +140,23 @@ class QueryCollector extends CollectorStateMachine<Iterator<TruncatedQuerySnapsh
     {
         if ( isCollecting )
         {
-            QuerySnapshot snapshot = query.snapshot();
+            // Avoid the cost of a full query snapshot, this is called on the completion of every query
             var databaseId = query.databaseId().orElse( null );
-            var queryText = snapshot.obfuscatedQueryText().orElse( null );
-            var parameters = snapshot.obfuscatedQueryParameters().orElse( null );
+            var queryText = query.obfuscatedQueryText().orElse( null );
+            var parameters = query.obfuscatedQueryParameters().orElse( null );
 
             if ( databaseId != null && queryText != null && parameters != null )
             {
-                recentQueryBuffer.produce(
-                    new TruncatedQuerySnapshot( databaseId,
-                                                queryText,
-                                                snapshot.queryPlanSupplier(),
-                                                parameters,
-                                                snapshot.elapsedTimeMicros(),
-                                                snapshot.compilationTimeMicros(),
-                                                snapshot.startTimestampMillis(),
-                                                maxQueryTextSize ) );
+                SampledProfile profile = query.isProfilingRequested() ? query.profiledPlanDescription().map( SampledProfile::of ).orElse( null ) : null;
+                recentQueryBuffer.produce( databaseId,
+                                           queryText,
+                                           query.planDescriptionSupplier(),
+                                           parameters,
+                                           NANOSECONDS.toMicros( query.elapsedNanos() ),
+                                           NANOSECONDS.toMicros( query.compilationTimeNanos() ),
+                                           query.startTimestampMillis(),
+                                           maxQueryTextSize,
+                                           profile );
             }
         }
     }
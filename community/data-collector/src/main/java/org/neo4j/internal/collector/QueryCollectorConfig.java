@@ -30,16 +30,22 @@ import org.neo4j.kernel.api.exceptions.InvalidArgumentsException;
 class QueryCollectorConfig
 {
     private static final IntOption DURATION_SECONDS = new IntOption( "durationSeconds", -1 );
+    private static final IntOption PROFILE_SAMPLE_INTERVAL = new IntOption( "profileSampleInterval", 0 );
 
     static QueryCollectorConfig of( Map<String, Object> userMap ) throws InvalidArgumentsException
     {
-        return new QueryCollectorConfig( DURATION_SECONDS.parseOrDefault( userMap ) );
+        return new QueryCollectorConfig( DURATION_SECONDS.parseOrDefault( userMap ), PROFILE_SAMPLE_INTERVAL.parseOrDefault( userMap ) );
     }
 
     final int collectSeconds;
+    /**
+     * On average one in this many collected queries is also profiled, 0 means that no queries are profiled.
+     */
+    final int profileSampleInterval;
 
-    private QueryCollectorConfig( int collectSeconds )
+    private QueryCollectorConfig( int collectSeconds, int profileSampleInterval )
     {
         this.collectSeconds = collectSeconds;
+        this.profileSampleInterval = profileSampleInterval;
     }
 }
@@ -19,50 +19,171 @@
  */
 package org.neo4j.internal.collector;
 
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
+import org.neo4j.graphdb.ExecutionPlanDescription;
 import org.neo4j.kernel.database.NamedDatabaseId;
 import org.neo4j.memory.HeapEstimator;
 import org.neo4j.memory.MemoryTracker;
 import org.neo4j.util.Preconditions;
+import org.neo4j.values.virtual.MapValue;
+
+import static java.util.concurrent.atomic.AtomicLongFieldUpdater.newUpdater;
 
 /**
  * Bounded buffer containing meta data about the most recent query invocations across the dbms.
+ *
+ * The buffer is a ring of preallocated query records, which are overwritten in place. Producing a query into the buffer
+ * therefore does not allocate anything but the truncated query data itself, and only updates the memory tracker with the
+ * difference in size to the overwritten query. Many threads can produce queries concurrently. Each record is guarded by a
+ * sequence number, which producers claim the record with, and which readers use to detect and skip records that were
+ * overwritten while they were being read.
  */
 public class RecentQueryBuffer
 {
-    private final RingRecentBuffer<TruncatedQuerySnapshot> queries;
+    private static final long CLAIMED = Long.MIN_VALUE;
+
+    private final int size;
+    private final int mask;
+    private final QueryRecord[] records;
+    private final AtomicLong produceCount;
+    private final AtomicLong dropEvents;
     private final MemoryTracker memoryTracker;
 
     private static final long SHALLOW_SIZE = HeapEstimator.shallowSizeOfInstance( RecentQueryBuffer.class ) +
-                                             HeapEstimator.shallowSizeOfInstance( Consumer.class );
+                                             2 * HeapEstimator.shallowSizeOfInstance( AtomicLong.class );
+    private static final long RECORD_SHALLOW_SIZE = HeapEstimator.shallowSizeOfInstance( QueryRecord.class );
+    private static final long SUPPLIER_SHALLOW_SIZE = HeapEstimator.shallowSizeOfInstance( Supplier.class );
 
     public RecentQueryBuffer( int maxRecentQueryCount, MemoryTracker memoryTracker )
     {
         this.memoryTracker = memoryTracker;
         // Round down to the nearest power of 2
-        int queryBufferSize = Integer.highestOneBit( maxRecentQueryCount );
-        queries = new RingRecentBuffer<>( queryBufferSize, discarded -> memoryTracker.releaseHeap( discarded.estimatedHeap ) );
-        memoryTracker.allocateHeap( queries.estimatedHeapUsage() + SHALLOW_SIZE );
+        size = Integer.highestOneBit( maxRecentQueryCount );
+        mask = size - 1;
+
+        records = new QueryRecord[size];
+        for ( int i = 0; i < size; i++ )
+        {
+            records[i] = new QueryRecord( i - size );
+        }
+
+        produceCount = new AtomicLong( 0 );
+        dropEvents = new AtomicLong( 0 );
+        memoryTracker.allocateHeap( SHALLOW_SIZE + HeapEstimator.shallowSizeOf( records ) + size * RECORD_SHALLOW_SIZE );
     }
 
     public long numSilentQueryDrops()
     {
-        return queries.numSilentQueryDrops();
+        return dropEvents.get();
     }
 
+    /* ---- many producers ---- */
+
     /**
-     * Produce a new query into the buffer.
+     * Produce a new query into the buffer. The query text and parameters are truncated before they are stored.
      */
-    public void produce( TruncatedQuerySnapshot query )
+    void produce( NamedDatabaseId databaseId,
+                  String fullQueryText,
+                  Supplier<ExecutionPlanDescription> queryPlanSupplier,
+                  MapValue queryParameters,
+                  long elapsedTimeMicros,
+                  long compilationTimeMicros,
+                  long startTimestampMillis,
+                  int maxQueryTextLength,
+                  SampledProfile profile )
     {
-        Preconditions.checkArgument( query.databaseId != null,
+        Preconditions.checkArgument( databaseId != null,
                                      "Only queries targeting a specific database are expected in the recent query buffer." );
+        if ( size == 0 )
+        {
+            return;
+        }
+
+        // Truncate before claiming the record, to keep the time that concurrent readers and producers may have to wait for it short
+        String queryText = TruncatedQuerySnapshot.truncateQueryText( fullQueryText, maxQueryTextLength );
+        MapValue truncatedParameters = TruncatedQuerySnapshot.truncateParameters( queryParameters );
+        long estimatedHeap = SUPPLIER_SHALLOW_SIZE + HeapEstimator.sizeOf( queryText ) + truncatedParameters.estimatedHeapUsage() +
+                             ( profile == null ? 0 : profile.estimatedHeap );
 
-        memoryTracker.allocateHeap( query.estimatedHeap );
-        queries.produce( query );
+        long produceNumber = produceCount.getAndIncrement();
+        QueryRecord record = records[(int) (produceNumber & mask)];
+        if ( !claimAfterPreviousCompleted( record, produceNumber - size ) )
+        {
+            // If we don't manage to wait for the previous produce to complete, we drop this query to avoid causing
+            // a problem in db operation. We increment dropEvents to so the consumer can detect that there has been a drop.
+            dropEvents.incrementAndGet();
+            return;
+        }
+
+        long overwrittenEstimatedHeap = record.estimatedHeap;
+        record.databaseId = databaseId;
+        record.fullQueryTextHash = fullQueryText.hashCode();
+        record.queryText = queryText;
+        record.queryPlanSupplier = queryPlanSupplier;
+        record.queryParameters = truncatedParameters;
+        record.elapsedTimeMicros = elapsedTimeMicros;
+        record.compilationTimeMicros = compilationTimeMicros;
+        record.startTimestampMillis = startTimestampMillis;
+        record.profile = profile;
+        record.estimatedHeap = estimatedHeap;
+        record.sequence = produceNumber; // write barrier - must be last
+
+        trackHeapDifference( estimatedHeap - overwrittenEstimatedHeap );
+    }
+
+    private static boolean claimAfterPreviousCompleted( QueryRecord record, long previousSequence )
+    {
+        int attempts = 100;
+        while ( !record.claim( previousSequence ) && (previousSequence < 0 || !record.claim( cleared( previousSequence ) )) )
+        {
+            // Coming in here is expected to be very rare, because it means that producers have circled around the ring,
+            // and the producer `size` queries ago hasn't finished writing to the record. We yield and hope the previous
+            // produce is done when we get back.
+            if ( --attempts == 0 )
+            {
+                return false;
+            }
+            try
+            {
+                Thread.sleep( 0, 1000 );
+            }
+            catch ( InterruptedException e )
+            {
+                // continue
+            }
+        }
+        return true;
     }
 
+    /**
+     * @return the sequence a record holding the query produced as {@code sequence} gets when that query is cleared. It never matches
+     * a produce number, so readers reject the record, and it is unique per produce number, so only the producer that would have
+     * overwritten the query can claim the record.
+     */
+    private static long cleared( long sequence )
+    {
+        return ~sequence;
+    }
+
+    private void trackHeapDifference( long bytes )
+    {
+        if ( bytes > 0 )
+        {
+            memoryTracker.allocateHeap( bytes );
+        }
+        else if ( bytes < 0 )
+        {
+            memoryTracker.releaseHeap( -bytes );
+        }
+    }
+
+    /* ---- consumers ---- */
+
     /**
      * Clear all query meta data for the given database from this buffer.
      */
@@ -72,7 +193,19 @@ public class RecentQueryBuffer
                                      "Only queries targeting a specific database are expected in the recent query buffer, " +
                                      "clearing non-database queries will have no effect.");
 
-        queries.clearIf( q -> databaseId.equals( q.databaseId ) );
+        for ( QueryRecord record : records )
+        {
+            long sequence = record.sequence;
+            if ( sequence != CLAIMED && databaseId.equals( record.databaseId ) && record.claim( sequence ) )
+            {
+                // The record cannot have been overwritten after we read the database id, since the sequence is unchanged.
+                // It is published with a cleared sequence rather than the one it had, so that readers which started reading
+                // the query before it was cleared see that the record changed under them.
+                memoryTracker.releaseHeap( record.estimatedHeap );
+                record.clear();
+                record.sequence = cleared( sequence );
+            }
+        }
     }
 
     /**
@@ -80,12 +213,86 @@ public class RecentQueryBuffer
      */
     public void foreach( NamedDatabaseId databaseId, Consumer<TruncatedQuerySnapshot> consumer )
     {
-        queries.foreach( q ->
-                         {
-                             if ( q.databaseId.equals( databaseId ) )
-                             {
-                                 consumer.accept( q );
-                             }
-                         } );
+        long snapshotProduce = produceCount.get();
+        long snapshotConsume = Math.max( 0L, snapshotProduce - size );
+        for ( long i = snapshotConsume; i < snapshotProduce; i++ )
+        {
+            TruncatedQuerySnapshot query = records[(int) (i & mask)].read( i );
+            if ( query != null && databaseId.equals( query.databaseId ) )
+            {
+                consumer.accept( query );
+            }
+        }
+    }
+
+    private static class QueryRecord
+    {
+        private static final AtomicLongFieldUpdater<QueryRecord> SEQUENCE = newUpdater( QueryRecord.class, "sequence" );
+
+        /**
+         * The produce number of the query in this record, {@link #CLAIMED} while the record is being written,
+         * or {@link #cleared(long) cleared} produce number if the query has been cleared.
+         */
+        private volatile long sequence;
+
+        /* guarded by sequence */
+        private NamedDatabaseId databaseId;
+        private int fullQueryTextHash;
+        private String queryText;
+        private Supplier<ExecutionPlanDescription> queryPlanSupplier;
+        private MapValue queryParameters;
+        private long elapsedTimeMicros;
+        private long compilationTimeMicros;
+        private long startTimestampMillis;
+        private SampledProfile profile;
+        private long estimatedHeap;
+
+        QueryRecord( long sequence )
+        {
+            this.sequence = sequence;
+        }
+
+        boolean claim( long expectedSequence )
+        {
+            return SEQUENCE.compareAndSet( this, expectedSequence, CLAIMED );
+        }
+
+        void clear()
+        {
+            databaseId = null;
+            queryText = null;
+            queryPlanSupplier = null;
+            queryParameters = null;
+            profile = null;
+            estimatedHeap = 0;
+        }
+
+        /**
+         * @return a snapshot of the query in this record, or {@code null} if the record does not hold the query produced as
+         * {@code expectedSequence}, either because it was cleared, or because it was overwritten before or while reading it.
+         */
+        TruncatedQuerySnapshot read( long expectedSequence )
+        {
+            if ( sequence != expectedSequence ) // read barrier
+            {
+                return null;
+            }
+            NamedDatabaseId databaseId = this.databaseId;
+            int fullQueryTextHash = this.fullQueryTextHash;
+            String queryText = this.queryText;
+            Supplier<ExecutionPlanDescription> queryPlanSupplier = this.queryPlanSupplier;
+            MapValue queryParameters = this.queryParameters;
+            long elapsedTimeMicros = this.elapsedTimeMicros;
+            long compilationTimeMicros = this.compilationTimeMicros;
+            long startTimestampMillis = this.startTimestampMillis;
+            SampledProfile profile = this.profile;
+            VarHandle.acquireFence(); // the reads above must not be reordered with the validation below
+            if ( sequence != expectedSequence || databaseId == null )
+            {
+                return null;
+            }
+            return new TruncatedQuerySnapshot( databaseId, fullQueryTextHash, queryText, queryPlanSupplier, queryParameters,
+                                               elapsedTimeMicros, compilationTimeMicros, startTimestampMillis, profile );
+        }
     }
 }
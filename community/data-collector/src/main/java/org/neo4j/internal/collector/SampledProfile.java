@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.collector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.graphdb.ExecutionPlanDescription;
+import org.neo4j.graphdb.ExecutionPlanDescription.ProfilerStatistics;
+import org.neo4j.memory.HeapEstimator;
+
+/**
+ * Profiler statistics of each operator of a sampled query invocation, in the order of a depth-first,
+ * left-hand side first, traversal of the plan. Statistics that the runtime did not provide are {@link #NO_DATA}.
+ */
+class SampledProfile
+{
+    static final long NO_DATA = -1;
+
+    final String[] operators;
+    final long[] rows;
+    final long[] dbHits;
+    final long[] pageCacheHits;
+    final long[] pageCacheMisses;
+    final long[] time;
+    final long estimatedHeap;
+
+    private SampledProfile( int numberOfOperators )
+    {
+        operators = new String[numberOfOperators];
+        rows = new long[numberOfOperators];
+        dbHits = new long[numberOfOperators];
+        pageCacheHits = new long[numberOfOperators];
+        pageCacheMisses = new long[numberOfOperators];
+        time = new long[numberOfOperators];
+        // Operator names are shared with the plan, so only the arrays count
+        estimatedHeap = HeapEstimator.shallowSizeOfInstance( SampledProfile.class ) +
+                        HeapEstimator.shallowSizeOfObjectArray( numberOfOperators ) +
+                        5 * HeapEstimator.sizeOfLongArray( numberOfOperators );
+    }
+
+    static SampledProfile of( ExecutionPlanDescription plan )
+    {
+        List<ExecutionPlanDescription> operators = new ArrayList<>();
+        collectOperators( plan, operators );
+
+        SampledProfile profile = new SampledProfile( operators.size() );
+        for ( int i = 0; i < operators.size(); i++ )
+        {
+            ExecutionPlanDescription operator = operators.get( i );
+            profile.operators[i] = operator.getName();
+            ProfilerStatistics statistics = operator.hasProfilerStatistics() ? operator.getProfilerStatistics() : null;
+            boolean hasPageCacheStats = statistics != null && statistics.hasPageCacheStats();
+            profile.rows[i] = statistics != null && statistics.hasRows() ? statistics.getRows() : NO_DATA;
+            profile.dbHits[i] = statistics != null && statistics.hasDbHits() ? statistics.getDbHits() : NO_DATA;
+            profile.pageCacheHits[i] = hasPageCacheStats ? statistics.getPageCacheHits() : NO_DATA;
+            profile.pageCacheMisses[i] = hasPageCacheStats ? statistics.getPageCacheMisses() : NO_DATA;
+            profile.time[i] = statistics != null && statistics.hasTime() ? statistics.getTime() : NO_DATA;
+        }
+        return profile;
+    }
+
+    private static void collectOperators( ExecutionPlanDescription plan, List<ExecutionPlanDescription> operators )
+    {
+        operators.add( plan );
+        for ( ExecutionPlanDescription child : plan.getChildren() )
+        {
+            collectOperators( child, operators );
+        }
+    }
+}
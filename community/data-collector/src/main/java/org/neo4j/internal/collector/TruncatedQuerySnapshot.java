@@ -23,7 +23,6 @@ import java.util.function.Supplier;
 
 import org.neo4j.graphdb.ExecutionPlanDescription;
 import org.neo4j.kernel.database.NamedDatabaseId;
-import org.neo4j.memory.HeapEstimator;
 import org.neo4j.values.AnyValue;
 import org.neo4j.values.SequenceValue;
 import org.neo4j.values.ValueMapper;
@@ -51,6 +50,9 @@ import org.neo4j.values.virtual.VirtualValues;
  * Variant of QuerySnapshot that truncates queryText and queryParameter data to limit the memory footprint of
  * constant query collection. This is crucial to avoid bloating memory use for data import scenarios, and in general
  * to avoid hogging lot's of memory that will be long-lived and likely tenured.
+ *
+ * The data is truncated with {@link #truncateQueryText(String, int)} and {@link #truncateParameters(MapValue)} when
+ * it is produced into the {@link RecentQueryBuffer}, snapshots are only created when reading from the buffer.
  */
 class TruncatedQuerySnapshot
 {
@@ -62,37 +64,36 @@ class TruncatedQuerySnapshot
     final long elapsedTimeMicros;
     final long compilationTimeMicros;
     final long startTimestampMillis;
-    final long estimatedHeap;
-
-    static final long SHALLOW_SIZE = HeapEstimator.shallowSizeOfInstance( TruncatedQuerySnapshot.class ) +
-                                     HeapEstimator.shallowSizeOfInstance( Supplier.class );
+    /** Profiler statistics of this invocation, or {@code null} if it was not profiled. */
+    final SampledProfile profile;
 
     TruncatedQuerySnapshot( NamedDatabaseId databaseId,
-                            String fullQueryText,
+                            int fullQueryTextHash,
+                            String queryText,
                             Supplier<ExecutionPlanDescription> queryPlanSupplier,
                             MapValue queryParameters,
                             long elapsedTimeMicros,
                             long compilationTimeMicros,
                             long startTimestampMillis,
-                            int maxQueryTextLength )
+                            SampledProfile profile )
     {
         this.databaseId = databaseId;
-        this.fullQueryTextHash = fullQueryText.hashCode();
-        this.queryText = truncateQueryText( fullQueryText, maxQueryTextLength );
+        this.fullQueryTextHash = fullQueryTextHash;
+        this.queryText = queryText;
         this.queryPlanSupplier = queryPlanSupplier;
-        this.queryParameters = truncateParameters( queryParameters );
+        this.queryParameters = queryParameters;
         this.elapsedTimeMicros = elapsedTimeMicros;
         this.compilationTimeMicros = compilationTimeMicros;
         this.startTimestampMillis = startTimestampMillis;
-        this.estimatedHeap = SHALLOW_SIZE + HeapEstimator.sizeOf( this.queryText ) + this.queryParameters.estimatedHeapUsage();
+        this.profile = profile;
     }
 
-    private static String truncateQueryText( String queryText, int maxLength )
+    static String truncateQueryText( String queryText, int maxLength )
     {
         return queryText.length() > maxLength ? queryText.substring( 0, maxLength ) : queryText;
     }
 
-    private static MapValue truncateParameters( MapValue parameters )
+    static MapValue truncateParameters( MapValue parameters )
     {
         int size = parameters.size();
         if ( size == 0 )
@@ -44,13 +44,11 @@ object QueriesSection {
                               compilationTimeMicros: Long,
                               startTimestampMillis: Long) extends InvocationData
 
-  case class ProfileData(dbHits: util.ArrayList[Long], rows: util.ArrayList[Long], params: util.Map[String, AnyRef])
-
   case class QueryKey(queryText: String, fullQueryTextHash: Int, plan: ExecutionPlanDescription)
 
   class QueryData() {
     val invocations = new ArrayBuffer[SingleInvocation]
-    val profiles = new ArrayBuffer[ProfileData]
+    val profiles = new ArrayBuffer[SampledProfile]
   }
 
   private val QUERY_FILTER = "(?:(?i)call)\\s+(?:dbms\\.|db\\.stats\\.)".r
@@ -69,6 +67,8 @@ object QueriesSection {
                                                      snapshot.elapsedTimeMicros,
                                                      snapshot.compilationTimeMicros,
                                                      snapshot.startTimestampMillis)
+        if (snapshot.profile != null)
+          snapshotList.profiles += snapshot.profile
       }
     }
 
@@ -83,6 +83,8 @@ object QueriesSection {
 
         data.put("invocations", invocations(queryData.invocations.take(maxInvocations), anonymizer))
         data.put("invocationSummary", invocationSummary(queryData.invocations))
+        if (queryData.profiles.nonEmpty)
+          data.put("operatorProfiles", operatorProfiles(queryKey.plan, queryData.profiles))
         new RetrieveResult(Sections.QUERIES, data)
     }))
   }
@@ -145,6 +147,42 @@ object QueriesSection {
     result
   }
 
+  /**
+   * Aggregate the profiler statistics of the sampled invocations per operator, with the operator ids of the query execution plan.
+   * Samples of invocations that were planned differently from the query execution plan are ignored.
+   */
+  private def operatorProfiles(plan: ExecutionPlanDescription,
+                               profiles: ArrayBuffer[SampledProfile]
+                              ): util.ArrayList[util.Map[String, AnyRef]] = {
+    val operators = SampledProfile.of(plan).operators
+    val matchingProfiles = profiles.filter(_.operators.sameElements(operators))
+    val result = new util.ArrayList[util.Map[String, AnyRef]]()
+    if (matchingProfiles.nonEmpty) {
+      for (id <- operators.indices) {
+        val data = new util.HashMap[String, AnyRef]()
+        data.put("id", Int.box(id))
+        data.put("operator", operators(id))
+        data.put("profiledInvocationCount", Long.box(matchingProfiles.size))
+        putStats(data, "rows", matchingProfiles.map(_.rows(id)))
+        putStats(data, "dbHits", matchingProfiles.map(_.dbHits(id)))
+        putStats(data, "pageCacheHits", matchingProfiles.map(_.pageCacheHits(id)))
+        putStats(data, "pageCacheMisses", matchingProfiles.map(_.pageCacheMisses(id)))
+        putStats(data, "time", matchingProfiles.map(_.time(id)))
+        result.add(data)
+      }
+    }
+    result
+  }
+
+  private def putStats(data: util.HashMap[String, AnyRef], key: String, values: Seq[Long]): Unit = {
+    val stats = new Stats
+    for (value <- values if value != SampledProfile.NO_DATA) {
+      stats.onValue(value)
+    }
+    if (stats.nonEmpty)
+      data.put(key, stats.asMap())
+  }
+
   private def asRetrieveStream(iterator: Iterator[RetrieveResult]): Stream[RetrieveResult] = {
     StreamSupport.stream(Spliterators.spliterator(iterator.asJava, 0L, Spliterator.NONNULL), false)
   }
@@ -162,6 +200,8 @@ object QueriesSection {
       count += 1
     }
 
+    def nonEmpty: Boolean = count > 0
+
     def asMap(): util.HashMap[String, AnyRef] = {
       val data = new util.HashMap[String, AnyRef]()
       data.put("min", Long.box(min))
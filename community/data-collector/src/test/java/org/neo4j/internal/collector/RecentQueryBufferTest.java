@@ -22,9 +22,14 @@ package org.neo4j.internal.collector;
 import org.github.jamm.MemoryMeter;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
-import java.util.stream.Stream;
 
 import org.neo4j.graphdb.ExecutionPlanDescription;
 import org.neo4j.kernel.database.DatabaseIdFactory;
@@ -34,8 +39,11 @@ import org.neo4j.values.AnyValue;
 import org.neo4j.values.virtual.MapValue;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.notNullValue;
 import static org.neo4j.values.storable.Values.longValue;
 import static org.neo4j.values.virtual.VirtualValues.EMPTY_MAP;
 import static org.neo4j.values.virtual.VirtualValues.map;
@@ -43,6 +51,7 @@ import static org.neo4j.values.virtual.VirtualValues.map;
 class RecentQueryBufferTest
 {
     public static final NamedDatabaseId DATABASE_ID = DatabaseIdFactory.from( "", UUID.randomUUID() );
+    public static final NamedDatabaseId OTHER_DATABASE_ID = DatabaseIdFactory.from( "other", UUID.randomUUID() );
     private final MemoryMeter meter = new MemoryMeter();
     private final long EMPTY_MAP_SIZE = meter.measureDeep( EMPTY_MAP );
     private final long DATABASE_ID_SIZE = meter.measureDeep( DATABASE_ID );
@@ -55,7 +64,7 @@ class RecentQueryBufferTest
         RecentQueryBuffer buffer = new RecentQueryBuffer( 4, memoryTracker );
 
         // then
-        assertEstimatedMemory( memoryTracker, buffer );
+        assertEstimatedMemory( memoryTracker, buffer, false, false );
     }
 
     @Test
@@ -66,11 +75,10 @@ class RecentQueryBufferTest
         RecentQueryBuffer buffer = new RecentQueryBuffer( 4, memoryTracker );
 
         // when
-        var q = query( "RETURN 1", EMPTY_MAP );
-        buffer.produce( q );
+        produce( buffer, "RETURN 1", EMPTY_MAP );
 
         // then
-        assertEstimatedMemory( memoryTracker, buffer, q );
+        assertEstimatedMemory( memoryTracker, buffer, true, true );
     }
 
     @Test
@@ -81,28 +89,19 @@ class RecentQueryBufferTest
         RecentQueryBuffer buffer = new RecentQueryBuffer( 4, memoryTracker );
 
         // when
-        var queries = new TruncatedQuerySnapshot[]{
-                query( "RETURN 1", EMPTY_MAP ),
-                query( "RETURN 2", EMPTY_MAP ),
-                query( "RETURN 3", EMPTY_MAP ),
-                query( "RETURN 4", EMPTY_MAP )
-            };
-
-        for ( TruncatedQuerySnapshot q : queries )
-        {
-            buffer.produce( q );
-        }
+        produce( buffer, "RETURN 1", EMPTY_MAP );
+        produce( buffer, "RETURN 2", EMPTY_MAP );
+        produce( buffer, "RETURN 3", EMPTY_MAP );
+        produce( buffer, "RETURN 4", EMPTY_MAP );
 
         // then
-        assertEstimatedMemory( memoryTracker, buffer, queries );
+        assertEstimatedMemory( memoryTracker, buffer, true, true );
 
         // when
-        var q2 = query( "RETURN 'I'm a longer query' AS x", EMPTY_MAP );
-        buffer.produce( q2 );
+        produce( buffer, "RETURN 'I'm a longer query' AS x", EMPTY_MAP );
 
         // then
-        queries[0] = q2;
-        assertEstimatedMemory( memoryTracker, buffer, queries );
+        assertEstimatedMemory( memoryTracker, buffer, true, true );
     }
 
     @Test
@@ -113,55 +112,238 @@ class RecentQueryBufferTest
         RecentQueryBuffer buffer = new RecentQueryBuffer( 4, memoryTracker );
 
         // when
-        var queries = new TruncatedQuerySnapshot[]{
-                query( "RETURN 1", EMPTY_MAP ),
-                query( "RETURN 2", EMPTY_MAP ),
-                query( "RETURN 3", EMPTY_MAP ),
-                query( "RETURN 4", EMPTY_MAP )
-        };
-
-        for ( TruncatedQuerySnapshot q : queries )
-        {
-            buffer.produce( q );
-        }
+        produce( buffer, "RETURN 1", EMPTY_MAP );
+        produce( buffer, "RETURN 2", EMPTY_MAP );
+        produce( buffer, "RETURN 3", EMPTY_MAP );
+        produce( buffer, "RETURN 4", EMPTY_MAP );
 
         buffer.clear( DATABASE_ID );
 
         // then
-        assertEstimatedMemory( memoryTracker, buffer );
+        assertEstimatedMemory( memoryTracker, buffer, false, false );
     }
 
     @Test
     void shouldEstimateHeapOfQueryText()
     {
         // given
-        var q1 = query( "RETURN 1", EMPTY_MAP );
-        var q2 = query( "RETURN 2 AS x", EMPTY_MAP );
+        LocalMemoryTracker memoryTracker1 = new LocalMemoryTracker();
+        RecentQueryBuffer buffer1 = new RecentQueryBuffer( 4, memoryTracker1 );
+        LocalMemoryTracker memoryTracker2 = new LocalMemoryTracker();
+        RecentQueryBuffer buffer2 = new RecentQueryBuffer( 4, memoryTracker2 );
 
         // when
-        assertThat( q2.estimatedHeap, greaterThan( q1.estimatedHeap ) );
-        assertThat( q1.estimatedHeap, equalTo( meter.measureDeep( q1 ) - EMPTY_MAP_SIZE - DATABASE_ID_SIZE ) );
-        assertThat( q2.estimatedHeap, equalTo( meter.measureDeep( q2 ) - EMPTY_MAP_SIZE - DATABASE_ID_SIZE ) );
+        produce( buffer1, "RETURN 1", EMPTY_MAP );
+        produce( buffer2, "RETURN 2 AS x", EMPTY_MAP );
+
+        // then
+        assertThat( memoryTracker2.estimatedHeapMemory(), greaterThan( memoryTracker1.estimatedHeapMemory() ) );
+        assertEstimatedMemory( memoryTracker1, buffer1, true, true );
+        assertEstimatedMemory( memoryTracker2, buffer2, true, true );
     }
 
     @Test
     void shouldEstimateHeapOfQueryParameters()
     {
         // given
-        var q1 = query( "RETURN 1", EMPTY_MAP );
-        var q2 = query( "RETURN 2", map( new String[]{"hi"}, new AnyValue[]{longValue( 42 )} ) );
+        LocalMemoryTracker memoryTracker1 = new LocalMemoryTracker();
+        RecentQueryBuffer buffer1 = new RecentQueryBuffer( 4, memoryTracker1 );
+        LocalMemoryTracker memoryTracker2 = new LocalMemoryTracker();
+        RecentQueryBuffer buffer2 = new RecentQueryBuffer( 4, memoryTracker2 );
+
+        // when
+        produce( buffer1, "RETURN 1", EMPTY_MAP );
+        produce( buffer2, "RETURN 2", map( new String[]{"hi"}, new AnyValue[]{longValue( 42 )} ) );
+
+        // then
+        assertThat( memoryTracker2.estimatedHeapMemory(), greaterThan( memoryTracker1.estimatedHeapMemory() ) );
+        assertEstimatedMemory( memoryTracker2, buffer2, true, false );
+    }
+
+    @Test
+    void shouldReturnMostRecentQueriesOfDatabase()
+    {
+        // given
+        RecentQueryBuffer buffer = new RecentQueryBuffer( 4, new LocalMemoryTracker() );
+
+        // when
+        produce( buffer, DATABASE_ID, "RETURN 1", EMPTY_MAP, 1 );
+        produce( buffer, OTHER_DATABASE_ID, "RETURN 2", EMPTY_MAP, 2 );
+        produce( buffer, DATABASE_ID, "RETURN 3", EMPTY_MAP, 3 );
+        produce( buffer, DATABASE_ID, "RETURN 4", EMPTY_MAP, 4 );
+        produce( buffer, DATABASE_ID, "RETURN 5", EMPTY_MAP, 5 );
+
+        // then
+        assertThat( queryTexts( buffer, DATABASE_ID ), contains( "RETURN 3", "RETURN 4", "RETURN 5" ) );
+        assertThat( queryTexts( buffer, OTHER_DATABASE_ID ), contains( "RETURN 2" ) );
+    }
+
+    @Test
+    void shouldClearQueriesOfDatabase()
+    {
+        // given
+        RecentQueryBuffer buffer = new RecentQueryBuffer( 4, new LocalMemoryTracker() );
+        produce( buffer, DATABASE_ID, "RETURN 1", EMPTY_MAP, 1 );
+        produce( buffer, OTHER_DATABASE_ID, "RETURN 2", EMPTY_MAP, 2 );
+
+        // when
+        buffer.clear( DATABASE_ID );
+
+        // then
+        assertThat( queryTexts( buffer, DATABASE_ID ), empty() );
+        assertThat( queryTexts( buffer, OTHER_DATABASE_ID ), contains( "RETURN 2" ) );
+
+        // when
+        produce( buffer, DATABASE_ID, "RETURN 3", EMPTY_MAP, 3 );
+
+        // then
+        assertThat( queryTexts( buffer, DATABASE_ID ), contains( "RETURN 3" ) );
+    }
+
+    @Test
+    void shouldOverwriteClearedQueries()
+    {
+        // given
+        RecentQueryBuffer buffer = new RecentQueryBuffer( 4, new LocalMemoryTracker() );
+        for ( int i = 0; i < 4; i++ )
+        {
+            produce( buffer, DATABASE_ID, "RETURN " + i, EMPTY_MAP, i );
+        }
+
+        // when
+        buffer.clear( DATABASE_ID );
+        for ( int i = 4; i < 8; i++ )
+        {
+            produce( buffer, DATABASE_ID, "RETURN " + i, EMPTY_MAP, i );
+        }
+
+        // then
+        assertThat( queryTexts( buffer, DATABASE_ID ), contains( "RETURN 4", "RETURN 5", "RETURN 6", "RETURN 7" ) );
+        assertThat( buffer.numSilentQueryDrops(), equalTo( 0L ) );
+    }
+
+    @Test
+    void shouldNeverReadPartiallyClearedQueries() throws Exception
+    {
+        // given
+        RecentQueryBuffer buffer = new RecentQueryBuffer( 16, new LocalMemoryTracker() );
+        AtomicBoolean stop = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool( 2 );
+        try
+        {
+            Future<?> producer = executor.submit( () ->
+            {
+                long i = 0;
+                while ( !stop.get() )
+                {
+                    i++;
+                    buffer.produce( DATABASE_ID, Long.toString( i ), freshSupplier( 42 ), EMPTY_MAP, i, i * 2, i * 3, 1000, null );
+                }
+            } );
+            Future<?> clearer = executor.submit( () ->
+            {
+                while ( !stop.get() )
+                {
+                    buffer.clear( DATABASE_ID );
+                }
+            } );
+
+            // when
+            for ( int i = 0; i < 10_000; i++ )
+            {
+                buffer.foreach( DATABASE_ID, q ->
+                {
+                    // then
+                    assertThat( q.queryText, notNullValue() );
+                    assertThat( q.queryParameters, notNullValue() );
+                    assertThat( q.startTimestampMillis, equalTo( Long.parseLong( q.queryText ) * 3 ) );
+                } );
+            }
+
+            stop.set( true );
+            producer.get();
+            clearer.get();
+        }
+        finally
+        {
+            stop.set( true );
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void shouldTruncateQueryText()
+    {
+        // given
+        RecentQueryBuffer buffer = new RecentQueryBuffer( 4, new LocalMemoryTracker() );
 
         // when
-        assertThat( q2.estimatedHeap, greaterThan( q1.estimatedHeap ) );
-        assertThat( q2.estimatedHeap, equalTo( meter.measureDeep( q2 ) - DATABASE_ID_SIZE ) );
+        buffer.produce( DATABASE_ID, "RETURN 'a long query'", freshSupplier( 42 ), EMPTY_MAP, 1L, 2L, 3L, 8, null );
+
+        // then
+        List<TruncatedQuerySnapshot> queries = new ArrayList<>();
+        buffer.foreach( DATABASE_ID, queries::add );
+        assertThat( queries.size(), equalTo( 1 ) );
+        assertThat( queries.get( 0 ).queryText, equalTo( "RETURN '" ) );
+        assertThat( queries.get( 0 ).fullQueryTextHash, equalTo( "RETURN 'a long query'".hashCode() ) );
+    }
+
+    @Test
+    void shouldNeverReadPartiallyOverwrittenQueries() throws Exception
+    {
+        // given
+        RecentQueryBuffer buffer = new RecentQueryBuffer( 16, new LocalMemoryTracker() );
+        int nProducers = 4;
+        AtomicBoolean stop = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool( nProducers );
+        try
+        {
+            List<Future<?>> producers = new ArrayList<>();
+            for ( int p = 0; p < nProducers; p++ )
+            {
+                producers.add( executor.submit( () ->
+                {
+                    long i = 0;
+                    while ( !stop.get() )
+                    {
+                        // all fields of a query are derived from the same number
+                        i++;
+                        buffer.produce( DATABASE_ID, Long.toString( i ), freshSupplier( 42 ), EMPTY_MAP, i, i * 2, i * 3, 1000, null );
+                    }
+                } ) );
+            }
+
+            // when
+            for ( int i = 0; i < 10_000; i++ )
+            {
+                buffer.foreach( DATABASE_ID, q ->
+                {
+                    // then
+                    long n = Long.parseLong( q.queryText );
+                    assertThat( q.elapsedTimeMicros, equalTo( n ) );
+                    assertThat( q.compilationTimeMicros, equalTo( n * 2 ) );
+                    assertThat( q.startTimestampMillis, equalTo( n * 3 ) );
+                } );
+            }
+
+            stop.set( true );
+            for ( Future<?> producer : producers )
+            {
+                producer.get();
+            }
+        }
+        finally
+        {
+            stop.set( true );
+            executor.shutdown();
+        }
     }
 
-    private void assertEstimatedMemory( LocalMemoryTracker memoryTracker, RecentQueryBuffer buffer, TruncatedQuerySnapshot... queries )
+    private void assertEstimatedMemory( LocalMemoryTracker memoryTracker, RecentQueryBuffer buffer, boolean hasQuery, boolean hasEmptyParamQuery )
     {
         long notExpected = meter.measureDeep( memoryTracker );
-        boolean hasEmptyParamQuery = Stream.of( queries ).anyMatch( q -> q.queryParameters == EMPTY_MAP );
 
-        if ( queries.length > 0 )
+        if ( hasQuery )
         {
             notExpected += DATABASE_ID_SIZE;
         }
@@ -173,22 +355,25 @@ class RecentQueryBufferTest
         assertThat( memoryTracker.estimatedHeapMemory(), equalTo( meter.measureDeep( buffer ) - notExpected ) );
     }
 
-    private TruncatedQuerySnapshot query( String query, MapValue params )
+    private static List<String> queryTexts( RecentQueryBuffer buffer, NamedDatabaseId databaseId )
+    {
+        List<String> queryTexts = new ArrayList<>();
+        buffer.foreach( databaseId, q -> queryTexts.add( q.queryText ) );
+        return queryTexts;
+    }
+
+    private void produce( RecentQueryBuffer buffer, String query, MapValue params )
+    {
+        produce( buffer, DATABASE_ID, query, params, 1L );
+    }
+
+    private void produce( RecentQueryBuffer buffer, NamedDatabaseId databaseId, String query, MapValue params, long startTimestampMillis )
     {
-        return new TruncatedQuerySnapshot(
-                DATABASE_ID,
-                query,
-                freshSupplier( 42 ),
-                params,
-                1L,
-                2L,
-                3L,
-                1000
-        );
+        buffer.produce( databaseId, query, freshSupplier( 42 ), params, 1L, 2L, startTimestampMillis, 1000, null );
     }
 
     // This wizardry is done to emulate a new supplier instance for every query.
-    private Supplier<ExecutionPlanDescription> freshSupplier( int i )
+    private static Supplier<ExecutionPlanDescription> freshSupplier( int i )
     {
         return () -> i == 0 ? null : null;
     }
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.collector;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.neo4j.graphdb.ExecutionPlanDescription;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.neo4j.internal.collector.SampledProfile.NO_DATA;
+
+class SampledProfileTest
+{
+    @Test
+    void shouldCollectOperatorsDepthFirstLeftHandSideFirst()
+    {
+        // given
+        Plan plan = new Plan( "ProduceResults", new Stats( 2, 0, -1 ),
+                              new Plan( "CartesianProduct", new Stats( 2, 0, -1 ),
+                                        new Plan( "NodeByLabelScan", new Stats( 1, 2, 10 ) ),
+                                        new Plan( "AllNodesScan", new Stats( 2, 3, 20 ) ) ) );
+
+        // when
+        SampledProfile profile = SampledProfile.of( plan );
+
+        // then
+        assertArrayEquals( new String[]{"ProduceResults", "CartesianProduct", "NodeByLabelScan", "AllNodesScan"}, profile.operators );
+        assertArrayEquals( new long[]{2, 2, 1, 2}, profile.rows );
+        assertArrayEquals( new long[]{0, 0, 2, 3}, profile.dbHits );
+        assertArrayEquals( new long[]{NO_DATA, NO_DATA, 10, 20}, profile.time );
+    }
+
+    @Test
+    void shouldMarkMissingStatisticsAsNoData()
+    {
+        // given
+        Plan plan = new Plan( "ProduceResults", null, new Plan( "AllNodesScan", new Stats( 5, 6, -1 ) ) );
+
+        // when
+        SampledProfile profile = SampledProfile.of( plan );
+
+        // then
+        assertArrayEquals( new long[]{NO_DATA, 5}, profile.rows );
+        assertArrayEquals( new long[]{NO_DATA, 6}, profile.dbHits );
+        assertArrayEquals( new long[]{NO_DATA, NO_DATA}, profile.pageCacheHits );
+        assertArrayEquals( new long[]{NO_DATA, NO_DATA}, profile.pageCacheMisses );
+    }
+
+    private static class Plan implements ExecutionPlanDescription
+    {
+        private final String name;
+        private final ProfilerStatistics statistics;
+        private final List<ExecutionPlanDescription> children;
+
+        Plan( String name, ProfilerStatistics statistics, ExecutionPlanDescription... children )
+        {
+            this.name = name;
+            this.statistics = statistics;
+            this.children = List.of( children );
+        }
+
+        @Override
+        public String getName()
+        {
+            return name;
+        }
+
+        @Override
+        public List<ExecutionPlanDescription> getChildren()
+        {
+            return children;
+        }
+
+        @Override
+        public Map<String,Object> getArguments()
+        {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public Set<String> getIdentifiers()
+        {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public boolean hasProfilerStatistics()
+        {
+            return statistics != null;
+        }
+
+        @Override
+        public ProfilerStatistics getProfilerStatistics()
+        {
+            return statistics;
+        }
+    }
+
+    private static class Stats implements ExecutionPlanDescription.ProfilerStatistics
+    {
+        private final long rows;
+        private final long dbHits;
+        private final long time;
+
+        Stats( long rows, long dbHits, long time )
+        {
+            this.rows = rows;
+            this.dbHits = dbHits;
+            this.time = time;
+        }
+
+        @Override
+        public boolean hasRows()
+        {
+            return true;
+        }
+
+        @Override
+        public long getRows()
+        {
+            return rows;
+        }
+
+        @Override
+        public boolean hasDbHits()
+        {
+            return true;
+        }
+
+        @Override
+        public long getDbHits()
+        {
+            return dbHits;
+        }
+
+        @Override
+        public boolean hasPageCacheStats()
+        {
+            return false;
+        }
+
+        @Override
+        public long getPageCacheHits()
+        {
+            return 0;
+        }
+
+        @Override
+        public long getPageCacheMisses()
+        {
+            return 0;
+        }
+
+        @Override
+        public boolean hasTime()
+        {
+            return time >= 0;
+        }
+
+        @Override
+        public long getTime()
+        {
+            return time;
+        }
+    }
+}
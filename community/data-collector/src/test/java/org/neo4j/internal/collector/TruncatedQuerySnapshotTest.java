@@ -49,17 +49,10 @@ class TruncatedQuerySnapshotTest
     void shouldTruncateNode()
     {
         // when
-        TruncatedQuerySnapshot x = new TruncatedQuerySnapshot( null,
-                                                               "",
-                                                               null,
-                                                               map( "n", NODE ),
-                                                               -1L,
-                                                               -1L,
-                                                               -1L,
-                                                               100 );
+        MapValue truncatedParameters = TruncatedQuerySnapshot.truncateParameters( map( "n", NODE ) );
 
         // then
-        AnyValue truncatedNode = x.queryParameters.get( "n" );
+        AnyValue truncatedNode = truncatedParameters.get( "n" );
         assertTrue( truncatedNode instanceof NodeReference );
         assertEquals( NODE.id(), ((NodeReference)truncatedNode).id() );
     }
@@ -68,17 +61,10 @@ class TruncatedQuerySnapshotTest
     void shouldTruncateRelationship()
     {
         // when
-        TruncatedQuerySnapshot x = new TruncatedQuerySnapshot( null,
-                                                               "",
-                                                               null,
-                                                               map( "r", RELATIONSHIP ),
-                                                               -1L,
-                                                               -1L,
-                                                               -1L,
-                                                               100 );
+        MapValue truncatedParameters = TruncatedQuerySnapshot.truncateParameters( map( "r", RELATIONSHIP ) );
 
         // then
-        AnyValue truncatedRelationship = x.queryParameters.get( "r" );
+        AnyValue truncatedRelationship = truncatedParameters.get( "r" );
         assertTrue( truncatedRelationship instanceof RelationshipReference );
         assertEquals( RELATIONSHIP.id(), ((RelationshipReference)truncatedRelationship).id() );
     }
@@ -23,16 +23,21 @@ import org.neo4j.annotations.api.PublicApi;
 import org.neo4j.graphalgo.impl.path.AStar;
 import org.neo4j.graphalgo.impl.path.AllPaths;
 import org.neo4j.graphalgo.impl.path.AllSimplePaths;
+import org.neo4j.graphalgo.impl.path.CursorShortestPath;
 import org.neo4j.graphalgo.impl.path.Dijkstra;
 import org.neo4j.graphalgo.impl.path.DijkstraBidirectional;
 import org.neo4j.graphalgo.impl.path.ExactDepthPathFinder;
 import org.neo4j.graphalgo.impl.path.ShortestPath;
 import org.neo4j.graphalgo.impl.util.DoubleEvaluator;
 import org.neo4j.graphalgo.impl.util.PathInterestFactory;
+import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Path;
 import org.neo4j.graphdb.PathExpander;
 import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.impl.StandardExpander;
+import org.neo4j.kernel.impl.coreapi.InternalTransaction;
+import org.neo4j.memory.EmptyMemoryTracker;
 
 import static org.neo4j.internal.helpers.MathUtil.DEFAULT_EPSILON;
 
@@ -94,7 +99,7 @@ public abstract class GraphAlgoFactory
      */
     public static PathFinder<Path> shortestPath( EvaluationContext context, PathExpander expander, int maxDepth )
     {
-        return new ShortestPath( context, maxDepth, expander );
+        return shortestPath( context, expander, maxDepth, Integer.MAX_VALUE );
     }
 
     /**
@@ -115,6 +120,16 @@ public abstract class GraphAlgoFactory
      */
     public static PathFinder<Path> shortestPath( EvaluationContext context, PathExpander expander, int maxDepth, int maxHitCount )
     {
+        if ( expander instanceof StandardExpander && context.transaction() instanceof InternalTransaction )
+        {
+            // Plain type and direction expanders can be evaluated directly on kernel cursors
+            StandardExpander standardExpander = (StandardExpander) expander;
+            Direction direction = standardExpander.getDirection();
+            if ( direction != null )
+            {
+                return new CursorShortestPath( context, maxDepth, maxHitCount, EmptyMemoryTracker.INSTANCE, direction, standardExpander.getTypes() );
+            }
+        }
         return new ShortestPath( context, maxDepth, expander, maxHitCount );
     }
 
@@ -31,8 +31,7 @@ import org.neo4j.graphalgo.EvaluationContext;
 import org.neo4j.graphalgo.PathFinder;
 import org.neo4j.graphalgo.WeightedPath;
 import org.neo4j.graphalgo.impl.util.PathImpl;
-import org.neo4j.graphalgo.impl.util.PriorityMap;
-import org.neo4j.graphalgo.impl.util.PriorityMap.Entry;
+import org.neo4j.graphalgo.impl.util.PrimitiveDaryHeap;
 import org.neo4j.graphalgo.impl.util.WeightedPathImpl;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.Entity;
@@ -126,14 +125,16 @@ public class AStar implements PathFinder<WeightedPath>
 
     private static class Visit
     {
+        private final Node node;
         private double wayLength; // accumulated cost to get here (g)
         private double estimate; // heuristic estimate of cost to reach end (h)
         private long cameFromRelationship;
         private boolean visited;
         private boolean next;
 
-        Visit( long cameFromRelationship, double wayLength, double estimate )
+        Visit( Node node, long cameFromRelationship, double wayLength, double estimate )
         {
+            this.node = node;
             update( cameFromRelationship, wayLength, estimate );
         }
 
@@ -155,8 +156,7 @@ public class AStar implements PathFinder<WeightedPath>
         private final Node start;
         private final Node end;
         private Node lastNode;
-        private final PriorityMap<Node, Node, Double> nextPrioritizedNodes =
-                PriorityMap.withSelfKeyNaturalOrder();
+        private final PrimitiveDaryHeap nextPrioritizedNodes = new PrimitiveDaryHeap();
         private final Map<Long, Visit> visitData = new HashMap<>();
 
         AStarIterator( Node start, Node end )
@@ -164,30 +164,28 @@ public class AStar implements PathFinder<WeightedPath>
             this.start = start;
             this.end = end;
 
-            Visit visit = new Visit( -1, 0, estimateEvaluator.getCost( start, end ) );
+            Visit visit = new Visit( start, -1, 0, estimateEvaluator.getCost( start, end ) );
             addNext( start, visit.getFscore(), visit );
             this.visitData.put( start.getId(), visit );
         }
 
         private void addNext( Node node, double fscore, Visit visit )
         {
-            nextPrioritizedNodes.put( node, fscore );
+            nextPrioritizedNodes.offer( node.getId(), fscore );
             visit.next = true;
         }
 
         private Node popLowestScoreNode()
         {
-            Entry<Node, Double> top = nextPrioritizedNodes.pop();
-            if ( top == null )
+            if ( nextPrioritizedNodes.isEmpty() )
             {
                 return null;
             }
 
-            Node node = top.getEntity();
-            Visit visit = visitData.get( node.getId() );
+            Visit visit = visitData.get( nextPrioritizedNodes.pop() );
             visit.visited = true;
             visit.next = false;
-            return node;
+            return visit.node;
         }
 
         @Override
@@ -225,7 +223,7 @@ public class AStar implements PathFinder<WeightedPath>
                 {
                     if ( visit == null )
                     {
-                        visit = new Visit( rel.getId(), tentativeGScore, estimate );
+                        visit = new Visit( node, rel.getId(), tentativeGScore, estimate );
                         visitData.put( node.getId(), visit );
                     }
                     else
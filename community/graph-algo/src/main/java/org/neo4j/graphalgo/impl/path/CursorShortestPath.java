@@ -0,0 +1,367 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.path;
+
+import org.eclipse.collections.api.map.primitive.MutableLongIntMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.neo4j.collection.trackable.HeapTrackingCollections;
+import org.neo4j.collection.trackable.HeapTrackingLongArrayList;
+import org.neo4j.graphalgo.EvaluationContext;
+import org.neo4j.graphalgo.PathFinder;
+import org.neo4j.graphalgo.impl.util.PathImpl;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Path;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.traversal.TraversalMetadata;
+import org.neo4j.internal.kernel.api.NodeCursor;
+import org.neo4j.internal.kernel.api.Read;
+import org.neo4j.internal.kernel.api.RelationshipTraversalCursor;
+import org.neo4j.internal.kernel.api.TokenRead;
+import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.impl.coreapi.InternalTransaction;
+import org.neo4j.memory.EmptyMemoryTracker;
+import org.neo4j.memory.MemoryTracker;
+import org.neo4j.memory.ScopedMemoryTracker;
+import org.neo4j.storageengine.api.RelationshipSelection;
+
+/**
+ * Find (all or one) simple shortest path(s) between two nodes, like {@link ShortestPath}, but expanding directly on
+ * kernel cursors instead of going through a {@link org.neo4j.graphdb.PathExpander} and core API entities.
+ *
+ * The search is a level synchronous bi-directional breadth-first search, where the side with the smallest frontier
+ * is always the one expanded next. Visited nodes, their depth and the relationships leading to them are kept in
+ * primitive collections keyed by node id, so no entity objects are created while searching. Only the relationships
+ * of the returned paths are materialized as {@link org.neo4j.graphdb.Relationship} instances.
+ *
+ * Relationships are traversed in the specified direction from the start node, but in the reverse direction
+ * ( {@link Direction#reverse()} ) from the end node. This doesn't affect {@link Direction#BOTH}.
+ */
+public class CursorShortestPath implements PathFinder<Path>
+{
+    private static final int NOT_VISITED = -1;
+    private static final int NO_PARENT = -1;
+
+    private final EvaluationContext context;
+    private final int maxDepth;
+    private final int maxResultCount;
+    private final Direction direction;
+    private final RelationshipType[] types;
+    private final MemoryTracker memoryTracker;
+    private Metadata lastMetadata;
+
+    /**
+     * Constructs a new shortest path algorithm.
+     * @param context algorithm evaluation context.
+     * @param maxDepth the maximum depth for the traversal. Returned paths
+     * will never have a greater {@link Path#length()} than {@code maxDepth}.
+     * @param direction the direction to traverse relationships in, as seen from the start node.
+     * @param types relationship types to traverse, or no types to traverse all relationship types.
+     */
+    public CursorShortestPath( EvaluationContext context, int maxDepth, Direction direction, RelationshipType... types )
+    {
+        this( context, maxDepth, Integer.MAX_VALUE, EmptyMemoryTracker.INSTANCE, direction, types );
+    }
+
+    /**
+     * Constructs a new shortest path algorithm.
+     * @param context algorithm evaluation context.
+     * @param maxDepth the maximum depth for the traversal. Returned paths
+     * will never have a greater {@link Path#length()} than {@code maxDepth}.
+     * @param maxResultCount the maximum number of paths to return.
+     * @param memoryTracker tracks the memory used by the visited nodes and frontiers of the algorithm.
+     * @param direction the direction to traverse relationships in, as seen from the start node.
+     * @param types relationship types to traverse, or no types to traverse all relationship types.
+     */
+    public CursorShortestPath( EvaluationContext context, int maxDepth, int maxResultCount, MemoryTracker memoryTracker, Direction direction,
+            RelationshipType... types )
+    {
+        this.context = context;
+        this.maxDepth = maxDepth;
+        this.maxResultCount = maxResultCount;
+        this.memoryTracker = memoryTracker;
+        this.direction = direction;
+        this.types = types;
+    }
+
+    @Override
+    public Iterable<Path> findAllPaths( Node start, Node end )
+    {
+        return internalPaths( start, end, false );
+    }
+
+    @Override
+    public Path findSinglePath( Node start, Node end )
+    {
+        List<Path> paths = internalPaths( start, end, true );
+        return paths.isEmpty() ? null : paths.get( 0 );
+    }
+
+    @Override
+    public TraversalMetadata metadata()
+    {
+        return lastMetadata;
+    }
+
+    private List<Path> internalPaths( Node start, Node end, boolean stopAsap )
+    {
+        lastMetadata = new Metadata();
+        if ( start.equals( end ) )
+        {
+            lastMetadata.paths++;
+            return Collections.singletonList( PathImpl.singular( start ) );
+        }
+
+        Transaction transaction = context.transaction();
+        KernelTransaction ktx = ((InternalTransaction) transaction).kernelTransaction();
+        int[] typeIds = typeIds( ktx.tokenRead() );
+        if ( typeIds != null && typeIds.length == 0 )
+        {
+            // None of the requested types exist, so there cannot be a path between two different nodes
+            return Collections.emptyList();
+        }
+
+        try ( ScopedMemoryTracker scopedMemoryTracker = new ScopedMemoryTracker( memoryTracker );
+              NodeCursor nodeCursor = ktx.cursors().allocateNodeCursor( ktx.pageCursorTracer() );
+              RelationshipTraversalCursor relationshipCursor = ktx.cursors().allocateRelationshipTraversalCursor( ktx.pageCursorTracer() );
+              Side startSide = new Side( start.getId(), RelationshipSelection.selection( typeIds, direction ), scopedMemoryTracker );
+              Side endSide = new Side( end.getId(), RelationshipSelection.selection( typeIds, direction.reverse() ), scopedMemoryTracker );
+              HeapTrackingLongArrayList meetings = HeapTrackingLongArrayList.newLongArrayList( scopedMemoryTracker ) )
+        {
+            Read read = ktx.dataRead();
+            while ( meetings.isEmpty() && startSide.depth + endSide.depth < maxDepth &&
+                    startSide.frontier.notEmpty() && endSide.frontier.notEmpty() )
+            {
+                // Expanding the smaller frontier first keeps the total number of visited nodes down
+                // when one of the sides has a much higher fan-out than the other
+                boolean expandStartSide = startSide.frontier.size() <= endSide.frontier.size();
+                Side side = expandStartSide ? startSide : endSide;
+                Side otherSide = expandStartSide ? endSide : startSide;
+                side.expand( otherSide, read, nodeCursor, relationshipCursor, meetings, stopAsap );
+            }
+            return toPaths( transaction, start, end, startSide, endSide, meetings, stopAsap ? 1 : maxResultCount );
+        }
+    }
+
+    private int[] typeIds( TokenRead tokenRead )
+    {
+        if ( types == null || types.length == 0 )
+        {
+            return null;
+        }
+        int[] typeIds = new int[types.length];
+        int count = 0;
+        for ( RelationshipType type : types )
+        {
+            int typeId = tokenRead.relationshipType( type.name() );
+            if ( typeId != TokenRead.NO_TOKEN )
+            {
+                typeIds[count++] = typeId;
+            }
+        }
+        int[] result = new int[count];
+        System.arraycopy( typeIds, 0, result, 0, count );
+        return result;
+    }
+
+    private List<Path> toPaths( Transaction transaction, Node start, Node end, Side startSide, Side endSide, HeapTrackingLongArrayList meetings,
+            int maxPaths )
+    {
+        List<Path> paths = new ArrayList<>();
+        for ( int i = 0; i < meetings.size() && paths.size() < maxPaths; i++ )
+        {
+            long meeting = meetings.get( i );
+            List<long[]> startChains = startSide.chainsTo( meeting, maxPaths );
+            List<long[]> endChains = endSide.chainsTo( meeting, maxPaths );
+            for ( long[] startChain : startChains )
+            {
+                for ( long[] endChain : endChains )
+                {
+                    if ( paths.size() >= maxPaths )
+                    {
+                        return paths;
+                    }
+                    PathImpl.Builder startBuilder = new PathImpl.Builder( start );
+                    for ( long relationship : startChain )
+                    {
+                        startBuilder = startBuilder.push( transaction.getRelationshipById( relationship ) );
+                    }
+                    PathImpl.Builder endBuilder = new PathImpl.Builder( end );
+                    for ( long relationship : endChain )
+                    {
+                        endBuilder = endBuilder.push( transaction.getRelationshipById( relationship ) );
+                    }
+                    paths.add( startBuilder.build( endBuilder ) );
+                    lastMetadata.paths++;
+                }
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * One of the two sides of the bi-directional search.
+     */
+    private class Side implements AutoCloseable
+    {
+        private final long startNode;
+        private final RelationshipSelection selection;
+        private final MemoryTracker memoryTracker;
+        private final MutableLongIntMap depths;
+        private final MutableLongIntMap firstParent;
+        // Flat list of parent entries, each being [parent node, relationship, index of next parent entry of the same node]
+        private final HeapTrackingLongArrayList parents;
+        private HeapTrackingLongArrayList frontier;
+        private int depth;
+
+        Side( long startNode, RelationshipSelection selection, MemoryTracker memoryTracker )
+        {
+            this.startNode = startNode;
+            this.selection = selection;
+            this.memoryTracker = memoryTracker;
+            this.depths = HeapTrackingCollections.newLongIntMap( memoryTracker );
+            this.firstParent = HeapTrackingCollections.newLongIntMap( memoryTracker );
+            this.parents = HeapTrackingLongArrayList.newLongArrayList( memoryTracker );
+            this.frontier = HeapTrackingLongArrayList.newLongArrayList( memoryTracker );
+            this.depths.put( startNode, 0 );
+            this.frontier.add( startNode );
+        }
+
+        /**
+         * Expands all nodes in the current frontier one level. Newly found nodes which have already been visited from the other side
+         * are added to {@code meetings}, all of them will be at the same (shortest) distance from the start and end nodes.
+         */
+        void expand( Side otherSide, Read read, NodeCursor nodeCursor, RelationshipTraversalCursor relationshipCursor,
+                HeapTrackingLongArrayList meetings, boolean stopAsap )
+        {
+            HeapTrackingLongArrayList nextFrontier = HeapTrackingLongArrayList.newLongArrayList( memoryTracker );
+            int nextDepth = depth + 1;
+            for ( int i = 0; i < frontier.size(); i++ )
+            {
+                long node = frontier.get( i );
+                read.singleNode( node, nodeCursor );
+                if ( !nodeCursor.next() )
+                {
+                    continue;
+                }
+                nodeCursor.relationships( relationshipCursor, selection );
+                while ( relationshipCursor.next() )
+                {
+                    lastMetadata.rels++;
+                    long otherNode = relationshipCursor.otherNodeReference();
+                    int otherNodeDepth = depths.getIfAbsent( otherNode, NOT_VISITED );
+                    if ( otherNodeDepth == NOT_VISITED )
+                    {
+                        depths.put( otherNode, nextDepth );
+                        addParent( otherNode, node, relationshipCursor.relationshipReference() );
+                        nextFrontier.add( otherNode );
+                        if ( otherSide.depths.containsKey( otherNode ) )
+                        {
+                            meetings.add( otherNode );
+                            if ( stopAsap )
+                            {
+                                break;
+                            }
+                        }
+                    }
+                    else if ( otherNodeDepth == nextDepth && !stopAsap )
+                    {
+                        // Another equally short way to reach this node
+                        addParent( otherNode, node, relationshipCursor.relationshipReference() );
+                    }
+                }
+                if ( stopAsap && meetings.notEmpty() )
+                {
+                    break;
+                }
+            }
+            frontier.close();
+            frontier = nextFrontier;
+            depth = nextDepth;
+        }
+
+        private void addParent( long node, long parent, long relationship )
+        {
+            int entry = parents.size();
+            parents.add( parent );
+            parents.add( relationship );
+            parents.add( firstParent.getIfAbsent( node, NO_PARENT ) );
+            firstParent.put( node, entry );
+        }
+
+        /**
+         * @return the relationship ids of up to {@code maxChains} paths from the start node of this side to the given {@code node},
+         * ordered from the start node of this side.
+         */
+        List<long[]> chainsTo( long node, int maxChains )
+        {
+            List<long[]> chains = new ArrayList<>();
+            int length = depths.get( node );
+            collectChains( node, new long[length], length, chains, maxChains );
+            return chains;
+        }
+
+        private void collectChains( long node, long[] chain, int position, List<long[]> chains, int maxChains )
+        {
+            if ( position == 0 )
+            {
+                assert node == startNode;
+                chains.add( chain.clone() );
+                return;
+            }
+            for ( int entry = firstParent.getIfAbsent( node, NO_PARENT ); entry != NO_PARENT && chains.size() < maxChains;
+                    entry = (int) parents.get( entry + 2 ) )
+            {
+                chain[position - 1] = parents.get( entry + 1 );
+                collectChains( parents.get( entry ), chain, position - 1, chains, maxChains );
+            }
+        }
+
+        @Override
+        public void close()
+        {
+            frontier.close();
+            parents.close();
+        }
+    }
+
+    private static class Metadata implements TraversalMetadata
+    {
+        private int rels;
+        private int paths;
+
+        @Override
+        public int getNumberOfPathsReturned()
+        {
+            return paths;
+        }
+
+        @Override
+        public int getNumberOfRelationshipsTraversed()
+        {
+            return rels;
+        }
+    }
+}
@@ -60,6 +60,8 @@ import org.neo4j.internal.helpers.collection.Iterables;
 public class Dijkstra<CostType> implements
         SingleSourceSingleSinkShortestPath<CostType>
 {
+    private static final Comparator<?> NATURAL_ORDER = Comparator.naturalOrder();
+
     protected CostType startCost; // starting cost for both the start node and
     // the end node
     protected Node startNode;
@@ -154,6 +156,20 @@ public class Dijkstra<CostType> implements
         this.costComparator = costComparator;
     }
 
+    /**
+     * Creates the priority queue used by each direction of the search. Integer and long costs compared by their natural
+     * order are kept in a {@link DijkstraPriorityQueueRadixImpl}, any other costs in a {@link DijkstraPriorityQueueHeapImpl}.
+     * @return a new, empty, priority queue ordered by the cost comparator.
+     */
+    protected DijkstraPriorityQueue<CostType> createPriorityQueue()
+    {
+        if ( (startCost instanceof Integer || startCost instanceof Long) && costComparator == NATURAL_ORDER )
+        {
+            return new DijkstraPriorityQueueRadixImpl<>( costComparator, cost -> ((Number) cost).longValue() );
+        }
+        return new DijkstraPriorityQueueHeapImpl<>( costComparator );
+    }
+
     /**
      * A DijkstraIterator computes the distances to nodes from a specified
      * starting node, one at a time, following the dijkstra algorithm.
@@ -220,7 +236,7 @@ public class Dijkstra<CostType> implements
         // This puts the start node into the queue
         protected void InitQueue()
         {
-            queue = new DijkstraPriorityQueueFibonacciImpl<>( costComparator );
+            queue = createPriorityQueue();
             queue.insertValue( startNode, startCost );
             mySeen.put( startNode, startCost );
         }
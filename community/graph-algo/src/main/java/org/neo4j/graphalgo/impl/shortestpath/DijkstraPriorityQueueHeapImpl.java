@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.shortestpath;
+
+import org.eclipse.collections.api.map.primitive.MutableLongIntMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongIntHashMap;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.neo4j.graphdb.Node;
+
+/**
+ * Implementation of {@link DijkstraPriorityQueue} using a 4-ary heap kept in two parallel arrays, one for nodes and one
+ * for their costs, together with an index from node id to heap slot for decreasing values. Unlike
+ * {@link DijkstraPriorityQueueFibonacciImpl} no objects are allocated per entry.
+ * @param <CostType>
+ *            The datatype the path weights are represented by.
+ */
+public class DijkstraPriorityQueueHeapImpl<CostType> implements DijkstraPriorityQueue<CostType>
+{
+    private static final int ARITY = 4;
+    private static final int NOT_IN_HEAP = -1;
+
+    private final Comparator<CostType> costComparator;
+    private final MutableLongIntMap slots = new LongIntHashMap();
+    private Node[] nodes = new Node[16];
+    private Object[] costs = new Object[16];
+    private int size;
+
+    public DijkstraPriorityQueueHeapImpl( Comparator<CostType> costComparator )
+    {
+        this.costComparator = costComparator;
+    }
+
+    @Override
+    public void insertValue( Node node, CostType value )
+    {
+        if ( slots.containsKey( node.getId() ) )
+        {
+            decreaseValue( node, value );
+            return;
+        }
+        if ( size == nodes.length )
+        {
+            nodes = Arrays.copyOf( nodes, size * 2 );
+            costs = Arrays.copyOf( costs, size * 2 );
+        }
+        siftUp( size++, node, value );
+    }
+
+    @Override
+    public void decreaseValue( Node node, CostType newValue )
+    {
+        int slot = slots.getIfAbsent( node.getId(), NOT_IN_HEAP );
+        if ( slot == NOT_IN_HEAP )
+        {
+            insertValue( node, newValue );
+        }
+        else if ( costComparator.compare( newValue, cost( slot ) ) < 0 )
+        {
+            siftUp( slot, node, newValue );
+        }
+    }
+
+    @Override
+    public Node extractMin()
+    {
+        if ( size == 0 )
+        {
+            return null;
+        }
+        Node top = nodes[0];
+        slots.remove( top.getId() );
+        size--;
+        Node last = nodes[size];
+        CostType lastCost = cost( size );
+        nodes[size] = null;
+        costs[size] = null;
+        if ( size > 0 )
+        {
+            siftDown( 0, last, lastCost );
+        }
+        return top;
+    }
+
+    @Override
+    public Node peek()
+    {
+        return size == 0 ? null : nodes[0];
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    private void siftUp( int slot, Node node, CostType cost )
+    {
+        while ( slot > 0 )
+        {
+            int parent = (slot - 1) / ARITY;
+            if ( costComparator.compare( cost( parent ), cost ) <= 0 )
+            {
+                break;
+            }
+            place( slot, nodes[parent], cost( parent ) );
+            slot = parent;
+        }
+        place( slot, node, cost );
+    }
+
+    private void siftDown( int slot, Node node, CostType cost )
+    {
+        while ( true )
+        {
+            int firstChild = slot * ARITY + 1;
+            if ( firstChild >= size )
+            {
+                break;
+            }
+            int lastChild = Math.min( firstChild + ARITY, size );
+            int smallest = firstChild;
+            for ( int child = firstChild + 1; child < lastChild; child++ )
+            {
+                if ( costComparator.compare( cost( child ), cost( smallest ) ) < 0 )
+                {
+                    smallest = child;
+                }
+            }
+            if ( costComparator.compare( cost, cost( smallest ) ) <= 0 )
+            {
+                break;
+            }
+            place( slot, nodes[smallest], cost( smallest ) );
+            slot = smallest;
+        }
+        place( slot, node, cost );
+    }
+
+    private void place( int slot, Node node, CostType cost )
+    {
+        nodes[slot] = node;
+        costs[slot] = cost;
+        slots.put( node.getId(), slot );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private CostType cost( int slot )
+    {
+        return (CostType) costs[slot];
+    }
+}
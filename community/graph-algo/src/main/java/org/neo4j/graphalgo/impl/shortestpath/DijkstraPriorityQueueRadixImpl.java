@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.shortestpath;
+
+import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
+
+import java.util.Comparator;
+import java.util.function.ToLongFunction;
+
+import org.neo4j.graphalgo.impl.util.MonotoneRadixHeap;
+import org.neo4j.graphdb.Node;
+
+/**
+ * Implementation of {@link DijkstraPriorityQueue} using a {@link MonotoneRadixHeap}. Meant for costs that can be
+ * represented as non-negative {@code long}s ordered the same way as the cost comparator used by {@link Dijkstra},
+ * e.g. sums of non-negative integer weights, since costs are then never lower than the cost of the last extracted node.
+ * Should a lower cost show up anyway, e.g. because of a negative weight, the queued nodes are moved to a
+ * {@link DijkstraPriorityQueueHeapImpl} which is used from then on.
+ * @param <CostType>
+ *            The datatype the path weights are represented by.
+ */
+public class DijkstraPriorityQueueRadixImpl<CostType> implements DijkstraPriorityQueue<CostType>
+{
+    private final Comparator<CostType> costComparator;
+    private final ToLongFunction<CostType> costToLong;
+    private final MonotoneRadixHeap heap = new MonotoneRadixHeap();
+    private final MutableLongObjectMap<Node> nodes = new LongObjectHashMap<>();
+    private final MutableLongObjectMap<CostType> costs = new LongObjectHashMap<>();
+    private DijkstraPriorityQueue<CostType> fallback;
+
+    public DijkstraPriorityQueueRadixImpl( Comparator<CostType> costComparator, ToLongFunction<CostType> costToLong )
+    {
+        this.costComparator = costComparator;
+        this.costToLong = costToLong;
+    }
+
+    @Override
+    public void insertValue( Node node, CostType value )
+    {
+        decreaseValue( node, value );
+    }
+
+    @Override
+    public void decreaseValue( Node node, CostType newValue )
+    {
+        if ( fallback == null )
+        {
+            long priority = costToLong.applyAsLong( newValue );
+            if ( heap.accepts( priority ) )
+            {
+                if ( heap.offer( node.getId(), priority ) )
+                {
+                    nodes.put( node.getId(), node );
+                    costs.put( node.getId(), newValue );
+                }
+                return;
+            }
+            switchToFallback();
+        }
+        fallback.decreaseValue( node, newValue );
+    }
+
+    @Override
+    public Node extractMin()
+    {
+        if ( fallback != null )
+        {
+            return fallback.extractMin();
+        }
+        if ( heap.isEmpty() )
+        {
+            return null;
+        }
+        long id = heap.pop();
+        costs.remove( id );
+        return nodes.remove( id );
+    }
+
+    @Override
+    public Node peek()
+    {
+        if ( fallback != null )
+        {
+            return fallback.peek();
+        }
+        return heap.isEmpty() ? null : nodes.get( heap.peek() );
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return fallback != null ? fallback.isEmpty() : heap.isEmpty();
+    }
+
+    private void switchToFallback()
+    {
+        fallback = new DijkstraPriorityQueueHeapImpl<>( costComparator );
+        nodes.forEachKeyValue( ( id, node ) -> fallback.insertValue( node, costs.get( id ) ) );
+        nodes.clear();
+        costs.clear();
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.util;
+
+import org.eclipse.collections.api.map.primitive.MutableLongLongMap;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+import org.eclipse.collections.impl.map.mutable.primitive.LongLongHashMap;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Min-heap of {@code long} keys with non-negative {@code long} priorities, for algorithms where priorities are never
+ * lower than the last popped priority, like Dijkstra with non-negative integer weights. Peeking may raise that floor
+ * to the lowest priority in the heap, see {@link #accepts(long)}.
+ * <p>
+ * Entries are kept in 65 buckets, where bucket {@code i > 0} holds priorities whose highest bit differing from the last
+ * popped priority is bit {@code i - 1}, and bucket 0 holds priorities equal to it. Popping takes from bucket 0, and once
+ * that is empty the lowest non-empty bucket is redistributed into lower buckets. Every entry can move down at most 64
+ * times, which makes all operations amortized constant time without comparing entries to each other.
+ * <p>
+ * Decreasing the priority of a key adds another entry for it, and entries not matching the current priority of their
+ * key are dropped when seen.
+ */
+public class MonotoneRadixHeap
+{
+    private static final int BUCKETS = Long.SIZE + 1;
+
+    private final LongArrayList[] bucketKeys = new LongArrayList[BUCKETS];
+    private final LongArrayList[] bucketPriorities = new LongArrayList[BUCKETS];
+    private final MutableLongLongMap current = new LongLongHashMap();
+    private long last;
+
+    public MonotoneRadixHeap()
+    {
+        for ( int i = 0; i < BUCKETS; i++ )
+        {
+            bucketKeys[i] = new LongArrayList();
+            bucketPriorities[i] = new LongArrayList();
+        }
+    }
+
+    /**
+     * Adds {@code key} with the given priority, or decreases its priority if already in the heap.
+     *
+     * @param key the key to add.
+     * @param priority the priority of the key.
+     * @return {@code true} if the key was added or got a lower priority, {@code false} if it was already in the heap
+     * with an equal or lower priority.
+     * @throws IllegalArgumentException if the heap doesn't {@link #accepts(long) accept} {@code priority}.
+     */
+    public boolean offer( long key, long priority )
+    {
+        if ( !accepts( priority ) )
+        {
+            throw new IllegalArgumentException( "Priority " + priority + " is lower than the current minimum priority " + last );
+        }
+        if ( current.containsKey( key ) && current.get( key ) <= priority )
+        {
+            return false;
+        }
+        current.put( key, priority );
+        add( key, priority );
+        return true;
+    }
+
+    /**
+     * @return the key with the lowest priority, without removing it.
+     * @throws NoSuchElementException if the heap is empty.
+     */
+    public long peek()
+    {
+        LongArrayList keys = bucketKeys[topBucket()];
+        return keys.get( keys.size() - 1 );
+    }
+
+    /**
+     * @return the lowest priority in the heap.
+     * @throws NoSuchElementException if the heap is empty.
+     */
+    public long peekPriority()
+    {
+        LongArrayList priorities = bucketPriorities[topBucket()];
+        return priorities.get( priorities.size() - 1 );
+    }
+
+    /**
+     * Removes and returns the key with the lowest priority.
+     *
+     * @return the key with the lowest priority.
+     * @throws NoSuchElementException if the heap is empty.
+     */
+    public long pop()
+    {
+        int bucket = topBucket();
+        LongArrayList keys = bucketKeys[bucket];
+        LongArrayList priorities = bucketPriorities[bucket];
+        long key = keys.removeAtIndex( keys.size() - 1 );
+        priorities.removeAtIndex( priorities.size() - 1 );
+        current.remove( key );
+        return key;
+    }
+
+    /**
+     * @param priority the priority to check.
+     * @return whether {@code priority} can be {@link #offer(long, long) offered}, i.e. isn't lower than the last popped or peeked priority.
+     */
+    public boolean accepts( long priority )
+    {
+        return priority >= last;
+    }
+
+    public boolean contains( long key )
+    {
+        return current.containsKey( key );
+    }
+
+    public boolean isEmpty()
+    {
+        return current.isEmpty();
+    }
+
+    public int size()
+    {
+        return current.size();
+    }
+
+    /**
+     * Makes sure the last entry of bucket 0 is a live entry with the lowest priority in the heap.
+     *
+     * @return the bucket holding the top entry, which is always 0.
+     */
+    private int topBucket()
+    {
+        if ( current.isEmpty() )
+        {
+            throw new NoSuchElementException( "Heap is empty" );
+        }
+        while ( true )
+        {
+            LongArrayList keys = bucketKeys[0];
+            LongArrayList priorities = bucketPriorities[0];
+            while ( !keys.isEmpty() )
+            {
+                int index = keys.size() - 1;
+                if ( isLive( keys.get( index ), priorities.get( index ) ) )
+                {
+                    return 0;
+                }
+                keys.removeAtIndex( index );
+                priorities.removeAtIndex( index );
+            }
+            redistributeLowestBucket();
+        }
+    }
+
+    private void redistributeLowestBucket()
+    {
+        int bucket = 1;
+        while ( bucketKeys[bucket].isEmpty() )
+        {
+            bucket++;
+        }
+        LongArrayList keys = bucketKeys[bucket];
+        LongArrayList priorities = bucketPriorities[bucket];
+        long min = Long.MAX_VALUE;
+        for ( int i = 0; i < keys.size(); i++ )
+        {
+            if ( isLive( keys.get( i ), priorities.get( i ) ) )
+            {
+                min = Math.min( min, priorities.get( i ) );
+            }
+        }
+        if ( min != Long.MAX_VALUE )
+        {
+            last = min;
+            for ( int i = 0; i < keys.size(); i++ )
+            {
+                if ( isLive( keys.get( i ), priorities.get( i ) ) )
+                {
+                    add( keys.get( i ), priorities.get( i ) );
+                }
+            }
+        }
+        keys.clear();
+        priorities.clear();
+    }
+
+    private boolean isLive( long key, long priority )
+    {
+        return current.containsKey( key ) && current.get( key ) == priority;
+    }
+
+    private void add( long key, long priority )
+    {
+        int bucket = priority == last ? 0 : Long.SIZE - Long.numberOfLeadingZeros( priority ^ last );
+        bucketKeys[bucket].add( key );
+        bucketPriorities[bucket].add( priority );
+    }
+}
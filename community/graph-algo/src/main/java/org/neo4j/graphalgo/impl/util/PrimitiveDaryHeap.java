@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.util;
+
+import org.eclipse.collections.api.map.primitive.MutableLongIntMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongIntHashMap;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Min-heap of {@code long} keys, e.g. node ids, with {@code double} priorities, where lower priority comes first.
+ * Keys and priorities are kept in parallel arrays laid out as a 4-ary heap, which is shallower than a binary heap
+ * and keeps the children of a slot next to each other in memory. An index from key to heap slot makes
+ * {@link #offer(long, double) decreasing} the priority of a key already in the heap a cheap sift up,
+ * instead of adding another entry for it.
+ */
+public class PrimitiveDaryHeap
+{
+    private static final int ARITY = 4;
+    private static final int NOT_IN_HEAP = -1;
+
+    private final MutableLongIntMap slots = new LongIntHashMap();
+    private long[] keys;
+    private double[] priorities;
+    private int size;
+
+    public PrimitiveDaryHeap()
+    {
+        this( 16 );
+    }
+
+    public PrimitiveDaryHeap( int initialCapacity )
+    {
+        keys = new long[Math.max( 1, initialCapacity )];
+        priorities = new double[keys.length];
+    }
+
+    /**
+     * Adds {@code key} with the given priority, or decreases its priority if already in the heap.
+     *
+     * @param key the key to add.
+     * @param priority the priority of the key.
+     * @return {@code true} if the key was added or got a lower priority, {@code false} if it was already in the heap
+     * with an equal or lower priority.
+     */
+    public boolean offer( long key, double priority )
+    {
+        int slot = slots.getIfAbsent( key, NOT_IN_HEAP );
+        if ( slot == NOT_IN_HEAP )
+        {
+            if ( size == keys.length )
+            {
+                keys = Arrays.copyOf( keys, size * 2 );
+                priorities = Arrays.copyOf( priorities, size * 2 );
+            }
+            siftUp( size++, key, priority );
+            return true;
+        }
+        if ( priority < priorities[slot] )
+        {
+            siftUp( slot, key, priority );
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the key with the lowest priority, without removing it.
+     * @throws NoSuchElementException if the heap is empty.
+     */
+    public long peek()
+    {
+        assertNotEmpty();
+        return keys[0];
+    }
+
+    /**
+     * @return the lowest priority in the heap.
+     * @throws NoSuchElementException if the heap is empty.
+     */
+    public double peekPriority()
+    {
+        assertNotEmpty();
+        return priorities[0];
+    }
+
+    /**
+     * Removes and returns the key with the lowest priority.
+     *
+     * @return the key with the lowest priority.
+     * @throws NoSuchElementException if the heap is empty.
+     */
+    public long pop()
+    {
+        assertNotEmpty();
+        long top = keys[0];
+        slots.remove( top );
+        size--;
+        if ( size > 0 )
+        {
+            siftDown( 0, keys[size], priorities[size] );
+        }
+        return top;
+    }
+
+    /**
+     * @param key the key to look up.
+     * @return the priority of {@code key}, or {@link Double#NaN} if it isn't in the heap.
+     */
+    public double priority( long key )
+    {
+        int slot = slots.getIfAbsent( key, NOT_IN_HEAP );
+        return slot == NOT_IN_HEAP ? Double.NaN : priorities[slot];
+    }
+
+    public boolean contains( long key )
+    {
+        return slots.containsKey( key );
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    private void siftUp( int slot, long key, double priority )
+    {
+        while ( slot > 0 )
+        {
+            int parent = (slot - 1) / ARITY;
+            if ( priorities[parent] <= priority )
+            {
+                break;
+            }
+            place( slot, keys[parent], priorities[parent] );
+            slot = parent;
+        }
+        place( slot, key, priority );
+    }
+
+    private void siftDown( int slot, long key, double priority )
+    {
+        while ( true )
+        {
+            int firstChild = slot * ARITY + 1;
+            if ( firstChild >= size )
+            {
+                break;
+            }
+            int lastChild = Math.min( firstChild + ARITY, size );
+            int smallest = firstChild;
+            for ( int child = firstChild + 1; child < lastChild; child++ )
+            {
+                if ( priorities[child] < priorities[smallest] )
+                {
+                    smallest = child;
+                }
+            }
+            if ( priority <= priorities[smallest] )
+            {
+                break;
+            }
+            place( slot, keys[smallest], priorities[smallest] );
+            slot = smallest;
+        }
+        place( slot, key, priority );
+    }
+
+    private void place( int slot, long key, double priority )
+    {
+        keys[slot] = key;
+        priorities[slot] = priority;
+        slots.put( key, slot );
+    }
+
+    private void assertNotEmpty()
+    {
+        if ( size == 0 )
+        {
+            throw new NoSuchElementException( "Heap is empty" );
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.shortestpath;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Comparator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.neo4j.graphdb.Node;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.neo4j.graphdb.Direction.OUTGOING;
+
+class DijkstraPriorityQueueTest
+{
+    private static Stream<Arguments> queues()
+    {
+        Supplier<DijkstraPriorityQueue<Integer>> fibonacci = () -> new DijkstraPriorityQueueFibonacciImpl<>( Comparator.<Integer>naturalOrder() );
+        Supplier<DijkstraPriorityQueue<Integer>> heap = () -> new DijkstraPriorityQueueHeapImpl<>( Comparator.<Integer>naturalOrder() );
+        Supplier<DijkstraPriorityQueue<Integer>> radix = () -> new DijkstraPriorityQueueRadixImpl<>( Comparator.<Integer>naturalOrder(), Integer::longValue );
+        return Stream.of( Arguments.of( "fibonacci", fibonacci ), Arguments.of( "heap", heap ), Arguments.of( "radix", radix ) );
+    }
+
+    @ParameterizedTest( name = "{0}" )
+    @MethodSource( "queues" )
+    void shouldExtractNodesInCostOrder( String name, Supplier<DijkstraPriorityQueue<Integer>> factory )
+    {
+        DijkstraPriorityQueue<Integer> queue = factory.get();
+        Node a = node( 1 );
+        Node b = node( 2 );
+        Node c = node( 3 );
+        Node d = node( 4 );
+
+        assertThat( queue.isEmpty() ).isTrue();
+        assertThat( queue.extractMin() ).isNull();
+        queue.insertValue( a, 0 );
+        assertThat( queue.extractMin() ).isEqualTo( a );
+        queue.insertValue( b, 10 );
+        queue.insertValue( c, 5 );
+        queue.insertValue( d, 7 );
+        queue.decreaseValue( b, 3 );
+
+        assertThat( queue.peek() ).isEqualTo( b );
+        assertThat( queue.extractMin() ).isEqualTo( b );
+        queue.decreaseValue( d, 4 );
+        assertThat( queue.extractMin() ).isEqualTo( d );
+        assertThat( queue.extractMin() ).isEqualTo( c );
+        assertThat( queue.isEmpty() ).isTrue();
+        assertThat( queue.peek() ).isNull();
+    }
+
+    @Test
+    void radixQueueShouldKeepWorkingWhenCostsAreNotMonotone()
+    {
+        DijkstraPriorityQueue<Integer> queue = new DijkstraPriorityQueueRadixImpl<>( Comparator.naturalOrder(), Integer::longValue );
+        Node a = node( 1 );
+        Node b = node( 2 );
+        Node c = node( 3 );
+        Node d = node( 4 );
+
+        queue.insertValue( a, 5 );
+        queue.insertValue( b, 8 );
+        queue.insertValue( c, 9 );
+        assertThat( queue.extractMin() ).isEqualTo( a );
+        // Lower than the cost of the last extracted node, like after a negative weight
+        queue.insertValue( d, 2 );
+        queue.decreaseValue( c, 1 );
+
+        assertThat( queue.extractMin() ).isEqualTo( c );
+        assertThat( queue.extractMin() ).isEqualTo( d );
+        assertThat( queue.peek() ).isEqualTo( b );
+        assertThat( queue.extractMin() ).isEqualTo( b );
+        assertThat( queue.isEmpty() ).isTrue();
+    }
+
+    @Test
+    void dijkstraShouldUseRadixQueueForIntegerCostsInNaturalOrder()
+    {
+        assertThat( dijkstra( 0, Comparator.naturalOrder() ).createPriorityQueue() ).isInstanceOf( DijkstraPriorityQueueRadixImpl.class );
+        assertThat( dijkstra( 0L, Comparator.naturalOrder() ).createPriorityQueue() ).isInstanceOf( DijkstraPriorityQueueRadixImpl.class );
+        assertThat( dijkstra( 0, Comparator.reverseOrder() ).createPriorityQueue() ).isInstanceOf( DijkstraPriorityQueueHeapImpl.class );
+        assertThat( dijkstra( 0.0, Comparator.naturalOrder() ).createPriorityQueue() ).isInstanceOf( DijkstraPriorityQueueHeapImpl.class );
+    }
+
+    private static <T> Dijkstra<T> dijkstra( T startCost, Comparator<T> costComparator )
+    {
+        return new Dijkstra<>( startCost, node( 1 ), node( 2 ), ( relationship, direction ) -> startCost, ( a, b ) -> a, costComparator, OUTGOING );
+    }
+
+    private static Node node( long id )
+    {
+        Node node = mock( Node.class );
+        when( node.getId() ).thenReturn( id );
+        return node;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MonotoneRadixHeapTest
+{
+    @Test
+    void shouldPopInPriorityOrder()
+    {
+        MonotoneRadixHeap heap = new MonotoneRadixHeap();
+        heap.offer( 1, 50 );
+        heap.offer( 2, 7 );
+        heap.offer( 3, 1L << 40 );
+        heap.offer( 4, 0 );
+
+        assertThat( heap.size() ).isEqualTo( 4 );
+        assertThat( heap.peek() ).isEqualTo( 4 );
+        assertThat( heap.pop() ).isEqualTo( 4 );
+        assertThat( heap.peekPriority() ).isEqualTo( 7 );
+        assertThat( heap.pop() ).isEqualTo( 2 );
+        assertThat( heap.pop() ).isEqualTo( 1 );
+        assertThat( heap.pop() ).isEqualTo( 3 );
+        assertThat( heap.isEmpty() ).isTrue();
+        assertThrows( NoSuchElementException.class, heap::pop );
+    }
+
+    @Test
+    void shouldDecreasePriorityOfExistingKey()
+    {
+        MonotoneRadixHeap heap = new MonotoneRadixHeap();
+        assertThat( heap.offer( 1, 100 ) ).isTrue();
+        assertThat( heap.offer( 2, 50 ) ).isTrue();
+        assertThat( heap.offer( 1, 200 ) ).isFalse();
+        assertThat( heap.offer( 1, 10 ) ).isTrue();
+
+        assertThat( heap.size() ).isEqualTo( 2 );
+        assertThat( heap.pop() ).isEqualTo( 1 );
+        assertThat( heap.contains( 1 ) ).isFalse();
+        assertThat( heap.pop() ).isEqualTo( 2 );
+        assertThat( heap.isEmpty() ).isTrue();
+    }
+
+    @Test
+    void shouldRejectPriorityLowerThanLastPopped()
+    {
+        MonotoneRadixHeap heap = new MonotoneRadixHeap();
+        heap.offer( 1, 10 );
+        heap.offer( 2, 20 );
+        heap.pop();
+
+        assertThat( heap.accepts( 9 ) ).isFalse();
+        assertThrows( IllegalArgumentException.class, () -> heap.offer( 3, 9 ) );
+        assertThrows( IllegalArgumentException.class, () -> new MonotoneRadixHeap().offer( 1, -1 ) );
+        assertThat( heap.accepts( 10 ) ).isTrue();
+        assertThat( heap.offer( 3, 10 ) ).isTrue();
+        assertThat( heap.pop() ).isEqualTo( 3 );
+    }
+
+    @Test
+    void shouldNotAcceptPriorityLowerThanLastPeeked()
+    {
+        MonotoneRadixHeap heap = new MonotoneRadixHeap();
+        heap.offer( 1, 10 );
+        heap.offer( 2, 20 );
+        heap.pop();
+        assertThat( heap.accepts( 15 ) ).isTrue();
+
+        assertThat( heap.peekPriority() ).isEqualTo( 20 );
+        assertThat( heap.accepts( 15 ) ).isFalse();
+        assertThat( heap.accepts( 20 ) ).isTrue();
+    }
+
+    @Test
+    void shouldPopInSameOrderAsDaryHeapForMonotonePriorities()
+    {
+        Random random = new Random( 4321 );
+        MonotoneRadixHeap radixHeap = new MonotoneRadixHeap();
+        PrimitiveDaryHeap daryHeap = new PrimitiveDaryHeap();
+        int keys = 500;
+        long last = 0;
+        for ( int i = 0; i < 10_000; i++ )
+        {
+            if ( random.nextInt( 3 ) > 0 )
+            {
+                // unique per key, to not depend on the order of ties
+                int key = random.nextInt( keys );
+                long priority = (last / keys + 1 + random.nextInt( 1_000 )) * keys + key;
+                assertThat( radixHeap.offer( key, priority ) ).isEqualTo( daryHeap.offer( key, priority ) );
+            }
+            else if ( !radixHeap.isEmpty() )
+            {
+                last = radixHeap.peekPriority();
+                assertThat( (double) last ).isEqualTo( daryHeap.peekPriority() );
+                assertThat( radixHeap.pop() ).isEqualTo( daryHeap.pop() );
+            }
+            assertThat( radixHeap.size() ).isEqualTo( daryHeap.size() );
+        }
+    }
+}
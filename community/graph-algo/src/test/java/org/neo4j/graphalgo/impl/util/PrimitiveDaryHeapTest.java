@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PrimitiveDaryHeapTest
+{
+    @Test
+    void shouldPopInPriorityOrder()
+    {
+        PrimitiveDaryHeap heap = new PrimitiveDaryHeap( 1 );
+        heap.offer( 1, 5d );
+        heap.offer( 2, 1d );
+        heap.offer( 3, 3d );
+
+        assertThat( heap.size() ).isEqualTo( 3 );
+        assertThat( heap.peek() ).isEqualTo( 2 );
+        assertThat( heap.peekPriority() ).isEqualTo( 1d );
+        assertThat( heap.pop() ).isEqualTo( 2 );
+        assertThat( heap.pop() ).isEqualTo( 3 );
+        assertThat( heap.pop() ).isEqualTo( 1 );
+        assertThat( heap.isEmpty() ).isTrue();
+        assertThrows( NoSuchElementException.class, heap::pop );
+    }
+
+    @Test
+    void shouldOnlyKeepBestPriorityPerKey()
+    {
+        PrimitiveDaryHeap heap = new PrimitiveDaryHeap();
+        assertThat( heap.offer( 1, 5d ) ).isTrue();
+        assertThat( heap.offer( 2, 4d ) ).isTrue();
+        assertThat( heap.offer( 1, 6d ) ).isFalse();
+        assertThat( heap.offer( 1, 5d ) ).isFalse();
+        assertThat( heap.offer( 1, 3d ) ).isTrue();
+
+        assertThat( heap.size() ).isEqualTo( 2 );
+        assertThat( heap.priority( 1 ) ).isEqualTo( 3d );
+        assertThat( heap.pop() ).isEqualTo( 1 );
+        assertThat( heap.contains( 1 ) ).isFalse();
+        assertThat( heap.priority( 1 ) ).isNaN();
+        assertThat( heap.offer( 1, 10d ) ).isTrue();
+        assertThat( heap.pop() ).isEqualTo( 2 );
+        assertThat( heap.pop() ).isEqualTo( 1 );
+    }
+
+    @Test
+    void shouldAgreeWithPriorityQueueOnRandomOperations()
+    {
+        Random random = new Random( 1234 );
+        PrimitiveDaryHeap heap = new PrimitiveDaryHeap();
+        double[] best = new double[500];
+        Arrays.fill( best, Double.NaN );
+        PriorityQueue<double[]> expected = new PriorityQueue<>( ( a, b ) -> Double.compare( a[1], b[1] ) );
+        for ( int i = 0; i < 10_000; i++ )
+        {
+            if ( random.nextInt( 3 ) > 0 )
+            {
+                int key = random.nextInt( best.length );
+                // unique per key, to not depend on the order of ties
+                double priority = random.nextInt( 1_000 ) + key / (double) best.length;
+                boolean better = Double.isNaN( best[key] ) || priority < best[key];
+                assertThat( heap.offer( key, priority ) ).isEqualTo( better );
+                if ( better )
+                {
+                    best[key] = priority;
+                    expected.add( new double[]{key, priority} );
+                }
+            }
+            else if ( !heap.isEmpty() )
+            {
+                double[] top = pollLive( expected, best );
+                double priority = heap.peekPriority();
+                long key = heap.pop();
+                assertThat( key ).isEqualTo( (long) top[0] );
+                assertThat( priority ).isEqualTo( top[1] );
+                best[(int) key] = Double.NaN;
+            }
+        }
+    }
+
+    private static double[] pollLive( PriorityQueue<double[]> queue, double[] best )
+    {
+        while ( true )
+        {
+            double[] entry = queue.poll();
+            if ( best[(int) entry[0]] == entry[1] )
+            {
+                return entry;
+            }
+        }
+    }
+}
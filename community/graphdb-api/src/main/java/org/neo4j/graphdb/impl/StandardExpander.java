@@ -247,6 +247,18 @@ public abstract class StandardExpander implements PathExpander
         {
             return new AllExpander( direction.reverse() );
         }
+
+        @Override
+        public Direction getDirection()
+        {
+            return direction;
+        }
+
+        @Override
+        public RelationshipType[] getTypes()
+        {
+            return new RelationshipType[0];
+        }
     }
 
     private enum Exclusion
@@ -550,6 +562,18 @@ public abstract class StandardExpander implements PathExpander
             tempMap.put( Direction.INCOMING, out );
             return createNew( toTypeMap( tempMap ) );
         }
+
+        @Override
+        public Direction getDirection()
+        {
+            return directions.length == 1 ? directions[0].direction : null;
+        }
+
+        @Override
+        public RelationshipType[] getTypes()
+        {
+            return directions.length == 1 ? directions[0].types.clone() : null;
+        }
     }
 
     private static final class FilteringExpander extends StandardExpander
@@ -747,6 +771,24 @@ public abstract class StandardExpander implements PathExpander
 
     public abstract StandardExpander reversed();
 
+    /**
+     * @return the direction relationships are expanded in, if this expander follows all relationship types or a set of them,
+     * in a single direction and without any filters, otherwise {@code null}.
+     */
+    public Direction getDirection()
+    {
+        return null;
+    }
+
+    /**
+     * @return the relationship types to expand, or an empty array for all types, if {@link #getDirection()} isn't {@code null},
+     * otherwise {@code null}.
+     */
+    public RelationshipType[] getTypes()
+    {
+        return null;
+    }
+
     public StandardExpander addNodeFilter( Predicate<? super Node> filter )
     {
         return new FilteringExpander( this, new NodeFilter( filter ) );
@@ -42,6 +42,30 @@ public interface IdGenerator extends IdSequence, Closeable, ConsistencyCheckable
      */
     IdRange nextIdBatch( int size, boolean forceConsecutiveAllocation, PageCursorTracer cursorTracer );
 
+    /**
+     * Opens a {@link LocalIdSequence} for a single user of this id generator, e.g. a transaction. The default implementation
+     * allocates every id using {@link #nextId(PageCursorTracer)}.
+     *
+     * @param cursorTracer for tracing page accesses when giving back unused ids on close.
+     * @return a new {@link LocalIdSequence}, which must be closed when no longer used.
+     */
+    default LocalIdSequence localSequence( PageCursorTracer cursorTracer )
+    {
+        return new LocalIdSequence()
+        {
+            @Override
+            public long nextId( PageCursorTracer tracer )
+            {
+                return IdGenerator.this.nextId( tracer );
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        };
+    }
+
     /**
      * @param id the highest in use + 1
      */
@@ -114,6 +138,12 @@ public interface IdGenerator extends IdSequence, Closeable, ConsistencyCheckable
             return delegate.nextIdBatch( size, forceConsecutiveAllocation, cursorTracer );
         }
 
+        @Override
+        public LocalIdSequence localSequence( PageCursorTracer cursorTracer )
+        {
+            return delegate.localSequence( cursorTracer );
+        }
+
         @Override
         public void setHighId( long id )
         {
@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.id;
+
+/**
+ * {@link IdSequence} used by a single user of an {@link IdGenerator}, e.g. one transaction at a time, and therefore not thread-safe.
+ * Implementations may hold on to ids allocated in batches from the {@link IdGenerator}, to be handed out without contending with other
+ * users of it. Ids which haven't been handed out are given back to the {@link IdGenerator} on {@link #close()}.
+ */
+public interface LocalIdSequence extends IdSequence, AutoCloseable
+{
+    @Override
+    void close();
+}
@@ -30,6 +30,7 @@ import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -46,6 +47,7 @@ import org.neo4j.internal.id.FreeIds;
 import org.neo4j.internal.id.IdGenerator;
 import org.neo4j.internal.id.IdType;
 import org.neo4j.internal.id.IdValidator;
+import org.neo4j.internal.id.LocalIdSequence;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
@@ -231,6 +233,12 @@ public class IndexedIdGenerator implements IdGenerator
      */
     private static final int LARGE_CACHE_CAPACITY = 1 << 14;
 
+    /**
+     * Max number of ids a {@link LocalIdSequence} takes from the cache or high id at a time. Local sequences start out taking one id
+     * at a time and only grow their batches when racing with other allocations of high id.
+     */
+    static final int MAX_LOCAL_BATCH_SIZE = 64;
+
     /**
      * First generation the tree entries will start at. Generation will be incremented each time an IndexedIdGenerator is opened,
      * i.e. not for every checkpoint. Generation is used to do lazy normalization of id states, so that DELETED ids from a previous generation
@@ -284,6 +292,11 @@ public class IndexedIdGenerator implements IdGenerator
      */
     private final AtomicLong highId = new AtomicLong();
 
+    /**
+     * Batch size that {@link LocalIdSequence local sequences} start out with, grows when they contend on {@link #highId}.
+     */
+    private final AtomicInteger localBatchSize = new AtomicInteger( 1 );
+
     /**
      * Maximum id that this id generator can allocate.
      */
@@ -496,6 +509,26 @@ public class IndexedIdGenerator implements IdGenerator
         return new org.neo4j.internal.id.IdRange( other != null ? other.toArray() : EMPTY_LONG_ARRAY, startOfRange, rangeLength );
     }
 
+    /**
+     * Returns a {@link LocalIdSequence} which takes ids from the cache, or ranges of ids from high id, in batches and hands them out
+     * without synchronization. Batches start out at a single id so that uncontended allocation behaves exactly like
+     * {@link #nextId(PageCursorTracer)}, and double every time taking a range of high id races with another allocation, up to
+     * {@link #MAX_LOCAL_BATCH_SIZE}. The batch size reached is kept by this id generator, so that sequences opened later,
+     * e.g. by the next transactions, start out with it. On close, ids taken from the cache are marked as free again and unused ids
+     * at the end of high id are handed back to high id. Other unused ids allocated from high id were never seen by anyone else
+     * and are marked as deleted and free right away.
+     */
+    @Override
+    public LocalIdSequence localSequence( PageCursorTracer cursorTracer )
+    {
+        return localSequence( cursorTracer, localBatchSize.get() );
+    }
+
+    LocalIdSequence localSequence( PageCursorTracer cursorTracer, int initialBatchSize )
+    {
+        return new LocalIdRange( cursorTracer, initialBatchSize );
+    }
+
     @Override
     public Marker marker( PageCursorTracer cursorTracer )
     {
@@ -745,6 +778,113 @@ public class IndexedIdGenerator implements IdGenerator
         }
     }
 
+    private class LocalIdRange implements LocalIdSequence
+    {
+        private final PageCursorTracer cursorTracer;
+        private final long[] reusedIds = new long[MAX_LOCAL_BATCH_SIZE];
+        private int reusedCursor;
+        private int reusedCount;
+        private long nextHighId;
+        private long highIdEnd;
+        private int batchSize;
+
+        LocalIdRange( PageCursorTracer cursorTracer, int initialBatchSize )
+        {
+            this.cursorTracer = cursorTracer;
+            this.batchSize = Math.min( initialBatchSize, MAX_LOCAL_BATCH_SIZE );
+        }
+
+        @Override
+        public long nextId( PageCursorTracer cursorTracer )
+        {
+            while ( true )
+            {
+                if ( reusedCursor < reusedCount )
+                {
+                    long id = reusedIds[reusedCursor++];
+                    monitor.allocatedFromReused( id );
+                    return id;
+                }
+                if ( nextHighId < highIdEnd )
+                {
+                    long id = nextHighId++;
+                    if ( !IdValidator.isReservedId( id ) )
+                    {
+                        IdValidator.assertIdWithinMaxCapacity( idType, id, maxId );
+                        monitor.allocatedFromHigh( id );
+                        return id;
+                    }
+                    continue;
+                }
+                refill( cursorTracer );
+            }
+        }
+
+        private void refill( PageCursorTracer cursorTracer )
+        {
+            assertNotReadOnly();
+            maintenance( false, cursorTracer );
+
+            reusedCursor = 0;
+            reusedCount = 0;
+            while ( reusedCount < batchSize )
+            {
+                long id = cache.takeOrDefault( NO_ID );
+                if ( id == NO_ID )
+                {
+                    break;
+                }
+                reusedIds[reusedCount++] = id;
+            }
+            if ( reusedCount > 0 )
+            {
+                return;
+            }
+
+            long startId = highId.get();
+            if ( !highId.compareAndSet( startId, startId + batchSize ) )
+            {
+                // Other allocations raced with this one, take bigger ranges from now on to contend less on high id
+                batchSize = Math.min( batchSize * 2, MAX_LOCAL_BATCH_SIZE );
+                localBatchSize.accumulateAndGet( batchSize, Math::max );
+                startId = highId.getAndAdd( batchSize );
+            }
+            nextHighId = startId;
+            highIdEnd = startId + batchSize;
+        }
+
+        @Override
+        public void close()
+        {
+            // Only possible to hand back to high id if no other allocation has been made from high id since
+            boolean unusedHighIds = nextHighId < highIdEnd && !highId.compareAndSet( highIdEnd, nextHighId );
+            boolean unusedReusedIds = reusedCursor < reusedCount;
+            if ( unusedHighIds || unusedReusedIds )
+            {
+                try ( IdRangeMarker marker = lockAndInstantiateMarker( true, cursorTracer ) )
+                {
+                    if ( unusedHighIds )
+                    {
+                        // No one else has seen these ids, so they can be reused right away instead of waiting to be bridged
+                        for ( long id = nextHighId; id < highIdEnd; id++ )
+                        {
+                            marker.markDeleted( id );
+                            marker.markFree( id );
+                        }
+                    }
+                    // These ids were marked as reserved when placed in the cache, revert that so that they can be found again
+                    for ( int i = reusedCursor; i < reusedCount; i++ )
+                    {
+                        marker.markUnreserved( reusedIds[i] );
+                    }
+                }
+                atLeastOneIdOnFreelist.set( true );
+            }
+            nextHighId = highIdEnd;
+            reusedCursor = reusedCount;
+        }
+    }
+
     interface ReservedMarker extends AutoCloseable
     {
         void markReserved( long id );
@@ -60,6 +60,7 @@ import org.neo4j.internal.id.IdGenerator.Marker;
 import org.neo4j.internal.id.IdRange;
 import org.neo4j.internal.id.IdType;
 import org.neo4j.internal.id.IdValidator;
+import org.neo4j.internal.id.LocalIdSequence;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.test.Barrier;
@@ -827,6 +828,188 @@ class IndexedIdGeneratorTest
         }
     }
 
+    @Test
+    void shouldAllocateFromHighIdOneAtATimeInUncontendedLocalSequence() throws IOException
+    {
+        // given
+        idGenerator.start( NO_FREE_IDS, NULL );
+
+        // when
+        try ( LocalIdSequence sequence = idGenerator.localSequence( NULL ) )
+        {
+            assertEquals( 0, sequence.nextId( NULL ) );
+            assertEquals( 1, sequence.nextId( NULL ) );
+
+            // then
+            assertEquals( 2, idGenerator.getHighId() );
+            assertEquals( 2, idGenerator.nextId( NULL ) );
+            assertEquals( 3, sequence.nextId( NULL ) );
+        }
+        assertEquals( 4, idGenerator.getHighId() );
+    }
+
+    @Test
+    void shouldHandBackUnusedHighIdsFromLocalSequenceIfLastToAllocate() throws IOException
+    {
+        // given
+        idGenerator.start( NO_FREE_IDS, NULL );
+
+        // when
+        try ( LocalIdSequence sequence = idGenerator.localSequence( NULL, 10 ) )
+        {
+            assertEquals( 0, sequence.nextId( NULL ) );
+            assertEquals( 1, sequence.nextId( NULL ) );
+            assertEquals( 10, idGenerator.getHighId() );
+        }
+
+        // then
+        assertEquals( 2, idGenerator.getHighId() );
+
+        // and when
+        try ( LocalIdSequence sequence = idGenerator.localSequence( NULL, 10 ) )
+        {
+            assertEquals( 2, sequence.nextId( NULL ) );
+            assertEquals( 12, idGenerator.nextId( NULL ) );
+        }
+
+        // then
+        assertEquals( 13, idGenerator.getHighId() );
+    }
+
+    @Test
+    void shouldMakeUnusedHighIdsFromLocalSequenceReusableOnCloseIfNotLastToAllocate() throws IOException
+    {
+        // given
+        idGenerator.start( NO_FREE_IDS, NULL );
+
+        // when
+        try ( LocalIdSequence sequence = idGenerator.localSequence( NULL, 10 ) )
+        {
+            assertEquals( 0, sequence.nextId( NULL ) );
+            assertEquals( 1, sequence.nextId( NULL ) );
+            assertEquals( 10, idGenerator.nextId( NULL ) );
+        }
+        idGenerator.maintenance( true, NULL );
+
+        // then
+        MutableLongList reallocated = new LongArrayList();
+        for ( int i = 0; i < 8; i++ )
+        {
+            reallocated.add( idGenerator.nextId( NULL ) );
+        }
+        assertTrue( reallocated.allSatisfy( id -> id >= 2 && id < 10 ) );
+        assertEquals( 8, reallocated.distinct().size() );
+        assertEquals( 11, idGenerator.getHighId() );
+    }
+
+    @Test
+    void shouldAllocateUniqueIdsFromManyShortConcurrentLocalSequences() throws IOException
+    {
+        // given
+        idGenerator.start( NO_FREE_IDS, NULL );
+        int threads = 8;
+        int sequencesPerThread = 100;
+        int allocationsPerSequence = 10;
+        LongList[] allocatedIds = new LongList[threads];
+        Race race = new Race();
+        for ( int i = 0; i < threads; i++ )
+        {
+            LongArrayList list = new LongArrayList( sequencesPerThread * allocationsPerSequence );
+            allocatedIds[i] = list;
+            race.addContestant( () ->
+            {
+                for ( int j = 0; j < sequencesPerThread; j++ )
+                {
+                    try ( LocalIdSequence sequence = idGenerator.localSequence( NULL ) )
+                    {
+                        for ( int k = 0; k < allocationsPerSequence; k++ )
+                        {
+                            list.add( sequence.nextId( NULL ) );
+                        }
+                    }
+                    idGenerator.maintenance( false, NULL );
+                }
+            }, 1 );
+        }
+
+        // when
+        race.goUnchecked();
+
+        // then
+        MutableLongList allIds = new LongArrayList( threads * sequencesPerThread * allocationsPerSequence );
+        Stream.of( allocatedIds ).forEach( allIds::addAll );
+        assertEquals( threads * sequencesPerThread * allocationsPerSequence, allIds.distinct().size() );
+    }
+
+    @Test
+    void shouldMakeUnusedFreeIdsFromLocalSequenceReusableOnClose() throws IOException
+    {
+        // given
+        idGenerator.start( NO_FREE_IDS, NULL );
+        idGenerator.setHighId( 10 );
+        for ( long id = 0; id < 10; id++ )
+        {
+            markUsed( id );
+            markDeleted( id );
+            markFree( id );
+        }
+        idGenerator.maintenance( true, NULL );
+
+        // when
+        long usedId;
+        try ( LocalIdSequence sequence = idGenerator.localSequence( NULL, 10 ) )
+        {
+            usedId = sequence.nextId( NULL );
+            assertThat( usedId ).isBetween( 0L, 9L );
+        }
+
+        // then
+        MutableLongList reallocated = new LongArrayList();
+        for ( int i = 0; i < 9; i++ )
+        {
+            reallocated.add( idGenerator.nextId( NULL ) );
+        }
+        assertFalse( reallocated.contains( usedId ) );
+        assertTrue( reallocated.allSatisfy( id -> id >= 0 && id < 10 ) );
+        assertEquals( 9, reallocated.distinct().size() );
+        assertEquals( 10, idGenerator.nextId( NULL ) );
+    }
+
+    @Test
+    void shouldAllocateUniqueIdsFromConcurrentLocalSequences() throws IOException
+    {
+        // given
+        idGenerator.start( NO_FREE_IDS, NULL );
+        int threads = 8;
+        int allocationsPerThread = 1_000;
+        LongList[] allocatedIds = new LongList[threads];
+        Race race = new Race();
+        for ( int i = 0; i < threads; i++ )
+        {
+            LongArrayList list = new LongArrayList( allocationsPerThread );
+            allocatedIds[i] = list;
+            race.addContestant( () ->
+            {
+                try ( LocalIdSequence sequence = idGenerator.localSequence( NULL ) )
+                {
+                    for ( int j = 0; j < allocationsPerThread; j++ )
+                    {
+                        list.add( sequence.nextId( NULL ) );
+                    }
+                }
+            }, 1 );
+        }
+
+        // when
+        race.goUnchecked();
+
+        // then
+        MutableLongList allIds = new LongArrayList( allocationsPerThread * threads );
+        Stream.of( allocatedIds ).forEach( allIds::addAll );
+        assertEquals( allocationsPerThread * threads, allIds.distinct().size() );
+        assertThat( idGenerator.getHighId() ).isLessThanOrEqualTo( (long) allocationsPerThread * threads + threads * IndexedIdGenerator.MAX_LOCAL_BATCH_SIZE );
+    }
+
     @Test
     void shouldAwaitConcurrentOngoingMaintenanceIfToldTo() throws Exception
     {
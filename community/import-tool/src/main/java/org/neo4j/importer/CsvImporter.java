@@ -52,6 +52,8 @@ import org.neo4j.internal.batchimport.input.csv.CsvInput;
 import org.neo4j.internal.batchimport.input.csv.DataFactory;
 import org.neo4j.internal.batchimport.staging.ExecutionMonitor;
 import org.neo4j.internal.batchimport.staging.ExecutionMonitors;
+import org.neo4j.internal.batchimport.staging.JsonLinesExecutionMonitor;
+import org.neo4j.internal.batchimport.staging.MultiExecutionMonitor;
 import org.neo4j.internal.batchimport.staging.SpectrumExecutionMonitor;
 import org.neo4j.io.fs.DefaultFileSystemAbstraction;
 import org.neo4j.io.fs.FileSystemAbstraction;
@@ -68,6 +70,7 @@ import org.neo4j.logging.log4j.Log4jLogProvider;
 import org.neo4j.memory.EmptyMemoryTracker;
 import org.neo4j.memory.MemoryTracker;
 import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.time.Clocks;
 
 import static java.util.Objects.requireNonNull;
 import static org.apache.commons.lang3.exception.ExceptionUtils.indexOfThrowable;
@@ -95,6 +98,7 @@ class CsvImporter implements Importer
     private final org.neo4j.csv.reader.Configuration csvConfig;
     private final org.neo4j.internal.batchimport.Configuration importConfig;
     private final Path reportFile;
+    private final Path executionStatsFile;
     private final IdType idType;
     private final Charset inputEncoding;
     private final boolean ignoreExtraColumns;
@@ -119,6 +123,7 @@ class CsvImporter implements Importer
         this.csvConfig = requireNonNull( b.csvConfig );
         this.importConfig = requireNonNull( b.importConfig );
         this.reportFile = requireNonNull( b.reportFile );
+        this.executionStatsFile = b.executionStatsFile;
         this.idType = requireNonNull( b.idType );
         this.inputEncoding = requireNonNull( b.inputEncoding );
         this.ignoreExtraColumns = b.ignoreExtraColumns;
@@ -165,10 +170,16 @@ class CsvImporter implements Importer
         Path internalLogFile = databaseConfig.get( store_internal_log_path );
         try ( JobScheduler jobScheduler = createInitialisedScheduler();
               OutputStream outputStream = FileSystemUtils.createOrOpenAsOutputStream( fileSystem, internalLogFile, true );
-              Log4jLogProvider logProvider = Util.configuredLogProvider( databaseConfig, outputStream ) )
+              Log4jLogProvider logProvider = Util.configuredLogProvider( databaseConfig, outputStream );
+              PrintStream executionStats = openExecutionStats() )
         {
             ExecutionMonitor executionMonitor = verbose ? new SpectrumExecutionMonitor( 2, TimeUnit.SECONDS, stdOut,
                     SpectrumExecutionMonitor.DEFAULT_WIDTH ) : ExecutionMonitors.defaultVisible();
+            if ( executionStats != null )
+            {
+                executionMonitor = new MultiExecutionMonitor( executionMonitor,
+                        new JsonLinesExecutionMonitor( Clocks.systemClock(), 1, TimeUnit.SECONDS, executionStats ) );
+            }
 
             BatchImporter importer = BatchImporterFactory.withHighestPriority().instantiate(
                     databaseLayout,
@@ -269,6 +280,14 @@ class CsvImporter implements Importer
         return new RuntimeException( e ); // throw in order to have process exit with !0
     }
 
+    /**
+     * @return stream to write statistics of the import steps to, or {@code null} if they shouldn't be written.
+     */
+    private PrintStream openExecutionStats() throws IOException
+    {
+        return executionStatsFile != null ? new PrintStream( fileSystem.openAsOutputStream( executionStatsFile, false ) ) : null;
+    }
+
     private static void printErrorMessage( String string, Exception e, boolean stackTrace, PrintStream err )
     {
         err.println( string );
@@ -396,6 +415,7 @@ class CsvImporter implements Importer
         private org.neo4j.csv.reader.Configuration csvConfig = org.neo4j.csv.reader.Configuration.COMMAS;
         private Configuration importConfig = Configuration.DEFAULT;
         private Path reportFile;
+        private Path executionStatsFile;
         private IdType idType = IdType.STRING;
         private Charset inputEncoding = StandardCharsets.UTF_8;
         private boolean ignoreExtraColumns;
@@ -443,6 +463,12 @@ class CsvImporter implements Importer
             return this;
         }
 
+        Builder withExecutionStatsFile( Path executionStatsFile )
+        {
+            this.executionStatsFile = executionStatsFile;
+            return this;
+        }
+
         Builder withIdType( IdType idType )
         {
             this.idType = idType;
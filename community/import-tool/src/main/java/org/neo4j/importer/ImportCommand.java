@@ -94,6 +94,11 @@ public class ImportCommand extends AbstractCommand
             description = "File in which to store the report of the csv-import." )
     private Path reportFile = Path.of( DEFAULT_REPORT_FILE_NAME );
 
+    @Option( names = "--execution-stats-file", paramLabel = "<path>",
+            description = "(advanced) File in which to store statistics of each step of the import, as one JSON object per line, " +
+                    "for finding bottlenecks after the import. Not written unless specified." )
+    private Path executionStatsFile;
+
     @Option( names = "--id-type", paramLabel = "<STRING|INTEGER|ACTUAL>", description = "Each node must provide a unique id. This is used to find the " +
             "correct nodes when creating relationships. Possible values are:%n" +
             "  STRING: arbitrary strings for identifying nodes,%n" +
@@ -230,6 +235,7 @@ public class ImportCommand extends AbstractCommand
                     .withIdType( idType )
                     .withInputEncoding( inputEncoding )
                     .withReportFile( reportFile.toAbsolutePath() )
+                    .withExecutionStatsFile( executionStatsFile != null ? executionStatsFile.toAbsolutePath() : null )
                     .withIgnoreExtraColumns( ignoreExtraColumns )
                     .withBadTolerance( badTolerance )
                     .withSkipBadRelationships( skipBadRelationships )
@@ -82,6 +82,35 @@ class CsvImporterTest
         assertTrue( Files.exists( reportLocation ) );
     }
 
+    @Test
+    void writesExecutionStatsToSpecifiedFile() throws Exception
+    {
+        Path logDir = testDir.directory( "logs" );
+        Path reportLocation = testDir.file( "the_report" );
+        Path statsLocation = testDir.file( "the_stats" );
+
+        Path inputFile = testDir.file( "foobar.csv" );
+        List<String> lines = List.of( "foo;bar;baz" );
+        Files.write( inputFile, lines, Charset.defaultCharset() );
+
+        Config config = Config.defaults( GraphDatabaseSettings.logs_directory, logDir.toAbsolutePath() );
+
+        CsvImporter csvImporter = CsvImporter.builder()
+                .withDatabaseLayout( databaseLayout )
+                .withDatabaseConfig( config )
+                .withReportFile( reportLocation.toAbsolutePath() )
+                .withExecutionStatsFile( statsLocation.toAbsolutePath() )
+                .withFileSystem( testDir.getFileSystem() )
+                .addNodeFiles( emptySet(), new Path[]{inputFile.toAbsolutePath()} )
+                .build();
+
+        csvImporter.doImport();
+
+        List<String> stats = Files.readAllLines( statsLocation );
+        assertThat( stats ).anyMatch( line -> line.contains( "\"event\":\"step\"" ) );
+        assertThat( stats.get( stats.size() - 1 ) ).contains( "\"event\":\"done\"", "\"successful\":true" );
+    }
+
     @Test
     void tracePageCacheAccessOnCsvImport() throws IOException
     {
@@ -75,11 +75,12 @@ class ImportCommandTest
                         "       [=<true/false>]] [--skip-duplicate-nodes[=<true/false>]] [--trim-strings" + lineSeparator() +
                         "       [=<true/false>]] [--additional-config=<path>] [--array-delimiter=<char>]" + lineSeparator() +
                         "       [--bad-tolerance=<num>] [--database=<database>] [--delimiter=<char>]" + lineSeparator() +
-                        "       [--id-type=<STRING|INTEGER|ACTUAL>] [--input-encoding=<character-set>]" + lineSeparator() +
-                        "       [--max-memory=<size>] [--processors=<num>] [--quote=<char>]" + lineSeparator() +
-                        "       [--read-buffer-size=<size>] [--report-file=<path>] --nodes=[<label>[:" + lineSeparator() +
-                        "       <label>]...=]<files>... [--nodes=[<label>[:<label>]...=]<files>...]..." + lineSeparator() +
-                        "       [--relationships=[<type>=]<files>...]..." + lineSeparator() +
+                        "       [--execution-stats-file=<path>] [--id-type=<STRING|INTEGER|ACTUAL>]" + lineSeparator() +
+                        "       [--input-encoding=<character-set>] [--max-memory=<size>]" + lineSeparator() +
+                        "       [--processors=<num>] [--quote=<char>] [--read-buffer-size=<size>]" + lineSeparator() +
+                        "       [--report-file=<path>] --nodes=[<label>[:<label>]...=]<files>..." + lineSeparator() +
+                        "       [--nodes=[<label>[:<label>]...=]<files>...]... [--relationships=[<type>=]" + lineSeparator() +
+                        "       <files>...]..." + lineSeparator() +
                         "" + lineSeparator() +
                         "DESCRIPTION" + lineSeparator() +
                         "" + lineSeparator() +
@@ -96,6 +97,11 @@ class ImportCommandTest
                         "      --report-file=<path>   File in which to store the report of the" + lineSeparator() +
                         "                               csv-import." + lineSeparator() +
                         "                               Default: import.report" + lineSeparator() +
+                        "      --execution-stats-file=<path>" + lineSeparator() +
+                        "                             (advanced) File in which to store statistics of" + lineSeparator() +
+                        "                               each step of the import, as one JSON object per" + lineSeparator() +
+                        "                               line, for finding bottlenecks after the import." + lineSeparator() +
+                        "                               Not written unless specified." + lineSeparator() +
                         "      --id-type=<STRING|INTEGER|ACTUAL>" + lineSeparator() +
                         "                             Each node must provide a unique id. This is used" + lineSeparator() +
                         "                               to find the correct nodes when creating" + lineSeparator() +
@@ -136,6 +136,24 @@ public class PhysicalFlushableChannel implements FlushableChannel
         return this;
     }
 
+    @Override
+    public FlushableChannel putAll( ByteBuffer src ) throws IOException
+    {
+        while ( src.hasRemaining() )
+        {
+            if ( !buffer.hasRemaining() )
+            {
+                prepareForFlush();
+            }
+            int chunkSize = min( src.remaining(), buffer.remaining() );
+            int srcLimit = src.limit();
+            src.limit( src.position() + chunkSize );
+            buffer.put( src );
+            src.limit( srcLimit );
+        }
+        return this;
+    }
+
     /**
      * External synchronization between this method and emptyBufferIntoChannelAndClearIt is required so that they
      * aren't called concurrently. Currently that's done by acquiring the PhysicalLogFile monitor.
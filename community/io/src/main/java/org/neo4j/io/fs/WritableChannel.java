@@ -20,6 +20,7 @@
 package org.neo4j.io.fs;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * Represents an infinite channel to write primitive data to.
@@ -89,4 +90,21 @@ public interface WritableChannel
      * @throws IOException if I/O error occurs.
      */
     WritableChannel put( byte[] value, int length ) throws IOException;
+
+    /**
+     * Writes all remaining bytes of {@code src} to this channel, leaving {@code src} with its position at its limit.
+     * Buffering implementations should override this with a bulk copy, the default writes one byte at a time.
+     *
+     * @param src buffer holding the bytes to write.
+     * @return this channel, for fluent usage.
+     * @throws IOException if I/O error occurs.
+     */
+    default WritableChannel putAll( ByteBuffer src ) throws IOException
+    {
+        while ( src.hasRemaining() )
+        {
+            put( src.get() );
+        }
+        return this;
+    }
 }
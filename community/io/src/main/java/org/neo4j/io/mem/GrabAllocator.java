@@ -19,21 +19,36 @@
  */
 package org.neo4j.io.mem;
 
+import org.neo4j.internal.nativeimpl.NativeAccess;
+import org.neo4j.internal.nativeimpl.NativeAccessProvider;
+import org.neo4j.internal.nativeimpl.NativeCallResult;
 import org.neo4j.internal.unsafe.UnsafeUtil;
 import org.neo4j.memory.MemoryTracker;
 
 import java.lang.ref.Cleaner;
+import java.util.function.Consumer;
 
 import static org.neo4j.io.ByteUnit.kibiBytes;
+import static org.neo4j.io.ByteUnit.mebiBytes;
 import static org.neo4j.util.FeatureToggles.getInteger;
+import static org.neo4j.util.FeatureToggles.getLong;
 
 /**
  * This memory allocator is allocating memory in large segments, called "grabs", and the memory returned by the memory
  * manager is page aligned, and plays well with transparent huge pages and other operating system optimisations.
+ * <p>
+ * When asked to use huge pages, the grabs are much larger, aligned to the huge page size, and the operating system is advised to back them by
+ * transparent huge pages. This greatly reduces the number of TLB misses when randomly accessing a large amount of memory, like a page cache.
  */
 public final class GrabAllocator implements MemoryAllocator
 {
     private static final Cleaner globalCleaner = globalCleaner();
+    private static final NativeAccess NATIVE_ACCESS = NativeAccessProvider.getNativeAccess();
+
+    /**
+     * The size, in bytes, of the transparent huge pages that grabs are aligned to when using huge pages.
+     */
+    private static final long HUGE_PAGE_SIZE = getLong( GrabAllocator.class, "HUGE_PAGE_SIZE", mebiBytes( 2 ) );
 
     private final Grabs grabs;
     private final Cleaner.Cleanable cleanable;
@@ -45,10 +60,18 @@ public final class GrabAllocator implements MemoryAllocator
      * @param expectedMaxMemory The maximum amount of memory that this memory manager is expected to allocate. The
      * actual amount of memory used can end up greater than this value, if some of it gets wasted on alignment padding.
      * @param memoryTracker memory usage tracker
+     * @param hugePages whether to allocate huge page aligned grabs, that are advised to be backed by transparent huge pages.
+     * @param hugePageAdviceRejection called with the result of the first huge page advice that the operating system rejects.
      */
-    GrabAllocator( long expectedMaxMemory, MemoryTracker memoryTracker )
+    GrabAllocator( long expectedMaxMemory, MemoryTracker memoryTracker, boolean hugePages, Consumer<NativeCallResult> hugePageAdviceRejection )
+    {
+        this( expectedMaxMemory, memoryTracker, hugePages, NATIVE_ACCESS, hugePageAdviceRejection );
+    }
+
+    GrabAllocator( long expectedMaxMemory, MemoryTracker memoryTracker, boolean hugePages, NativeAccess nativeAccess,
+            Consumer<NativeCallResult> hugePageAdviceRejection )
     {
-        this.grabs = new Grabs( expectedMaxMemory, memoryTracker );
+        this.grabs = new Grabs( expectedMaxMemory, memoryTracker, hugePages, nativeAccess, hugePageAdviceRejection );
         this.cleanable = globalCleaner.register( this, new GrabsDeallocator( grabs ) );
     }
 
@@ -79,23 +102,42 @@ public final class GrabAllocator implements MemoryAllocator
     private static class Grab
     {
         public final Grab next;
+        private final long allocatedAddress;
+        private final long allocatedSize;
         private final long address;
         private final long limit;
         private final MemoryTracker memoryTracker;
         private long nextPointer;
 
-        Grab( Grab next, long size, MemoryTracker memoryTracker )
+        Grab( Grab next, long size, MemoryTracker memoryTracker, boolean hugePages, NativeAccess nativeAccess,
+                Consumer<NativeCallResult> hugePageAdviceResult )
         {
             this.next = next;
-            this.address = UnsafeUtil.allocateMemory( size, memoryTracker );
+            if ( hugePages && size >= HUGE_PAGE_SIZE )
+            {
+                // Over-allocate so the usable part of the grab can start on a huge page boundary.
+                this.allocatedSize = size + HUGE_PAGE_SIZE;
+                this.allocatedAddress = UnsafeUtil.allocateMemory( allocatedSize, memoryTracker );
+                this.address = nextAligned( allocatedAddress, HUGE_PAGE_SIZE );
+                // The advice is only a hint, so the memory is perfectly usable if it is not followed.
+                hugePageAdviceResult.accept( nativeAccess.tryAdviseHugePages( address, size ) );
+            }
+            else
+            {
+                this.allocatedSize = size;
+                this.allocatedAddress = UnsafeUtil.allocateMemory( size, memoryTracker );
+                this.address = allocatedAddress;
+            }
             this.limit = address + size;
             this.memoryTracker = memoryTracker;
             nextPointer = address;
         }
 
-        Grab( Grab next, long address, long limit, long nextPointer, MemoryTracker memoryTracker )
+        Grab( Grab next, long allocatedAddress, long allocatedSize, long address, long limit, long nextPointer, MemoryTracker memoryTracker )
         {
             this.next = next;
+            this.allocatedAddress = allocatedAddress;
+            this.allocatedSize = allocatedSize;
             this.address = address;
             this.limit = limit;
             this.nextPointer = nextPointer;
@@ -125,7 +167,7 @@ public final class GrabAllocator implements MemoryAllocator
 
         void free()
         {
-            UnsafeUtil.free( address, limit - address, memoryTracker );
+            UnsafeUtil.free( allocatedAddress, allocatedSize, memoryTracker );
         }
 
         boolean canAllocate( long bytes, long alignment )
@@ -135,7 +177,7 @@ public final class GrabAllocator implements MemoryAllocator
 
         Grab setNext( Grab grab )
         {
-            return new Grab( grab, address, limit, nextPointer, memoryTracker );
+            return new Grab( grab, allocatedAddress, allocatedSize, address, limit, nextPointer, memoryTracker );
         }
 
         @Override
@@ -155,14 +197,44 @@ public final class GrabAllocator implements MemoryAllocator
          */
         private static final long GRAB_SIZE = getInteger( GrabAllocator.class, "GRAB_SIZE", (int) kibiBytes( 512 ) );
 
+        /**
+         * The amount of memory, in bytes, to grab in each Grab when using huge pages. This should be a multiple of the huge page size.
+         */
+        private static final long HUGE_PAGES_GRAB_SIZE = getLong( GrabAllocator.class, "HUGE_PAGES_GRAB_SIZE", mebiBytes( 64 ) );
+
         private final MemoryTracker memoryTracker;
+        private final boolean hugePages;
+        private final NativeAccess nativeAccess;
+        private final Consumer<NativeCallResult> hugePageAdviceRejection;
+        private final long grabSize;
         private long expectedMaxMemory;
+        private boolean hugePageAdviceRejected;
         private Grab head;
 
-        Grabs( long expectedMaxMemory, MemoryTracker memoryTracker )
+        Grabs( long expectedMaxMemory, MemoryTracker memoryTracker, boolean hugePages, NativeAccess nativeAccess,
+                Consumer<NativeCallResult> hugePageAdviceRejection )
         {
             this.expectedMaxMemory = expectedMaxMemory;
             this.memoryTracker = memoryTracker;
+            this.hugePages = hugePages;
+            this.nativeAccess = nativeAccess;
+            this.hugePageAdviceRejection = hugePageAdviceRejection;
+            this.grabSize = hugePages ? HUGE_PAGES_GRAB_SIZE : GRAB_SIZE;
+        }
+
+        private Grab newGrab( Grab next, long size )
+        {
+            return new Grab( next, size, memoryTracker, hugePages, nativeAccess, this::onHugePageAdvice );
+        }
+
+        private void onHugePageAdvice( NativeCallResult result )
+        {
+            // Every grab is advised the same way, so a rejection is only reported the first time it happens.
+            if ( result.isError() && !hugePageAdviceRejected )
+            {
+                hugePageAdviceRejected = true;
+                hugePageAdviceRejection.accept( result );
+            }
         }
 
         long usedMemory()
@@ -206,19 +278,19 @@ public final class GrabAllocator implements MemoryAllocator
             {
                 throw new IllegalArgumentException( "Invalid alignment: " + alignment + ". Alignment must be positive." );
             }
-            long grabSize = Math.min( GRAB_SIZE, expectedMaxMemory );
+            long grabSize = Math.min( this.grabSize, expectedMaxMemory );
             long maxAllocationSize = bytes + alignment - 1;
-            if ( maxAllocationSize > GRAB_SIZE )
+            if ( maxAllocationSize > this.grabSize )
             {
                 // This is a huge allocation. Put it in its own grab and keep any existing grab at the head.
                 grabSize = bytes;
                 Grab nextGrab = head == null ? null : head.next;
-                Grab allocationGrab = new Grab( nextGrab, grabSize, memoryTracker );
+                Grab allocationGrab = newGrab( nextGrab, grabSize );
                 if ( !allocationGrab.canAllocate( bytes, alignment ) )
                 {
                     allocationGrab.free();
                     grabSize = maxAllocationSize;
-                    allocationGrab = new Grab( nextGrab, grabSize, memoryTracker );
+                    allocationGrab = newGrab( nextGrab, grabSize );
                 }
                 long allocation = allocationGrab.allocate( bytes, alignment );
                 head = head == null ? allocationGrab : head.setNext( allocationGrab );
@@ -231,7 +303,7 @@ public final class GrabAllocator implements MemoryAllocator
                 if ( grabSize < maxAllocationSize )
                 {
                     grabSize = bytes;
-                    Grab grab = new Grab( head, grabSize, memoryTracker );
+                    Grab grab = newGrab( head, grabSize );
                     if ( grab.canAllocate( bytes, alignment ) )
                     {
                         expectedMaxMemory -= grabSize;
@@ -241,7 +313,7 @@ public final class GrabAllocator implements MemoryAllocator
                     grab.free();
                     grabSize = maxAllocationSize;
                 }
-                head = new Grab( head, grabSize, memoryTracker );
+                head = newGrab( head, grabSize );
                 expectedMaxMemory -= grabSize;
             }
             return head.allocate( bytes, alignment );
@@ -19,8 +19,11 @@
  */
 package org.neo4j.io.mem;
 
+import org.neo4j.internal.nativeimpl.NativeCallResult;
 import org.neo4j.memory.MemoryTracker;
 
+import java.util.function.Consumer;
+
 /**
  * A MemoryAllocator is simple: it only allocates memory, until it is closed and frees it all in one go.
  */
@@ -28,7 +31,25 @@ public interface MemoryAllocator
 {
     static MemoryAllocator createAllocator( long expectedMemory, MemoryTracker memoryTracker )
     {
-        return new GrabAllocator( expectedMemory, memoryTracker );
+        return createAllocator( expectedMemory, memoryTracker, false );
+    }
+
+    /**
+     * @param hugePages whether to reserve the memory in regions that are aligned to, and advised to be backed by, transparent huge pages.
+     */
+    static MemoryAllocator createAllocator( long expectedMemory, MemoryTracker memoryTracker, boolean hugePages )
+    {
+        return createAllocator( expectedMemory, memoryTracker, hugePages, result -> {} );
+    }
+
+    /**
+     * @param hugePages whether to reserve the memory in regions that are aligned to, and advised to be backed by, transparent huge pages.
+     * @param hugePageAdviceRejection called at most once, with the result of the first huge page advice that the operating system rejects.
+     */
+    static MemoryAllocator createAllocator( long expectedMemory, MemoryTracker memoryTracker, boolean hugePages,
+            Consumer<NativeCallResult> hugePageAdviceRejection )
+    {
+        return new GrabAllocator( expectedMemory, memoryTracker, hugePages, hugePageAdviceRejection );
     }
 
     /**
@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.mem;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.IntSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.neo4j.internal.nativeimpl.NativeAccess;
+import org.neo4j.internal.nativeimpl.NativeAccessProvider;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * The NUMA nodes of the machine, and the CPUs that belong to each of them, as described by the Linux sysfs.
+ * <p>
+ * Only nodes that have CPUs are included, and they are numbered densely from zero in the order of their node ids. On machines with a single
+ * NUMA node, and on platforms where the topology can not be determined, there is exactly one node.
+ */
+public final class NumaTopology
+{
+    public static final NumaTopology SINGLE_NODE = new NumaTopology( new int[0], 1, () -> 0 );
+
+    private static final Path NODES_DIRECTORY = Path.of( "/sys/devices/system/node" );
+    private static final Pattern NODE_DIRECTORY_NAME = Pattern.compile( "node(\\d+)" );
+    private static final NativeAccess NATIVE_ACCESS = NativeAccessProvider.getNativeAccess();
+
+    /**
+     * The number of {@link #currentNode()} calls that a thread answers from its cached node, before it asks the operating system for its CPU again.
+     * Threads rarely move between nodes, so the lookup, which is a native call, does not have to be made every time.
+     */
+    static final int CURRENT_NODE_REFRESH_INTERVAL = getInteger( NumaTopology.class, "CURRENT_NODE_REFRESH_INTERVAL", 1024 );
+
+    private final int[] nodeByCpu;
+    private final int nodeCount;
+    private final IntSupplier currentCpu;
+    private final ThreadLocal<CurrentNode> currentNodes = ThreadLocal.withInitial( CurrentNode::new );
+
+    private NumaTopology( int[] nodeByCpu, int nodeCount, IntSupplier currentCpu )
+    {
+        this.nodeByCpu = nodeByCpu;
+        this.nodeCount = nodeCount;
+        this.currentCpu = currentCpu;
+    }
+
+    /**
+     * @return the NUMA topology of this machine.
+     */
+    public static NumaTopology detect()
+    {
+        if ( !NATIVE_ACCESS.isAvailable() )
+        {
+            return SINGLE_NODE;
+        }
+        return detect( NODES_DIRECTORY );
+    }
+
+    static NumaTopology detect( Path nodesDirectory )
+    {
+        TreeMap<Integer,String> cpuListsByNodeId = new TreeMap<>();
+        try ( Stream<Path> nodeDirectories = Files.list( nodesDirectory ) )
+        {
+            for ( Path nodeDirectory : (Iterable<Path>) nodeDirectories::iterator )
+            {
+                Matcher matcher = NODE_DIRECTORY_NAME.matcher( nodeDirectory.getFileName().toString() );
+                Path cpuList = nodeDirectory.resolve( "cpulist" );
+                if ( matcher.matches() && Files.exists( cpuList ) )
+                {
+                    cpuListsByNodeId.put( Integer.parseInt( matcher.group( 1 ) ), Files.readString( cpuList, US_ASCII ) );
+                }
+            }
+            return of( new ArrayList<>( cpuListsByNodeId.values() ) );
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            return SINGLE_NODE;
+        }
+    }
+
+    /**
+     * Create a topology from the CPUs of each node, in the sysfs cpulist format, like {@code "0-3,8-11"}.
+     *
+     * @param cpuListsByNode the list of CPUs for each node.
+     * @return the topology with the nodes that have CPUs.
+     */
+    public static NumaTopology of( List<String> cpuListsByNode )
+    {
+        return of( cpuListsByNode, NATIVE_ACCESS::getCurrentCpu );
+    }
+
+    static NumaTopology of( List<String> cpuListsByNode, IntSupplier currentCpu )
+    {
+        List<int[]> cpusByNode = new ArrayList<>();
+        int maxCpu = -1;
+        for ( String cpuList : cpuListsByNode )
+        {
+            int[] cpus = parseCpuList( cpuList );
+            if ( cpus.length > 0 )
+            {
+                cpusByNode.add( cpus );
+                maxCpu = Math.max( maxCpu, cpus[cpus.length - 1] );
+            }
+        }
+        if ( cpusByNode.size() <= 1 )
+        {
+            return SINGLE_NODE;
+        }
+        int[] nodeByCpu = new int[maxCpu + 1];
+        for ( int node = 0; node < cpusByNode.size(); node++ )
+        {
+            for ( int cpu : cpusByNode.get( node ) )
+            {
+                nodeByCpu[cpu] = node;
+            }
+        }
+        return new NumaTopology( nodeByCpu, cpusByNode.size(), currentCpu );
+    }
+
+    private static int[] parseCpuList( String cpuList )
+    {
+        String trimmed = cpuList.trim();
+        if ( trimmed.isEmpty() )
+        {
+            return new int[0];
+        }
+        List<Integer> cpus = new ArrayList<>();
+        for ( String range : trimmed.split( "," ) )
+        {
+            int dash = range.indexOf( '-' );
+            int first = Integer.parseInt( dash == -1 ? range : range.substring( 0, dash ) );
+            int last = dash == -1 ? first : Integer.parseInt( range.substring( dash + 1 ) );
+            for ( int cpu = first; cpu <= last; cpu++ )
+            {
+                cpus.add( cpu );
+            }
+        }
+        return cpus.stream().mapToInt( Integer::intValue ).sorted().toArray();
+    }
+
+    /**
+     * @return the number of NUMA nodes, which is at least one.
+     */
+    public int nodeCount()
+    {
+        return nodeCount;
+    }
+
+    /**
+     * @return the node of the given CPU, or 0 if the CPU is not known.
+     */
+    public int nodeOfCpu( int cpu )
+    {
+        return cpu >= 0 && cpu < nodeByCpu.length ? nodeByCpu[cpu] : 0;
+    }
+
+    /**
+     * The node is cached per thread, and only looked up again every {@link #CURRENT_NODE_REFRESH_INTERVAL} calls, so it can be stale for a while
+     * after the thread has been moved to another node.
+     *
+     * @return the node of the CPU that the calling thread is running on, or 0 if that can not be determined.
+     */
+    public int currentNode()
+    {
+        if ( nodeCount == 1 )
+        {
+            return 0;
+        }
+        CurrentNode current = currentNodes.get();
+        if ( current.callsUntilRefresh-- <= 0 )
+        {
+            current.node = nodeOfCpu( currentCpu.getAsInt() );
+            current.callsUntilRefresh = CURRENT_NODE_REFRESH_INTERVAL - 1;
+        }
+        return current.node;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "NumaTopology[nodes=" + nodeCount + "]";
+    }
+
+    private static final class CurrentNode
+    {
+        private int node;
+        private int callsUntilRefresh;
+    }
+}
@@ -44,5 +44,29 @@ public enum PageCacheOpenOptions implements OpenOption
      * Please check that your platform is supported before providing this option.
      * @see ExtendedOpenOption for details.
      */
-    DIRECT
+    DIRECT,
+
+    /**
+     * Map the file with high priority. Pages of a high priority file age at half the rate of other pages, as the
+     * eviction sweep passes over them, so they are more likely to stay in memory when the page cache is under pressure.
+     * This option only has an effect when the file is not already mapped.
+     */
+    HIGH_PRIORITY,
+
+    /**
+     * Map the file with low priority. Pages of a low priority file are evicted as soon as the eviction sweep reaches
+     * them, regardless of how recently they were used, unless the file is protected by a {@link ResidencyQuota}.
+     * This is useful for files that are read in bulk, and would otherwise push more valuable pages out of the cache.
+     * This option only has an effect when the file is not already mapped.
+     */
+    LOW_PRIORITY,
+
+    /**
+     * Map the file with compressed pages. Pages that compress well are stored compressed in their place in the file,
+     * and the disk space they no longer need is given back to the file system, which makes the file smaller on disk,
+     * at the cost of compressing and decompressing pages as they are flushed and faulted. This is best suited for
+     * files that are mostly read. A file must always be mapped with this option once it has been written to with it.
+     * This option cannot be combined with {@link #DIRECT}, and only has an effect when the file is not already mapped.
+     */
+    COMPRESSED
 }
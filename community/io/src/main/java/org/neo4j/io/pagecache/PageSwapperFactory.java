@@ -63,6 +63,28 @@ public interface PageSwapperFactory
             boolean createIfNotExist,
             boolean useDirectIO ) throws IOException;
 
+    /**
+     * Create a PageSwapper for the given file, that optionally compresses the pages it writes, and decompresses the pages it reads.
+     *
+     * @param compressed When true, the PageSwapper stores the pages of the file compressed.
+     * @throws UnsupportedOperationException if compressed pages are requested, but not supported by this PageSwapperFactory.
+     * @see #createPageSwapper(Path, int, PageEvictionCallback, boolean, boolean)
+     */
+    default PageSwapper createPageSwapper(
+            Path path,
+            int filePageSize,
+            PageEvictionCallback onEviction,
+            boolean createIfNotExist,
+            boolean useDirectIO,
+            boolean compressed ) throws IOException
+    {
+        if ( compressed )
+        {
+            throw new UnsupportedOperationException( getClass().getSimpleName() + " does not support compressed pages." );
+        }
+        return createPageSwapper( path, filePageSize, onEviction, createIfNotExist, useDirectIO );
+    }
+
     /**
      * Close and release any resources associated with this PageSwapperFactory, that it may have opened or acquired
      * during its construction or use.
@@ -83,6 +83,14 @@ public interface PagedFile extends AutoCloseable
      * Flush pages more aggressively, after they have been dirtied by a write cursor.
      */
     int PF_EAGER_FLUSH = 1 << 6;
+    /**
+     * Read pages that are not already in the page cache straight from the file, in large blocks, into memory owned by the cursor,
+     * instead of faulting them into the page cache. Meant for read cursors that scan through large parts of a file once, like consistency
+     * checks, which would otherwise evict the pages used by everyone else. Pages that are in the page cache are still read from there.
+     * <p>
+     * Only valid together with {@link #PF_SHARED_READ_LOCK}. Page caches that don't support it will ignore it.
+     */
+    int PF_BYPASS_CACHE = 1 << 7;
 
     /**
      * Initiate an IO interaction with the contents of the paged file.
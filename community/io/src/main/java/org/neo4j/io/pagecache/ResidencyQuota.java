@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache;
+
+import org.eclipse.collections.api.set.ImmutableSet;
+
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.util.Objects;
+
+import static java.lang.String.format;
+
+/**
+ * An {@link OpenOption} for {@link PageCache#map(Path, int, ImmutableSet)}, that gives the mapped file a residency quota.
+ * <p>
+ * The quota bounds the number of pages of the file that the eviction sweep will keep in memory: as long as no more
+ * than the minimum number of pages of the file are resident, the sweep will leave them alone, and once more than the
+ * maximum number of pages are resident, the sweep will evict them regardless of how recently they were used.
+ * The minimum is a soft limit that is lifted if the page cache would otherwise be unable to find pages to evict,
+ * and the maximum only takes effect as the eviction sweep runs, so neither limit is exact.
+ * <p>
+ * The quota only has an effect when the file is not already mapped.
+ */
+public final class ResidencyQuota implements OpenOption
+{
+    private final long minimumPages;
+    private final long maximumPages;
+
+    private ResidencyQuota( long minimumPages, long maximumPages )
+    {
+        this.minimumPages = minimumPages;
+        this.maximumPages = maximumPages;
+    }
+
+    /**
+     * Create a residency quota that keeps at least {@code minimumPages}, and at most {@code maximumPages}, of the file in memory.
+     * @param minimumPages the number of pages of the file the eviction sweep will not evict. Must not be negative.
+     * @param maximumPages the number of pages of the file above which the eviction sweep will evict pages of the file first.
+     * Must not be less than {@code minimumPages}.
+     * @return the residency quota.
+     */
+    public static ResidencyQuota pages( long minimumPages, long maximumPages )
+    {
+        if ( minimumPages < 0 || maximumPages < minimumPages )
+        {
+            throw new IllegalArgumentException( format(
+                    "Invalid residency quota of minimum %d and maximum %d pages. The minimum must not be negative, and the maximum must not be less " +
+                    "than the minimum.", minimumPages, maximumPages ) );
+        }
+        return new ResidencyQuota( minimumPages, maximumPages );
+    }
+
+    /**
+     * Create a residency quota that keeps at least {@code minimumPages} of the file in memory, with no upper limit.
+     */
+    public static ResidencyQuota atLeast( long minimumPages )
+    {
+        return pages( minimumPages, Long.MAX_VALUE );
+    }
+
+    /**
+     * Create a residency quota that keeps at most {@code maximumPages} of the file in memory, with no lower limit.
+     */
+    public static ResidencyQuota atMost( long maximumPages )
+    {
+        return pages( 0, maximumPages );
+    }
+
+    public long minimumPages()
+    {
+        return minimumPages;
+    }
+
+    public long maximumPages()
+    {
+        return maximumPages;
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+        if ( this == o )
+        {
+            return true;
+        }
+        if ( o == null || getClass() != o.getClass() )
+        {
+            return false;
+        }
+        ResidencyQuota that = (ResidencyQuota) o;
+        return minimumPages == that.minimumPages && maximumPages == that.maximumPages;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash( minimumPages, maximumPages );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ResidencyQuota[minimumPages=" + minimumPages + ", maximumPages=" + maximumPages + "]";
+    }
+}
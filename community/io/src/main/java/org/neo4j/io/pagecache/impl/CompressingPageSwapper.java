@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import com.github.luben.zstd.Zstd;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.neo4j.internal.unsafe.UnsafeUtil;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.util.FeatureToggles;
+
+import static java.lang.String.format;
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+
+/**
+ * A PageSwapper that compresses the pages of a file with zstd, on top of a {@link SingleFilePageSwapper}.
+ * <p>
+ * Every file page keeps its slot at its usual offset in the file, so pages can still be written in place.
+ * A page that compresses well enough to save at least one file system block, is written as a small header followed by the compressed page,
+ * and the unused rest of the slot is released with {@link SingleFilePageSwapper#deallocate(long, long)}, such that the file system neither
+ * stores nor reads it. Pages that do not compress well enough are written as they are.
+ * <p>
+ * The header starts with a magic number, that tells compressed slots apart from pages that were written as they are, followed by the
+ * length of the compressed page. The compressed page carries a checksum of its contents, so torn or otherwise corrupted compressed
+ * pages are reported as errors, rather than read as garbage. This is also what happens in the astronomically unlikely case of a page,
+ * that did not compress well, starting with the magic number.
+ * <p>
+ * Pages are staged in a native scratch buffer on their way to and from the file. The swapper keeps the scratch buffers it has allocated
+ * until it is closed, so page faults and flushes only allocate native memory when more threads than ever before do I/O on the file
+ * at the same time.
+ */
+class CompressingPageSwapper implements PageSwapper
+{
+    static final long MAGIC = 0x5A53_5444_4E45_4F34L;
+    static final int HEADER_SIZE = Long.BYTES + Integer.BYTES;
+    private static final int COMPRESSION_LEVEL = FeatureToggles.getInteger( CompressingPageSwapper.class, "compressionLevel", 3 );
+
+    private final SingleFilePageSwapper delegate;
+    private final int filePageSize;
+    private final long blockSize;
+    private final long compressedBufferSize;
+    private final Queue<Long> scratchBuffers = new ConcurrentLinkedQueue<>();
+
+    CompressingPageSwapper( SingleFilePageSwapper delegate, int filePageSize, long blockSize )
+    {
+        this.delegate = delegate;
+        this.filePageSize = filePageSize;
+        this.blockSize = blockSize;
+        this.compressedBufferSize = Math.max( HEADER_SIZE + Zstd.compressBound( filePageSize ), filePageSize );
+    }
+
+    /**
+     * @return a scratch buffer that is large enough to hold a page of this file, compressed or not, and that must be given back with
+     * {@link #releaseScratchBuffer(Long)}.
+     */
+    private Long acquireScratchBuffer()
+    {
+        Long buffer = scratchBuffers.poll();
+        return buffer != null ? buffer : UnsafeUtil.allocateMemory( compressedBufferSize, INSTANCE );
+    }
+
+    private void releaseScratchBuffer( Long buffer )
+    {
+        scratchBuffers.offer( buffer );
+    }
+
+    private void freeScratchBuffers()
+    {
+        Long buffer;
+        while ( (buffer = scratchBuffers.poll()) != null )
+        {
+            UnsafeUtil.free( buffer, compressedBufferSize, INSTANCE );
+        }
+    }
+
+    @Override
+    public long read( long filePageId, long bufferAddress ) throws IOException
+    {
+        return read( filePageId, bufferAddress, filePageSize );
+    }
+
+    @Override
+    public long read( long filePageId, long bufferAddress, int bufferLength ) throws IOException
+    {
+        Long slot = acquireScratchBuffer();
+        try
+        {
+            long bytesRead = 0;
+            for ( int offset = 0; offset < bufferLength; offset += filePageSize )
+            {
+                bytesRead += readPage( filePageId++, bufferAddress + offset, slot );
+            }
+            return bytesRead;
+        }
+        finally
+        {
+            releaseScratchBuffer( slot );
+        }
+    }
+
+    private long readPage( long filePageId, long pageAddress, long slot ) throws IOException
+    {
+        long bytesRead = delegate.read( filePageId, slot, filePageSize );
+        if ( bytesRead < HEADER_SIZE || UnsafeUtil.getLong( slot ) != MAGIC )
+        {
+            // Written as is, or not written at all.
+            UnsafeUtil.copyMemory( slot, pageAddress, filePageSize );
+            return bytesRead;
+        }
+
+        int compressedLength = UnsafeUtil.getInt( slot + Long.BYTES );
+        if ( compressedLength <= 0 || compressedLength > filePageSize - HEADER_SIZE )
+        {
+            throw corruptedPage( filePageId, "invalid compressed length " + compressedLength );
+        }
+        long decompressed = Zstd.decompressUnsafe( pageAddress, filePageSize, slot + HEADER_SIZE, compressedLength );
+        if ( Zstd.isError( decompressed ) )
+        {
+            throw corruptedPage( filePageId, Zstd.getErrorName( decompressed ) );
+        }
+        if ( decompressed < filePageSize )
+        {
+            UnsafeUtil.setMemory( pageAddress + decompressed, filePageSize - decompressed, MuninnPageCache.ZERO_BYTE );
+        }
+        return decompressed;
+    }
+
+    private IOException corruptedPage( long filePageId, String reason )
+    {
+        return new IOException( format( "Compressed page %d of file %s is corrupted: %s.", filePageId, delegate.path(), reason ) );
+    }
+
+    @Override
+    public long read( long startFilePageId, long[] bufferAddresses, int[] bufferLengths, int length ) throws IOException
+    {
+        long bytesRead = 0;
+        long filePageId = startFilePageId;
+        for ( int i = 0; i < length; i++ )
+        {
+            bytesRead += read( filePageId, bufferAddresses[i], bufferLengths[i] );
+            filePageId += bufferLengths[i] / filePageSize;
+        }
+        return bytesRead;
+    }
+
+    @Override
+    public long write( long filePageId, long bufferAddress ) throws IOException
+    {
+        return write( filePageId, bufferAddress, filePageSize );
+    }
+
+    @Override
+    public long write( long filePageId, long bufferAddress, int bufferLength ) throws IOException
+    {
+        Long compressed = acquireScratchBuffer();
+        try
+        {
+            long bytesWritten = 0;
+            for ( int offset = 0; offset < bufferLength; offset += filePageSize )
+            {
+                bytesWritten += writePage( filePageId++, bufferAddress + offset, compressed );
+            }
+            return bytesWritten;
+        }
+        finally
+        {
+            releaseScratchBuffer( compressed );
+        }
+    }
+
+    private long writePage( long filePageId, long pageAddress, long compressed ) throws IOException
+    {
+        long compressedLength = Zstd.compressUnsafe(
+                compressed + HEADER_SIZE, compressedBufferSize - HEADER_SIZE, pageAddress, filePageSize, COMPRESSION_LEVEL, true );
+        if ( Zstd.isError( compressedLength ) )
+        {
+            throw new IOException( format( "Failed to compress page %d of file %s: %s.", filePageId, delegate.path(), Zstd.getErrorName( compressedLength ) ) );
+        }
+
+        long usedLength = roundUpToBlock( HEADER_SIZE + compressedLength );
+        if ( usedLength >= filePageSize )
+        {
+            // Compressing this page would not save any disk space.
+            return delegate.write( filePageId, pageAddress, filePageSize );
+        }
+
+        UnsafeUtil.putLong( compressed, MAGIC );
+        UnsafeUtil.putInt( compressed + Long.BYTES, (int) compressedLength );
+        long bytesWritten = delegate.write( filePageId, compressed, (int) (HEADER_SIZE + compressedLength) );
+        // Whatever was previously written to the rest of the slot is no longer needed.
+        delegate.deallocate( filePageId * filePageSize + usedLength, filePageSize - usedLength );
+        return bytesWritten;
+    }
+
+    private long roundUpToBlock( long length )
+    {
+        return ((length + blockSize - 1) / blockSize) * blockSize;
+    }
+
+    @Override
+    public long write( long startFilePageId, long[] bufferAddresses, int[] bufferLengths, int length, int totalAffectedPages ) throws IOException
+    {
+        long bytesWritten = 0;
+        long filePageId = startFilePageId;
+        for ( int i = 0; i < length; i++ )
+        {
+            bytesWritten += write( filePageId, bufferAddresses[i], bufferLengths[i] );
+            filePageId += bufferLengths[i] / filePageSize;
+        }
+        return bytesWritten;
+    }
+
+    @Override
+    public void evicted( long pageId )
+    {
+        delegate.evicted( pageId );
+    }
+
+    @Override
+    public Path path()
+    {
+        return delegate.path();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        freeScratchBuffers();
+        delegate.close();
+    }
+
+    @Override
+    public void closeAndDelete() throws IOException
+    {
+        freeScratchBuffers();
+        delegate.closeAndDelete();
+    }
+
+    @Override
+    public void force() throws IOException
+    {
+        delegate.force();
+    }
+
+    @Override
+    public long getLastPageId() throws IOException
+    {
+        return delegate.getLastPageId();
+    }
+
+    @Override
+    public void truncate() throws IOException
+    {
+        delegate.truncate();
+    }
+
+    @Override
+    public boolean canAllocate()
+    {
+        // Pre-allocating the whole file would defeat the purpose of compressing it.
+        return false;
+    }
+
+    @Override
+    public void allocate( long newFileSize )
+    {
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+        if ( this == o )
+        {
+            return true;
+        }
+        if ( o == null || getClass() != o.getClass() )
+        {
+            return false;
+        }
+        return delegate.equals( ((CompressingPageSwapper) o).delegate );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return delegate.hashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CompressingPageSwapper{" +
+                "filePageSize=" + filePageSize +
+                ", file=" + delegate.path() +
+                '}';
+    }
+}
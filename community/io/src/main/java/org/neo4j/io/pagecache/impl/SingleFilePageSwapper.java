@@ -98,6 +98,7 @@ public class SingleFilePageSwapper implements PageSwapper
 
     // Guarded by synchronized(this). See tryReopen() and close().
     private boolean closed;
+    private volatile boolean canDeallocate = true;
 
     @SuppressWarnings( "unused" ) // Accessed through unsafe
     private volatile long fileSize;
@@ -729,6 +730,28 @@ public class SingleFilePageSwapper implements PageSwapper
         }
     }
 
+    /**
+     * Release the disk space of the given range of the file, without changing the size of the file, if the platform supports it.
+     * Subsequent reads of the range will return zeros. Only whole file system blocks inside the range are released.
+     * @return {@code true} if the disk space was released, or {@code false} if this is not supported for this file.
+     */
+    boolean deallocate( long fileOffset, long length )
+    {
+        if ( !canDeallocate )
+        {
+            return false;
+        }
+        int fileDescriptor = channel.getFileDescriptor();
+        NativeAccess access = NativeAccessProvider.getNativeAccess();
+        if ( !access.isAvailable() || fileDescriptor == INVALID_FILE_DESCRIPTOR || access.tryPunchHole( fileDescriptor, fileOffset, length ).isError() )
+        {
+            // Either the platform, or the file system, does not support this. Don't bother trying again.
+            canDeallocate = false;
+            return false;
+        }
+        return true;
+    }
+
     @Override
     public String toString()
     {
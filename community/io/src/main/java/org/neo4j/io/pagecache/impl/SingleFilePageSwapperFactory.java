@@ -35,6 +35,7 @@ import org.neo4j.io.pagecache.PageSwapperFactory;
  */
 public class SingleFilePageSwapperFactory implements PageSwapperFactory
 {
+    private static final long DEFAULT_BLOCK_SIZE = 4096;
     private final FileSystemAbstraction fs;
 
     public SingleFilePageSwapperFactory( FileSystemAbstraction fs )
@@ -49,12 +50,51 @@ public class SingleFilePageSwapperFactory implements PageSwapperFactory
             PageEvictionCallback onEviction,
             boolean createIfNotExist,
             boolean useDirectIO ) throws IOException
+    {
+        checkExists( file, createIfNotExist );
+        return new SingleFilePageSwapper( file, fs, filePageSize, onEviction, useDirectIO );
+    }
+
+    @Override
+    public PageSwapper createPageSwapper(
+            Path file,
+            int filePageSize,
+            PageEvictionCallback onEviction,
+            boolean createIfNotExist,
+            boolean useDirectIO,
+            boolean compressed ) throws IOException
+    {
+        if ( !compressed )
+        {
+            return createPageSwapper( file, filePageSize, onEviction, createIfNotExist, useDirectIO );
+        }
+        if ( useDirectIO )
+        {
+            throw new IllegalArgumentException( "Compressed pages cannot be used together with direct IO, but both were requested for " + file );
+        }
+        checkExists( file, createIfNotExist );
+        SingleFilePageSwapper swapper = new SingleFilePageSwapper( file, fs, filePageSize, onEviction, false );
+        return new CompressingPageSwapper( swapper, filePageSize, blockSize( file ) );
+    }
+
+    private void checkExists( Path file, boolean createIfNotExist ) throws NoSuchFileException
     {
         if ( !createIfNotExist && !fs.fileExists( file ) )
         {
             throw new NoSuchFileException( file.toString(), null, "Cannot map non-existing file" );
         }
-        return new SingleFilePageSwapper( file, fs, filePageSize, onEviction, useDirectIO );
+    }
+
+    private long blockSize( Path file )
+    {
+        try
+        {
+            return fs.getBlockSize( file );
+        }
+        catch ( IOException e )
+        {
+            return DEFAULT_BLOCK_SIZE;
+        }
     }
 
     @Override
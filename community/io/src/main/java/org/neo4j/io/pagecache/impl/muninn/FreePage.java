@@ -37,7 +37,11 @@ final class FreePage
         this.pageRef = pageRef;
     }
 
-    void setNext( Object next )
+    /**
+     * @param next the next FreePage, or the AtomicInteger of the next page id to use, or null.
+     * @param endPageId the page id, exclusive, that the AtomicInteger counts up to.
+     */
+    void setNext( Object next, int endPageId )
     {
         this.next = next;
         if ( next == null )
@@ -46,7 +50,7 @@ final class FreePage
         }
         else if ( next.getClass() == AtomicInteger.class )
         {
-            count = 1 + ((AtomicInteger) next).get();
+            count = 1 + Math.max( 0, endPageId - ((AtomicInteger) next).get() );
         }
         else
         {
@@ -34,16 +34,17 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.LockSupport;
 
 import org.neo4j.internal.unsafe.UnsafeUtil;
 import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.mem.NumaTopology;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageCacheOpenOptions;
 import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.PageSwapperFactory;
 import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.ResidencyQuota;
 import org.neo4j.io.pagecache.buffer.IOBufferFactory;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
@@ -128,7 +129,7 @@ public class MuninnPageCache implements PageCache
 
     // Keep this many pages free and ready for use in faulting.
     // This will be truncated to be no more than half of the number of pages
-    // in the cache.
+    // in each partition of the cache.
     private static final int pagesToKeepFree = getInteger(
             MuninnPageCache.class, "pagesToKeepFree", 30 );
 
@@ -142,15 +143,9 @@ public class MuninnPageCache implements PageCache
     private static final IOException oomException = new IOException(
             "OutOfMemoryError encountered in the page cache background eviction thread" );
 
-    // The field offset to unsafely access the freelist field.
-    private static final long freelistOffset =
-            UnsafeUtil.getFieldOffset( MuninnPageCache.class, "freelist" );
-
-    // This is used as a poison-pill signal in the freelist, to inform any
-    // page faulting thread that it is now no longer possible to queue up and
-    // wait for more pages to be evicted, because the page cache has been shut
-    // down.
-    private static final FreePage shutdownSignal = new FreePage( 0 );
+    // The page cache is only partitioned by NUMA node if every partition gets at least this many pages.
+    private static final int minimumPagesPerPartition = getInteger(
+            MuninnPageCache.class, "minimumPagesPerPartition", 1024 );
 
     // A counter used to identify which background threads belong to which page cache.
     private static final AtomicInteger pageCacheIdCounter = new AtomicInteger();
@@ -162,13 +157,12 @@ public class MuninnPageCache implements PageCache
     private static final List<OpenOption> ignoredOpenOptions = Arrays.asList( StandardOpenOption.APPEND,
             StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.SPARSE );
 
-    // Used when trying to figure out number of available pages in a page cache. Could be returned from tryGetNumberOfAvailablePages.
-    private static final int UNKNOWN_AVAILABLE_PAGES = -1;
+    // Used when trying to figure out number of available pages in a page cache. Could be returned from PagePartition.tryGetNumberOfPagesToEvict.
+    static final int UNKNOWN_AVAILABLE_PAGES = -1;
 
     private final int pageCacheId;
     private final PageSwapperFactory swapperFactory;
     private final int cachePageSize;
-    private final int keepFree;
     private final PageCacheTracer pageCacheTracer;
     private final VersionContextSupplier versionContextSupplier;
     private final IOBufferFactory bufferFactory;
@@ -177,28 +171,17 @@ public class MuninnPageCache implements PageCache
     // exceptions on bounds checking failures; we can instead return the victim page pointer, and permit the page
     // accesses to take place without fear of segfaulting newly allocated cursors.
     final long victimPage;
+    // Tracks memory allocated on behalf of the page cache, outside of the pages themselves
+    final MemoryTracker memoryTracker;
 
-    // The freelist is a thread-safe linked-list of FreePage objects, or an AtomicInteger, or null.
-    // Initially, the field is an AtomicInteger that counts from zero to the max page count, at which point all of the
-    // pages have been put in use. Once this happens, the field is set to null to allow the background eviction thread
-    // to start its work. From that point on, the field will operate as a concurrent stack of FreePage objects. The
-    // eviction thread pushes newly freed FreePage objects onto the stack, and page faulting threads pops FreePage
-    // objects from the stack. The FreePage objects are single-use, to avoid running into the ABA-problem.
-    @SuppressWarnings( "unused" ) // This field is accessed via Unsafe.
-    private volatile Object freelist;
+    // The pages are divided into one partition per NUMA node, or a single partition, each with its own freelist and eviction thread.
+    final PagePartition[] partitions;
+    private final int pagesPerPartition;
+    private final NumaTopology numaTopology;
 
     // Linked list of mappings - guarded by synchronized(this)
     private volatile FileMapping mappedFiles;
 
-    // The thread that runs the eviction algorithm. We unpark this when we've run out of
-    // free pages to grab.
-    private volatile Thread evictionThread;
-    // True if the eviction thread is currently parked, without someone having
-    // signalled it to wake up. This is used as a weak guard for unparking the
-    // eviction thread, because calling unpark too much (from many page
-    // faulting threads) can cause contention on the locks protecting that
-    // threads scheduling meta-data in the OS kernel.
-    private volatile boolean evictorParked;
     private volatile IOException evictorException;
 
     // Flag for when page cache is closed - writes guarded by synchronized(this), reads can be unsynchronized
@@ -253,7 +236,27 @@ public class MuninnPageCache implements PageCache
             VersionContextSupplier versionContextSupplier, JobScheduler jobScheduler, SystemNanoClock clock, MemoryTracker memoryTracker,
             IOBufferFactory bufferFactory )
     {
-        this( swapperFactory, memoryAllocator, PAGE_SIZE, pageCacheTracer, versionContextSupplier, jobScheduler, clock, memoryTracker, bufferFactory );
+        this( swapperFactory, memoryAllocator, PAGE_SIZE, pageCacheTracer, versionContextSupplier, jobScheduler, clock, memoryTracker, bufferFactory,
+                NumaTopology.SINGLE_NODE );
+    }
+
+    /**
+     * Create page cache that is partitioned by the NUMA nodes of the given topology.
+     * Page faulting threads then prefer free pages from the partition of their own node, and each partition has its own eviction thread.
+     * @param swapperFactory page cache swapper factory
+     * @param memoryAllocator the source of native memory the page cache should use
+     * @param pageCacheTracer global page cache tracer
+     * @param versionContextSupplier supplier of thread local (transaction local) version context that will provide access to thread local version context
+     * @param memoryTracker underlying buffers allocation memory tracker
+     * @param bufferFactory temporal flush buffer factories
+     * @param numaTopology the NUMA nodes to partition the page cache by
+     */
+    public MuninnPageCache( PageSwapperFactory swapperFactory, MemoryAllocator memoryAllocator, PageCacheTracer pageCacheTracer,
+            VersionContextSupplier versionContextSupplier, JobScheduler jobScheduler, SystemNanoClock clock, MemoryTracker memoryTracker,
+            IOBufferFactory bufferFactory, NumaTopology numaTopology )
+    {
+        this( swapperFactory, memoryAllocator, PAGE_SIZE, pageCacheTracer, versionContextSupplier, jobScheduler, clock, memoryTracker, bufferFactory,
+                numaTopology );
     }
 
     /**
@@ -265,6 +268,14 @@ public class MuninnPageCache implements PageCache
     public MuninnPageCache( PageSwapperFactory swapperFactory, MemoryAllocator memoryAllocator, int cachePageSize, PageCacheTracer pageCacheTracer,
             VersionContextSupplier versionContextSupplier, JobScheduler jobScheduler, SystemNanoClock clock, MemoryTracker memoryTracker,
             IOBufferFactory bufferFactory )
+    {
+        this( swapperFactory, memoryAllocator, cachePageSize, pageCacheTracer, versionContextSupplier, jobScheduler, clock, memoryTracker, bufferFactory,
+                NumaTopology.SINGLE_NODE );
+    }
+
+    private MuninnPageCache( PageSwapperFactory swapperFactory, MemoryAllocator memoryAllocator, int cachePageSize, PageCacheTracer pageCacheTracer,
+            VersionContextSupplier versionContextSupplier, JobScheduler jobScheduler, SystemNanoClock clock, MemoryTracker memoryTracker,
+            IOBufferFactory bufferFactory, NumaTopology numaTopology )
     {
         verifyHacks();
         verifyCachePageSizeIsPowerOfTwo( cachePageSize );
@@ -276,17 +287,27 @@ public class MuninnPageCache implements PageCache
         this.pageCacheId = pageCacheIdCounter.incrementAndGet();
         this.swapperFactory = swapperFactory;
         this.cachePageSize = cachePageSize;
-        this.keepFree = Math.min( pagesToKeepFree, maxPages / 2 );
         this.pageCacheTracer = pageCacheTracer;
         this.versionContextSupplier = versionContextSupplier;
         this.printExceptionsOnClose = true;
         this.bufferFactory = bufferFactory;
+        this.memoryTracker = memoryTracker;
         this.victimPage = VictimPageReference.getVictimPage( cachePageSize, memoryTracker );
         this.pages = new PageList( maxPages, cachePageSize, memoryAllocator, new SwapperSet(), victimPage, UnsafeUtil.pageSize() );
         this.scheduler = jobScheduler;
         this.clock = clock;
 
-        setFreelistHead( new AtomicInteger() );
+        int partitionCount = Math.max( 1, Math.min( numaTopology.nodeCount(), maxPages / minimumPagesPerPartition ) );
+        this.numaTopology = numaTopology;
+        this.pagesPerPartition = (maxPages + partitionCount - 1) / partitionCount;
+        this.partitions = new PagePartition[partitionCount];
+        for ( int i = 0; i < partitionCount; i++ )
+        {
+            int firstPageId = i * pagesPerPartition;
+            int endPageId = Math.min( firstPageId + pagesPerPartition, maxPages );
+            int keepFree = Math.min( pagesToKeepFree, (endPageId - firstPageId) / 2 );
+            partitions[i] = new PagePartition( pages, firstPageId, endPageId, keepFree );
+        }
     }
 
     private static void verifyHacks()
@@ -337,6 +358,9 @@ public class MuninnPageCache implements PageCache
         boolean deleteOnClose = false;
         boolean anyPageSize = false;
         boolean useDirectIO = false;
+        boolean compressed = false;
+        ResidencyQuota residencyQuota = null;
+        PageResidency.Priority priority = PageResidency.Priority.NORMAL;
         for ( OpenOption option : openOptions )
         {
             if ( option.equals( StandardOpenOption.CREATE ) )
@@ -359,6 +383,22 @@ public class MuninnPageCache implements PageCache
             {
                 useDirectIO = true;
             }
+            else if ( option.equals( PageCacheOpenOptions.COMPRESSED ) )
+            {
+                compressed = true;
+            }
+            else if ( option.equals( PageCacheOpenOptions.HIGH_PRIORITY ) )
+            {
+                priority = PageResidency.Priority.HIGH;
+            }
+            else if ( option.equals( PageCacheOpenOptions.LOW_PRIORITY ) )
+            {
+                priority = PageResidency.Priority.LOW;
+            }
+            else if ( option instanceof ResidencyQuota )
+            {
+                residencyQuota = (ResidencyQuota) option;
+            }
             else if ( !ignoredOpenOptions.contains( option ) )
             {
                 throw new UnsupportedOperationException( "Unsupported OpenOption: " + option );
@@ -408,8 +448,9 @@ public class MuninnPageCache implements PageCache
                 swapperFactory,
                 pageCacheTracer, versionContextSupplier,
                 createIfNotExists,
-                truncateExisting, useDirectIO,
-                databaseName );
+                truncateExisting, useDirectIO, compressed,
+                databaseName,
+                new PageResidency( residencyQuota, priority ) );
         pagedFile.incrementRefCount();
         pagedFile.setDeleteOnClose( deleteOnClose );
         current = new FileMapping( path, pagedFile );
@@ -486,8 +527,11 @@ public class MuninnPageCache implements PageCache
 
         try
         {
-            var monitoringParams = systemJob( "Eviction of pages from the page cache" );
-            scheduler.schedule( Group.PAGE_CACHE_EVICTION, monitoringParams, new EvictionTask( this ) );
+            for ( PagePartition partition : partitions )
+            {
+                var monitoringParams = systemJob( "Eviction of pages from the page cache" );
+                scheduler.schedule( Group.PAGE_CACHE_EVICTION, monitoringParams, new EvictionTask( this, partition ) );
+            }
         }
         catch ( Exception e )
         {
@@ -680,8 +724,11 @@ public class MuninnPageCache implements PageCache
 
         closed = true;
 
-        interrupt( evictionThread );
-        evictionThread = null;
+        for ( PagePartition partition : partitions )
+        {
+            interrupt( partition.evictionThread );
+            partition.evictionThread = null;
+        }
 
         // Close the page swapper factory last. If this fails then we will still consider ourselves closed.
         swapperFactory.close();
@@ -744,81 +791,63 @@ public class MuninnPageCache implements PageCache
 
     long grabFreeAndExclusivelyLockedPage( PageFaultEvent faultEvent ) throws IOException
     {
-        // Review the comment on the freelist field before making changes to
+        // Review the comment on the PagePartition.freelist field before making changes to
         // this part of the code.
-        // Whatever the case, we're going to the head-pointer of the freelist,
-        // and in doing so, we can discover a number of things.
-        // We can discover a MuninnPage object, in which case we can try to
-        // CAS the freelist pointer to the value of the MuninnPage.nextFree
-        // pointer, and if this succeeds then we've grabbed that page.
-        // We can discover a FreePage object, in which case we'll do a similar
-        // dance by attempting to CAS the freelist to the FreePage objects next
-        // pointer, and again, if we succeed then we've grabbed the MuninnPage
-        // given by the FreePage object.
-        // We can discover a null-pointer, in which case the freelist has just
-        // been emptied for whatever it contained before. New FreePage objects
-        // are eventually going to be added to the freelist, but we are not
-        // going to wait around for that to happen. If the freelist is empty,
-        // then we do our own eviction to get a free page.
-        // If we find a FreePage object on the freelist, then it is important
-        // to check and see if it is the shutdownSignal instance. If that's the
-        // case, then the page cache has been shut down, and we should throw an
-        // exception from our page fault routine.
-        Object current;
+        // We first try to grab a free page from the partition of the NUMA node that we are
+        // running on, since its pages are likely in memory that is local to our node, and
+        // only then from the other partitions. If all the freelists are empty, then we do
+        // our own eviction to get a free page.
+        int homePartition = homePartition();
         for (;;)
         {
             assertHealthy();
-            current = getFreelistHead();
-            if ( current == null )
+            for ( int i = 0; i < partitions.length; i++ )
             {
-                unparkEvictor();
-                long pageRef = cooperativelyEvict( faultEvent );
+                PagePartition partition = partitions[(homePartition + i) % partitions.length];
+                long pageRef = partition.grabFreePage();
                 if ( pageRef != 0 )
                 {
                     return pageRef;
                 }
+                partition.unparkEvictor();
             }
-            else if ( current instanceof AtomicInteger )
+            long pageRef = cooperativelyEvict( partitions[homePartition], faultEvent );
+            if ( pageRef != 0 )
             {
-                int pageCount = pages.getPageCount();
-                AtomicInteger counter = (AtomicInteger) current;
-                int pageId = counter.get();
-                if ( pageId < pageCount && counter.compareAndSet( pageId, pageId + 1 ) )
-                {
-                    return pages.deref( pageId );
-                }
-                if ( pageId >= pageCount )
-                {
-                    compareAndSetFreelistHead( current, null );
-                }
+                return pageRef;
             }
-            else if ( current instanceof FreePage )
-            {
-                FreePage freePage = (FreePage) current;
-                if ( freePage == shutdownSignal )
-                {
-                    throw new IllegalStateException( "The PageCache has been shut down." );
-                }
+        }
+    }
 
-                if ( compareAndSetFreelistHead( freePage, freePage.next ) )
-                {
-                    return freePage.pageRef;
-                }
+    private int homePartition()
+    {
+        return partitions.length == 1 ? 0 : numaTopology.currentNode() % partitions.length;
+    }
+
+    private boolean hasFreePages()
+    {
+        for ( PagePartition partition : partitions )
+        {
+            if ( partition.hasFreePages() )
+            {
+                return true;
             }
         }
+        return false;
     }
 
-    private long cooperativelyEvict( PageFaultEvent faultEvent ) throws IOException
+    private long cooperativelyEvict( PagePartition homePartition, PageFaultEvent faultEvent ) throws IOException
     {
         int iterations = 0;
         int pageCount = pages.getPageCount();
-        int clockArm = ThreadLocalRandom.current().nextInt( pageCount );
+        // Start in our own partition, but sweep through all of the pages, so we only give up if none of them can be evicted.
+        int clockArm = homePartition.firstPageId + ThreadLocalRandom.current().nextInt( homePartition.pageCount() );
         boolean evicted = false;
         long pageRef;
         do
         {
             assertHealthy();
-            if ( getFreelistHead() != null )
+            if ( hasFreePages() )
             {
                 return 0;
             }
@@ -834,9 +863,14 @@ public class MuninnPageCache implements PageCache
             }
 
             pageRef = pages.deref( clockArm );
-            if ( pages.isLoaded( pageRef ) && pages.decrementUsage( pageRef ) )
+            if ( pages.isLoaded( pageRef ) )
             {
-                evicted = pages.tryEvict( pageRef, faultEvent );
+                // The minimum residency of files is only honoured on the first lap, so we don't live-lock on protected pages.
+                PageResidency residency = pages.getResidency( pageRef );
+                if ( ( iterations > 0 || !isProtectedByResidency( residency ) ) && isEvictionCandidate( pageRef, residency, iterations ) )
+                {
+                    evicted = pages.tryEvict( pageRef, faultEvent );
+                }
             }
             clockArm++;
         }
@@ -859,39 +893,6 @@ public class MuninnPageCache implements PageCache
                 "your database." );
     }
 
-    private void unparkEvictor()
-    {
-        if ( evictorParked )
-        {
-            evictorParked = false;
-            LockSupport.unpark( evictionThread );
-        }
-    }
-
-    private void parkEvictor( long parkNanos )
-    {
-        // Only called from the background eviction thread!
-        evictorParked = true;
-        LockSupport.parkNanos( this, parkNanos );
-        evictorParked = false;
-    }
-
-    private Object getFreelistHead()
-    {
-        return UnsafeUtil.getObjectVolatile( this, freelistOffset );
-    }
-
-    private boolean compareAndSetFreelistHead( Object expected, Object update )
-    {
-        return UnsafeUtil.compareAndSwapObject(
-                this, freelistOffset, expected, update );
-    }
-
-    private void setFreelistHead( Object newFreelistHead )
-    {
-        UnsafeUtil.putObjectVolatile( this, freelistOffset, newFreelistHead );
-    }
-
     /**
      * Scan through all the pages, one by one, and decrement their usage stamps.
      * If a usage reaches zero, we try-write-locking it, and if we get that lock,
@@ -899,81 +900,57 @@ public class MuninnPageCache implements PageCache
      * Once we have enough free pages, we park our thread. Page-faulting will
      * unpark our thread as needed.
      */
-    void continuouslySweepPages()
+    void continuouslySweepPages( PagePartition partition )
     {
-        evictionThread = Thread.currentThread();
-        int clockArm = 0;
+        partition.evictionThread = Thread.currentThread();
+        int clockArm = partition.firstPageId;
 
         while ( !closed )
         {
-            int pageCountToEvict = parkUntilEvictionRequired( keepFree );
+            int pageCountToEvict = parkUntilEvictionRequired( partition );
             try ( EvictionRunEvent evictionRunEvent = pageCacheTracer.beginPageEvictions( pageCountToEvict ) )
             {
-                clockArm = evictPages( pageCountToEvict, clockArm, evictionRunEvent );
+                clockArm = evictPages( partition, pageCountToEvict, clockArm, evictionRunEvent );
             }
         }
 
         // The last thing we do, is signalling the shutdown of the cache via
         // the freelist. This signal is looked out for in grabFreePage.
-        setFreelistHead( shutdownSignal );
+        partition.signalShutdown();
     }
 
-    private int parkUntilEvictionRequired( int keepFree )
+    private int parkUntilEvictionRequired( PagePartition partition )
     {
         // Park until we're either interrupted, or the number of free pages drops
         // bellow keepFree.
         long parkNanos = TimeUnit.MILLISECONDS.toNanos( 10 );
         for (;;)
         {
-            parkEvictor( parkNanos );
+            partition.parkEvictor( parkNanos );
             if ( Thread.interrupted() || closed )
             {
                 return 0;
             }
 
-            int availablePages = tryGetNumberOfAvailablePages( keepFree );
-            if ( availablePages != UNKNOWN_AVAILABLE_PAGES )
-            {
-                return availablePages;
-            }
-        }
-    }
-
-    private int tryGetNumberOfAvailablePages( int keepFree )
-    {
-        Object freelistHead = getFreelistHead();
-
-        if ( freelistHead == null )
-        {
-            return keepFree;
-        }
-        else if ( freelistHead.getClass() == FreePage.class )
-        {
-            int availablePages = ((FreePage) freelistHead).count;
-            if ( availablePages < keepFree )
-            {
-                return keepFree - availablePages;
-            }
-        }
-        else if ( freelistHead.getClass() == AtomicInteger.class )
-        {
-            AtomicInteger counter = (AtomicInteger) freelistHead;
-            long count = pages.getPageCount() - counter.get();
-            if ( count < keepFree )
+            int pagesToEvict = partition.tryGetNumberOfPagesToEvict();
+            if ( pagesToEvict != UNKNOWN_AVAILABLE_PAGES )
             {
-                return count < 0 ? keepFree : (int) (keepFree - count);
+                return pagesToEvict;
             }
         }
-        return UNKNOWN_AVAILABLE_PAGES;
     }
 
-    int evictPages( int pageCountToEvict, int clockArm, EvictionRunEvent evictionRunEvent )
+    int evictPages( PagePartition partition, int pageCountToEvict, int clockArm, EvictionRunEvent evictionRunEvent )
     {
-        while ( pageCountToEvict > 0 && !closed )
+        // If more than a lap worth of pages are protected by the minimum residency of their files, then we give up for now,
+        // rather than spin. Page faults will cooperatively evict pages if we can't keep up.
+        int protectedPageBudget = partition.pageCount();
+        while ( pageCountToEvict > 0 && protectedPageBudget > 0 && !closed )
         {
-            if ( clockArm == pages.getPageCount() )
+            if ( clockArm == partition.endPageId )
             {
-                clockArm = 0;
+                clockArm = partition.firstPageId;
+                partition.clockLap++;
             }
 
             if ( closed )
@@ -983,29 +960,17 @@ public class MuninnPageCache implements PageCache
             }
 
             long pageRef = pages.deref( clockArm );
-            if ( pages.isLoaded( pageRef ) && pages.decrementUsage( pageRef ) )
+            if ( pages.isLoaded( pageRef ) )
             {
-                try
-                {
-                    pageCountToEvict--;
-                    if ( pages.tryEvict( pageRef, evictionRunEvent ) )
-                    {
-                        clearEvictorException();
-                        addFreePageToFreelist( pageRef );
-                    }
-                }
-                catch ( IOException e )
-                {
-                    evictorException = e;
-                }
-                catch ( OutOfMemoryError oom )
+                PageResidency residency = pages.getResidency( pageRef );
+                if ( isProtectedByResidency( residency ) )
                 {
-                    evictorException = oomException;
+                    protectedPageBudget--;
                 }
-                catch ( Throwable th )
+                else if ( isEvictionCandidate( pageRef, residency, partition.clockLap ) )
                 {
-                    evictorException = new IOException(
-                            "Eviction thread encountered a problem", th );
+                    pageCountToEvict--;
+                    evictToFreelist( partition, pageRef, evictionRunEvent );
                 }
             }
 
@@ -1015,20 +980,63 @@ public class MuninnPageCache implements PageCache
         return clockArm;
     }
 
-    void addFreePageToFreelist( long pageRef )
+    private void evictToFreelist( PagePartition partition, long pageRef, EvictionRunEvent evictionRunEvent )
     {
-        Object current;
-        FreePage freePage = new FreePage( pageRef );
-        do
+        try
         {
-            current = getFreelistHead();
-            if ( current instanceof AtomicInteger && ((AtomicInteger) current).get() > pages.getPageCount() )
+            if ( pages.tryEvict( pageRef, evictionRunEvent ) )
             {
-                current = null;
+                clearEvictorException();
+                partition.addFreePage( pageRef );
             }
-            freePage.setNext( current );
         }
-        while ( !compareAndSetFreelistHead( current, freePage ) );
+        catch ( IOException e )
+        {
+            evictorException = e;
+        }
+        catch ( OutOfMemoryError oom )
+        {
+            evictorException = oomException;
+        }
+        catch ( Throwable th )
+        {
+            evictorException = new IOException(
+                    "Eviction thread encountered a problem", th );
+        }
+    }
+
+    private boolean isProtectedByResidency( PageResidency residency )
+    {
+        if ( residency != null && residency.isAtOrBelowMinimum() )
+        {
+            pageCacheTracer.residencyProtections( 1 );
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Decrement the usage counter of the given loaded page, and decide if the page is a candidate for eviction, taking the priority and
+     * maximum residency of its file into account. Pages of high priority files only age on every other lap of the clock arm, while
+     * pages of low priority files and of files above their maximum residency are candidates regardless of their usage counter.
+     */
+    private boolean isEvictionCandidate( long pageRef, PageResidency residency, int clockLap )
+    {
+        if ( residency == null || residency.isUnrestricted() )
+        {
+            return pages.decrementUsage( pageRef );
+        }
+        if ( residency.shouldEvictEagerly() )
+        {
+            pageCacheTracer.residencyEvictions( 1 );
+            return true;
+        }
+        return ( !residency.isHighPriority() || (clockLap & 1) == 0 ) && pages.decrementUsage( pageRef );
+    }
+
+    void addFreePageToFreelist( long pageRef )
+    {
+        partitions[pages.toId( pageRef ) / pagesPerPartition].addFreePage( pageRef );
     }
 
     void clearEvictorException()
@@ -1042,14 +1050,37 @@ public class MuninnPageCache implements PageCache
     @Override
     public String toString()
     {
-        int availablePages = tryGetNumberOfAvailablePages( keepFree );
-        return format( "%s[pageCacheId:%d, pageSize:%d, pages:%d, availablePages:%s]", getClass().getSimpleName(),
-                pageCacheId, cachePageSize, pages.getPageCount(), availablePages != UNKNOWN_AVAILABLE_PAGES ? String.valueOf( availablePages ) : "N/A" );
+        int availablePages = 0;
+        for ( PagePartition partition : partitions )
+        {
+            int pagesToEvict = partition.tryGetNumberOfPagesToEvict();
+            if ( pagesToEvict == UNKNOWN_AVAILABLE_PAGES )
+            {
+                availablePages = UNKNOWN_AVAILABLE_PAGES;
+                break;
+            }
+            availablePages += pagesToEvict;
+        }
+        return format( "%s[pageCacheId:%d, pageSize:%d, pages:%d, partitions:%d, availablePages:%s]", getClass().getSimpleName(),
+                pageCacheId, cachePageSize, pages.getPageCount(), partitions.length,
+                availablePages != UNKNOWN_AVAILABLE_PAGES ? String.valueOf( availablePages ) : "N/A" );
+    }
+
+    private boolean hasNeverUsedPages()
+    {
+        for ( PagePartition partition : partitions )
+        {
+            if ( partition.hasNeverUsedPages() )
+            {
+                return true;
+            }
+        }
+        return false;
     }
 
     void vacuum( SwapperSet swappers )
     {
-        if ( getFreelistHead() instanceof AtomicInteger && swappers.countAvailableIds() > 200 )
+        if ( hasNeverUsedPages() && swappers.countAvailableIds() > 200 )
         {
             return; // We probably still have plenty of free pages left. Don't bother vacuuming just yet.
         }
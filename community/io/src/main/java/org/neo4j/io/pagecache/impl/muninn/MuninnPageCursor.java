@@ -31,6 +31,7 @@ import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.impl.FileIsNotMappedException;
 import org.neo4j.io.pagecache.tracing.PageFaultEvent;
+import org.neo4j.io.pagecache.tracing.PagedFileTracer;
 import org.neo4j.io.pagecache.tracing.PinEvent;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContext;
@@ -325,6 +326,7 @@ public abstract class MuninnPageCursor extends PageCursor
                 {
                     pinCursorToPage( pageRef, filePageId, swapper );
                     pinEvent.hit();
+                    pagedFile.fileTracer.hit( isWriteLocked() );
                     return;
                 }
                 if ( locked )
@@ -387,8 +389,12 @@ public abstract class MuninnPageCursor extends PageCursor
         // we must make sure to release that write lock as well.
         try
         {
+            // Only time the page fault if the latency is going to be recorded, since reading the clock is not free
+            PagedFileTracer fileTracer = pagedFile.fileTracer;
+            long faultStartNanos = fileTracer != PagedFileTracer.NULL ? System.nanoTime() : 0;
             PageFaultEvent faultEvent = pinEvent.beginPageFault();
             long pageRef;
+            long bytesRead;
             try
             {
                 // The grabFreePage method might throw.
@@ -413,7 +419,7 @@ public abstract class MuninnPageCursor extends PageCursor
                 // the file channel.
                 assertPagedFileStillMappedAndGetIdOfLastPage();
                 pagedFile.initBuffer( pageRef );
-                pagedFile.fault( pageRef, swapper, pagedFile.swapperId, filePageId, faultEvent );
+                bytesRead = pagedFile.fault( pageRef, swapper, pagedFile.swapperId, filePageId, faultEvent );
             }
             catch ( Throwable throwable )
             {
@@ -431,10 +437,15 @@ public abstract class MuninnPageCursor extends PageCursor
             // Put the page in the translation table before we undo the exclusive lock, as we could otherwise race with
             // eviction, and the onEvict callback expects to find a MuninnPage object in the table.
             UnsafeUtil.putIntVolatile( chunk, chunkOffset, pagedFile.toId( pageRef ) );
+            pagedFile.residency.pageFaulted();
             // Once we page has been published to the translation table, we can convert our exclusive lock to whatever we
             // need for the page cursor.
             convertPageFaultLock( pageRef );
             faultEvent.done();
+            if ( fileTracer != PagedFileTracer.NULL )
+            {
+                fileTracer.faulted( isWriteLocked(), bytesRead, System.nanoTime() - faultStartNanos );
+            }
             return pageRef;
         }
         finally
@@ -40,6 +40,7 @@ import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PageFaultEvent;
+import org.neo4j.io.pagecache.tracing.PagedFileTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 
@@ -77,6 +78,8 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
 
     final PageSwapper swapper;
     final int swapperId;
+    final PageResidency residency;
+    final PagedFileTracer fileTracer;
     private final CursorFactory cursorFactory;
     final String databaseName;
 
@@ -118,13 +121,16 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
      * access to thread local version context
      * @param createIfNotExists should create file if it does not exists
      * @param truncateExisting should truncate file if it exists
+     * @param useDirectIo should use direct io for the file
+     * @param compressed should store the pages of the file compressed
      * @param databaseName an optional name of the database this file belongs to. This option associates the mapped file with a database.
      * This information is currently used only for monitoring purposes.
+     * @param residency the residency quota and priority of the pages of this file, consulted by the eviction sweep.
      * @throws IOException If the {@link PageSwapper} could not be created.
      */
     MuninnPagedFile( Path path, MuninnPageCache pageCache, int filePageSize, PageSwapperFactory swapperFactory, PageCacheTracer pageCacheTracer,
-            VersionContextSupplier versionContextSupplier, boolean createIfNotExists, boolean truncateExisting, boolean useDirectIo, String databaseName )
-            throws IOException
+            VersionContextSupplier versionContextSupplier, boolean createIfNotExists, boolean truncateExisting, boolean useDirectIo, boolean compressed,
+            String databaseName, PageResidency residency ) throws IOException
     {
         super( pageCache.pages );
         this.pageCache = pageCache;
@@ -134,6 +140,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         this.pageFaultLatches = new LatchMap();
         this.bufferFactory = pageCache.getBufferFactory();
         this.databaseName = databaseName;
+        this.residency = residency;
 
         // The translation table is an array of arrays of integers that are either UNMAPPED_TTE, or the id of a page in
         // the page list. The table only grows the outer array, and all the inner "chunks" all stay the same size. This
@@ -151,8 +158,9 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         // copies over the existing inner arrays, fills the remaining outer array slots with more inner arrays, in turn
         // filled with UNMAPPED_TTE values, and then finally assigns the new outer array to the translationTable field
         // and releases the resize lock.
+        this.fileTracer = pageCacheTracer.pagedFileTracer( path );
         PageEvictionCallback onEviction = this::evictPage;
-        swapper = swapperFactory.createPageSwapper( path, filePageSize, onEviction, createIfNotExists, useDirectIo );
+        swapper = swapperFactory.createPageSwapper( path, filePageSize, onEviction, createIfNotExists, useDirectIo, compressed );
         if ( truncateExisting )
         {
             swapper.truncate();
@@ -168,7 +176,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         translationTable = tt;
 
         initialiseLastPageId( lastPageId );
-        this.swapperId = getSwappers().allocate( swapper );
+        this.swapperId = getSwappers().allocate( swapper, residency, fileTracer );
     }
 
     @Override
@@ -182,6 +190,10 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
     {
         int lockFlags = pf_flags & PF_LOCK_MASK;
         MuninnPageCursor cursor;
+        if ( lockFlags == PF_SHARED_READ_LOCK && ( pf_flags & PF_BYPASS_CACHE ) == PF_BYPASS_CACHE )
+        {
+            return new MuninnScanPageCursor( this, pageId, tracer, pageCache.memoryTracker );
+        }
         if ( lockFlags == PF_SHARED_READ_LOCK )
         {
             cursor = cursorFactory.takeReadCursor( pageId, pf_flags, tracer );
@@ -571,6 +583,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
             flush.addPagesFlushed( pagesGrabbed );
             flush.addPagesMerged( pagesMerged );
             flush.done();
+            fileTracer.flushed( pagesGrabbed, bytesWritten );
             successful = true;
 
             // There are now 0 'grabbed' pages
@@ -621,6 +634,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
                 flush.addBytesWritten( bytesWritten );
                 flush.addPagesFlushed( 1 );
                 flush.done();
+                fileTracer.flushed( 1, bytesWritten );
                 success = true;
             }
             catch ( IOException e )
@@ -797,6 +811,8 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         long pageRef = deref( mappedPageId );
         setHighestEvictedTransactionId( getAndResetLastModifiedTransactionId( pageRef ) );
         UnsafeUtil.putIntVolatile( chunk, chunkOffset, UNMAPPED_TTE );
+        residency.pageEvicted();
+        fileTracer.evicted();
     }
 
     private void setHighestEvictedTransactionId( long modifiedTransactionId )
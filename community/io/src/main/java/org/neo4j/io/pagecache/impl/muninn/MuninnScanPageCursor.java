@@ -0,0 +1,596 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Objects;
+
+import org.neo4j.internal.unsafe.UnsafeUtil;
+import org.neo4j.io.ByteUnit;
+import org.neo4j.io.memory.ByteBuffers;
+import org.neo4j.io.pagecache.CursorException;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.memory.MemoryTracker;
+
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+
+/**
+ * A read cursor for sequential scans of a file, opened with {@link org.neo4j.io.pagecache.PagedFile#PF_BYPASS_CACHE}.
+ * <p>
+ * Pages that are in the page cache when the cursor moves to them are read through the page cache, so that changes not yet flushed
+ * are visible. All other pages are read straight from the file, in large blocks, into a buffer owned by this cursor. Those pages are
+ * never faulted into the page cache, so a scan over a file larger than the page cache does not evict the pages that other readers
+ * and writers use, and the file is read with few, large, sequential reads.
+ * <p>
+ * A page read from the file reflects the file contents from when its block was read. A page that is faulted in, changed, flushed and
+ * evicted again between reading its block and the cursor moving to it, will be seen as it was when the block was read.
+ * Scans over files that are being changed concurrently should take that into account, just like they must take into account that records
+ * seen early in the scan can be changed before the scan completes.
+ */
+final class MuninnScanPageCursor extends PageCursor
+{
+    static final int SCAN_BLOCK_SIZE = (int) ByteUnit.mebiBytes( 1 );
+
+    private final MuninnPagedFile pagedFile;
+    private final PageCursorTracer tracer;
+    private final MemoryTracker memoryTracker;
+    private final int pageSize;
+    private final int pagesPerBlock;
+    private final ByteBuffer allocatedBuffer;
+    private final ByteBuffer block;
+    private final ByteBuffer bulkReads;
+    private final long[] blockAddress;
+    private final int[] blockLength;
+    private final PageCursor cachedPages;
+    private PageCursor linkedCursor;
+
+    private final long initialPageId;
+    private long blockStartPageId = UNBOUND_PAGE_ID;
+    private int pagesInBlock;
+    private long nextPageId;
+    private long currentPageId = UNBOUND_PAGE_ID;
+    // Whether or not the current page is read through cachedPages, rather than from the block
+    private boolean inCache;
+    private int pageStart;
+    private int offset;
+    private int mark;
+    private boolean outOfBounds;
+    private String cursorException;
+    private boolean closed;
+
+    MuninnScanPageCursor( MuninnPagedFile pagedFile, long pageId, PageCursorTracer tracer, MemoryTracker memoryTracker )
+    {
+        this.pagedFile = pagedFile;
+        this.tracer = tracer;
+        this.memoryTracker = memoryTracker;
+        this.pageSize = pagedFile.pageSize();
+        this.pagesPerBlock = Math.max( 1, SCAN_BLOCK_SIZE / pageSize );
+        // Aligned to the OS page size, since the file may be read with direct IO
+        int alignment = (int) UnsafeUtil.pageSize();
+        int blockSize = pagesPerBlock * pageSize;
+        this.allocatedBuffer = ByteBuffers.allocateDirect( blockSize + alignment, memoryTracker );
+        this.block = allocatedBuffer.alignedSlice( alignment );
+        this.bulkReads = block.duplicate();
+        this.blockAddress = new long[]{UnsafeUtil.getDirectByteBufferAddress( block )};
+        this.blockLength = new int[]{blockSize};
+        this.cachedPages = pagedFile.io( pageId, PF_SHARED_READ_LOCK | PF_NO_FAULT, tracer );
+        this.initialPageId = pageId;
+        this.nextPageId = pageId;
+    }
+
+    @Override
+    public boolean next() throws IOException
+    {
+        return next( nextPageId );
+    }
+
+    @Override
+    public boolean next( long pageId ) throws IOException
+    {
+        offset = 0;
+        mark = 0;
+        if ( pageId < 0 || !cachedPages.next( pageId ) )
+        {
+            currentPageId = UNBOUND_PAGE_ID;
+            inCache = false;
+            return false;
+        }
+        boolean backwards = currentPageId != UNBOUND_PAGE_ID && pageId < currentPageId;
+        currentPageId = pageId;
+        nextPageId = pageId + 1;
+        inCache = cachedPages.getCurrentPageId() != UNBOUND_PAGE_ID;
+        if ( !inCache )
+        {
+            positionInBlock( pageId, backwards );
+        }
+        return true;
+    }
+
+    private void positionInBlock( long pageId, boolean backwards ) throws IOException
+    {
+        if ( pageId < blockStartPageId || pageId >= blockStartPageId + pagesInBlock )
+        {
+            // Scans going backwards through the file get the block that ends, rather than starts, with this page
+            readBlock( backwards ? Math.max( 0, pageId - pagesPerBlock + 1 ) : pageId );
+            if ( pageId >= blockStartPageId + pagesInBlock )
+            {
+                readBlock( pageId );
+            }
+        }
+        pageStart = (int) (pageId - blockStartPageId) * pageSize;
+    }
+
+    private void readBlock( long startPageId ) throws IOException
+    {
+        long bytesRead = pagedFile.swapper.read( startPageId, blockAddress, blockLength, 1 );
+        blockStartPageId = startPageId;
+        // Only keep the pages that were in the file when it was read, pages after that may be written later
+        pagesInBlock = (int) Math.min( pagesPerBlock, (bytesRead + pageSize - 1) / pageSize );
+        if ( pagesInBlock == 0 )
+        {
+            // The file was truncated concurrently, which leaves us with an empty page
+            pagesInBlock = 1;
+        }
+    }
+
+    @Override
+    public boolean shouldRetry() throws IOException
+    {
+        if ( !inCache || !cachedPages.shouldRetry() )
+        {
+            return false;
+        }
+        offset = 0;
+        outOfBounds = false;
+        cursorException = null;
+        if ( cachedPages.getCurrentPageId() == UNBOUND_PAGE_ID )
+        {
+            // The page was evicted while we were reading it, which means that the file has the most recent contents
+            inCache = false;
+            blockStartPageId = UNBOUND_PAGE_ID;
+            pagesInBlock = 0;
+            positionInBlock( currentPageId, false );
+        }
+        return true;
+    }
+
+    @Override
+    public byte getByte()
+    {
+        if ( inCache )
+        {
+            return cachedPages.getByte();
+        }
+        int p = nextBoundedIndex( Byte.BYTES );
+        offset += Byte.BYTES;
+        return p < 0 ? 0 : block.get( p );
+    }
+
+    @Override
+    public byte getByte( int offset )
+    {
+        if ( inCache )
+        {
+            return cachedPages.getByte( offset );
+        }
+        int p = boundedIndex( offset, Byte.BYTES );
+        return p < 0 ? 0 : block.get( p );
+    }
+
+    @Override
+    public long getLong()
+    {
+        if ( inCache )
+        {
+            return cachedPages.getLong();
+        }
+        int p = nextBoundedIndex( Long.BYTES );
+        offset += Long.BYTES;
+        return p < 0 ? 0 : block.getLong( p );
+    }
+
+    @Override
+    public long getLong( int offset )
+    {
+        if ( inCache )
+        {
+            return cachedPages.getLong( offset );
+        }
+        int p = boundedIndex( offset, Long.BYTES );
+        return p < 0 ? 0 : block.getLong( p );
+    }
+
+    @Override
+    public int getInt()
+    {
+        if ( inCache )
+        {
+            return cachedPages.getInt();
+        }
+        int p = nextBoundedIndex( Integer.BYTES );
+        offset += Integer.BYTES;
+        return p < 0 ? 0 : block.getInt( p );
+    }
+
+    @Override
+    public int getInt( int offset )
+    {
+        if ( inCache )
+        {
+            return cachedPages.getInt( offset );
+        }
+        int p = boundedIndex( offset, Integer.BYTES );
+        return p < 0 ? 0 : block.getInt( p );
+    }
+
+    @Override
+    public short getShort()
+    {
+        if ( inCache )
+        {
+            return cachedPages.getShort();
+        }
+        int p = nextBoundedIndex( Short.BYTES );
+        offset += Short.BYTES;
+        return p < 0 ? 0 : block.getShort( p );
+    }
+
+    @Override
+    public short getShort( int offset )
+    {
+        if ( inCache )
+        {
+            return cachedPages.getShort( offset );
+        }
+        int p = boundedIndex( offset, Short.BYTES );
+        return p < 0 ? 0 : block.getShort( p );
+    }
+
+    @Override
+    public void getBytes( byte[] data )
+    {
+        getBytes( data, 0, data.length );
+    }
+
+    @Override
+    public void getBytes( byte[] data, int arrayOffset, int length )
+    {
+        if ( inCache )
+        {
+            cachedPages.getBytes( data, arrayOffset, length );
+            return;
+        }
+        if ( arrayOffset + length > data.length )
+        {
+            throw new ArrayIndexOutOfBoundsException();
+        }
+        int p = nextBoundedIndex( length );
+        if ( p >= 0 )
+        {
+            bulkReads.position( p );
+            bulkReads.get( data, arrayOffset, length );
+        }
+        offset += length;
+    }
+
+    @Override
+    public int copyTo( int sourceOffset, PageCursor targetCursor, int targetOffset, int lengthInBytes )
+    {
+        if ( inCache )
+        {
+            return cachedPages.copyTo( sourceOffset, targetCursor, targetOffset, lengthInBytes );
+        }
+        if ( sourceOffset < 0 || targetOffset < 0 || lengthInBytes < 0 )
+        {
+            throw new IllegalArgumentException( "Source offset, target offset and length must not be negative" );
+        }
+        int bytesToCopy = Math.min( lengthInBytes, Math.min( pageSize - sourceOffset, targetCursor.getCurrentPageSize() - targetOffset ) );
+        for ( int i = 0; i < bytesToCopy; i++ )
+        {
+            targetCursor.putByte( targetOffset + i, block.get( pageStart + sourceOffset + i ) );
+        }
+        return Math.max( bytesToCopy, 0 );
+    }
+
+    @Override
+    public int copyTo( int sourceOffset, ByteBuffer targetBuffer )
+    {
+        if ( inCache )
+        {
+            return cachedPages.copyTo( sourceOffset, targetBuffer );
+        }
+        if ( sourceOffset < 0 || sourceOffset >= pageSize )
+        {
+            outOfBounds = true;
+            return 0;
+        }
+        int bytesToCopy = Math.min( targetBuffer.remaining(), pageSize - sourceOffset );
+        for ( int i = 0; i < bytesToCopy; i++ )
+        {
+            targetBuffer.put( block.get( pageStart + sourceOffset + i ) );
+        }
+        return bytesToCopy;
+    }
+
+    /**
+     * @return index into {@link #block} of {@code size} bytes at {@code offset} in the current page, or -1 if they are not all within the page.
+     */
+    private int boundedIndex( int offset, int size )
+    {
+        if ( offset < 0 || offset + size > pageSize || currentPageId == UNBOUND_PAGE_ID )
+        {
+            outOfBounds = true;
+            return -1;
+        }
+        return pageStart + offset;
+    }
+
+    private int nextBoundedIndex( int size )
+    {
+        return boundedIndex( offset, size );
+    }
+
+    @Override
+    public void setOffset( int offset )
+    {
+        if ( inCache )
+        {
+            cachedPages.setOffset( offset );
+            return;
+        }
+        this.offset = offset;
+        if ( offset < 0 || offset > pageSize )
+        {
+            this.offset = 0;
+            outOfBounds = true;
+        }
+    }
+
+    @Override
+    public int getOffset()
+    {
+        return inCache ? cachedPages.getOffset() : offset;
+    }
+
+    @Override
+    public void mark()
+    {
+        if ( inCache )
+        {
+            cachedPages.mark();
+            return;
+        }
+        mark = offset;
+    }
+
+    @Override
+    public void setOffsetToMark()
+    {
+        if ( inCache )
+        {
+            cachedPages.setOffsetToMark();
+            return;
+        }
+        offset = mark;
+    }
+
+    @Override
+    public void rewind()
+    {
+        nextPageId = initialPageId;
+        offset = 0;
+        currentPageId = UNBOUND_PAGE_ID;
+        inCache = false;
+    }
+
+    @Override
+    public long getCurrentPageId()
+    {
+        return currentPageId;
+    }
+
+    @Override
+    public int getCurrentPageSize()
+    {
+        return currentPageId == UNBOUND_PAGE_ID ? UNBOUND_PAGE_SIZE : pageSize;
+    }
+
+    @Override
+    public Path getCurrentFile()
+    {
+        return currentPageId == UNBOUND_PAGE_ID ? null : pagedFile.path();
+    }
+
+    @Override
+    public boolean checkAndClearBoundsFlag()
+    {
+        boolean result = outOfBounds | cachedPages.checkAndClearBoundsFlag();
+        outOfBounds = false;
+        if ( linkedCursor != null )
+        {
+            result |= linkedCursor.checkAndClearBoundsFlag();
+        }
+        return result;
+    }
+
+    @Override
+    public void checkAndClearCursorException() throws CursorException
+    {
+        String error = cursorException;
+        if ( error != null )
+        {
+            cursorException = null;
+            throw new CursorException( error );
+        }
+        cachedPages.checkAndClearCursorException();
+        if ( linkedCursor != null )
+        {
+            linkedCursor.checkAndClearCursorException();
+        }
+    }
+
+    @Override
+    public void raiseOutOfBounds()
+    {
+        outOfBounds = true;
+    }
+
+    @Override
+    public void setCursorException( String message )
+    {
+        cursorException = Objects.requireNonNull( message );
+    }
+
+    @Override
+    public void clearCursorException()
+    {
+        cursorException = null;
+        cachedPages.clearCursorException();
+        if ( linkedCursor != null )
+        {
+            linkedCursor.clearCursorException();
+        }
+    }
+
+    /**
+     * Records spanning more than one page are rare, so linked cursors are plain read cursors of the page cache.
+     */
+    @Override
+    public PageCursor openLinkedCursor( long pageId ) throws IOException
+    {
+        if ( linkedCursor != null )
+        {
+            linkedCursor.close();
+        }
+        linkedCursor = pagedFile.io( pageId, PF_SHARED_READ_LOCK, tracer );
+        return linkedCursor;
+    }
+
+    @Override
+    public void close()
+    {
+        if ( closed )
+        {
+            return;
+        }
+        closed = true;
+        if ( linkedCursor != null )
+        {
+            linkedCursor.close();
+            linkedCursor = null;
+        }
+        cachedPages.close();
+        ByteBuffers.releaseBuffer( allocatedBuffer, memoryTracker );
+        currentPageId = UNBOUND_PAGE_ID;
+    }
+
+    @Override
+    public boolean isWriteLocked()
+    {
+        return false;
+    }
+
+    @Override
+    public void putByte( byte value )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void putByte( int offset, byte value )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void putLong( long value )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void putLong( int offset, long value )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void putInt( int value )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void putInt( int offset, int value )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void putBytes( byte[] data )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void putBytes( byte[] data, int arrayOffset, int length )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void putBytes( int bytes, byte value )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void putShort( short value )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void putShort( int offset, short value )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void shiftBytes( int sourceOffset, int length, int shift )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void zapPage()
+    {
+        throw readOnly();
+    }
+
+    private static UnsupportedOperationException readOnly()
+    {
+        return new UnsupportedOperationException( "Cursors opened with PF_BYPASS_CACHE can only read" );
+    }
+}
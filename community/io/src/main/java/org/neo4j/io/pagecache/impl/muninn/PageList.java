@@ -20,6 +20,7 @@
 package org.neo4j.io.pagecache.impl.muninn;
 
 import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
 
 import org.neo4j.internal.unsafe.UnsafeUtil;
 import org.neo4j.io.mem.MemoryAllocator;
@@ -29,9 +30,11 @@ import org.neo4j.io.pagecache.tracing.EvictionEvent;
 import org.neo4j.io.pagecache.tracing.EvictionEventOpportunity;
 import org.neo4j.io.pagecache.tracing.FlushEvent;
 import org.neo4j.io.pagecache.tracing.PageFaultEvent;
+import org.neo4j.io.pagecache.tracing.PagedFileTracer;
 
 import static java.lang.String.format;
 import static org.neo4j.util.FeatureToggles.flag;
+import static org.neo4j.util.FeatureToggles.getInteger;
 
 /**
  * The PageList maintains the off-heap meta-data for the individual memory pages.
@@ -51,6 +54,7 @@ import static org.neo4j.util.FeatureToggles.flag;
 class PageList
 {
     private static final boolean forceSlowMemoryClear = flag( PageList.class, "forceSlowMemoryClear", false );
+    private static final int readUsageSampleMask = Integer.highestOneBit( Math.max( 1, getInteger( PageList.class, "readUsageSampleInterval", 8 ) ) ) - 1;
 
     static final int META_DATA_BYTES_PER_PAGE = 32;
     static final long MAX_PAGES = Integer.MAX_VALUE;
@@ -327,6 +331,27 @@ class PageList
         }
     }
 
+    /**
+     * Increment the usage stamp to at most 4, on behalf of an optimistic read pin.
+     * <p>
+     * Hot pages can be pinned for reading by many threads at the same time, and the usage counter shares a cache line with the
+     * sequence lock word that those readers validate against. Every store to the counter thus makes the cache line bounce between
+     * all the cores reading the page. To cut down on this, a page that is already in use only has its counter incremented on a
+     * random sample of its read pins. A page that the eviction sweep has aged down to zero is always incremented, so a page that
+     * is read at all is never evicted as if it was unused.
+     **/
+    void incrementUsageSampled( long pageRef )
+    {
+        long address = offPageBinding( pageRef );
+        long value = UnsafeUtil.getLongVolatile( address );
+        long usage = value & MASK_USAGE_COUNT;
+        if ( usage < MAX_USAGE_COUNT && ( usage == 0 || ( ThreadLocalRandom.current().nextInt() & readUsageSampleMask ) == 0 ) )
+        {
+            // See `incrementUsage` about why we use `compareAndSwapLong`.
+            UnsafeUtil.compareAndSwapLong( null, address, value, value + 1 );
+        }
+    }
+
     /**
      * Decrement the usage stamp. Returns true if it reaches 0.
      **/
@@ -396,6 +421,21 @@ class PageList
         UnsafeUtil.putLong( address, v + swapperId );
     }
 
+    /**
+     * @return the {@link PageResidency} of the file that the given page is bound to, or {@code null} if the page is not bound to
+     * the page of a mapped file.
+     */
+    PageResidency getResidency( long pageRef )
+    {
+        int swapperId = getSwapperId( pageRef );
+        if ( swapperId == 0 )
+        {
+            return null;
+        }
+        SwapperSet.SwapperMapping swapperMapping = swappers.getAllocation( swapperId );
+        return swapperMapping == null ? null : swapperMapping.residency;
+    }
+
     boolean isLoaded( long pageRef )
     {
         return getFilePageId( pageRef ) != PageCursor.UNBOUND_PAGE_ID;
@@ -409,7 +449,7 @@ class PageList
         return expectedBinding == actualBinding;
     }
 
-    void fault( long pageRef, PageSwapper swapper, int swapperId, long filePageId, PageFaultEvent event )
+    long fault( long pageRef, PageSwapper swapper, int swapperId, long filePageId, PageFaultEvent event )
             throws IOException
     {
         if ( swapper == null )
@@ -435,6 +475,7 @@ class PageList
         event.addBytesRead( bytesRead );
         event.setCachePageId( toId( pageRef ) );
         setSwapperId( pageRef, swapperId ); // Page now considered isBoundTo( swapper, filePageId )
+        return bytesRead;
     }
 
     private static IllegalArgumentException swapperCannotBeNull()
@@ -490,7 +531,7 @@ class PageList
 
                 if ( isModified( pageRef ) )
                 {
-                    flushModifiedPage( pageRef, evictionEvent, filePageId, swapper );
+                    flushModifiedPage( pageRef, evictionEvent, filePageId, swapper, swapperMapping.fileTracer );
                 }
                 swapper.evicted( filePageId );
             }
@@ -498,7 +539,7 @@ class PageList
         clearBinding( pageRef );
     }
 
-    private void flushModifiedPage( long pageRef, EvictionEvent evictionEvent, long filePageId, PageSwapper swapper )
+    private void flushModifiedPage( long pageRef, EvictionEvent evictionEvent, long filePageId, PageSwapper swapper, PagedFileTracer fileTracer )
             throws IOException
     {
         FlushEvent flushEvent = evictionEvent.flushEventOpportunity().beginFlush( filePageId, pageRef, swapper, 1, 0 );
@@ -510,6 +551,7 @@ class PageList
             flushEvent.addBytesWritten( bytesWritten );
             flushEvent.addPagesFlushed( 1 );
             flushEvent.done();
+            fileTracer.flushed( 1, bytesWritten );
         }
         catch ( IOException e )
         {
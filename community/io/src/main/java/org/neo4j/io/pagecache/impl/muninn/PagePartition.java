@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.neo4j.internal.unsafe.UnsafeUtil;
+
+/**
+ * A contiguous range of the pages in the {@link PageList}, with its own freelist and its own background eviction thread.
+ * <p>
+ * A page cache has a single partition, unless it is partitioned by NUMA node. Then page faulting threads prefer to take free pages from the
+ * partition of their own node, and since page memory is placed on the node of the thread that first touches it, the pages of a partition
+ * mostly end up in memory that is local to the threads that use them.
+ */
+final class PagePartition
+{
+    // The field offset to unsafely access the freelist field.
+    private static final long freelistOffset = UnsafeUtil.getFieldOffset( PagePartition.class, "freelist" );
+
+    // This is used as a poison-pill signal in the freelist, to inform any
+    // page faulting thread that it is now no longer possible to queue up and
+    // wait for more pages to be evicted, because the page cache has been shut
+    // down.
+    private static final FreePage shutdownSignal = new FreePage( 0 );
+
+    final int firstPageId;
+    final int endPageId;
+    final int keepFree;
+    private final PageList pages;
+
+    // The freelist is a thread-safe linked-list of FreePage objects, or an AtomicInteger, or null.
+    // Initially, the field is an AtomicInteger that counts from the first to the end page id of the partition, at which point all of the
+    // pages have been put in use. Once this happens, the field is set to null to allow the background eviction thread
+    // to start its work. From that point on, the field will operate as a concurrent stack of FreePage objects. The
+    // eviction thread pushes newly freed FreePage objects onto the stack, and page faulting threads pops FreePage
+    // objects from the stack. The FreePage objects are single-use, to avoid running into the ABA-problem.
+    @SuppressWarnings( "unused" ) // This field is accessed via Unsafe.
+    private volatile Object freelist;
+
+    // The thread that runs the eviction algorithm for this partition. We unpark this when we've run out of
+    // free pages to grab.
+    volatile Thread evictionThread;
+    // True if the eviction thread is currently parked, without someone having
+    // signalled it to wake up. This is used as a weak guard for unparking the
+    // eviction thread, because calling unpark too much (from many page
+    // faulting threads) can cause contention on the locks protecting that
+    // threads scheduling meta-data in the OS kernel.
+    private volatile boolean evictorParked;
+    // The number of laps the clock arm of the eviction thread has made through the pages of this partition.
+    // Only accessed by the eviction thread.
+    int clockLap;
+
+    PagePartition( PageList pages, int firstPageId, int endPageId, int keepFree )
+    {
+        this.pages = pages;
+        this.firstPageId = firstPageId;
+        this.endPageId = endPageId;
+        this.keepFree = keepFree;
+        setFreelistHead( new AtomicInteger( firstPageId ) );
+    }
+
+    int pageCount()
+    {
+        return endPageId - firstPageId;
+    }
+
+    boolean contains( int pageId )
+    {
+        return firstPageId <= pageId && pageId < endPageId;
+    }
+
+    boolean hasFreePages()
+    {
+        return getFreelistHead() != null;
+    }
+
+    boolean hasNeverUsedPages()
+    {
+        return getFreelistHead() instanceof AtomicInteger;
+    }
+
+    /**
+     * Take a page from the freelist of this partition.
+     *
+     * @return the reference to the free page, or 0 if the freelist is empty.
+     * @throws IllegalStateException if the page cache has been shut down.
+     */
+    long grabFreePage()
+    {
+        // Whatever the case, we're going to the head-pointer of the freelist,
+        // and in doing so, we can discover a number of things.
+        // We can discover an AtomicInteger, in which case we try to increment
+        // it, and if this succeeds then we've grabbed the page with that id.
+        // We can discover a FreePage object, in which case we'll attempt to
+        // CAS the freelist to the FreePage objects next pointer, and if we
+        // succeed then we've grabbed the page given by the FreePage object.
+        // We can discover a null-pointer, in which case the freelist has just
+        // been emptied for whatever it contained before. New FreePage objects
+        // are eventually going to be added to the freelist, but we are not
+        // going to wait around for that to happen.
+        // If we find a FreePage object on the freelist, then it is important
+        // to check and see if it is the shutdownSignal instance. If that's the
+        // case, then the page cache has been shut down, and we should throw an
+        // exception from our page fault routine.
+        for (;;)
+        {
+            Object current = getFreelistHead();
+            if ( current == null )
+            {
+                return 0;
+            }
+            else if ( current instanceof AtomicInteger )
+            {
+                AtomicInteger counter = (AtomicInteger) current;
+                int pageId = counter.get();
+                if ( pageId < endPageId && counter.compareAndSet( pageId, pageId + 1 ) )
+                {
+                    return pages.deref( pageId );
+                }
+                if ( pageId >= endPageId )
+                {
+                    compareAndSetFreelistHead( current, null );
+                }
+            }
+            else if ( current instanceof FreePage )
+            {
+                FreePage freePage = (FreePage) current;
+                if ( freePage == shutdownSignal )
+                {
+                    throw new IllegalStateException( "The PageCache has been shut down." );
+                }
+
+                if ( compareAndSetFreelistHead( freePage, freePage.next ) )
+                {
+                    return freePage.pageRef;
+                }
+            }
+        }
+    }
+
+    void addFreePage( long pageRef )
+    {
+        Object current;
+        FreePage freePage = new FreePage( pageRef );
+        do
+        {
+            current = getFreelistHead();
+            if ( current instanceof AtomicInteger && ((AtomicInteger) current).get() > endPageId )
+            {
+                current = null;
+            }
+            freePage.setNext( current, endPageId );
+        }
+        while ( !compareAndSetFreelistHead( current, freePage ) );
+    }
+
+    /**
+     * @return the number of pages to evict to get back to {@link #keepFree} free pages, or -1 if that number is not known.
+     */
+    int tryGetNumberOfPagesToEvict()
+    {
+        Object freelistHead = getFreelistHead();
+
+        if ( freelistHead == null )
+        {
+            return keepFree;
+        }
+        else if ( freelistHead.getClass() == FreePage.class )
+        {
+            int availablePages = ((FreePage) freelistHead).count;
+            if ( availablePages < keepFree )
+            {
+                return keepFree - availablePages;
+            }
+        }
+        else if ( freelistHead.getClass() == AtomicInteger.class )
+        {
+            AtomicInteger counter = (AtomicInteger) freelistHead;
+            long count = endPageId - counter.get();
+            if ( count < keepFree )
+            {
+                return count < 0 ? keepFree : (int) (keepFree - count);
+            }
+        }
+        return MuninnPageCache.UNKNOWN_AVAILABLE_PAGES;
+    }
+
+    void signalShutdown()
+    {
+        setFreelistHead( shutdownSignal );
+    }
+
+    void unparkEvictor()
+    {
+        if ( evictorParked )
+        {
+            evictorParked = false;
+            LockSupport.unpark( evictionThread );
+        }
+    }
+
+    void parkEvictor( long parkNanos )
+    {
+        // Only called from the background eviction thread!
+        evictorParked = true;
+        LockSupport.parkNanos( this, parkNanos );
+        evictorParked = false;
+    }
+
+    private Object getFreelistHead()
+    {
+        return UnsafeUtil.getObjectVolatile( this, freelistOffset );
+    }
+
+    private boolean compareAndSetFreelistHead( Object expected, Object update )
+    {
+        return UnsafeUtil.compareAndSwapObject( this, freelistOffset, expected, update );
+    }
+
+    private void setFreelistHead( Object newFreelistHead )
+    {
+        UnsafeUtil.putObjectVolatile( this, freelistOffset, newFreelistHead );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PagePartition[" + firstPageId + ", " + endPageId + ")";
+    }
+}
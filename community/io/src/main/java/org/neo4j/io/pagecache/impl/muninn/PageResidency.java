@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.io.pagecache.ResidencyQuota;
+
+/**
+ * Keeps track of how many pages of a mapped file are resident in the page cache, and of the {@link ResidencyQuota} and priority the file
+ * was mapped with. The eviction sweep consults this, through the {@link SwapperSet.SwapperMapping} of the file, when deciding which pages
+ * to evict.
+ */
+final class PageResidency
+{
+    enum Priority
+    {
+        LOW, NORMAL, HIGH
+    }
+
+    private final long minimumPages;
+    private final long maximumPages;
+    private final Priority priority;
+    private final AtomicLong residentPages = new AtomicLong();
+
+    PageResidency( ResidencyQuota quota, Priority priority )
+    {
+        this.minimumPages = quota == null ? 0 : quota.minimumPages();
+        this.maximumPages = quota == null ? Long.MAX_VALUE : quota.maximumPages();
+        this.priority = priority;
+    }
+
+    static PageResidency unrestricted()
+    {
+        return new PageResidency( null, Priority.NORMAL );
+    }
+
+    /**
+     * @return {@code true} if the eviction sweep can treat pages of this file like any other page.
+     */
+    boolean isUnrestricted()
+    {
+        return minimumPages == 0 && maximumPages == Long.MAX_VALUE && priority == Priority.NORMAL;
+    }
+
+    /**
+     * @return {@code true} if evicting a page of this file would bring it below its minimum residency.
+     */
+    boolean isAtOrBelowMinimum()
+    {
+        return minimumPages > 0 && residentPages.get() <= minimumPages;
+    }
+
+    /**
+     * @return {@code true} if pages of this file should be evicted before their usage counter runs out.
+     */
+    boolean shouldEvictEagerly()
+    {
+        return priority == Priority.LOW || residentPages.get() > maximumPages;
+    }
+
+    boolean isHighPriority()
+    {
+        return priority == Priority.HIGH;
+    }
+
+    void pageFaulted()
+    {
+        residentPages.incrementAndGet();
+    }
+
+    void pageEvicted()
+    {
+        residentPages.decrementAndGet();
+    }
+
+    long residentPages()
+    {
+        return residentPages.get();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PageResidency[residentPages=" + residentPages.get() + ", minimumPages=" + minimumPages + ", maximumPages=" + maximumPages +
+                ", priority=" + priority + "]";
+    }
+}
@@ -19,6 +19,8 @@
  */
 package org.neo4j.io.pagecache.monitoring;
 
+import java.util.Collection;
+
 /**
  * The PageCacheCounters exposes internal counters from the page cache.
  * The data for these counters is sourced through the PageCacheTracer API.
@@ -85,6 +87,18 @@ public interface PageCacheCounters
      */
     long evictionExceptions();
 
+    /**
+     * @return The number of times the eviction sweep has passed over a page thus far, because its file was at or below
+     * its minimum residency quota.
+     */
+    long residencyProtections();
+
+    /**
+     * @return The number of pages the eviction sweep has picked for eviction thus far, regardless of their usage,
+     * because their file was mapped with low priority or was above its maximum residency quota.
+     */
+    long residencyEvictions();
+
     /**
      * @return The cache hit ratio observed thus far.
      */
@@ -95,4 +109,10 @@ public interface PageCacheCounters
      * be determined.
      */
     double usageRatio();
+
+    /**
+     * @return The counters of the individual files that are currently mapped, or an empty collection if the page cache
+     * activity is not broken down by file.
+     */
+    Collection<PagedFileCounters> pagedFileCounters();
 }
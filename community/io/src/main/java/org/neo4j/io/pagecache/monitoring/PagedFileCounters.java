@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.monitoring;
+
+import java.nio.file.Path;
+
+/**
+ * The PagedFileCounters exposes internal counters from the page cache, for a single mapped file.
+ * The data for these counters is sourced through the {@link org.neo4j.io.pagecache.tracing.PagedFileTracer} API.
+ */
+public interface PagedFileCounters
+{
+    /**
+     * @return The file these counters are for.
+     */
+    Path path();
+
+    /**
+     * @return The number of page cache hits on pages of this file so far.
+     */
+    long hits();
+
+    /**
+     * @return The number of page cache hits on pages of this file by read cursors so far.
+     */
+    long readCursorHits();
+
+    /**
+     * @return The number of page cache hits on pages of this file by write cursors so far.
+     */
+    long writeCursorHits();
+
+    /**
+     * @return The number of page faults of pages of this file observed thus far.
+     */
+    long faults();
+
+    /**
+     * @return The number of page faults of pages of this file by read cursors observed thus far.
+     */
+    long readCursorFaults();
+
+    /**
+     * @return The number of page faults of pages of this file by write cursors observed thus far.
+     */
+    long writeCursorFaults();
+
+    /**
+     * @return The sum total of bytes read in from this file through page faults thus far.
+     */
+    long bytesRead();
+
+    /**
+     * @return The sum total of bytes written to this file through flushes thus far.
+     */
+    long bytesWritten();
+
+    /**
+     * @return The number of flushed pages of this file observed thus far.
+     */
+    long flushes();
+
+    /**
+     * @return The number of evicted pages of this file observed thus far.
+     */
+    long evictions();
+
+    /**
+     * @return A snapshot of the page fault latency histogram of this file. Element 0 counts the page faults that took less than a
+     * microsecond, and element {@code i} counts the page faults that took at least 2<sup>i-1</sup>, but less than 2<sup>i</sup> microseconds.
+     * The last element also counts all the page faults that took even longer.
+     */
+    long[] faultLatencyHistogram();
+}
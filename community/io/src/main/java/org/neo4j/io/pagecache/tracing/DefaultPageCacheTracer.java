@@ -21,11 +21,16 @@ package org.neo4j.io.pagecache.tracing;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAdder;
 
 import org.neo4j.internal.helpers.MathUtil;
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.monitoring.PagedFileCounters;
 import org.neo4j.io.pagecache.tracing.cursor.DefaultPageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 
@@ -46,7 +51,11 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     protected final LongAdder filesMapped = new LongAdder();
     protected final LongAdder filesUnmapped = new LongAdder();
     protected final LongAdder evictionExceptions = new LongAdder();
+    protected final LongAdder residencyProtections = new LongAdder();
+    protected final LongAdder residencyEvictions = new LongAdder();
     protected final AtomicLong maxPages = new AtomicLong();
+    private final ConcurrentMap<Path,DefaultPagedFileTracer> pagedFileTracers = new ConcurrentHashMap<>();
+    private final boolean tracePagedFiles;
 
     private final FlushEvent flushEvent = new FlushEvent()
     {
@@ -165,6 +174,19 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         }
     };
 
+    public DefaultPageCacheTracer()
+    {
+        this( false );
+    }
+
+    /**
+     * @param tracePagedFiles {@code true} to also break the page cache activity down by mapped file, see {@link #pagedFileCounters()}.
+     */
+    public DefaultPageCacheTracer( boolean tracePagedFiles )
+    {
+        this.tracePagedFiles = tracePagedFiles;
+    }
+
     @Override
     public PageCursorTracer createPageCursorTracer( String tag )
     {
@@ -181,6 +203,18 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     public void unmappedFile( Path path )
     {
         filesUnmapped.increment();
+        pagedFileTracers.remove( path );
+    }
+
+    @Override
+    public PagedFileTracer pagedFileTracer( Path path )
+    {
+        if ( !tracePagedFiles )
+        {
+            return PagedFileTracer.NULL;
+        }
+        // The counters of a file are dropped when it is unmapped, so that files that come and go do not pile up here.
+        return pagedFileTracers.computeIfAbsent( path, DefaultPagedFileTracer::new );
     }
 
     @Override
@@ -273,6 +307,18 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         return evictionExceptions.sum();
     }
 
+    @Override
+    public long residencyProtections()
+    {
+        return residencyProtections.sum();
+    }
+
+    @Override
+    public long residencyEvictions()
+    {
+        return residencyEvictions.sum();
+    }
+
     @Override
     public double hitRatio()
     {
@@ -290,6 +336,12 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         return Math.max( 0, (faults.sum() - evictions.sum()) / (double) pages );
     }
 
+    @Override
+    public Collection<PagedFileCounters> pagedFileCounters()
+    {
+        return List.copyOf( pagedFileTracers.values() );
+    }
+
     @Override
     public void pins( long pins )
     {
@@ -332,6 +384,18 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         this.evictionExceptions.add( evictionExceptions );
     }
 
+    @Override
+    public void residencyProtections( long residencyProtections )
+    {
+        this.residencyProtections.add( residencyProtections );
+    }
+
+    @Override
+    public void residencyEvictions( long residencyEvictions )
+    {
+        this.residencyEvictions.add( residencyEvictions );
+    }
+
     @Override
     public void bytesWritten( long bytesWritten )
     {
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.tracing;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.neo4j.io.pagecache.monitoring.PagedFileCounters;
+
+/**
+ * The default PagedFileTracer implementation, that just increments counters.
+ */
+public class DefaultPagedFileTracer implements PagedFileTracer, PagedFileCounters
+{
+    private static final int LATENCY_BUCKETS = 32;
+
+    private final Path path;
+    private final LongAdder readCursorHits = new LongAdder();
+    private final LongAdder writeCursorHits = new LongAdder();
+    private final LongAdder readCursorFaults = new LongAdder();
+    private final LongAdder writeCursorFaults = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder[] faultLatencies = new LongAdder[LATENCY_BUCKETS];
+
+    public DefaultPagedFileTracer( Path path )
+    {
+        this.path = path;
+        for ( int i = 0; i < LATENCY_BUCKETS; i++ )
+        {
+            faultLatencies[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public void hit( boolean writeLock )
+    {
+        ( writeLock ? writeCursorHits : readCursorHits ).increment();
+    }
+
+    @Override
+    public void faulted( boolean writeLock, long bytesRead, long latencyNanos )
+    {
+        ( writeLock ? writeCursorFaults : readCursorFaults ).increment();
+        this.bytesRead.add( bytesRead );
+        faultLatencies[latencyBucket( latencyNanos )].increment();
+    }
+
+    static int latencyBucket( long latencyNanos )
+    {
+        long micros = TimeUnit.NANOSECONDS.toMicros( latencyNanos );
+        if ( micros <= 0 )
+        {
+            return 0;
+        }
+        return Math.min( Long.SIZE - Long.numberOfLeadingZeros( micros ), LATENCY_BUCKETS - 1 );
+    }
+
+    @Override
+    public void flushed( int pagesFlushed, long bytesWritten )
+    {
+        flushes.add( pagesFlushed );
+        this.bytesWritten.add( bytesWritten );
+    }
+
+    @Override
+    public void evicted()
+    {
+        evictions.increment();
+    }
+
+    @Override
+    public Path path()
+    {
+        return path;
+    }
+
+    @Override
+    public long hits()
+    {
+        return readCursorHits() + writeCursorHits();
+    }
+
+    @Override
+    public long readCursorHits()
+    {
+        return readCursorHits.sum();
+    }
+
+    @Override
+    public long writeCursorHits()
+    {
+        return writeCursorHits.sum();
+    }
+
+    @Override
+    public long faults()
+    {
+        return readCursorFaults() + writeCursorFaults();
+    }
+
+    @Override
+    public long readCursorFaults()
+    {
+        return readCursorFaults.sum();
+    }
+
+    @Override
+    public long writeCursorFaults()
+    {
+        return writeCursorFaults.sum();
+    }
+
+    @Override
+    public long bytesRead()
+    {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public long bytesWritten()
+    {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public long flushes()
+    {
+        return flushes.sum();
+    }
+
+    @Override
+    public long evictions()
+    {
+        return evictions.sum();
+    }
+
+    @Override
+    public long[] faultLatencyHistogram()
+    {
+        long[] histogram = new long[LATENCY_BUCKETS];
+        for ( int i = 0; i < LATENCY_BUCKETS; i++ )
+        {
+            histogram[i] = faultLatencies[i].sum();
+        }
+        return histogram;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "DefaultPagedFileTracer{path=" + path + ", hits=" + hits() + ", faults=" + faults() + ", evictions=" + evictions() + "}";
+    }
+}
@@ -20,9 +20,12 @@
 package org.neo4j.io.pagecache.tracing;
 
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
 
 import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.monitoring.PageCacheCounters;
+import org.neo4j.io.pagecache.monitoring.PagedFileCounters;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 
 /**
@@ -53,6 +56,12 @@ public interface PageCacheTracer extends PageCacheCounters
         {
         }
 
+        @Override
+        public PagedFileTracer pagedFileTracer( Path path )
+        {
+            return PagedFileTracer.NULL;
+        }
+
         @Override
         public EvictionRunEvent beginPageEvictions( int pageCountToEvict )
         {
@@ -143,6 +152,18 @@ public interface PageCacheTracer extends PageCacheCounters
             return 0;
         }
 
+        @Override
+        public long residencyProtections()
+        {
+            return 0;
+        }
+
+        @Override
+        public long residencyEvictions()
+        {
+            return 0;
+        }
+
         @Override
         public double hitRatio()
         {
@@ -155,6 +176,12 @@ public interface PageCacheTracer extends PageCacheCounters
             return 0d;
         }
 
+        @Override
+        public Collection<PagedFileCounters> pagedFileCounters()
+        {
+            return Collections.emptyList();
+        }
+
         @Override
         public void pins( long pins )
         {
@@ -190,6 +217,16 @@ public interface PageCacheTracer extends PageCacheCounters
         {
         }
 
+        @Override
+        public void residencyProtections( long residencyProtections )
+        {
+        }
+
+        @Override
+        public void residencyEvictions( long residencyEvictions )
+        {
+        }
+
         @Override
         public void bytesWritten( long bytesWritten )
         {
@@ -234,6 +271,13 @@ public interface PageCacheTracer extends PageCacheCounters
      */
     void unmappedFile( Path path );
 
+    /**
+     * The given file is being mapped, where no existing mapping for that file existed.
+     * @return the tracer that should receive the page cache activity of this particular file, or {@link PagedFileTracer#NULL}
+     * if this tracer does not break the page cache activity down by file.
+     */
+    PagedFileTracer pagedFileTracer( Path path );
+
     /**
      * A background eviction has begun. Called from the background eviction thread.
      *
@@ -295,6 +339,18 @@ public interface PageCacheTracer extends PageCacheCounters
      */
     void evictionExceptions( long evictionExceptions );
 
+    /**
+     * Report number of pages passed over by the eviction sweep, because their file was at or below its minimum residency quota
+     * @param residencyProtections number of pages passed over
+     */
+    void residencyProtections( long residencyProtections );
+
+    /**
+     * Report number of pages picked for eviction regardless of their usage, because of the priority or maximum residency quota of their file
+     * @param residencyEvictions number of pages picked for eviction
+     */
+    void residencyEvictions( long residencyEvictions );
+
     /**
      * Report number of bytes written
      * @param bytesWritten number of written bytes
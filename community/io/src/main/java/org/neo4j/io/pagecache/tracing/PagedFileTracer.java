@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.tracing;
+
+/**
+ * A PagedFileTracer receives the page cache activity of a single mapped file, as opposed to the {@link PageCacheTracer},
+ * which receives the activity of the page cache as a whole. Instances are obtained through {@link PageCacheTracer#pagedFileTracer(java.nio.file.Path)}.
+ */
+public interface PagedFileTracer
+{
+    /**
+     * A PagedFileTracer that does nothing.
+     */
+    PagedFileTracer NULL = new PagedFileTracer()
+    {
+        @Override
+        public void hit( boolean writeLock )
+        {
+        }
+
+        @Override
+        public void faulted( boolean writeLock, long bytesRead, long latencyNanos )
+        {
+        }
+
+        @Override
+        public void flushed( int pagesFlushed, long bytesWritten )
+        {
+        }
+
+        @Override
+        public void evicted()
+        {
+        }
+    };
+
+    /**
+     * A page of the file was pinned, and was already in memory.
+     * @param writeLock {@code true} if the page was pinned by a write cursor, {@code false} if by a read cursor.
+     */
+    void hit( boolean writeLock );
+
+    /**
+     * A page of the file was faulted into memory.
+     * @param writeLock {@code true} if the page was faulted in by a write cursor, {@code false} if by a read cursor.
+     * @param bytesRead the number of bytes read from the file.
+     * @param latencyNanos the time it took to fault in the page, including waiting for a free page.
+     */
+    void faulted( boolean writeLock, long bytesRead, long latencyNanos );
+
+    /**
+     * Pages of the file were flushed.
+     * @param pagesFlushed the number of pages flushed.
+     * @param bytesWritten the number of bytes written to the file.
+     */
+    void flushed( int pagesFlushed, long bytesWritten );
+
+    /**
+     * A page of the file was evicted.
+     */
+    void evicted();
+}
@@ -22,11 +22,17 @@ package org.neo4j.io.mem;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
+import org.neo4j.internal.nativeimpl.AbsentNativeAccess;
+import org.neo4j.internal.nativeimpl.NativeAccess;
+import org.neo4j.internal.nativeimpl.NativeCallResult;
 import org.neo4j.internal.unsafe.UnsafeUtil;
 import org.neo4j.io.ByteUnit;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.memory.LocalMemoryTracker;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -218,6 +224,86 @@ class MemoryAllocatorTest
         UnsafeUtil.getLong( address + ONE_PAGE - Long.BYTES ); // End of allocation.
     }
 
+    @Test
+    void hugePagesAllocatorMustAlignGrabsToHugePageSize()
+    {
+        closeAllocator();
+        allocator = MemoryAllocator.createAllocator( MebiByte.toBytes( 8 ), new LocalMemoryTracker(), true );
+        long address = allocator.allocateAligned( 1, 1 );
+        assertThat( address % MebiByte.toBytes( 2 ) ).isEqualTo( 0L );
+    }
+
+    @Test
+    void allMemoryOfHugePagesAllocatorMustBeAccessible()
+    {
+        // This test relies on the native access bounds checks that are enabled in Unsafeutil during tests.
+        closeAllocator();
+        long expectedMaxMemory = MebiByte.toBytes( 8 );
+        allocator = MemoryAllocator.createAllocator( expectedMaxMemory, new LocalMemoryTracker(), true );
+        long pages = expectedMaxMemory / PageCache.PAGE_SIZE;
+        for ( int i = 0; i < pages; i++ )
+        {
+            long address = allocator.allocateAligned( PageCache.PAGE_SIZE, UnsafeUtil.pageSize() );
+            assertThat( address % UnsafeUtil.pageSize() ).isEqualTo( 0L );
+
+            // This must not throw any bad access exceptions.
+            UnsafeUtil.putLong( address, i ); // Start of allocation.
+            UnsafeUtil.putLong( address + PageCache.PAGE_SIZE - Long.BYTES, i ); // End of allocation.
+        }
+        assertThat( allocator.usedMemory() ).isEqualTo( expectedMaxMemory );
+    }
+
+    @Test
+    void trackMemoryAllocationsOfHugePagesAllocator()
+    {
+        LocalMemoryTracker memoryTracker = new LocalMemoryTracker();
+        MemoryAllocator allocator = MemoryAllocator.createAllocator( MebiByte.toBytes( 8 ), memoryTracker, true );
+
+        allocator.allocateAligned( ByteUnit.mebiBytes( 1 ), 1 );
+
+        // The grab is padded, to align it to the huge page size
+        assertThat( memoryTracker.usedNativeMemory() ).isGreaterThanOrEqualTo( ByteUnit.mebiBytes( 8 ) );
+
+        allocator.close();
+        assertEquals( 0, memoryTracker.usedNativeMemory() );
+    }
+
+    @Test
+    void mustReportOnlyFirstRejectedHugePageAdvice()
+    {
+        closeAllocator();
+        NativeCallResult rejection = new NativeCallResult( 22, "Invalid argument" );
+        NativeAccess nativeAccess = new AbsentNativeAccess()
+        {
+            @Override
+            public NativeCallResult tryAdviseHugePages( long address, long length )
+            {
+                return rejection;
+            }
+        };
+        List<NativeCallResult> reported = new ArrayList<>();
+        allocator = new GrabAllocator( MebiByte.toBytes( 8 ), new LocalMemoryTracker(), true, nativeAccess, reported::add );
+
+        // The third allocation does not fit in the first grab, so a second grab is advised as well.
+        allocator.allocateAligned( MebiByte.toBytes( 4 ), 1 );
+        allocator.allocateAligned( MebiByte.toBytes( 4 ), 1 );
+        allocator.allocateAligned( MebiByte.toBytes( 4 ), 1 );
+
+        assertThat( reported ).containsExactly( rejection );
+    }
+
+    @Test
+    void mustNotReportAcceptedHugePageAdvice()
+    {
+        closeAllocator();
+        List<NativeCallResult> reported = new ArrayList<>();
+        allocator = new GrabAllocator( MebiByte.toBytes( 8 ), new LocalMemoryTracker(), true, new AbsentNativeAccess(), reported::add );
+
+        allocator.allocateAligned( MebiByte.toBytes( 4 ), 1 );
+
+        assertThat( reported ).isEmpty();
+    }
+
     private void closeAllocator()
     {
         if ( allocator != null )
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.mem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NumaTopologyTest
+{
+    @TempDir
+    Path nodesDirectory;
+
+    @Test
+    void shouldMapCpusToNodes()
+    {
+        NumaTopology topology = NumaTopology.of( List.of( "0-3,8-11", "4-7,12-15" ) );
+
+        assertThat( topology.nodeCount() ).isEqualTo( 2 );
+        assertThat( topology.nodeOfCpu( 0 ) ).isEqualTo( 0 );
+        assertThat( topology.nodeOfCpu( 3 ) ).isEqualTo( 0 );
+        assertThat( topology.nodeOfCpu( 4 ) ).isEqualTo( 1 );
+        assertThat( topology.nodeOfCpu( 9 ) ).isEqualTo( 0 );
+        assertThat( topology.nodeOfCpu( 15 ) ).isEqualTo( 1 );
+    }
+
+    @Test
+    void shouldMapUnknownCpusToFirstNode()
+    {
+        NumaTopology topology = NumaTopology.of( List.of( "0", "1" ) );
+
+        assertThat( topology.nodeOfCpu( -1 ) ).isEqualTo( 0 );
+        assertThat( topology.nodeOfCpu( 2 ) ).isEqualTo( 0 );
+    }
+
+    @Test
+    void shouldIgnoreNodesWithoutCpus()
+    {
+        NumaTopology topology = NumaTopology.of( List.of( "0-1", "\n", "2-3" ) );
+
+        assertThat( topology.nodeCount() ).isEqualTo( 2 );
+        assertThat( topology.nodeOfCpu( 2 ) ).isEqualTo( 1 );
+    }
+
+    @Test
+    void shouldHaveSingleNodeIfThereIsOnlyOneNodeWithCpus()
+    {
+        assertThat( NumaTopology.of( List.of( "0-63" ) ) ).isSameAs( NumaTopology.SINGLE_NODE );
+        assertThat( NumaTopology.of( List.of( "0-63", "" ) ) ).isSameAs( NumaTopology.SINGLE_NODE );
+        assertThat( NumaTopology.SINGLE_NODE.nodeCount() ).isEqualTo( 1 );
+        assertThat( NumaTopology.SINGLE_NODE.currentNode() ).isEqualTo( 0 );
+    }
+
+    @Test
+    void shouldCacheCurrentNodeUntilRefreshInterval()
+    {
+        AtomicInteger lookups = new AtomicInteger();
+        AtomicInteger cpu = new AtomicInteger( 0 );
+        NumaTopology topology = NumaTopology.of( List.of( "0", "1" ), () ->
+        {
+            lookups.incrementAndGet();
+            return cpu.get();
+        } );
+
+        assertThat( topology.currentNode() ).isEqualTo( 0 );
+        cpu.set( 1 );
+        for ( int i = 1; i < NumaTopology.CURRENT_NODE_REFRESH_INTERVAL; i++ )
+        {
+            assertThat( topology.currentNode() ).isEqualTo( 0 );
+        }
+        assertThat( lookups.get() ).isEqualTo( 1 );
+
+        assertThat( topology.currentNode() ).isEqualTo( 1 );
+        assertThat( lookups.get() ).isEqualTo( 2 );
+    }
+
+    @Test
+    void shouldCacheCurrentNodePerThread() throws Exception
+    {
+        NumaTopology topology = NumaTopology.of( List.of( "0", "1" ), () -> Thread.currentThread().getName().equals( "other" ) ? 1 : 0 );
+
+        assertThat( topology.currentNode() ).isEqualTo( 0 );
+        AtomicInteger otherNode = new AtomicInteger( -1 );
+        Thread other = new Thread( () -> otherNode.set( topology.currentNode() ), "other" );
+        other.start();
+        other.join();
+
+        assertThat( otherNode.get() ).isEqualTo( 1 );
+        assertThat( topology.currentNode() ).isEqualTo( 0 );
+    }
+
+    @Test
+    void shouldDetectNodesInOrderOfNodeIds() throws IOException
+    {
+        writeCpuList( "node10", "2-3\n" );
+        writeCpuList( "node2", "0-1\n" );
+        writeCpuList( "node3", "\n" );
+        Files.createDirectories( nodesDirectory.resolve( "power" ) );
+
+        NumaTopology topology = NumaTopology.detect( nodesDirectory );
+
+        assertThat( topology.nodeCount() ).isEqualTo( 2 );
+        assertThat( topology.nodeOfCpu( 1 ) ).isEqualTo( 0 );
+        assertThat( topology.nodeOfCpu( 2 ) ).isEqualTo( 1 );
+    }
+
+    @Test
+    void shouldHaveSingleNodeIfTopologyCanNotBeDetected()
+    {
+        assertThat( NumaTopology.detect( nodesDirectory.resolve( "missing" ) ) ).isSameAs( NumaTopology.SINGLE_NODE );
+    }
+
+    private void writeCpuList( String node, String cpuList ) throws IOException
+    {
+        Path nodeDirectory = Files.createDirectories( nodesDirectory.resolve( node ) );
+        Files.writeString( nodeDirectory.resolve( "cpulist" ), cpuList );
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.neo4j.internal.unsafe.UnsafeUtil;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.pagecache.PageSwapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+
+class CompressingPageSwapperTest
+{
+    private static final int PAGE_SIZE = 8192;
+
+    @TempDir
+    Path directory;
+
+    private DefaultFileSystemAbstraction fs;
+    private SingleFilePageSwapperFactory factory;
+    private Path file;
+    private long pageA;
+    private long pageB;
+    private PageSwapper swapper;
+
+    @BeforeEach
+    void setUp()
+    {
+        fs = new DefaultFileSystemAbstraction();
+        factory = new SingleFilePageSwapperFactory( fs );
+        file = directory.resolve( "file" );
+        pageA = UnsafeUtil.allocateMemory( PAGE_SIZE * 2, INSTANCE );
+        pageB = UnsafeUtil.allocateMemory( PAGE_SIZE * 2, INSTANCE );
+    }
+
+    @AfterEach
+    void tearDown() throws IOException
+    {
+        if ( swapper != null )
+        {
+            swapper.close();
+        }
+        UnsafeUtil.free( pageA, PAGE_SIZE * 2, INSTANCE );
+        UnsafeUtil.free( pageB, PAGE_SIZE * 2, INSTANCE );
+        fs.close();
+    }
+
+    @Test
+    void mustReadBackCompressiblePage() throws IOException
+    {
+        swapper = createSwapper( file );
+        fillCompressible( pageA );
+        swapper.write( 3, pageA );
+        swapper.force();
+
+        assertThat( swapper.read( 3, pageB ) ).isEqualTo( PAGE_SIZE );
+        assertSamePage( pageA, pageB );
+        assertThat( swapper.getLastPageId() ).isEqualTo( 3 );
+    }
+
+    @Test
+    void mustReadBackIncompressiblePage() throws IOException
+    {
+        swapper = createSwapper( file );
+        fillRandom( pageA );
+        assertThat( swapper.write( 0, pageA ) ).isEqualTo( PAGE_SIZE );
+
+        swapper.read( 0, pageB );
+        assertSamePage( pageA, pageB );
+    }
+
+    @Test
+    void mustReadUnwrittenPagesAsZeros() throws IOException
+    {
+        swapper = createSwapper( file );
+        fillCompressible( pageA );
+        swapper.write( 2, pageA );
+
+        fillRandom( pageB );
+        swapper.read( 0, pageB );
+        assertZeros( pageB );
+        fillRandom( pageB );
+        assertThat( swapper.read( 5, pageB ) ).isZero();
+        assertZeros( pageB );
+    }
+
+    @Test
+    void mustOverwriteCompressedPageWithIncompressiblePageAndBack() throws IOException
+    {
+        swapper = createSwapper( file );
+        fillCompressible( pageA );
+        swapper.write( 0, pageA );
+        fillRandom( pageA );
+        swapper.write( 0, pageA );
+        swapper.read( 0, pageB );
+        assertSamePage( pageA, pageB );
+
+        fillCompressible( pageA );
+        swapper.write( 0, pageA );
+        swapper.read( 0, pageB );
+        assertSamePage( pageA, pageB );
+    }
+
+    @Test
+    void mustReadAndWriteMultiplePagesAtOnce() throws IOException
+    {
+        swapper = createSwapper( file );
+        fillCompressible( pageA );
+        fillRandom( pageA + PAGE_SIZE );
+        long[] buffers = {pageA};
+        int[] lengths = {PAGE_SIZE * 2};
+        swapper.write( 1, buffers, lengths, 1, 2 );
+
+        swapper.read( 1, new long[]{pageB}, new int[]{PAGE_SIZE * 2}, 1 );
+        assertSamePage( pageA, pageB );
+        assertSamePage( pageA + PAGE_SIZE, pageB + PAGE_SIZE );
+        assertThat( swapper.getLastPageId() ).isEqualTo( 2 );
+    }
+
+    @Test
+    void mustSeeCompressedPagesAfterReopeningFile() throws IOException
+    {
+        fillCompressible( pageA );
+        swapper = createSwapper( file );
+        for ( int filePageId = 0; filePageId < 4; filePageId++ )
+        {
+            swapper.write( filePageId, pageA );
+        }
+        swapper = createSwapper( file );
+        assertThat( swapper.getLastPageId() ).isEqualTo( 3 );
+        swapper.read( 3, pageB );
+        assertSamePage( pageA, pageB );
+    }
+
+    @Test
+    void mustReportCorruptedCompressedPage() throws IOException
+    {
+        fillCompressible( pageA );
+        swapper = createSwapper( file );
+        swapper.write( 0, pageA );
+        byte[] bytes = Files.readAllBytes( file );
+        bytes[CompressingPageSwapper.HEADER_SIZE + 20] ^= 0xFF;
+        Files.write( file, bytes );
+
+        swapper = createSwapper( file );
+        assertThrows( IOException.class, () -> swapper.read( 0, pageB ) );
+    }
+
+    @Test
+    void mustInterleaveReadsAndWritesOfFilesWithDifferentPageSizes() throws IOException
+    {
+        int smallPageSize = PAGE_SIZE / 2;
+        fillCompressible( pageA );
+        PageSwapper smallPages = factory.createPageSwapper( directory.resolve( "small" ), smallPageSize, filePageId -> {}, true, false, true );
+        try
+        {
+            smallPages.write( 0, pageA );
+            swapper = createSwapper( file );
+            swapper.write( 0, pageA );
+            smallPages.write( 1, pageA + smallPageSize );
+
+            swapper.read( 0, pageB );
+            assertSamePage( pageA, pageB );
+            fillRandom( pageB );
+            smallPages.read( 0, pageB, PAGE_SIZE );
+            assertSamePage( pageA, pageB );
+        }
+        finally
+        {
+            smallPages.close();
+        }
+    }
+
+    @Test
+    void mustNotCreateFileUnlessAsked()
+    {
+        assertThrows( NoSuchFileException.class, () -> factory.createPageSwapper( file, PAGE_SIZE, filePageId -> {}, false, false, true ) );
+    }
+
+    @Test
+    void mustNotCombineCompressionWithDirectIO()
+    {
+        assertThrows( IllegalArgumentException.class, () -> factory.createPageSwapper( file, PAGE_SIZE, filePageId -> {}, true, true, true ) );
+    }
+
+    private PageSwapper createSwapper( Path path ) throws IOException
+    {
+        if ( swapper != null )
+        {
+            swapper.close();
+        }
+        return factory.createPageSwapper( path, PAGE_SIZE, filePageId -> {}, true, false, true );
+    }
+
+    private static void fillCompressible( long address )
+    {
+        for ( int i = 0; i < PAGE_SIZE; i += Long.BYTES )
+        {
+            UnsafeUtil.putLong( address + i, i / 64 );
+        }
+    }
+
+    private static void fillRandom( long address )
+    {
+        ThreadLocalRandom rng = ThreadLocalRandom.current();
+        for ( int i = 0; i < PAGE_SIZE; i += Long.BYTES )
+        {
+            UnsafeUtil.putLong( address + i, rng.nextLong() );
+        }
+    }
+
+    private static void assertSamePage( long expected, long actual )
+    {
+        for ( int i = 0; i < PAGE_SIZE; i += Long.BYTES )
+        {
+            assertThat( UnsafeUtil.getLong( actual + i ) ).as( "long at offset " + i ).isEqualTo( UnsafeUtil.getLong( expected + i ) );
+        }
+    }
+
+    private static void assertZeros( long address )
+    {
+        for ( int i = 0; i < PAGE_SIZE; i += Long.BYTES )
+        {
+            assertThat( UnsafeUtil.getLong( address + i ) ).as( "long at offset " + i ).isZero();
+        }
+    }
+}
@@ -77,6 +77,8 @@ public class ExecutingQuery
     private QueryExecutionType.QueryType queryType;
     private Supplier<ExecutionPlanDescription> planDescriptionSupplier;
     private volatile ExecutingQueryStatus status = SimpleState.parsing();
+    private volatile boolean profilingRequested;
+    private volatile Supplier<ExecutionPlanDescription> profiledPlanDescriptionSupplier;
     private volatile ExecutingQuery previousQuery;
 
     /** Updated through {@link #WAIT_TIME} */
@@ -196,6 +198,40 @@ public class ExecutingQuery
         this.status = SimpleState.planned(); // write barrier - must be last
     }
 
+    /**
+     * Ask the query engine to also profile this execution of the query, without changing what the client sees.
+     * Only has an effect if called before the query is compiled, and only for queries that the query engine
+     * can profile that way.
+     */
+    public void requestProfiling()
+    {
+        this.profilingRequested = true;
+    }
+
+    public boolean isProfilingRequested()
+    {
+        return profilingRequested;
+    }
+
+    /**
+     * Called by the query engine when it profiles this execution on request.
+     *
+     * @param profiledPlanDescriptionSupplier supplies the plan description with profiler statistics, once the execution has completed.
+     */
+    public void onProfilingStarted( Supplier<ExecutionPlanDescription> profiledPlanDescriptionSupplier )
+    {
+        this.profiledPlanDescriptionSupplier = profiledPlanDescriptionSupplier;
+    }
+
+    /**
+     * @return the plan description with profiler statistics, if this execution was profiled on request.
+     */
+    public Optional<ExecutionPlanDescription> profiledPlanDescription()
+    {
+        Supplier<ExecutionPlanDescription> supplier = profiledPlanDescriptionSupplier;
+        return supplier == null ? Optional.empty() : Optional.ofNullable( supplier.get() );
+    }
+
     public void onExecutionStarted( OptionalMemoryTracker memoryTracker )
     {
         assertExpectedStatus( SimpleState.planned() );
@@ -211,6 +247,8 @@ public class ExecutingQuery
         this.compilerInfo = null;
         this.compilationCompletedNanos = 0;
         this.planDescriptionSupplier = null;
+        this.profilingRequested = false;
+        this.profiledPlanDescriptionSupplier = null;
         this.queryType = null;
         this.memoryTracker = OptionalMemoryTracker.NONE;
         this.obfuscatedQueryParameters = null;
@@ -336,11 +374,31 @@ public class ExecutingQuery
         return rawQueryParameters;
     }
 
-    Supplier<ExecutionPlanDescription> planDescriptionSupplier()
+    public Supplier<ExecutionPlanDescription> planDescriptionSupplier()
     {
         return planDescriptionSupplier;
     }
 
+    // access live state without the cost of a full snapshot, for monitors that are called on every query
+
+    public Optional<String> obfuscatedQueryText()
+    {
+        ExecutingQueryStatus status = this.status; // read barrier
+        return Optional.ofNullable( obfuscatedQueryText );
+    }
+
+    public Optional<MapValue> obfuscatedQueryParameters()
+    {
+        ExecutingQueryStatus status = this.status; // read barrier
+        return Optional.ofNullable( obfuscatedQueryParameters );
+    }
+
+    public long compilationTimeNanos()
+    {
+        ExecutingQueryStatus status = this.status; // read barrier
+        return (status.isParsingOrPlanning() ? clock.nanos() : compilationCompletedNanos) - startTimeNanos;
+    }
+
     public Optional<NamedDatabaseId> databaseId()
     {
         return Optional.ofNullable( transactionBinding.namedDatabaseId );
@@ -19,24 +19,42 @@
  */
 package org.neo4j.kernel.database;
 
+import java.util.function.BooleanSupplier;
+
 import org.neo4j.dbms.database.TransactionLogVersionProvider;
 import org.neo4j.io.fs.WritableChecksumChannel;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryParserSet;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
 import org.neo4j.kernel.impl.transaction.log.entry.TransactionLogVersionSelector;
 
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryParserSetV4_3.V4_3;
+
 public class DbmsLogEntryWriterFactory implements LogEntryWriterFactory
 {
     private final TransactionLogVersionProvider repository;
+    private final BooleanSupplier compressCommands;
 
     public DbmsLogEntryWriterFactory( TransactionLogVersionProvider repository )
+    {
+        this( repository, () -> false );
+    }
+
+    public DbmsLogEntryWriterFactory( TransactionLogVersionProvider repository, BooleanSupplier compressCommands )
     {
         this.repository = repository;
+        this.compressCommands = compressCommands;
     }
 
     @Override
     public <T extends WritableChecksumChannel> LogEntryWriter<T> createEntryWriter( T channel )
     {
         // Create a writer with a parser set matching the transaction log format version to use.
-        return new LogEntryWriter<>( channel, TransactionLogVersionSelector.INSTANCE.select( repository.getVersion() ) );
+        LogEntryParserSet parserSet = TransactionLogVersionSelector.INSTANCE.select( repository.getVersion() );
+        if ( parserSet == TransactionLogVersionSelector.LATEST && compressCommands.getAsBoolean() )
+        {
+            // Compressed commands can only be read by the version that introduced them, so only opt in to that on the latest format
+            parserSet = V4_3;
+        }
+        return new LogEntryWriter<>( channel, parserSet );
     }
 }
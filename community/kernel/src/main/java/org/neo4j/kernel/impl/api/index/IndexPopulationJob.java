@@ -19,10 +19,12 @@
  */
 package org.neo4j.kernel.impl.api.index;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import org.neo4j.common.EntityType;
 import org.neo4j.internal.kernel.api.InternalIndexState;
@@ -68,10 +70,15 @@ public class IndexPopulationJob implements Runnable
     /**
      * A list of all indexes populated by this job.
      */
-    private final List<IndexDescriptor> populatedIndexes = new ArrayList<>();
+    private final List<IndexDescriptor> populatedIndexes = new CopyOnWriteArrayList<>();
 
     private volatile StoreScan<IndexPopulationFailedKernelException> storeScan;
     private volatile boolean stopped;
+    /**
+     * Set when this job starts running, after which no more populators can {@link #addPopulatorsIfNotStarted(Consumer) join} it.
+     * Guarded by {@code this}.
+     */
+    private boolean started;
     /**
      * The {@link JobHandle} that represents the scheduling of this index population job.
      * This is used in the cancellation of the job.
@@ -111,6 +118,35 @@ public class IndexPopulationJob implements Runnable
                 indexUserDescription );
     }
 
+    /**
+     * Lets {@code adder} add more populators to this job, if it can share its store scan with them and it hasn't started running yet.
+     * This is how indexes created separately, but close enough in time, end up being populated by a single store scan.
+     *
+     * @param populatedEntityType the type of entities the new populators want to scan.
+     * @param verifyBeforeFlipping whether or not the new populators need verification before flipping.
+     * @param subject the originator of the new populators.
+     * @param adder adding populators to this job, with {@link #addPopulator(IndexPopulator, IndexDescriptor, String, FlippableIndexProxy,
+     * FailedIndexProxyFactory)}.
+     * @return {@code true} if {@code adder} was called, otherwise {@code false}.
+     */
+    synchronized boolean addPopulatorsIfNotStarted( EntityType populatedEntityType, boolean verifyBeforeFlipping, Subject subject,
+            Consumer<IndexPopulationJob> adder )
+    {
+        if ( started || stopped || this.populatedEntityType != populatedEntityType || this.verifyBeforeFlipping != verifyBeforeFlipping ||
+                !sameSubject( this.subject, subject ) )
+        {
+            return false;
+        }
+        adder.accept( this );
+        return true;
+    }
+
+    private static boolean sameSubject( Subject a, Subject b )
+    {
+        // The special subjects, like SYSTEM, are subclasses which can't be compared by username
+        return a == b || (a.getClass() == Subject.class && b.getClass() == Subject.class && Objects.equals( a.getUsername(), b.getUsername() ));
+    }
+
     /**
      * Scans the store using store view and populates all participating {@link IndexPopulator} with data relevant to
      * each index.
@@ -119,6 +155,10 @@ public class IndexPopulationJob implements Runnable
     @Override
     public void run()
     {
+        synchronized ( this )
+        {
+            started = true;
+        }
         try ( var cursorTracer = pageCacheTracer.createPageCursorTracer( INDEX_POPULATION_TAG ) )
         {
             if ( !multiPopulator.hasPopulators() )
@@ -19,23 +19,39 @@
  */
 package org.neo4j.kernel.impl.api.index;
 
+import java.time.Duration;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
+import org.neo4j.common.EntityType;
+import org.neo4j.common.Subject;
 import org.neo4j.internal.helpers.Exceptions;
 import org.neo4j.scheduler.JobScheduler;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.neo4j.scheduler.Group.INDEX_POPULATION;
 
 class IndexPopulationJobController
 {
     private final Set<IndexPopulationJob> populationJobs = ConcurrentHashMap.newKeySet();
     private final JobScheduler scheduler;
+    private final long coalescingWindowMillis;
 
     IndexPopulationJobController( JobScheduler scheduler )
+    {
+        this( scheduler, Duration.ZERO );
+    }
+
+    /**
+     * @param coalescingWindow how long to hold back a scheduled population job before it starts scanning the store,
+     * so that indexes created during that time can {@link #addToPendingPopulation(EntityType, boolean, Subject, Consumer) join} its store scan.
+     */
+    IndexPopulationJobController( JobScheduler scheduler, Duration coalescingWindow )
     {
         this.scheduler = scheduler;
+        this.coalescingWindowMillis = coalescingWindow.toMillis();
     }
 
     void stop() throws InterruptedException
@@ -66,7 +82,29 @@ class IndexPopulationJobController
     void startIndexPopulation( IndexPopulationJob job )
     {
         populationJobs.add( job );
-        job.setHandle( scheduler.schedule( INDEX_POPULATION, job.getMonitoringParams(), new IndexPopulationJobWrapper( job, this ) ) );
+        IndexPopulationJobWrapper wrapper = new IndexPopulationJobWrapper( job, this );
+        job.setHandle( coalescingWindowMillis > 0
+                       ? scheduler.schedule( INDEX_POPULATION, job.getMonitoringParams(), wrapper, coalescingWindowMillis, MILLISECONDS )
+                       : scheduler.schedule( INDEX_POPULATION, job.getMonitoringParams(), wrapper ) );
+    }
+
+    /**
+     * Lets {@code adder} add populators to a scheduled population job that hasn't started scanning the store yet, if there is one
+     * compatible with the new populators. This way populators of separately created indexes share a single store scan,
+     * for example when the job is held back by the coalescing window or waits for a free population thread.
+     *
+     * @return {@code true} if {@code adder} added its populators to a pending job, otherwise {@code false}.
+     */
+    boolean addToPendingPopulation( EntityType populatedEntityType, boolean verifyBeforeFlipping, Subject subject, Consumer<IndexPopulationJob> adder )
+    {
+        for ( IndexPopulationJob job : populationJobs )
+        {
+            if ( job.addPopulatorsIfNotStarted( populatedEntityType, verifyBeforeFlipping, subject, adder ) )
+            {
+                return true;
+            }
+        }
+        return false;
     }
 
     private void indexPopulationCompleted( IndexPopulationJob populationJob )
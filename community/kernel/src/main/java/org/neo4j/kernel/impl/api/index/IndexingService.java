@@ -20,6 +20,7 @@
 package org.neo4j.kernel.impl.api.index;
 
 import org.apache.commons.lang3.mutable.MutableBoolean;
+import org.apache.commons.lang3.mutable.MutableObject;
 import org.eclipse.collections.api.LongIterable;
 import org.eclipse.collections.api.block.procedure.primitive.LongObjectProcedure;
 import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
@@ -47,6 +48,8 @@ import java.util.stream.Collectors;
 import org.neo4j.common.EntityType;
 import org.neo4j.common.Subject;
 import org.neo4j.common.TokenNameLookup;
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
 import org.neo4j.configuration.GraphDatabaseSettings;
 import org.neo4j.exceptions.KernelException;
 import org.neo4j.exceptions.UnderlyingStorageException;
@@ -85,7 +88,6 @@ import org.neo4j.values.storable.Value;
 
 import static java.lang.String.format;
 import static org.neo4j.common.EntityType.NODE;
-import static org.neo4j.common.EntityType.RELATIONSHIP;
 import static org.neo4j.common.Subject.SYSTEM;
 import static org.neo4j.internal.helpers.collection.Iterables.asList;
 import static org.neo4j.internal.helpers.collection.Iterators.asResourceIterator;
@@ -223,7 +225,8 @@ public class IndexingService extends LifecycleAdapter implements IndexUpdateList
             PageCacheTracer pageCacheTracer,
             MemoryTracker memoryTracker,
             String databaseName,
-            boolean readOnly )
+            boolean readOnly,
+            Config config )
     {
         this.indexProxyCreator = indexProxyCreator;
         this.providerMap = providerMap;
@@ -236,7 +239,8 @@ public class IndexingService extends LifecycleAdapter implements IndexUpdateList
         this.schemaState = schemaState;
         this.internalLogProvider = internalLogProvider;
         this.monitor = monitor;
-        this.populationJobController = new IndexPopulationJobController( scheduler );
+        this.populationJobController =
+                new IndexPopulationJobController( scheduler, config.get( GraphDatabaseInternalSettings.index_population_coalescing_window ) );
         this.internalLog = internalLogProvider.getLog( getClass() );
         this.userLog = userLogProvider.getLog( getClass() );
         this.indexStatisticsStore = indexStatisticsStore;
@@ -808,7 +812,7 @@ public class IndexingService extends LifecycleAdapter implements IndexUpdateList
     {
         MultipleIndexPopulator multiPopulator = new MultipleIndexPopulator( storeView, internalLogProvider, type, schemaState, indexStatisticsStore,
                 jobScheduler, tokenNameLookup, pageCacheTracer, memoryTracker, databaseName, subject );
-        return new IndexPopulationJob( multiPopulator, monitor, verifyBeforeFlipping, pageCacheTracer, memoryTracker, databaseName, subject, NODE );
+        return new IndexPopulationJob( multiPopulator, monitor, verifyBeforeFlipping, pageCacheTracer, memoryTracker, databaseName, subject, type );
     }
 
     private void startIndexPopulation( IndexPopulationJob job )
@@ -913,22 +917,7 @@ public class IndexingService extends LifecycleAdapter implements IndexUpdateList
                 boolean flipToTentative = descriptor.isUnique();
                 if ( state == State.RUNNING )
                 {
-                    if ( descriptor.schema().entityType() == NODE )
-                    {
-                        nodePopulationJob =
-                                nodePopulationJob == null ? newIndexPopulationJob( NODE, verifyBeforeFlipping, subject ) : nodePopulationJob;
-                        index = indexProxyCreator.createPopulatingIndexProxy( descriptor, flipToTentative, monitor,
-                                nodePopulationJob );
-                        index.start();
-                    }
-                    else
-                    {
-                        relationshipPopulationJob = relationshipPopulationJob == null ? newIndexPopulationJob( RELATIONSHIP, verifyBeforeFlipping, subject )
-                                                                                      : relationshipPopulationJob;
-                        index = indexProxyCreator.createPopulatingIndexProxy( descriptor, flipToTentative, monitor,
-                                relationshipPopulationJob );
-                        index.start();
-                    }
+                    index = createPopulatingIndexProxy( descriptor, flipToTentative );
                 }
                 else
                 {
@@ -940,6 +929,39 @@ public class IndexingService extends LifecycleAdapter implements IndexUpdateList
             return indexMap;
         }
 
+        private IndexProxy createPopulatingIndexProxy( IndexDescriptor descriptor, boolean flipToTentative )
+        {
+            EntityType type = descriptor.schema().entityType();
+            IndexPopulationJob populationJob = type == NODE ? nodePopulationJob : relationshipPopulationJob;
+            if ( populationJob == null )
+            {
+                // Rather than scanning the store once more, try to join a population job that is scheduled but not yet scanning
+                MutableObject<IndexProxy> joined = new MutableObject<>();
+                if ( populationJobController.addToPendingPopulation( type, verifyBeforeFlipping, subject,
+                        pendingJob -> joined.setValue( startPopulatingIndexProxy( descriptor, flipToTentative, pendingJob ) ) ) )
+                {
+                    return joined.getValue();
+                }
+                populationJob = newIndexPopulationJob( type, verifyBeforeFlipping, subject );
+                if ( type == NODE )
+                {
+                    nodePopulationJob = populationJob;
+                }
+                else
+                {
+                    relationshipPopulationJob = populationJob;
+                }
+            }
+            return startPopulatingIndexProxy( descriptor, flipToTentative, populationJob );
+        }
+
+        private IndexProxy startPopulatingIndexProxy( IndexDescriptor descriptor, boolean flipToTentative, IndexPopulationJob populationJob )
+        {
+            IndexProxy index = indexProxyCreator.createPopulatingIndexProxy( descriptor, flipToTentative, monitor, populationJob );
+            index.start();
+            return index;
+        }
+
         void startPopulation()
         {
             if ( nodePopulationJob != null )
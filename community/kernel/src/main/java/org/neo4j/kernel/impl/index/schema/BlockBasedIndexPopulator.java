@@ -26,6 +26,8 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
@@ -320,27 +322,104 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
         }
     }
 
-    private void mergeScanUpdates(  PopulationWorkScheduler populationWorkScheduler ) throws InterruptedException, ExecutionException, IOException
+    /**
+     * Merges the blocks of every {@link ThreadLocalBlockStorage} into a single block. All merges of a merge iteration are independent of each other,
+     * also across the different block storages, so they are put in a shared queue which merge jobs take merges from until it's empty. This keeps
+     * all population workers busy also when the block storages have different amounts of blocks, instead of one job per block storage.
+     */
+    private void mergeScanUpdates( PopulationWorkScheduler populationWorkScheduler ) throws InterruptedException, ExecutionException, IOException
     {
-        List<JobHandle<?>> mergeFutures = new ArrayList<>();
+        List<BlockStorage<KEY,VALUE>> allStorages = new ArrayList<>();
         for ( ThreadLocalBlockStorage part : allScanUpdates )
         {
             BlockStorage<KEY,VALUE> scanUpdates = part.blockStorage;
             // Call doneAdding here so that the buffer it allocates if it needs to flush something will be shared with other indexes
             scanUpdates.doneAdding();
-            mergeFutures.add( populationWorkScheduler.schedule(
-                    indexName -> "Block merging for '" + indexName + "'",
-                    () ->
-                    {
-                        scanUpdates.merge( mergeFactor, cancellation );
-                        return null;
-                    } )
-            );
+            scanUpdates.startMerge( mergeFactor );
+            allStorages.add( scanUpdates );
+        }
+
+        try
+        {
+            List<BlockStorage<KEY,VALUE>> storagesToMerge = new ArrayList<>( allStorages );
+            storagesToMerge.removeIf( storage -> !storage.needsMergeIteration() );
+            while ( !storagesToMerge.isEmpty() && !cancellation.cancelled() )
+            {
+                List<List<BlockStorage<KEY,VALUE>.SingleMerge>> iterations = new ArrayList<>();
+                Queue<BlockStorage<KEY,VALUE>.SingleMerge> merges = new ConcurrentLinkedQueue<>();
+                for ( BlockStorage<KEY,VALUE> storage : storagesToMerge )
+                {
+                    List<BlockStorage<KEY,VALUE>.SingleMerge> iteration = storage.nextMergeIteration( mergeFactor, cancellation );
+                    iterations.add( iteration );
+                    merges.addAll( iteration );
+                }
+                int numberOfWorkers = Math.min( merges.size(), Runtime.getRuntime().availableProcessors() );
+                List<JobHandle<?>> mergeFutures = new ArrayList<>();
+                for ( int i = 0; i < numberOfWorkers; i++ )
+                {
+                    mergeFutures.add( populationWorkScheduler.schedule( indexName -> "Block merging for '" + indexName + "'", () -> merge( merges ) ) );
+                }
+                awaitAll( mergeFutures );
+
+                for ( int i = 0; i < storagesToMerge.size(); i++ )
+                {
+                    storagesToMerge.get( i ).mergeIterationCompleted( iterations.get( i ) );
+                }
+                storagesToMerge.removeIf( storage -> !storage.needsMergeIteration() );
+            }
+        }
+        finally
+        {
+            for ( BlockStorage<KEY,VALUE> storage : allStorages )
+            {
+                storage.completeMerge();
+            }
+        }
+    }
+
+    /**
+     * Performs merges from the queue until it's empty, reusing the same buffers for all of them.
+     */
+    private Void merge( Queue<BlockStorage<KEY,VALUE>.SingleMerge> merges ) throws IOException
+    {
+        int bufferSize = bufferFactory.bufferSize();
+        try ( var mergeBufferAllocator = bufferFactory.newLocalAllocator();
+              var writeBuffer = mergeBufferAllocator.allocate( bufferSize, memoryTracker );
+              var readBuffers = new BlockStorage.CompositeScopedBuffer( mergeFactor, bufferSize, mergeBufferAllocator, memoryTracker ) )
+        {
+            BlockStorage<KEY,VALUE>.SingleMerge merge;
+            while ( (merge = merges.poll()) != null )
+            {
+                merge.merge( readBuffers.getScopedBuffers(), writeBuffer.getBuffer() );
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Waits for all jobs to finish, even if some of them fail, so that no merge is still running when the merge files are cleaned up.
+     * Let potential exceptions in the merge threads have a chance to propagate after that.
+     */
+    private static void awaitAll( List<JobHandle<?>> jobs ) throws InterruptedException, ExecutionException
+    {
+        ExecutionException failure = null;
+        for ( JobHandle<?> job : jobs )
+        {
+            try
+            {
+                job.get();
+            }
+            catch ( ExecutionException e )
+            {
+                if ( failure == null )
+                {
+                    failure = e;
+                }
+            }
         }
-        // Wait for merge jobs to finish and let potential exceptions in the merge threads have a chance to propagate
-        for ( JobHandle<?> mergeFuture : mergeFutures )
+        if ( failure != null )
         {
-            mergeFuture.get();
+            throw failure;
         }
     }
 
@@ -21,6 +21,7 @@ package org.neo4j.kernel.impl.index.schema;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 
 import org.neo4j.index.internal.gbptree.Layout;
@@ -43,11 +44,20 @@ public class BlockReader<KEY,VALUE> implements Closeable
     private final Layout<KEY,VALUE> layout;
 
     BlockReader( FileSystemAbstraction fs, Path path, Layout<KEY,VALUE> layout ) throws IOException
+    {
+        this( fs, path, layout, 0 );
+    }
+
+    /**
+     * @param position position in the file of the first block to hand out, must be the start of a block.
+     */
+    BlockReader( FileSystemAbstraction fs, Path path, Layout<KEY,VALUE> layout, long position ) throws IOException
     {
         this.fs = fs;
         this.path = path;
         this.layout = layout;
         this.channel = fs.read( path );
+        this.channel.position( position );
     }
 
     BlockEntryReader<KEY,VALUE> nextBlock( ScopedBuffer blockBuffer ) throws IOException
@@ -66,6 +76,32 @@ public class BlockReader<KEY,VALUE> implements Closeable
         return blockEntryReader;
     }
 
+    /**
+     * Moves past the next block by only reading its header.
+     *
+     * @return size in bytes of the skipped block, or {@code -1} if there are no more blocks.
+     * @throws IOException on error reading the block header.
+     */
+    long skipBlock() throws IOException
+    {
+        long position = channel.position();
+        if ( position >= channel.size() )
+        {
+            return -1;
+        }
+        ByteBuffer header = ByteBuffer.allocate( Long.BYTES );
+        while ( header.hasRemaining() )
+        {
+            if ( channel.read( header, position + header.position() ) < 0 )
+            {
+                throw new IOException( "Unexpected end of file " + path + " while reading block header at position " + position );
+            }
+        }
+        long blockSize = header.flip().getLong();
+        channel.position( position + blockSize );
+        return blockSize;
+    }
+
     @Override
     public void close() throws IOException
     {
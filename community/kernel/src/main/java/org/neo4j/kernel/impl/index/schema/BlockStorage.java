@@ -26,7 +26,9 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
 import java.util.function.IntConsumer;
 
 import org.neo4j.index.internal.gbptree.Layout;
@@ -72,6 +74,8 @@ class BlockStorage<KEY, VALUE> implements Closeable
     private int currentBufferSize;
     private boolean doneAdding;
     private long entryCount;
+    private Path mergeSourceFile;
+    private Path mergeTargetFile;
 
     BlockStorage( Layout<KEY,VALUE> layout, ByteBufferFactory bufferFactory, FileSystemAbstraction fs, Path blockFile, Monitor monitor,
             MemoryTracker memoryTracker ) throws IOException
@@ -151,6 +155,9 @@ class BlockStorage<KEY, VALUE> implements Closeable
      * When source only contain a single block we are finished and the extra file is deleted and {@link #blockFile} contains the result with a single sorted
      * block.
      *
+     * This method performs all merges in the calling thread. Callers wanting to run the merges of an iteration in parallel can instead call
+     * {@link #startMerge(int)}, {@link #nextMergeIteration(int, Cancellation)}, {@link #mergeIterationCompleted(List)} and {@link #completeMerge()}.
+     *
      * See {@link #performSingleMerge(int, BlockReader, StoreChannel, Cancellation, ScopedBuffer[], ByteBuffer)} for further details.
      *
      * @param mergeFactor See {@link #performSingleMerge(int, BlockReader, StoreChannel, Cancellation, ScopedBuffer[], ByteBuffer)}.
@@ -161,53 +168,124 @@ class BlockStorage<KEY, VALUE> implements Closeable
      */
     public void merge( int mergeFactor, Cancellation cancellation ) throws IOException
     {
-        monitor.mergeStarted( entryCount, calculateNumberOfEntriesWrittenDuringMerges( entryCount, numberOfBlocksInCurrentFile, mergeFactor ) );
-        Path sourceFile = blockFile;
-        Path tempFile = blockFile.resolveSibling( blockFile.getFileName() + ".b" );
-        Path targetFile = tempFile;
+        startMerge( mergeFactor );
         int bufferSize = bufferFactory.bufferSize();
-
         try ( var mergeBufferAllocator = bufferFactory.newLocalAllocator();
               var writeBuffer = mergeBufferAllocator.allocate( bufferSize, memoryTracker );
               var readBuffers = new CompositeScopedBuffer( mergeFactor, bufferSize, mergeBufferAllocator, memoryTracker ) )
         {
-            while ( numberOfBlocksInCurrentFile > 1 )
+            while ( numberOfBlocksInCurrentFile > 1 && !cancellation.cancelled() )
             {
                 // Perform one complete merge iteration, merging all blocks from source into target.
                 // After this step, target will contain fewer blocks than source, but may need another merge iteration.
-                try ( BlockReader<KEY,VALUE> reader = reader( sourceFile );
-                      StoreChannel targetChannel = fs.write( targetFile ) )
+                List<SingleMerge> merges = nextMergeIteration( mergeFactor, cancellation );
+                for ( SingleMerge merge : merges )
                 {
-                    long blocksMergedSoFar = 0;
-                    long blocksInMergedFile = 0;
-                    while ( !cancellation.cancelled() && blocksMergedSoFar < numberOfBlocksInCurrentFile )
-                    {
-                        blocksMergedSoFar += performSingleMerge( mergeFactor, reader, targetChannel, cancellation, readBuffers.getScopedBuffers(),
-                                writeBuffer.getBuffer() );
-                        blocksInMergedFile++;
-                    }
-                    numberOfBlocksInCurrentFile = blocksInMergedFile;
-                    monitor.mergeIterationFinished( blocksMergedSoFar, blocksInMergedFile );
+                    merge.merge( readBuffers.getScopedBuffers(), writeBuffer.getBuffer() );
                 }
-
-                // Flip and restore the channels
-                Path tmpSourceFile = sourceFile;
-                sourceFile = targetFile;
-                targetFile = tmpSourceFile;
+                mergeIterationCompleted( merges );
             }
         }
         finally
         {
-            if ( sourceFile == blockFile )
-            {
-                fs.deleteFile( tempFile );
-            }
-            else
+            completeMerge();
+        }
+    }
+
+    /**
+     * Prepares for merging the blocks in this storage, must be called before the first {@link #nextMergeIteration(int, Cancellation)}.
+     *
+     * @param mergeFactor the merge factor that will be used for all merge iterations.
+     */
+    void startMerge( int mergeFactor )
+    {
+        monitor.mergeStarted( entryCount, calculateNumberOfEntriesWrittenDuringMerges( entryCount, numberOfBlocksInCurrentFile, mergeFactor ) );
+        mergeSourceFile = blockFile;
+        mergeTargetFile = tempMergeFile();
+    }
+
+    /**
+     * @return whether or not the blocks in this storage need another merge iteration to end up as a single block.
+     */
+    boolean needsMergeIteration()
+    {
+        return numberOfBlocksInCurrentFile > 1;
+    }
+
+    /**
+     * Splits the next merge iteration into {@link SingleMerge merges} of up to {@code mergeFactor} blocks each. A merged block is exactly as large as the
+     * blocks it was merged from together, so it ends up at the same position in the target file as its first source block had in the source file.
+     * This means that the merges of an iteration write to separate parts of the target file and can run in parallel.
+     * {@link #mergeIterationCompleted(List)} must be called when all of them have completed.
+     *
+     * @param mergeFactor the maximum number of blocks to merge into one.
+     * @param cancellation Injected so that the merges can be cancelled.
+     * @return the merges of this iteration, in block order.
+     * @throws IOException on error reading block headers.
+     */
+    List<SingleMerge> nextMergeIteration( int mergeFactor, Cancellation cancellation ) throws IOException
+    {
+        List<SingleMerge> merges = new ArrayList<>();
+        try ( BlockReader<KEY,VALUE> reader = reader( mergeSourceFile ) )
+        {
+            long position = 0;
+            long blocksLeft = numberOfBlocksInCurrentFile;
+            while ( blocksLeft > 0 )
             {
-                fs.deleteFile( blockFile );
-                fs.renameFile( tempFile, blockFile );
+                int blocks = (int) Math.min( mergeFactor, blocksLeft );
+                merges.add( new SingleMerge( mergeSourceFile, mergeTargetFile, position, blocks, cancellation ) );
+                for ( int i = 0; i < blocks; i++ )
+                {
+                    position += reader.skipBlock();
+                }
+                blocksLeft -= blocks;
             }
         }
+        return merges;
+    }
+
+    /**
+     * Flips source and target file after all the given merges, returned from {@link #nextMergeIteration(int, Cancellation)}, have completed.
+     *
+     * @param merges the merges of the completed iteration.
+     */
+    void mergeIterationCompleted( List<SingleMerge> merges )
+    {
+        long blocksBefore = numberOfBlocksInCurrentFile;
+        numberOfBlocksInCurrentFile = merges.size();
+        monitor.mergeIterationFinished( blocksBefore, numberOfBlocksInCurrentFile );
+
+        // Flip the files
+        Path tmpSourceFile = mergeSourceFile;
+        mergeSourceFile = mergeTargetFile;
+        mergeTargetFile = tmpSourceFile;
+    }
+
+    /**
+     * Leaves the result of the merge in {@link #blockFile} and deletes the extra file used for merging. Must be called after {@link #startMerge(int)}
+     * even if merging failed or was cancelled.
+     *
+     * @throws IOException on error deleting or renaming files.
+     */
+    void completeMerge() throws IOException
+    {
+        Path tempFile = tempMergeFile();
+        if ( mergeSourceFile == blockFile )
+        {
+            fs.deleteFile( tempFile );
+        }
+        else
+        {
+            fs.deleteFile( blockFile );
+            fs.renameFile( tempFile, blockFile );
+        }
+        mergeSourceFile = blockFile;
+        mergeTargetFile = tempFile;
+    }
+
+    private Path tempMergeFile()
+    {
+        return blockFile.resolveSibling( blockFile.getFileName() + ".b" );
     }
 
     /**
@@ -374,6 +452,49 @@ class BlockStorage<KEY, VALUE> implements Closeable
         return new BlockReader<>( fs, file, layout );
     }
 
+    /**
+     * Merges a number of consecutive blocks from the source file of a merge iteration into one block in the target file.
+     * Merges from the same iteration are independent of each other and can run in parallel.
+     */
+    class SingleMerge
+    {
+        private final Path sourceFile;
+        private final Path targetFile;
+        private final long position;
+        private final int numberOfBlocks;
+        private final Cancellation cancellation;
+
+        SingleMerge( Path sourceFile, Path targetFile, long position, int numberOfBlocks, Cancellation cancellation )
+        {
+            this.sourceFile = sourceFile;
+            this.targetFile = targetFile;
+            this.position = position;
+            this.numberOfBlocks = numberOfBlocks;
+            this.cancellation = cancellation;
+        }
+
+        /**
+         * @param readBuffers at least as many buffers as there are blocks in this merge, each of the storage's buffer size.
+         * @param writeBuffer buffer of the storage's buffer size.
+         */
+        void merge( ScopedBuffer[] readBuffers, ByteBuffer writeBuffer ) throws IOException
+        {
+            try ( StoreChannel targetChannel = fs.write( targetFile ) )
+            {
+                if ( cancellation.cancelled() )
+                {
+                    // Opening the target channel is enough to leave files in the same state as a merge cancelled half-way
+                    return;
+                }
+                targetChannel.position( position );
+                try ( BlockReader<KEY,VALUE> reader = new BlockReader<>( fs, sourceFile, layout, position ) )
+                {
+                    performSingleMerge( numberOfBlocks, reader, targetChannel, cancellation, readBuffers, writeBuffer );
+                }
+            }
+        }
+    }
+
     public interface Monitor
     {
         void entryAdded( int entrySize );
@@ -487,7 +608,7 @@ class BlockStorage<KEY, VALUE> implements Closeable
         boolean cancelled();
     }
 
-    private static class CompositeScopedBuffer implements AutoCloseable
+    static class CompositeScopedBuffer implements AutoCloseable
     {
         private final ScopedBuffer[] scopedBuffers;
 
@@ -35,6 +35,7 @@ import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.kernel.api.index.IndexProgressor;
 import org.neo4j.kernel.api.index.IndexReader;
 import org.neo4j.kernel.api.index.IndexSampler;
+import org.neo4j.kernel.impl.api.index.IndexSamplingConfig;
 import org.neo4j.values.storable.Value;
 
 import static org.apache.commons.lang3.exception.ExceptionUtils.getRootCause;
@@ -45,12 +46,14 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
     protected final IndexDescriptor descriptor;
     final IndexLayout<KEY,VALUE> layout;
     final GBPTree<KEY,VALUE> tree;
+    private final IndexSamplingConfig samplingConfig;
 
-    NativeIndexReader( GBPTree<KEY,VALUE> tree, IndexLayout<KEY,VALUE> layout, IndexDescriptor descriptor )
+    NativeIndexReader( GBPTree<KEY,VALUE> tree, IndexLayout<KEY,VALUE> layout, IndexDescriptor descriptor, IndexSamplingConfig samplingConfig )
     {
         this.tree = tree;
         this.layout = layout;
         this.descriptor = descriptor;
+        this.samplingConfig = samplingConfig;
     }
 
     @Override
@@ -67,8 +70,11 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
         // For that reason this implementation opts for keeping complexity down by just using the existing
         // non-unique sampler which scans the index and counts (potentially duplicates, of which there will
         // be none in a unique index).
+        // Only as many partitions of the tree as needed to reach the configured sample size are scanned, so sampling a large
+        // index doesn't have to read all of it.
 
-        FullScanNonUniqueIndexSampler<KEY,VALUE> sampler = new FullScanNonUniqueIndexSampler<>( tree, layout );
+        PartitionedScanNonUniqueIndexSampler<KEY,VALUE> sampler =
+                new PartitionedScanNonUniqueIndexSampler<>( tree, layout, samplingConfig.sampleSizeLimit() );
         return tracer ->
         {
             try
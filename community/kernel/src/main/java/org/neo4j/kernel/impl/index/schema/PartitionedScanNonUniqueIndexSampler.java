@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.index.internal.gbptree.Seeker;
+import org.neo4j.io.IOUtils;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.api.index.IndexSample;
+import org.neo4j.kernel.api.index.NonUniqueIndexSampler;
+
+/**
+ * {@link NonUniqueIndexSampler} which splits a {@link GBPTree} into partitions and scans randomly chosen partitions
+ * until at least {@code sampleSizeLimit} entries have been sampled, instead of always scanning the whole tree.
+ * <p>
+ * Partitions can hold very different numbers of entries, so when not all of them were scanned the index size is estimated from
+ * the tree structure, see {@link GBPTree#estimateNumberOfEntriesInTree(PageCursorTracer)}. Entries are sorted by value, so values
+ * spanning the border between two neighbouring scanned partitions are only counted as unique once. If the tree has
+ * no more than {@code sampleSizeLimit} entries all partitions are scanned and the sample is exact,
+ * just like one from {@link FullScanNonUniqueIndexSampler}.
+ *
+ * @param <KEY> type of keys in tree.
+ * @param <VALUE> type of values in tree.
+ */
+class PartitionedScanNonUniqueIndexSampler<KEY extends NativeIndexKey<KEY>, VALUE extends NativeIndexValue>
+        extends NonUniqueIndexSampler.Adapter
+{
+    static final int DEFAULT_NUMBER_OF_PARTITIONS = 64;
+
+    private final GBPTree<KEY,VALUE> gbpTree;
+    private final IndexLayout<KEY,VALUE> layout;
+    private final long sampleSizeLimit;
+    private final int numberOfPartitions;
+    private final Random random;
+
+    PartitionedScanNonUniqueIndexSampler( GBPTree<KEY,VALUE> gbpTree, IndexLayout<KEY,VALUE> layout, long sampleSizeLimit )
+    {
+        this( gbpTree, layout, sampleSizeLimit, DEFAULT_NUMBER_OF_PARTITIONS, new Random() );
+    }
+
+    PartitionedScanNonUniqueIndexSampler( GBPTree<KEY,VALUE> gbpTree, IndexLayout<KEY,VALUE> layout, long sampleSizeLimit, int numberOfPartitions,
+            Random random )
+    {
+        this.gbpTree = gbpTree;
+        this.layout = layout;
+        this.sampleSizeLimit = sampleSizeLimit;
+        this.numberOfPartitions = numberOfPartitions;
+        this.random = random;
+    }
+
+    @Override
+    public IndexSample sample( PageCursorTracer cursorTracer )
+    {
+        KEY lowest = layout.newKey();
+        lowest.initialize( Long.MIN_VALUE );
+        lowest.initValuesAsLowest();
+        KEY highest = layout.newKey();
+        highest.initialize( Long.MAX_VALUE );
+        highest.initValuesAsHighest();
+        List<Seeker<KEY,VALUE>> partitions = null;
+        try
+        {
+            partitions = new ArrayList<>( gbpTree.partitionedSeek( lowest, highest, numberOfPartitions, cursorTracer ) );
+            int count = partitions.size();
+            int[] order = shuffledOrder( count );
+            // First and last key of each scanned partition, in key order, which stay null for partitions that weren't scanned or were empty
+            List<KEY> firstKeys = new ArrayList<>( count );
+            List<KEY> lastKeys = new ArrayList<>( count );
+            boolean[] scanned = new boolean[count];
+            for ( int i = 0; i < count; i++ )
+            {
+                firstKeys.add( null );
+                lastKeys.add( null );
+            }
+
+            long sampledValues = 0;
+            long uniqueValues = 0;
+            int scannedPartitions = 0;
+            for ( int partition : order )
+            {
+                if ( sampledValues >= sampleSizeLimit && scannedPartitions > 0 )
+                {
+                    break;
+                }
+                Seeker<KEY,VALUE> seek = partitions.get( partition );
+                scanned[partition] = true;
+                scannedPartitions++;
+                if ( seek.next() )
+                {
+                    KEY first = layout.copyKey( seek.key(), layout.newKey() );
+                    KEY prev = layout.copyKey( seek.key(), layout.newKey() );
+                    sampledValues++;
+                    uniqueValues++;
+                    while ( seek.next() )
+                    {
+                        if ( layout.compareValue( prev, seek.key() ) != 0 )
+                        {
+                            uniqueValues++;
+                            layout.copyKey( seek.key(), prev );
+                        }
+                        sampledValues++;
+                    }
+                    firstKeys.set( partition, first );
+                    lastKeys.set( partition, prev );
+                }
+            }
+
+            // A value spanning neighbouring scanned partitions was counted once per partition
+            KEY previousLast = null;
+            for ( int partition = 0; partition < count; partition++ )
+            {
+                if ( !scanned[partition] )
+                {
+                    previousLast = null;
+                }
+                else if ( firstKeys.get( partition ) != null )
+                {
+                    if ( previousLast != null && layout.compareValue( previousLast, firstKeys.get( partition ) ) == 0 )
+                    {
+                        uniqueValues--;
+                    }
+                    previousLast = lastKeys.get( partition );
+                }
+            }
+
+            long indexSize = scannedPartitions == count ? sampledValues : Math.max( sampledValues, gbpTree.estimateNumberOfEntriesInTree( cursorTracer ) );
+            return new IndexSample( indexSize, uniqueValues, sampledValues );
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+        finally
+        {
+            if ( partitions != null )
+            {
+                IOUtils.closeAllUnchecked( partitions );
+            }
+        }
+    }
+
+    @Override
+    public IndexSample sample( int numDocs, PageCursorTracer cursorTracer )
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    private int[] shuffledOrder( int count )
+    {
+        int[] order = new int[count];
+        for ( int i = 0; i < count; i++ )
+        {
+            order[i] = i;
+        }
+        for ( int i = count - 1; i > 0; i-- )
+        {
+            int j = random.nextInt( i + 1 );
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        return order;
+    }
+}
@@ -21,9 +21,11 @@ package org.neo4j.kernel.impl.pagecache;
 
 import org.neo4j.configuration.Config;
 import org.neo4j.configuration.pagecache.ConfigurableIOBufferFactory;
+import org.neo4j.internal.nativeimpl.NativeAccessProvider;
 import org.neo4j.io.ByteUnit;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.mem.NumaTopology;
 import org.neo4j.io.os.OsBeanUtil;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageSwapperFactory;
@@ -38,7 +40,9 @@ import org.neo4j.memory.MemoryTracker;
 import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.time.SystemNanoClock;
 
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_huge_pages;
 import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_memory;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_numa_aware;
 import static org.neo4j.configuration.SettingValueParsers.BYTES;
 import static org.neo4j.io.mem.MemoryAllocator.createAllocator;
 import static org.neo4j.memory.MemoryGroup.PAGE_CACHE;
@@ -96,12 +100,41 @@ public class ConfiguringPageCacheFactory
         var memoryTracker = memoryPool.getPoolMemoryTracker();
         MemoryAllocator memoryAllocator = buildMemoryAllocator( pageCacheMaxMemory, memoryTracker );
         var bufferFactory = new ConfigurableIOBufferFactory( config, memoryTracker );
-        return new MuninnPageCache( swapperFactory, memoryAllocator, pageCacheTracer, versionContextSupplier, scheduler, clock, memoryTracker, bufferFactory );
+        NumaTopology numaTopology = detectNumaTopology();
+        return new MuninnPageCache( swapperFactory, memoryAllocator, pageCacheTracer, versionContextSupplier, scheduler, clock, memoryTracker, bufferFactory,
+                numaTopology );
+    }
+
+    private NumaTopology detectNumaTopology()
+    {
+        if ( !config.get( pagecache_numa_aware ) )
+        {
+            return NumaTopology.SINGLE_NODE;
+        }
+        NumaTopology numaTopology = NumaTopology.detect();
+        if ( numaTopology.nodeCount() > 1 )
+        {
+            log.info( "Partitioning the page cache over " + numaTopology.nodeCount() + " NUMA nodes." );
+        }
+        else
+        {
+            log.warn( "The " + pagecache_numa_aware.name() + " setting is enabled, but no NUMA topology with more than one node was detected. " +
+                      "The page cache will not be partitioned." );
+        }
+        return numaTopology;
     }
 
     private MemoryAllocator buildMemoryAllocator( long pageCacheMaxMemory, MemoryTracker memoryTracker )
     {
-        return createAllocator( pageCacheMaxMemory, memoryTracker );
+        boolean hugePages = config.get( pagecache_huge_pages );
+        if ( hugePages && !NativeAccessProvider.getNativeAccess().isAvailable() )
+        {
+            log.warn( "The " + pagecache_huge_pages.name() + " setting is enabled, but native access is not available on this platform. " +
+                      "The page cache memory will be aligned to huge pages, but the operating system can not be advised to use them." );
+        }
+        return createAllocator( pageCacheMaxMemory, memoryTracker, hugePages, result ->
+                log.warn( "The " + pagecache_huge_pages.name() + " setting is enabled, but the operating system rejected the advice to back the " +
+                          "page cache memory with transparent huge pages: " + result.getErrorMessage() ) );
     }
 
     private long getPageCacheMaxMemory( Config config )
@@ -0,0 +1,464 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.Log;
+import org.neo4j.logging.LogProvider;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_enabled;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_prefetch;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_prefetch_allowlist;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_profiling_interval;
+import static org.neo4j.configuration.GraphDatabaseSettings.read_only;
+import static org.neo4j.io.pagecache.PageCursor.UNBOUND_PAGE_ID;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_GROW;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.scheduler.JobMonitoringParams.systemJob;
+
+/**
+ * Keeps the page cache of a database warm across restarts.
+ *
+ * While the database is running, the pages of its mapped files that are in the page cache are periodically recorded in
+ * a profile, one bitmap of pages per file, and the profile is written to a file in the database directory. The profile is
+ * also written when the database stops. When the database starts again, the pages in the profile are loaded into the page
+ * cache by a background job, alongside regular traffic. The pages are loaded by a number of parallel workers, that each
+ * load a range of pages of a file in file order, and never more pages than fit in the page cache.
+ * <p>
+ * If {@link org.neo4j.configuration.GraphDatabaseSettings#pagecache_warmup_prefetch} is enabled, all pages of the files
+ * matching {@link org.neo4j.configuration.GraphDatabaseSettings#pagecache_warmup_prefetch_allowlist} are loaded instead,
+ * and no profile is recorded.
+ */
+public class PageCacheWarmer extends LifecycleAdapter
+{
+    static final String PROFILE_FILE_NAME = "page-cache-profile";
+    private static final int FORMAT_VERSION = 1;
+    private static final int PAGES_PER_RANGE = 1 << 14;
+    private static final int IO_PARALLELISM = Runtime.getRuntime().availableProcessors();
+    private static final String PAGE_CACHE_WARMER_TAG = "pageCacheWarmer";
+
+    private final FileSystemAbstraction fs;
+    private final PageCache pageCache;
+    private final JobScheduler scheduler;
+    private final Path databaseDirectory;
+    private final Path profileFile;
+    private final String databaseName;
+    private final Config config;
+    private final PageCacheTracer pageCacheTracer;
+    private final Log log;
+    private volatile boolean stopped;
+    private volatile boolean warm;
+    private CountDownLatch reloadCompleted;
+    private JobHandle<?> profileJob;
+
+    public PageCacheWarmer( FileSystemAbstraction fs, PageCache pageCache, JobScheduler scheduler, Path databaseDirectory, String databaseName,
+            Config config, PageCacheTracer pageCacheTracer, LogProvider logProvider )
+    {
+        this.fs = fs;
+        this.pageCache = pageCache;
+        this.scheduler = scheduler;
+        this.databaseDirectory = databaseDirectory;
+        this.profileFile = databaseDirectory.resolve( PROFILE_FILE_NAME );
+        this.databaseName = databaseName;
+        this.config = config;
+        this.pageCacheTracer = pageCacheTracer;
+        this.log = logProvider.getLog( getClass() );
+    }
+
+    @Override
+    public void start()
+    {
+        if ( !config.get( pagecache_warmup_enabled ) )
+        {
+            return;
+        }
+        stopped = false;
+        warm = false;
+        reloadCompleted = new CountDownLatch( 1 );
+        scheduler.schedule( Group.FILE_IO_HELPER, systemJob( databaseName, "Page cache warm-up" ), this::reload );
+        if ( isProfiling() )
+        {
+            long interval = config.get( pagecache_warmup_profiling_interval ).toMillis();
+            profileJob = scheduler.scheduleRecurring( Group.FILE_IO_HELPER, systemJob( databaseName, "Page cache profiling" ),
+                    this::periodicProfile, interval, interval, MILLISECONDS );
+        }
+    }
+
+    @Override
+    public void stop()
+    {
+        if ( reloadCompleted == null )
+        {
+            return;
+        }
+        stopped = true;
+        if ( profileJob != null )
+        {
+            profileJob.cancel();
+            profileJob = null;
+        }
+        awaitReloadCompleted();
+        reloadCompleted = null;
+        if ( isProfiling() && warm )
+        {
+            profileQuietly();
+        }
+    }
+
+    private boolean isProfiling()
+    {
+        return !config.get( pagecache_warmup_prefetch ) && !config.get( read_only );
+    }
+
+    private void awaitReloadCompleted()
+    {
+        try
+        {
+            reloadCompleted.await();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void periodicProfile()
+    {
+        // Profiles taken before the previous profile was reloaded, or while stopping, would not reflect the working set
+        if ( warm && !stopped )
+        {
+            profileQuietly();
+        }
+    }
+
+    private void reload()
+    {
+        try
+        {
+            long startMillis = System.currentTimeMillis();
+            long loadedPages = warmUp();
+            if ( loadedPages > 0 )
+            {
+                log.info( "Page cache warm-up %s %d pages in %d ms", config.get( pagecache_warmup_prefetch ) ? "preloaded" : "reloaded", loadedPages,
+                        System.currentTimeMillis() - startMillis );
+            }
+            warm = !stopped;
+        }
+        catch ( Exception e )
+        {
+            log.warn( "Page cache warm-up failed", e );
+            warm = !stopped;
+        }
+        finally
+        {
+            reloadCompleted.countDown();
+        }
+    }
+
+    /**
+     * Load all pages of the mapped files of the database if preloading is enabled, or otherwise the pages in the last profile.
+     *
+     * @return the number of pages that were loaded.
+     */
+    long warmUp() throws IOException, ExecutionException, InterruptedException
+    {
+        return loadPages( config.get( pagecache_warmup_prefetch ) ? allPages() : readProfile() );
+    }
+
+    private synchronized void profileQuietly()
+    {
+        try
+        {
+            writeProfile( profile() );
+        }
+        catch ( IOException e )
+        {
+            log.warn( "Failed to write the page cache profile " + profileFile, e );
+        }
+    }
+
+    /**
+     * @return a bitmap of the pages of each mapped file of the database that are in the page cache, without any trailing zero words,
+     * for the files that have any pages in the page cache.
+     */
+    Map<Path,long[]> profile() throws IOException
+    {
+        Map<Path,long[]> profile = new HashMap<>();
+        try ( PageCursorTracer cursorTracer = pageCacheTracer.createPageCursorTracer( PAGE_CACHE_WARMER_TAG ) )
+        {
+            for ( PagedFile pagedFile : databaseFiles() )
+            {
+                long[] pages = residentPages( pagedFile, cursorTracer );
+                if ( pages.length > 0 )
+                {
+                    profile.put( databaseDirectory.relativize( pagedFile.path() ), pages );
+                }
+            }
+        }
+        return profile;
+    }
+
+    private static long[] residentPages( PagedFile pagedFile, PageCursorTracer cursorTracer ) throws IOException
+    {
+        long lastPageId = pagedFile.getLastPageId();
+        long[] pages = new long[lastPageId < 0 ? 0 : (int) (lastPageId >>> 6) + 1];
+        int words = 0;
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT, cursorTracer ) )
+        {
+            for ( long pageId = 0; pageId <= lastPageId && cursor.next( pageId ); pageId++ )
+            {
+                if ( cursor.getCurrentPageId() != UNBOUND_PAGE_ID )
+                {
+                    int word = (int) (pageId >>> 6);
+                    pages[word] |= 1L << pageId;
+                    words = word + 1;
+                }
+            }
+        }
+        return words == pages.length ? pages : Arrays.copyOf( pages, words );
+    }
+
+    private Map<Path,long[]> allPages() throws IOException
+    {
+        Pattern allowlist = Pattern.compile( config.get( pagecache_warmup_prefetch_allowlist ) );
+        Map<Path,long[]> pages = new HashMap<>();
+        for ( PagedFile pagedFile : databaseFiles() )
+        {
+            long lastPageId = pagedFile.getLastPageId();
+            if ( lastPageId >= 0 && allowlist.matcher( pagedFile.path().getFileName().toString() ).matches() )
+            {
+                long[] words = new long[(int) (lastPageId >>> 6) + 1];
+                Arrays.fill( words, -1L );
+                pages.put( databaseDirectory.relativize( pagedFile.path() ), words );
+            }
+        }
+        return pages;
+    }
+
+    /**
+     * Load the given pages of the mapped files of the database into the page cache, with at most {@link #IO_PARALLELISM} workers.
+     *
+     * @return the number of pages that were loaded.
+     */
+    long loadPages( Map<Path,long[]> pages ) throws IOException, ExecutionException, InterruptedException
+    {
+        List<PageRange> ranges = new ArrayList<>();
+        for ( PagedFile pagedFile : databaseFiles() )
+        {
+            long[] words = pages.get( databaseDirectory.relativize( pagedFile.path() ) );
+            if ( words != null )
+            {
+                long endPageId = (long) words.length << 6;
+                for ( long fromPageId = 0; fromPageId < endPageId; fromPageId += PAGES_PER_RANGE )
+                {
+                    long toPageId = Math.min( fromPageId + PAGES_PER_RANGE, endPageId );
+                    if ( nextPage( words, fromPageId, toPageId ) != -1 )
+                    {
+                        ranges.add( new PageRange( pagedFile, words, fromPageId, toPageId ) );
+                    }
+                }
+            }
+        }
+
+        AtomicInteger nextRange = new AtomicInteger();
+        AtomicLong remainingPages = new AtomicLong( pageCache.maxCachedPages() );
+        List<JobHandle<Long>> workers = new ArrayList<>();
+        for ( int i = 0; i < Math.min( IO_PARALLELISM, ranges.size() ); i++ )
+        {
+            workers.add( scheduler.schedule( Group.FILE_IO_HELPER, systemJob( databaseName, "Page cache warm-up worker" ),
+                    () -> loadRanges( ranges, nextRange, remainingPages ) ) );
+        }
+        long loadedPages = 0;
+        for ( JobHandle<Long> worker : workers )
+        {
+            loadedPages += worker.get();
+        }
+        return loadedPages;
+    }
+
+    private long loadRanges( List<PageRange> ranges, AtomicInteger nextRange, AtomicLong remainingPages ) throws IOException
+    {
+        long loadedPages = 0;
+        try ( PageCursorTracer cursorTracer = pageCacheTracer.createPageCursorTracer( PAGE_CACHE_WARMER_TAG ) )
+        {
+            for ( int i = nextRange.getAndIncrement(); i < ranges.size(); i = nextRange.getAndIncrement() )
+            {
+                PageRange range = ranges.get( i );
+                try ( PageCursor cursor = range.pagedFile.io( range.fromPageId, PF_SHARED_READ_LOCK | PF_NO_GROW, cursorTracer ) )
+                {
+                    long pageId = nextPage( range.pages, range.fromPageId, range.toPageId );
+                    while ( pageId != -1 )
+                    {
+                        if ( stopped || remainingPages.getAndDecrement() <= 0 )
+                        {
+                            return loadedPages;
+                        }
+                        if ( !cursor.next( pageId ) )
+                        {
+                            // The file is shorter than when it was profiled
+                            break;
+                        }
+                        loadedPages++;
+                        pageId = nextPage( range.pages, pageId + 1, range.toPageId );
+                    }
+                }
+            }
+        }
+        return loadedPages;
+    }
+
+    /**
+     * @return the id of the first page in the bitmap from {@code fromPageId}, inclusive, to {@code toPageId}, exclusive, or -1 if there is none.
+     */
+    private static long nextPage( long[] pages, long fromPageId, long toPageId )
+    {
+        int word = (int) (fromPageId >>> 6);
+        long bits = word < pages.length ? pages[word] & (-1L << fromPageId) : 0;
+        while ( bits == 0 )
+        {
+            word++;
+            if ( word >= pages.length || (long) word << 6 >= toPageId )
+            {
+                return -1;
+            }
+            bits = pages[word];
+        }
+        long pageId = ((long) word << 6) + Long.numberOfTrailingZeros( bits );
+        return pageId < toPageId ? pageId : -1;
+    }
+
+    private List<PagedFile> databaseFiles() throws IOException
+    {
+        List<PagedFile> files = new ArrayList<>();
+        for ( PagedFile pagedFile : pageCache.listExistingMappings() )
+        {
+            if ( pagedFile.path().startsWith( databaseDirectory ) )
+            {
+                files.add( pagedFile );
+            }
+        }
+        return files;
+    }
+
+    void writeProfile( Map<Path,long[]> profile ) throws IOException
+    {
+        Path tempFile = profileFile.resolveSibling( PROFILE_FILE_NAME + ".tmp" );
+        try ( DataOutputStream out = new DataOutputStream( new BufferedOutputStream( new GZIPOutputStream( fs.openAsOutputStream( tempFile, false ) ) ) ) )
+        {
+            out.writeInt( FORMAT_VERSION );
+            out.writeInt( profile.size() );
+            for ( Map.Entry<Path,long[]> file : profile.entrySet() )
+            {
+                byte[] path = file.getKey().toString().getBytes( UTF_8 );
+                out.writeInt( path.length );
+                out.write( path );
+                long[] pages = file.getValue();
+                out.writeInt( pages.length );
+                for ( long word : pages )
+                {
+                    out.writeLong( word );
+                }
+            }
+        }
+        fs.renameFile( tempFile, profileFile, ATOMIC_MOVE, REPLACE_EXISTING );
+    }
+
+    /**
+     * @return the profile in the profile file, with the files relative to the database directory, or an empty profile if there is no profile file.
+     */
+    Map<Path,long[]> readProfile() throws IOException
+    {
+        Map<Path,long[]> profile = new HashMap<>();
+        if ( !fs.fileExists( profileFile ) )
+        {
+            return profile;
+        }
+        try ( DataInputStream in = new DataInputStream( new BufferedInputStream( new GZIPInputStream( fs.openAsInputStream( profileFile ) ) ) ) )
+        {
+            if ( in.readInt() != FORMAT_VERSION )
+            {
+                return profile;
+            }
+            int numberOfFiles = in.readInt();
+            for ( int i = 0; i < numberOfFiles; i++ )
+            {
+                byte[] path = new byte[in.readInt()];
+                in.readFully( path );
+                long[] pages = new long[in.readInt()];
+                for ( int j = 0; j < pages.length; j++ )
+                {
+                    pages[j] = in.readLong();
+                }
+                profile.put( Path.of( new String( path, UTF_8 ) ), pages );
+            }
+        }
+        return profile;
+    }
+
+    private static class PageRange
+    {
+        private final PagedFile pagedFile;
+        private final long[] pages;
+        private final long fromPageId;
+        private final long toPageId;
+
+        PageRange( PagedFile pagedFile, long[] pages, long fromPageId, long toPageId )
+        {
+            this.pagedFile = pagedFile;
+            this.pages = pages;
+            this.fromPageId = fromPageId;
+            this.toPageId = toPageId;
+        }
+    }
+}
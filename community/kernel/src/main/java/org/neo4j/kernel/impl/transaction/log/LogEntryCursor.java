@@ -20,19 +20,25 @@
 package org.neo4j.kernel.impl.transaction.log;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
 
 import org.neo4j.cursor.IOCursor;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntry;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommand;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCompressedCommands;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
 
 /**
- * {@link IOCursor} abstraction on top of a {@link LogEntryReader}
+ * {@link IOCursor} abstraction on top of a {@link LogEntryReader}.
+ * {@link LogEntryCompressedCommands Compressed commands} are handed out as the individual {@link LogEntryCommand commands} they contain.
  */
 public class LogEntryCursor implements IOCursor<LogEntry>
 {
     private final LogEntryReader logEntryReader;
     private final ReadableClosablePositionAwareChecksumChannel channel;
     private final LogPositionMarker position = new LogPositionMarker();
+    private Iterator<LogEntryCommand> pendingCommands = Collections.emptyIterator();
     private LogEntry entry;
 
     public LogEntryCursor( LogEntryReader logEntryReader, ReadableClosablePositionAwareChecksumChannel channel )
@@ -50,9 +56,17 @@ public class LogEntryCursor implements IOCursor<LogEntry>
     @Override
     public boolean next() throws IOException
     {
-        entry = logEntryReader.readLogEntry( channel );
-
-        return entry != null;
+        while ( !pendingCommands.hasNext() )
+        {
+            entry = logEntryReader.readLogEntry( channel );
+            if ( !(entry instanceof LogEntryCompressedCommands) )
+            {
+                return entry != null;
+            }
+            pendingCommands = ((LogEntryCompressedCommands) entry).getCommands().iterator();
+        }
+        entry = pendingCommands.next();
+        return true;
     }
 
     @Override
@@ -21,7 +21,9 @@ package org.neo4j.kernel.impl.transaction.log;
 
 import java.io.Flushable;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
+import org.neo4j.io.fs.FlushableChannel;
 import org.neo4j.io.fs.FlushableChecksumChannel;
 import org.neo4j.io.fs.PhysicalFlushableChecksumChannel;
 import org.neo4j.io.memory.ScopedBuffer;
@@ -117,6 +119,12 @@ public class PositionAwarePhysicalFlushableChecksumChannel implements FlushableP
         return channel.put( value, length );
     }
 
+    @Override
+    public FlushableChannel putAll( ByteBuffer src ) throws IOException
+    {
+        return channel.putAll( src );
+    }
+
     @Override
     public void close() throws IOException
     {
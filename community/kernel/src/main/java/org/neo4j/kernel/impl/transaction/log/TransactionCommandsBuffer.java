@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import com.github.luben.zstd.Zstd;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.neo4j.io.fs.WritableChannel;
+import org.neo4j.io.memory.ByteBuffers;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
+import org.neo4j.memory.MemoryTracker;
+import org.neo4j.util.FeatureToggles;
+
+import static java.lang.Math.max;
+import static java.lang.Math.toIntExact;
+import static org.neo4j.io.ByteUnit.kibiBytes;
+import static org.neo4j.io.ByteUnit.mebiBytes;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryParserSetV4_3.MAX_UNCOMPRESSED_COMMANDS_SIZE;
+
+/**
+ * Growable off-heap buffer that the commands of a transaction are serialized into before the transaction is appended to the log.
+ * Serializing the commands on the committing thread means the critical section of the appender only has to copy the serialized
+ * bytes into the log channel, see {@link TransactionLogWriter#serializeCommands}.
+ * <p>
+ * This is a plain {@link WritableChannel}, because the checksum of a transaction chains the checksum of the previously appended
+ * transaction and covers its start and commit entries, so it is computed by the log channel over the copied bytes instead.
+ * <p>
+ * If the log format supports it the serialized commands can be {@link #compress(LogEntryWriter) compressed} into a single entry,
+ * which is also done on the committing thread.
+ */
+public class TransactionCommandsBuffer implements WritableChannel, AutoCloseable
+{
+    static final int INITIAL_CAPACITY = toIntExact( kibiBytes( 8 ) );
+    /**
+     * Buffers that have grown beyond this while serializing a large transaction are shrunk back when cleared,
+     * so that pooled buffers don't hold on to more native memory than typical transactions need.
+     */
+    static final int MAX_RETAINED_CAPACITY = toIntExact( mebiBytes( 1 ) );
+    /**
+     * Commands smaller than this are not worth the cost of compressing them.
+     */
+    static final int MIN_COMPRESSION_SIZE = 256;
+    /**
+     * Version and type bytes, followed by the uncompressed and compressed lengths.
+     */
+    private static final int COMPRESSED_HEADER_SIZE = 2 * Byte.BYTES + 2 * Integer.BYTES;
+    private static final int COMPRESSION_LEVEL = FeatureToggles.getInteger( TransactionCommandsBuffer.class, "compressionLevel", 1 );
+
+    private final MemoryTracker memoryTracker;
+    private ByteBuffer buffer;
+    private ByteBuffer compressionBuffer;
+    private byte parserSetVersion;
+
+    public TransactionCommandsBuffer( MemoryTracker memoryTracker )
+    {
+        this.memoryTracker = memoryTracker;
+        this.buffer = ByteBuffers.allocateDirect( INITIAL_CAPACITY, memoryTracker );
+    }
+
+    @Override
+    public TransactionCommandsBuffer put( byte value )
+    {
+        bufferWithGuaranteedSpace( Byte.BYTES ).put( value );
+        return this;
+    }
+
+    @Override
+    public TransactionCommandsBuffer putShort( short value )
+    {
+        bufferWithGuaranteedSpace( Short.BYTES ).putShort( value );
+        return this;
+    }
+
+    @Override
+    public TransactionCommandsBuffer putInt( int value )
+    {
+        bufferWithGuaranteedSpace( Integer.BYTES ).putInt( value );
+        return this;
+    }
+
+    @Override
+    public TransactionCommandsBuffer putLong( long value )
+    {
+        bufferWithGuaranteedSpace( Long.BYTES ).putLong( value );
+        return this;
+    }
+
+    @Override
+    public TransactionCommandsBuffer putFloat( float value )
+    {
+        bufferWithGuaranteedSpace( Float.BYTES ).putFloat( value );
+        return this;
+    }
+
+    @Override
+    public TransactionCommandsBuffer putDouble( double value )
+    {
+        bufferWithGuaranteedSpace( Double.BYTES ).putDouble( value );
+        return this;
+    }
+
+    @Override
+    public TransactionCommandsBuffer put( byte[] value, int length )
+    {
+        bufferWithGuaranteedSpace( length ).put( value, 0, length );
+        return this;
+    }
+
+    @Override
+    public TransactionCommandsBuffer putAll( ByteBuffer src )
+    {
+        bufferWithGuaranteedSpace( src.remaining() ).put( src );
+        return this;
+    }
+
+    /**
+     * Write the serialized commands to the given channel. The content of this buffer is left untouched,
+     * so it can be written again.
+     *
+     * @param channel channel to write the serialized commands to.
+     * @throws IOException if the channel fails to write.
+     */
+    public void writeTo( WritableChannel channel ) throws IOException
+    {
+        channel.putAll( buffer.duplicate().flip() );
+    }
+
+    /**
+     * Replace the serialized commands in this buffer with a single compressed commands entry, written with the given writer.
+     * Nothing is changed if the commands are too small to be worth compressing, too large for readers to accept compressed,
+     * or if they don't compress.
+     *
+     * @param writer the writer the commands in this buffer were serialized with.
+     * @return {@code true} if the commands were compressed, otherwise {@code false}.
+     * @throws IOException if compression fails.
+     */
+    public boolean compress( LogEntryWriter<?> writer ) throws IOException
+    {
+        int uncompressedLength = buffer.position();
+        if ( uncompressedLength < MIN_COMPRESSION_SIZE || uncompressedLength > MAX_UNCOMPRESSED_COMMANDS_SIZE )
+        {
+            return false;
+        }
+
+        int requiredCapacity = toIntExact( COMPRESSED_HEADER_SIZE + Zstd.compressBound( uncompressedLength ) );
+        if ( compressionBuffer == null || compressionBuffer.capacity() < requiredCapacity )
+        {
+            releaseCompressionBuffer();
+            compressionBuffer = ByteBuffers.allocateDirect( requiredCapacity, memoryTracker );
+        }
+        long compressedLength = Zstd.compressDirectByteBuffer( compressionBuffer, COMPRESSED_HEADER_SIZE, compressionBuffer.capacity() - COMPRESSED_HEADER_SIZE,
+                buffer, 0, uncompressedLength, COMPRESSION_LEVEL );
+        if ( Zstd.isError( compressedLength ) )
+        {
+            throw new IOException( "Unable to compress commands: " + Zstd.getErrorName( compressedLength ) );
+        }
+        if ( COMPRESSED_HEADER_SIZE + compressedLength >= uncompressedLength )
+        {
+            return false;
+        }
+
+        // The compressed bytes become the content of this buffer, and the uncompressed buffer is kept around to compress into next time
+        ByteBuffer uncompressed = buffer;
+        buffer = compressionBuffer;
+        compressionBuffer = uncompressed;
+        buffer.clear();
+        writer.writeCompressedCommandsHeader( uncompressedLength, (int) compressedLength, this );
+        buffer.position( COMPRESSED_HEADER_SIZE + (int) compressedLength );
+        return true;
+    }
+
+    /**
+     * @return number of bytes of serialized commands in this buffer.
+     */
+    public int size()
+    {
+        return buffer.position();
+    }
+
+    /**
+     * @return version of the log entry parser set the commands in this buffer were serialized with.
+     */
+    byte getParserSetVersion()
+    {
+        return parserSetVersion;
+    }
+
+    void setParserSetVersion( byte parserSetVersion )
+    {
+        this.parserSetVersion = parserSetVersion;
+    }
+
+    /**
+     * Discard the serialized commands, readying this buffer for serializing another transaction.
+     */
+    void clear()
+    {
+        if ( buffer.capacity() > MAX_RETAINED_CAPACITY )
+        {
+            ByteBuffers.releaseBuffer( buffer, memoryTracker );
+            buffer = ByteBuffers.allocateDirect( INITIAL_CAPACITY, memoryTracker );
+        }
+        buffer.clear();
+        if ( compressionBuffer != null && compressionBuffer.capacity() > MAX_RETAINED_CAPACITY )
+        {
+            releaseCompressionBuffer();
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        ByteBuffers.releaseBuffer( buffer, memoryTracker );
+        releaseCompressionBuffer();
+    }
+
+    private void releaseCompressionBuffer()
+    {
+        if ( compressionBuffer != null )
+        {
+            ByteBuffers.releaseBuffer( compressionBuffer, memoryTracker );
+            compressionBuffer = null;
+        }
+    }
+
+    private ByteBuffer bufferWithGuaranteedSpace( int spaceInBytes )
+    {
+        if ( buffer.remaining() < spaceInBytes )
+        {
+            int capacity = toIntExact( max( 2L * buffer.capacity(), (long) buffer.position() + spaceInBytes ) );
+            ByteBuffer grown = ByteBuffers.allocateDirect( capacity, memoryTracker );
+            grown.put( buffer.flip() );
+            ByteBuffers.releaseBuffer( buffer, memoryTracker );
+            buffer = grown;
+        }
+        return buffer;
+    }
+}
@@ -21,20 +21,32 @@ package org.neo4j.kernel.impl.transaction.log;
 
 import java.io.IOException;
 
+import org.neo4j.collection.pool.LinkedQueuePool;
 import org.neo4j.kernel.database.LogEntryWriterFactory;
 import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
+import org.neo4j.memory.MemoryTracker;
 import org.neo4j.util.VisibleForTesting;
 
-public class TransactionLogWriter
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+
+public class TransactionLogWriter implements AutoCloseable
 {
     private final FlushablePositionAwareChecksumChannel channel;
     private final LogEntryWriterFactory logEntryWriterFactory;
+    private final CommandsBufferPool commandsBufferPool;
 
     public TransactionLogWriter( FlushablePositionAwareChecksumChannel channel, LogEntryWriterFactory logEntryWriterFactory )
+    {
+        this( channel, logEntryWriterFactory, INSTANCE );
+    }
+
+    public TransactionLogWriter( FlushablePositionAwareChecksumChannel channel, LogEntryWriterFactory logEntryWriterFactory,
+            MemoryTracker memoryTracker )
     {
         this.channel = channel;
         this.logEntryWriterFactory = logEntryWriterFactory;
+        this.commandsBufferPool = new CommandsBufferPool( memoryTracker );
     }
 
     /**
@@ -53,6 +65,66 @@ public class TransactionLogWriter
         return writer.writeCommitEntry( transactionId, transaction.getTimeCommitted() );
     }
 
+    /**
+     * Serialize the commands of a transaction into a pooled off-heap buffer, without touching the log channel.
+     * This is safe to call concurrently and is meant to be called before entering the critical section where the transaction
+     * is appended with {@link #append(TransactionRepresentation, long, int, TransactionCommandsBuffer)}.
+     * The commands are also compressed here, if the log format in use asks for that.
+     * The returned buffer must be handed back with {@link #release(TransactionCommandsBuffer)}.
+     */
+    public TransactionCommandsBuffer serializeCommands( TransactionRepresentation transaction ) throws IOException
+    {
+        TransactionCommandsBuffer commands = commandsBufferPool.acquire();
+        try
+        {
+            // The writer is only asked for the format of the log, the commands go to the buffer and not to the log channel
+            LogEntryWriter<FlushablePositionAwareChecksumChannel> writer = logEntryWriterFactory.createEntryWriter( channel );
+            writer.serialize( transaction, commands );
+            if ( writer.compressesCommands() )
+            {
+                commands.compress( writer );
+            }
+            commands.setParserSetVersion( writer.getParserSetVersion() );
+            return commands;
+        }
+        catch ( Throwable t )
+        {
+            release( commands );
+            throw t;
+        }
+    }
+
+    /**
+     * Append a transaction, whose commands have already been serialized by {@link #serializeCommands(TransactionRepresentation)},
+     * to the transaction log file
+     * @return checksum of the transaction
+     */
+    public int append( TransactionRepresentation transaction, long transactionId, int previousChecksum, TransactionCommandsBuffer commands )
+            throws IOException
+    {
+        LogEntryWriter<FlushablePositionAwareChecksumChannel> writer = logEntryWriterFactory.createEntryWriter( channel );
+        writer.writeStartEntry( transaction.getTimeStarted(), transaction.getLatestCommittedTxWhenStarted(), previousChecksum, transaction.additionalHeader() );
+
+        if ( commands.getParserSetVersion() == writer.getParserSetVersion() )
+        {
+            // Copy the already serialized commands to the log channel, which includes them in the checksum as it goes
+            commands.writeTo( channel );
+        }
+        else
+        {
+            // The log format was upgraded after the commands were serialized, so they have to be serialized again
+            writer.serialize( transaction );
+        }
+
+        return writer.writeCommitEntry( transactionId, transaction.getTimeCommitted() );
+    }
+
+    public void release( TransactionCommandsBuffer commands )
+    {
+        commands.clear();
+        commandsBufferPool.release( commands );
+    }
+
     @VisibleForTesting
     public void legacyCheckPoint( LogPosition logPosition ) throws IOException
     {
@@ -81,4 +153,25 @@ public class TransactionLogWriter
     {
         return logEntryWriterFactory.createEntryWriter( channel );
     }
+
+    @Override
+    public void close()
+    {
+        commandsBufferPool.close();
+    }
+
+    private static class CommandsBufferPool extends LinkedQueuePool<TransactionCommandsBuffer>
+    {
+        CommandsBufferPool( MemoryTracker memoryTracker )
+        {
+            super( 8, () -> new TransactionCommandsBuffer( memoryTracker ) );
+        }
+
+        @Override
+        protected void dispose( TransactionCommandsBuffer commands )
+        {
+            commands.close();
+            super.dispose( commands );
+        }
+    }
 }
@@ -31,6 +31,7 @@ import org.neo4j.kernel.impl.transaction.log.LogPosition;
 import org.neo4j.storageengine.api.StorageCommand;
 
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.COMMAND;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.COMPRESSED_COMMANDS;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.LEGACY_CHECK_POINT;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.TX_COMMIT;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryTypeCodes.TX_START;
@@ -40,11 +41,13 @@ public class LogEntryWriter<T extends WritableChecksumChannel>
     private final Visitor<StorageCommand,IOException> serializer;
     protected final T channel;
     private final byte parserSetVersion;
+    private final boolean compressesCommands;
 
     public LogEntryWriter( T channel, LogEntryParserSet parserSet )
     {
         this.channel = channel;
         this.parserSetVersion = parserSet.versionByte();
+        this.compressesCommands = parserSet.compressesCommands();
         this.serializer = new StorageCommandSerializer( channel, this );
     }
 
@@ -89,6 +92,15 @@ public class LogEntryWriter<T extends WritableChecksumChannel>
         tx.accept( serializer );
     }
 
+    /**
+     * Write the command entries of a transaction to the given channel instead of the channel of this writer, which is how the commands
+     * can be serialized ahead of appending the transaction. Checksums are left to the channel the serialized commands are later copied to.
+     */
+    public void serialize( TransactionRepresentation tx, WritableChannel channel ) throws IOException
+    {
+        tx.accept( new StorageCommandSerializer( channel, this ) );
+    }
+
     public void serialize( CommittedTransactionRepresentation tx ) throws IOException
     {
         writeStartEntry( tx.getStartEntry() );
@@ -109,6 +121,17 @@ public class LogEntryWriter<T extends WritableChecksumChannel>
         serializer.visit( command );
     }
 
+    /**
+     * Write the header of a {@link LogEntryTypeCodes#COMPRESSED_COMMANDS compressed commands} entry, which is followed by
+     * {@code compressedLength} bytes of compressed command entries.
+     */
+    public void writeCompressedCommandsHeader( int uncompressedLength, int compressedLength, WritableChannel channel ) throws IOException
+    {
+        writeLogEntryHeader( COMPRESSED_COMMANDS, channel );
+        channel.putInt( uncompressedLength )
+                .putInt( compressedLength );
+    }
+
     public void writeLegacyCheckPointEntry( LogPosition logPosition ) throws IOException
     {
         channel.beginChecksum();
@@ -123,6 +146,19 @@ public class LogEntryWriter<T extends WritableChecksumChannel>
         return channel;
     }
 
+    public byte getParserSetVersion()
+    {
+        return parserSetVersion;
+    }
+
+    /**
+     * @return whether the commands written by this writer should be compressed, see {@link #writeCompressedCommandsHeader(int, int, WritableChannel)}.
+     */
+    public boolean compressesCommands()
+    {
+        return compressesCommands;
+    }
+
     private static class StorageCommandSerializer implements Visitor<StorageCommand,IOException>
     {
         private final WritableChannel channel;
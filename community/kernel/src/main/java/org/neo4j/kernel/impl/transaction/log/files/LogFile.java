@@ -100,6 +100,14 @@ public interface LogFile extends RotatableFile
 
     Path[] getMatchedFiles();
 
+    /**
+     * Recycle the pruned log file of the given version, so that it can be reused as a future log file instead of being deleted.
+     *
+     * @param version version of the pruned log file.
+     * @return {@code true} if the file was recycled, {@code false} if it should be deleted.
+     */
+    boolean recycleLogFile( long version );
+
     boolean forceAfterAppend( LogForceEvents logForceEvents ) throws IOException;
 
     void flush() throws IOException;
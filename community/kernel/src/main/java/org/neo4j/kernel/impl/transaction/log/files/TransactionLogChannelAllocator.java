@@ -19,11 +19,16 @@
  */
 package org.neo4j.kernel.impl.transaction.log.files;
 
+import org.eclipse.collections.api.map.primitive.MutableLongIntMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongIntHashMap;
+
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.util.function.LongSupplier;
 
+import org.neo4j.io.fs.DelegatingStoreChannel;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.StoreChannel;
 import org.neo4j.io.memory.HeapScopedBuffer;
@@ -33,20 +38,40 @@ import org.neo4j.kernel.impl.transaction.log.entry.LogHeader;
 import org.neo4j.kernel.impl.transaction.log.entry.LogHeaderWriter;
 import org.neo4j.kernel.impl.transaction.tracing.DatabaseTracer;
 import org.neo4j.kernel.impl.transaction.tracing.LogFileCreateEvent;
+import org.neo4j.logging.Log;
 
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
 import static java.lang.String.format;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static org.neo4j.configuration.GraphDatabaseSettings.recycle_logical_logs;
+import static org.neo4j.io.ByteUnit.kibiBytes;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogHeaderReader.readLogHeader;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogVersions.CURRENT_FORMAT_LOG_HEADER_SIZE;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogVersions.CURRENT_LOG_FORMAT_VERSION;
 
 public class TransactionLogChannelAllocator
 {
+    /**
+     * Pruning usually frees about as many log files as are created between two checkpoints, so only a few recycled
+     * files are worth keeping around. Any file pruned beyond this is deleted.
+     */
+    static final int MAX_RECYCLED_FILES = 2;
+    private static final String RECYCLING_FILE_PREFIX = "recycling.";
+    private static final int CLEAR_BUFFER_SIZE = toIntExact( kibiBytes( 64 ) );
+
     private final TransactionLogFilesContext logFilesContext;
     private final FileSystemAbstraction fileSystem;
     private final TransactionLogFilesHelper fileHelper;
     private final LogHeaderCache logHeaderCache;
     private final ChannelNativeAccessor nativeChannelAccessor;
     private final DatabaseTracer databaseTracer;
+    private final Log log;
+    /**
+     * Number of channels opened by {@link #openLogChannel(long)} that are not yet closed, by log version. A file that is still being
+     * read is never recycled, because clearing it in place would have the reader see zeros instead of the entries it was reading.
+     */
+    private final MutableLongIntMap openReaders = new LongIntHashMap();
 
     public TransactionLogChannelAllocator( TransactionLogFilesContext logFilesContext, TransactionLogFilesHelper fileHelper, LogHeaderCache logHeaderCache,
             ChannelNativeAccessor nativeChannelAccessor )
@@ -57,6 +82,7 @@ public class TransactionLogChannelAllocator
         this.fileHelper = fileHelper;
         this.logHeaderCache = logHeaderCache;
         this.nativeChannelAccessor = nativeChannelAccessor;
+        this.log = logFilesContext.getLogProvider().getLog( getClass() );
     }
 
     public PhysicalLogVersionedStoreChannel createLogChannel( long version, LongSupplier lastCommittedTransactionId ) throws IOException
@@ -95,9 +121,11 @@ public class TransactionLogChannelAllocator
         }
 
         StoreChannel rawChannel = null;
+        // The reader is registered before the file is opened, so that recycling either sees it or the file is already gone by the time it opens
+        registerReader( version );
         try
         {
-            rawChannel = fileSystem.read( fileToOpen );
+            rawChannel = new ReaderChannel( fileSystem.read( fileToOpen ), version );
             try ( var scopedBuffer = new HeapScopedBuffer( CURRENT_FORMAT_LOG_HEADER_SIZE, logFilesContext.getMemoryTracker() ) )
             {
                 var buffer = scopedBuffer.getBuffer();
@@ -116,6 +144,10 @@ public class TransactionLogChannelAllocator
         }
         catch ( NoSuchFileException cause )
         {
+            if ( rawChannel == null )
+            {
+                unregisterReader( version );
+            }
             throw (NoSuchFileException) new NoSuchFileException( fileToOpen.toAbsolutePath().toString() ).initCause( cause );
         }
         catch ( Throwable unexpectedError )
@@ -132,16 +164,149 @@ public class TransactionLogChannelAllocator
                     unexpectedError.addSuppressed( e );
                 }
             }
+            else
+            {
+                unregisterReader( version );
+            }
             throw unexpectedError;
         }
     }
 
+    /**
+     * Recycle the pruned log file of the given version, if recycling is enabled and not enough files have been recycled already.
+     * The content of the file is cleared, while keeping its allocated space, and the file is renamed so that it is no longer part of
+     * the log. Recycled files are then reused by the next log files to be created, see {@link #createLogChannel(long, LongSupplier)}.
+     * A file that is still open for reading, e.g. by a backup or a reverse log reader, is not recycled, since deleting it instead lets the
+     * reader finish reading it.
+     *
+     * @param version version of the pruned log file.
+     * @return {@code true} if the file was recycled, otherwise the caller is expected to delete it.
+     */
+    public boolean recycleLogFile( long version )
+    {
+        if ( !logFilesContext.getConfig().get( recycle_logical_logs ) || fileHelper.getRecycledFiles().length >= MAX_RECYCLED_FILES ||
+             hasReaders( version ) )
+        {
+            return false;
+        }
+
+        Path file = fileHelper.getLogFileForVersion( version );
+        // The file is cleared under an intermediate name, so that a failure half way through never leaves a partially cleared file
+        // that is still part of the log, nor one that looks like it's ready for reuse
+        Path recyclingFile = file.resolveSibling( RECYCLING_FILE_PREFIX + file.getFileName() );
+        try
+        {
+            deleteIncompletelyRecycledFiles( file.getParent() );
+            fileSystem.renameFile( file, recyclingFile, ATOMIC_MOVE );
+            if ( hasReaders( version ) )
+            {
+                // A reader opened the file just before it was renamed, so put it back for the caller to delete
+                fileSystem.renameFile( recyclingFile, file, ATOMIC_MOVE );
+                return false;
+            }
+            clearFile( recyclingFile );
+            fileSystem.renameFile( recyclingFile, fileHelper.getRecycledLogFileForVersion( version ), ATOMIC_MOVE );
+            return true;
+        }
+        catch ( IOException e )
+        {
+            log.warn( "Unable to recycle transaction log version: " + version + ", it will be deleted instead.", e );
+            fileSystem.deleteFile( recyclingFile );
+            return false;
+        }
+    }
+
+    /**
+     * Delete the files left behind by an earlier recycling, if recycling is disabled, so that they don't take up disk space forever.
+     * Files that were only partially recycled are always deleted.
+     */
+    public void deleteUnusedRecycledFiles()
+    {
+        deleteIncompletelyRecycledFiles( fileHelper.getLogFileForVersion( 0 ).getParent() );
+        if ( !logFilesContext.getConfig().get( recycle_logical_logs ) )
+        {
+            for ( Path recycledFile : fileHelper.getRecycledFiles() )
+            {
+                fileSystem.deleteFile( recycledFile );
+            }
+        }
+    }
+
+    private void registerReader( long version )
+    {
+        synchronized ( openReaders )
+        {
+            openReaders.addToValue( version, 1 );
+        }
+    }
+
+    private void unregisterReader( long version )
+    {
+        synchronized ( openReaders )
+        {
+            if ( openReaders.addToValue( version, -1 ) == 0 )
+            {
+                openReaders.remove( version );
+            }
+        }
+    }
+
+    private boolean hasReaders( long version )
+    {
+        synchronized ( openReaders )
+        {
+            return openReaders.containsKey( version );
+        }
+    }
+
+    private void deleteIncompletelyRecycledFiles( Path directory )
+    {
+        for ( Path leftover : fileSystem.listFiles( directory, entry -> entry.getFileName().toString().startsWith( RECYCLING_FILE_PREFIX ) ) )
+        {
+            fileSystem.deleteFile( leftover );
+        }
+    }
+
+    private void clearFile( Path file ) throws IOException
+    {
+        try ( StoreChannel channel = fileSystem.write( file );
+              var scopedBuffer = new HeapScopedBuffer( CLEAR_BUFFER_SIZE, logFilesContext.getMemoryTracker() ) )
+        {
+            ByteBuffer zeros = scopedBuffer.getBuffer();
+            long size = channel.size();
+            for ( long position = 0; position < size; position += CLEAR_BUFFER_SIZE )
+            {
+                zeros.clear().limit( toIntExact( min( CLEAR_BUFFER_SIZE, size - position ) ) );
+                channel.writeAll( zeros, position );
+            }
+            channel.force( false );
+        }
+    }
+
+    private boolean reuseRecycledFile( Path file )
+    {
+        for ( Path recycledFile : fileHelper.getRecycledFiles() )
+        {
+            try
+            {
+                fileSystem.renameFile( recycledFile, file, ATOMIC_MOVE );
+                return true;
+            }
+            catch ( IOException e )
+            {
+                log.warn( "Unable to reuse recycled transaction log file: " + recycledFile + ". Error: " + e );
+            }
+        }
+        return false;
+    }
+
     private AllocatedFile allocateFile( long version ) throws IOException
     {
         Path file = fileHelper.getLogFileForVersion( version );
         boolean fileExist = fileSystem.fileExists( file );
+        boolean recycled = !fileExist && reuseRecycledFile( file );
         StoreChannel storeChannel = fileSystem.write( file );
-        if ( fileExist )
+        if ( fileExist || recycled )
         {
             nativeChannelAccessor.adviseSequentialAccessAndKeepInCache( storeChannel, version );
         }
@@ -152,6 +317,35 @@ public class TransactionLogChannelAllocator
         return new AllocatedFile( file, storeChannel );
     }
 
+    private class ReaderChannel extends DelegatingStoreChannel<StoreChannel>
+    {
+        private final long version;
+        private boolean closed;
+
+        ReaderChannel( StoreChannel delegate, long version )
+        {
+            super( delegate );
+            this.version = version;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            try
+            {
+                super.close();
+            }
+            finally
+            {
+                if ( !closed )
+                {
+                    closed = true;
+                    unregisterReader( version );
+                }
+            }
+        }
+    }
+
     private static class AllocatedFile
     {
         private final Path path;
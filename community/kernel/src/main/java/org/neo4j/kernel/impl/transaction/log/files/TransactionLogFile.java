@@ -65,6 +65,7 @@ import org.neo4j.storageengine.api.LogVersionRepository;
 
 import static java.lang.Math.min;
 import static java.lang.Runtime.getRuntime;
+import static org.neo4j.configuration.GraphDatabaseSettings.compress_logical_logs;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogHeaderReader.readLogHeader;
 
 /**
@@ -117,6 +118,7 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile
     @Override
     public void start() throws IOException
     {
+        channelAllocator.deleteUnusedRecycledFiles();
         long currentLogVersion = logVersionRepository.getCurrentLogVersion();
         channel = createLogChannelForVersion( currentLogVersion, context::getLastCommittedTransactionId );
 
@@ -124,7 +126,9 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile
         seekChannelPosition( currentLogVersion );
 
         writer = new PositionAwarePhysicalFlushableChecksumChannel( channel, new NativeScopedBuffer( calculateLogBufferSize(), memoryTracker ) );
-        transactionLogWriter = new TransactionLogWriter( writer, new DbmsLogEntryWriterFactory( context.getTransactionLogVersionProvider() ) );
+        DbmsLogEntryWriterFactory logEntryWriterFactory =
+                new DbmsLogEntryWriterFactory( context.getTransactionLogVersionProvider(), () -> context.getConfig().get( compress_logical_logs ) );
+        transactionLogWriter = new TransactionLogWriter( writer, logEntryWriterFactory, memoryTracker );
     }
 
     // In order to be able to write into a logfile after life.stop during shutdown sequence
@@ -133,7 +137,7 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile
     @Override
     public void shutdown() throws IOException
     {
-        IOUtils.closeAll( writer );
+        IOUtils.closeAll( writer, transactionLogWriter );
     }
 
     @Override
@@ -233,6 +237,12 @@ public class TransactionLogFile extends LifecycleAdapter implements LogFile
         return fileHelper.getLogFileForVersion( version );
     }
 
+    @Override
+    public boolean recycleLogFile( long version )
+    {
+        return channelAllocator.recycleLogFile( version );
+    }
+
     @Override
     public Path getHighestLogFile()
     {
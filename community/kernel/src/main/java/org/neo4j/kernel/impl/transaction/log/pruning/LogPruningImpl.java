@@ -26,6 +26,7 @@ import java.util.function.LongConsumer;
 
 import org.neo4j.configuration.Config;
 import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.kernel.impl.transaction.log.files.LogFile;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 import org.neo4j.logging.Log;
 import org.neo4j.logging.LogProvider;
@@ -139,6 +140,7 @@ public class LogPruningImpl implements LogPruning
         private final FileSystemAbstraction fs;
         private long fromVersion;
         private long toVersion;
+        private int recycled;
 
         private CountingDeleter( LogFiles logFiles, FileSystemAbstraction fs )
         {
@@ -153,8 +155,15 @@ public class LogPruningImpl implements LogPruning
         {
             fromVersion = fromVersion == NO_VERSION ? version : Math.min( fromVersion, version );
             toVersion = toVersion == NO_VERSION ? version : Math.max( toVersion, version );
-            Path logFile = logFiles.getLogFile().getLogFileForVersion( version );
-            fs.deleteFile( logFile );
+            LogFile logFile = logFiles.getLogFile();
+            if ( logFile.recycleLogFile( version ) )
+            {
+                recycled++;
+            }
+            else
+            {
+                fs.deleteFile( logFile.getLogFileForVersion( version ) );
+            }
         }
 
         String describeResult( LogPruneStrategy strategy )
@@ -162,7 +171,8 @@ public class LogPruningImpl implements LogPruning
             String pruned = fromVersion == NO_VERSION ? "No log version pruned" :
                             fromVersion == toVersion ? "Pruned log version " + fromVersion :
                             "Pruned log versions " + fromVersion + " through " + toVersion;
-            return pruned + ". The strategy used was '" + strategy + "'. ";
+            String recycledFiles = recycled == 0 ? "" : ", of which " + recycled + " recycled";
+            return pruned + recycledFiles + ". The strategy used was '" + strategy + "'. ";
         }
     }
 }
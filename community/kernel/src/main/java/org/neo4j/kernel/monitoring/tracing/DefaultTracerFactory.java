@@ -22,6 +22,8 @@ package org.neo4j.kernel.monitoring.tracing;
 import java.time.Clock;
 
 import org.neo4j.annotations.service.ServiceProvider;
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseSettings;
 import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.kernel.impl.api.tracer.DefaultTracer;
@@ -49,6 +51,12 @@ public class DefaultTracerFactory implements TracerFactory
         return new DefaultPageCacheTracer();
     }
 
+    @Override
+    public PageCacheTracer createPageCacheTracer( Monitors monitors, JobScheduler jobScheduler, SystemNanoClock clock, Log log, Config config )
+    {
+        return new DefaultPageCacheTracer( config.get( GraphDatabaseSettings.pagecache_per_file_metrics ) );
+    }
+
     @Override
     public DatabaseTracer createDatabaseTracer( Clock clock )
     {
@@ -22,6 +22,7 @@ package org.neo4j.kernel.monitoring.tracing;
 import java.time.Clock;
 
 import org.neo4j.annotations.service.Service;
+import org.neo4j.configuration.Config;
 import org.neo4j.configuration.GraphDatabaseInternalSettings;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.kernel.impl.transaction.tracing.DatabaseTracer;
@@ -51,6 +52,21 @@ public interface TracerFactory extends NamedService
      */
     PageCacheTracer createPageCacheTracer( Monitors monitors, JobScheduler jobScheduler, SystemNanoClock clock, Log log );
 
+    /**
+     * Create a new PageCacheTracer instance, that may take the given configuration into account.
+     *
+     * @param monitors the monitoring manager
+     * @param jobScheduler a scheduler for async jobs
+     * @param clock system nano clock
+     * @param log log
+     * @param config the configuration of the database management system
+     * @return The created instance.
+     */
+    default PageCacheTracer createPageCacheTracer( Monitors monitors, JobScheduler jobScheduler, SystemNanoClock clock, Log log, Config config )
+    {
+        return createPageCacheTracer( monitors, jobScheduler, clock, log );
+    }
+
     /**
      * Create a new DatabaseTracer instance.
      *
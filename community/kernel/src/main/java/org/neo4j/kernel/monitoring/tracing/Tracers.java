@@ -19,6 +19,7 @@
  */
 package org.neo4j.kernel.monitoring.tracing;
 
+import org.neo4j.configuration.Config;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.kernel.impl.transaction.tracing.DatabaseTracer;
 import org.neo4j.lock.LockTracer;
@@ -117,10 +118,21 @@ public class Tracers
      */
     public Tracers( String desiredImplementationName, Log msgLog, Monitors monitors, JobScheduler jobScheduler,
             SystemNanoClock clock )
+    {
+        this( desiredImplementationName, msgLog, monitors, jobScheduler, clock, Config.defaults() );
+    }
+
+    /**
+     * Create a Tracers subsystem with the desired implementation, configured by the given {@link Config}.
+     *
+     * @see #Tracers(String, Log, Monitors, JobScheduler, SystemNanoClock)
+     */
+    public Tracers( String desiredImplementationName, Log msgLog, Monitors monitors, JobScheduler jobScheduler,
+            SystemNanoClock clock, Config config )
     {
         this.clock = clock;
         this.tracersFactory = createTracersFactory( desiredImplementationName, msgLog );
-        this.pageCacheTracer = tracersFactory.createPageCacheTracer( monitors, jobScheduler, clock, msgLog );
+        this.pageCacheTracer = tracersFactory.createPageCacheTracer( monitors, jobScheduler, clock, msgLog, config );
     }
 
     public PageCacheTracer getPageCacheTracer()
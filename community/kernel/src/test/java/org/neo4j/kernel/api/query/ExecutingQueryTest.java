@@ -44,6 +44,7 @@ import static java.util.Collections.emptyList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.neo4j.graphdb.QueryExecutionType.QueryType.READ_ONLY;
@@ -343,6 +344,22 @@ class ExecutingQueryTest
         assertEquals( "parsing", query.snapshot().status() );
     }
 
+    @Test
+    void shouldForgetProfilingRequestOnRetry()
+    {
+        query.requestProfiling();
+        query.onObfuscatorReady( null );
+        query.onCompilationCompleted( null, null, null );
+        query.onProfilingStarted( () -> null );
+        query.onExecutionStarted( new FakeMemoryTracker() );
+        assertTrue( query.isProfilingRequested() );
+
+        query.onRetryAttempted();
+
+        assertFalse( query.isProfilingRequested() );
+        assertTrue( query.profiledPlanDescription().isEmpty() );
+    }
+
     @Test
     void shouldNotAllowRetryingWithoutStartingExecuting()
     {
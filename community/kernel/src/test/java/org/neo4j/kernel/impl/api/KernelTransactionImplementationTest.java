@@ -690,6 +690,16 @@ class KernelTransactionImplementationTest extends KernelTransactionTestBase
         assertEquals( 0, transaction.getStatistics().getWaitingTimeNanos( 0 ) );
     }
 
+    @Test
+    void releaseCommandCreationContextOnClose() throws TransactionFailureException
+    {
+        KernelTransactionImplementation transaction = newTransaction( 1000 );
+        verify( commandCreationContext, never() ).release();
+        transaction.close();
+        verify( commandCreationContext ).release();
+        verify( commandCreationContext, never() ).close();
+    }
+
     @Test
     void reportTransactionStatistics()
     {
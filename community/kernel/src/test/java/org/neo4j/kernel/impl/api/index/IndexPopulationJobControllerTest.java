@@ -21,11 +21,19 @@ package org.neo4j.kernel.impl.api.index;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.test.OnDemandJobScheduler;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.neo4j.common.EntityType.NODE;
+import static org.neo4j.common.EntityType.RELATIONSHIP;
+import static org.neo4j.common.Subject.SYSTEM;
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
 
 class IndexPopulationJobControllerTest
 {
@@ -75,6 +83,25 @@ class IndexPopulationJobControllerTest
         verify( populationJob ).run();
     }
 
+    @Test
+    void addPopulatorsToCompatiblePopulationJobUntilItStarts()
+    {
+        IndexPopulationJob populationJob = new IndexPopulationJob( mock( MultipleIndexPopulator.class ), IndexingService.NO_MONITOR, false,
+                PageCacheTracer.NULL, INSTANCE, "db", SYSTEM, NODE );
+        jobController.startIndexPopulation( populationJob );
+        List<IndexPopulationJob> joined = new ArrayList<>();
+
+        assertThat( jobController.addToPendingPopulation( NODE, false, SYSTEM, joined::add ) ).isTrue();
+        assertThat( jobController.addToPendingPopulation( RELATIONSHIP, false, SYSTEM, joined::add ) ).isFalse();
+        assertThat( jobController.addToPendingPopulation( NODE, true, SYSTEM, joined::add ) ).isFalse();
+        assertThat( joined ).containsExactly( populationJob );
+
+        executer.runJob();
+
+        assertThat( jobController.addToPendingPopulation( NODE, false, SYSTEM, joined::add ) ).isFalse();
+        assertThat( joined ).containsExactly( populationJob );
+    }
+
     private IndexPopulationJob getIndexPopulationJob()
     {
         return mock( IndexPopulationJob.class );
@@ -31,13 +31,17 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.neo4j.index.internal.gbptree.SimpleLongLayout;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.memory.HeapScopedBuffer;
+import org.neo4j.io.memory.ScopedBuffer;
 import org.neo4j.test.Barrier;
 import org.neo4j.test.OtherThreadExecutor;
 import org.neo4j.test.extension.Inject;
@@ -229,6 +233,55 @@ class BlockStorageTest
         }
     }
 
+    @Test
+    void shouldMergeMultipleBlocksWithMergesOfEachIterationInParallel() throws Exception
+    {
+        // given
+        TrackingMonitor monitor = new TrackingMonitor();
+        int blockSize = 1_000;
+        ExecutorService executor = Executors.newFixedThreadPool( 4 );
+        try ( BlockStorage<MutableLong,MutableLong> storage = new BlockStorage<>( layout, heapBufferFactory( blockSize ), fileSystem, file, monitor,
+                INSTANCE ) )
+        {
+            int numberOfBlocks = random.nextInt( 100 ) + 2;
+            List<List<BlockEntry<MutableLong,MutableLong>>> expectedBlocks = addACoupleOfBlocksOfEntries( monitor, storage, numberOfBlocks );
+            storage.doneAdding();
+
+            // when
+            int mergeFactor = randomMergeFactor();
+            storage.startMerge( mergeFactor );
+            try
+            {
+                while ( storage.needsMergeIteration() )
+                {
+                    List<BlockStorage<MutableLong,MutableLong>.SingleMerge> merges = storage.nextMergeIteration( mergeFactor, NOT_CANCELLABLE );
+                    List<Callable<Void>> mergeTasks = new ArrayList<>();
+                    for ( BlockStorage<MutableLong,MutableLong>.SingleMerge merge : merges )
+                    {
+                        mergeTasks.add( () -> merge( merge, mergeFactor, blockSize ) );
+                    }
+                    for ( Future<Void> future : executor.invokeAll( mergeTasks ) )
+                    {
+                        future.get();
+                    }
+                    storage.mergeIterationCompleted( merges );
+                }
+            }
+            finally
+            {
+                storage.completeMerge();
+            }
+
+            // then
+            assertContents( layout, storage, asOneBigBlock( expectedBlocks ) );
+            assertEquals( 1, fileSystem.listFiles( directory.homePath() ).length, "Expected only a single file to exist after merge." );
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
     @Test
     void shouldOnlyLeaveSingleFileAfterMerge() throws IOException
     {
@@ -354,6 +407,17 @@ class BlockStorageTest
         return random.nextInt( 2, 8 );
     }
 
+    private static Void merge( BlockStorage<MutableLong,MutableLong>.SingleMerge merge, int mergeFactor, int bufferSize ) throws IOException
+    {
+        ScopedBuffer[] readBuffers = new ScopedBuffer[mergeFactor];
+        for ( int i = 0; i < mergeFactor; i++ )
+        {
+            readBuffers[i] = new HeapScopedBuffer( bufferSize, INSTANCE );
+        }
+        merge.merge( readBuffers, new HeapScopedBuffer( bufferSize, INSTANCE ).getBuffer() );
+        return null;
+    }
+
     private List<BlockEntry<MutableLong,MutableLong>> addEntries( BlockStorage<MutableLong,MutableLong> storage, int numberOfEntries ) throws IOException
     {
         MutableLongSet uniqueKeys = LongSets.mutable.empty();
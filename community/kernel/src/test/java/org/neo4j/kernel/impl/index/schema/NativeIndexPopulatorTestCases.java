@@ -25,6 +25,7 @@ import org.neo4j.common.TokenNameLookup;
 import org.neo4j.configuration.Config;
 import org.neo4j.gis.spatial.index.curves.StandardConfiguration;
 import org.neo4j.internal.schema.IndexDescriptor;
+import org.neo4j.kernel.impl.api.index.IndexSamplingConfig;
 import org.neo4j.kernel.impl.index.schema.config.IndexSpecificSpaceFillingCurveSettings;
 
 import static org.neo4j.io.memory.ByteBufferFactory.heapBufferFactory;
@@ -40,7 +41,7 @@ class NativeIndexPopulatorTestCases
     {
         return ( nativeIndexContext, storeFile, layout, descriptor, tokenNameLookup ) ->
                 new GenericBlockBasedIndexPopulator( nativeIndexContext, storeFile, layout, descriptor, spaceFillingCurveSettings, configuration, false,
-                        heapBufferFactory( 10 * 1024 ), INSTANCE, tokenNameLookup );
+                        heapBufferFactory( 10 * 1024 ), INSTANCE, tokenNameLookup, new IndexSamplingConfig( Config.defaults() ) );
     }
 
     @FunctionalInterface
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Random;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.index.internal.gbptree.Writer;
+import org.neo4j.internal.schema.IndexDescriptor;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.kernel.api.index.IndexSample;
+import org.neo4j.kernel.impl.index.schema.config.IndexSpecificSpaceFillingCurveSettings;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.withinPercentage;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.neo4j.internal.schema.IndexPrototype.forSchema;
+import static org.neo4j.internal.schema.SchemaDescriptor.forLabel;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.kernel.impl.index.schema.NativeIndexKey.Inclusion.NEUTRAL;
+import static org.neo4j.kernel.impl.index.schema.ValueCreatorUtil.FRACTION_DUPLICATE_NON_UNIQUE;
+import static org.neo4j.values.storable.RandomValues.typesOfGroup;
+import static org.neo4j.values.storable.ValueGroup.NUMBER;
+
+class PartitionedScanNonUniqueIndexSamplerTest extends NativeIndexTestUtil<GenericKey,NativeIndexValue>
+{
+    private static final IndexSpecificSpaceFillingCurveSettings specificSettings = IndexSpecificSpaceFillingCurveSettings.fromConfig( Config.defaults() );
+    private static final int ENTRIES = 10_000;
+    private static final int DISTINCT_VALUES = 100;
+
+    @Test
+    void shouldIncludeAllValuesInTreeWhenBelowSampleSizeLimit() throws Exception
+    {
+        // GIVEN
+        buildTree();
+
+        // WHEN
+        IndexSample sample;
+        try ( GBPTree<GenericKey,NativeIndexValue> gbpTree = getTree() )
+        {
+            sample = new PartitionedScanNonUniqueIndexSampler<>( gbpTree, layout, ENTRIES ).sample( NULL );
+        }
+
+        // THEN values spanning several partitions are still only counted once
+        assertEquals( ENTRIES, sample.sampleSize() );
+        assertEquals( DISTINCT_VALUES, sample.uniqueValues() );
+        assertEquals( ENTRIES, sample.indexSize() );
+    }
+
+    @Test
+    void shouldSampleSubsetOfPartitionsWhenAboveSampleSizeLimit() throws Exception
+    {
+        // GIVEN
+        buildTree();
+
+        // WHEN
+        IndexSample sample;
+        try ( GBPTree<GenericKey,NativeIndexValue> gbpTree = getTree() )
+        {
+            sample = new PartitionedScanNonUniqueIndexSampler<>( gbpTree, layout, ENTRIES / 10, 32, new Random( random.seed() ) ).sample( NULL );
+        }
+
+        // THEN
+        assertThat( sample.sampleSize() ).isGreaterThanOrEqualTo( ENTRIES / 10 ).isLessThan( ENTRIES );
+        assertThat( sample.uniqueValues() ).isPositive().isLessThan( DISTINCT_VALUES );
+        assertThat( sample.indexSize() ).isBetween( ENTRIES / 2L, ENTRIES * 2L );
+    }
+
+    @Test
+    void shouldEstimateIndexSizeFromPartitionsOfDifferentSizes() throws Exception
+    {
+        // GIVEN a tree where the leaves of the upper half of the keys are mostly emptied
+        buildTree();
+        long removed = 0;
+        try ( GBPTree<GenericKey,NativeIndexValue> gbpTree = getTree() )
+        {
+            try ( Writer<GenericKey,NativeIndexValue> writer = gbpTree.writer( NULL ) )
+            {
+                GenericKey key = layout.newKey();
+                for ( long nodeId = ENTRIES / 2; nodeId < ENTRIES; nodeId++ )
+                {
+                    if ( nodeId % 10 != 0 )
+                    {
+                        initializeKey( key, nodeId );
+                        writer.remove( key );
+                        removed++;
+                    }
+                }
+            }
+            gbpTree.checkpoint( IOLimiter.UNLIMITED, NULL );
+        }
+
+        // WHEN
+        IndexSample sample;
+        try ( GBPTree<GenericKey,NativeIndexValue> gbpTree = getTree() )
+        {
+            sample = new PartitionedScanNonUniqueIndexSampler<>( gbpTree, layout, ENTRIES / 10, 32, new Random( random.seed() ) ).sample( NULL );
+        }
+
+        // THEN
+        assertThat( sample.sampleSize() ).isLessThan( ENTRIES - removed );
+        assertThat( sample.indexSize() ).isCloseTo( ENTRIES - removed, withinPercentage( 10 ) );
+    }
+
+    @Test
+    void shouldSampleEmptyTree() throws Exception
+    {
+        // GIVEN
+        try ( GBPTree<GenericKey,NativeIndexValue> gbpTree = getTree() )
+        {
+            // WHEN
+            IndexSample sample = new PartitionedScanNonUniqueIndexSampler<>( gbpTree, layout, ENTRIES ).sample( NULL );
+
+            // THEN
+            assertEquals( 0, sample.sampleSize() );
+            assertEquals( 0, sample.uniqueValues() );
+            assertEquals( 0, sample.indexSize() );
+        }
+    }
+
+    private void buildTree() throws IOException
+    {
+        try ( GBPTree<GenericKey,NativeIndexValue> gbpTree = getTree() )
+        {
+            try ( Writer<GenericKey,NativeIndexValue> writer = gbpTree.writer( NULL ) )
+            {
+                GenericKey key = layout.newKey();
+                NativeIndexValue value = layout.newValue();
+                for ( long nodeId = 0; nodeId < ENTRIES; nodeId++ )
+                {
+                    value.from( initializeKey( key, nodeId ) );
+                    writer.put( key, value );
+                }
+            }
+            gbpTree.checkpoint( IOLimiter.UNLIMITED, NULL );
+        }
+    }
+
+    private static Value initializeKey( GenericKey key, long nodeId )
+    {
+        Value number = Values.intValue( (int) (nodeId % DISTINCT_VALUES) );
+        key.initialize( nodeId );
+        key.initFromValue( 0, number, NEUTRAL );
+        return number;
+    }
+
+    @Override
+    protected ValueCreatorUtil<GenericKey,NativeIndexValue> createValueCreatorUtil()
+    {
+        IndexDescriptor index = forSchema( forLabel( 42, 666 ) ).withName( "index" ).materialise( 0 );
+        return new ValueCreatorUtil<>( index, typesOfGroup( NUMBER ), FRACTION_DUPLICATE_NON_UNIQUE );
+    }
+
+    @Override
+    IndexLayout<GenericKey,NativeIndexValue> createLayout()
+    {
+        return new GenericLayout( 1, specificSettings );
+    }
+}
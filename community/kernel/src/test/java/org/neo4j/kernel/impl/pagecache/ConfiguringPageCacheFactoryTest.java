@@ -24,6 +24,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
+import java.util.Map;
+
 import org.neo4j.configuration.Config;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.pagecache.PageCache;
@@ -39,7 +41,9 @@ import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
 import org.neo4j.time.Clocks;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_huge_pages;
 import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_memory;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_numa_aware;
 
 @ExtendWith( EphemeralFileSystemExtension.class )
 class ConfiguringPageCacheFactoryTest
@@ -81,4 +85,48 @@ class ConfiguringPageCacheFactoryTest
             assertThat( cache.maxCachedPages() ).isEqualTo( pageCount );
         }
     }
+
+    @Test
+    void shouldFitAsManyPagesAsItCanWithHugePages()
+    {
+        // Given
+        long pageCount = 600;
+        long memory = MuninnPageCache.memoryRequiredForPages( pageCount );
+        Config config = Config.defaults( Map.of(
+                pagecache_memory, Long.toString( memory ),
+                pagecache_huge_pages, true ) );
+
+        // When
+        ConfiguringPageCacheFactory factory = new ConfiguringPageCacheFactory(
+            fs, config, PageCacheTracer.NULL, NullLog.getInstance(), EmptyVersionContextSupplier.EMPTY, jobScheduler, Clocks.nanoClock(), new MemoryPools() );
+
+        // Then
+        try ( PageCache cache = factory.getOrCreatePageCache() )
+        {
+            assertThat( cache.pageSize() ).isEqualTo( PageCache.PAGE_SIZE );
+            assertThat( cache.maxCachedPages() ).isEqualTo( pageCount );
+        }
+    }
+
+    @Test
+    void shouldFitAsManyPagesAsItCanWhenNumaAware()
+    {
+        // Given
+        long pageCount = 4096;
+        long memory = MuninnPageCache.memoryRequiredForPages( pageCount );
+        Config config = Config.defaults( Map.of(
+                pagecache_memory, Long.toString( memory ),
+                pagecache_numa_aware, true ) );
+
+        // When
+        ConfiguringPageCacheFactory factory = new ConfiguringPageCacheFactory(
+            fs, config, PageCacheTracer.NULL, NullLog.getInstance(), EmptyVersionContextSupplier.EMPTY, jobScheduler, Clocks.nanoClock(), new MemoryPools() );
+
+        // Then
+        try ( PageCache cache = factory.getOrCreatePageCache() )
+        {
+            assertThat( cache.pageSize() ).isEqualTo( PageCache.PAGE_SIZE );
+            assertThat( cache.maxCachedPages() ).isEqualTo( pageCount );
+        }
+    }
 }
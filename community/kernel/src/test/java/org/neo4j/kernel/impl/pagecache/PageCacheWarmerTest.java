@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.muninn.StandalonePageCacheFactory;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.impl.scheduler.JobSchedulerFactory;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.testdirectory.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static org.eclipse.collections.api.factory.Sets.immutable;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_enabled;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_prefetch;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_prefetch_allowlist;
+import static org.neo4j.io.pagecache.PageCursor.UNBOUND_PAGE_ID;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+
+@TestDirectoryExtension
+class PageCacheWarmerTest
+{
+    private static final int PAGE_SIZE = 8192;
+    private static final int NUMBER_OF_PAGES = 100;
+
+    @Inject
+    private TestDirectory testDirectory;
+
+    private FileSystemAbstraction fs;
+    private JobScheduler jobScheduler;
+    private Path databaseDirectory;
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        fs = new DefaultFileSystemAbstraction();
+        jobScheduler = JobSchedulerFactory.createInitialisedScheduler();
+        databaseDirectory = testDirectory.homePath().resolve( "db" ).normalize();
+        file = databaseDirectory.resolve( "store" );
+        fs.mkdirs( databaseDirectory );
+        try ( PageCache pageCache = pageCache();
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, immutable.of( CREATE ) );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, PageCursorTracer.NULL ) )
+        {
+            for ( int i = 0; i < NUMBER_OF_PAGES; i++ )
+            {
+                cursor.next( i );
+                cursor.putLong( i );
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        jobScheduler.close();
+        fs.close();
+    }
+
+    @Test
+    void shouldReloadProfiledPages() throws Exception
+    {
+        // given
+        try ( PageCache pageCache = pageCache();
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE ) )
+        {
+            touch( pagedFile, 3, 10, 64, 99 );
+            PageCacheWarmer warmer = warmer( pageCache, Config.defaults() );
+            warmer.writeProfile( warmer.profile() );
+        }
+
+        try ( PageCache pageCache = pageCache();
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE ) )
+        {
+            assertThat( residentPages( pagedFile ) ).isEmpty();
+
+            // when
+            long loadedPages = warmer( pageCache, Config.defaults() ).warmUp();
+
+            // then
+            assertThat( loadedPages ).isEqualTo( 4 );
+            assertThat( residentPages( pagedFile ) ).containsExactly( 3L, 10L, 64L, 99L );
+        }
+    }
+
+    @Test
+    void shouldPreloadAllPagesIfPrefetchIsEnabled() throws Exception
+    {
+        try ( PageCache pageCache = pageCache();
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE ) )
+        {
+            // when
+            long loadedPages = warmer( pageCache, Config.defaults( pagecache_warmup_prefetch, true ) ).warmUp();
+
+            // then
+            assertThat( loadedPages ).isEqualTo( NUMBER_OF_PAGES );
+            assertThat( residentPages( pagedFile ) ).hasSize( NUMBER_OF_PAGES );
+        }
+    }
+
+    @Test
+    void shouldNotPreloadFilesOutsideOfAllowlist() throws Exception
+    {
+        try ( PageCache pageCache = pageCache();
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE ) )
+        {
+            // when
+            Config config = Config.defaults( Map.of( pagecache_warmup_prefetch, true, pagecache_warmup_prefetch_allowlist, "other.*" ) );
+            long loadedPages = warmer( pageCache, config ).warmUp();
+
+            // then
+            assertThat( loadedPages ).isZero();
+            assertThat( residentPages( pagedFile ) ).isEmpty();
+        }
+    }
+
+    @Test
+    void shouldDoNothingIfDisabled() throws IOException
+    {
+        try ( PageCache pageCache = pageCache();
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE ) )
+        {
+            // when
+            PageCacheWarmer warmer = warmer( pageCache, Config.defaults( pagecache_warmup_enabled, false ) );
+            warmer.start();
+            touch( pagedFile, 1 );
+            warmer.stop();
+
+            // then
+            assertThat( fs.fileExists( databaseDirectory.resolve( PageCacheWarmer.PROFILE_FILE_NAME ) ) ).isFalse();
+        }
+    }
+
+    @Test
+    void shouldWriteAndReadProfile() throws Exception
+    {
+        try ( PageCache pageCache = pageCache();
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE ) )
+        {
+            // given
+            PageCacheWarmer warmer = warmer( pageCache, Config.defaults() );
+            touch( pagedFile, 0, 63, 65 );
+
+            // when
+            warmer.writeProfile( warmer.profile() );
+
+            // then
+            long[] pages = warmer.readProfile().get( Path.of( "store" ) );
+            assertThat( pages ).containsExactly( 1L | 1L << 63, 1L << 1 );
+        }
+    }
+
+    private PageCache pageCache()
+    {
+        return StandalonePageCacheFactory.createPageCache( fs, jobScheduler, PageCacheTracer.NULL );
+    }
+
+    private PageCacheWarmer warmer( PageCache pageCache, Config config )
+    {
+        return new PageCacheWarmer( fs, pageCache, jobScheduler, databaseDirectory, "db", config, PageCacheTracer.NULL, NullLogProvider.getInstance() );
+    }
+
+    private static void touch( PagedFile pagedFile, long... pageIds ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, PageCursorTracer.NULL ) )
+        {
+            for ( long pageId : pageIds )
+            {
+                assertThat( cursor.next( pageId ) ).isTrue();
+            }
+        }
+    }
+
+    private static List<Long> residentPages( PagedFile pagedFile ) throws IOException
+    {
+        List<Long> pages = new ArrayList<>();
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT, PageCursorTracer.NULL ) )
+        {
+            for ( long pageId = 0; pageId < NUMBER_OF_PAGES; pageId++ )
+            {
+                assertThat( cursor.next( pageId ) ).isTrue();
+                if ( cursor.getCurrentPageId() != UNBOUND_PAGE_ID )
+                {
+                    pages.add( pageId );
+                }
+            }
+        }
+        return pages;
+    }
+}
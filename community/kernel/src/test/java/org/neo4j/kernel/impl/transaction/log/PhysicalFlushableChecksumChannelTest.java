@@ -36,6 +36,7 @@ import org.neo4j.test.extension.Inject;
 import org.neo4j.test.extension.testdirectory.TestDirectoryExtension;
 import org.neo4j.test.rule.TestDirectory;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.neo4j.io.fs.ChecksumWriter.CHECKSUM_FACTORY;
 import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
@@ -110,4 +111,43 @@ class PhysicalFlushableChecksumChannelTest
         assertEquals( 10, buffer.get() );
         assertEquals( checksum.getValue(), buffer.getInt() );
     }
+
+    @Test
+    void checksumShouldCoverBytesWrittenInBulkAcrossBufferBoundaries() throws IOException
+    {
+        final Path firstFile = directory.homePath().resolve( "file1" );
+        StoreChannel storeChannel = fileSystem.write( firstFile );
+        byte[] data = new byte[250];
+        for ( int i = 0; i < data.length; i++ )
+        {
+            data[i] = (byte) i;
+        }
+        int channelChecksum;
+        try ( PhysicalFlushableChecksumChannel channel = new PhysicalFlushableChecksumChannel( storeChannel, new HeapScopedBuffer( 100, INSTANCE ) ) )
+        {
+            channel.put( (byte) 5 );
+            channel.beginChecksum();
+            channel.putAll( ByteBuffer.wrap( data ) );
+            channelChecksum = channel.putChecksum();
+        }
+
+        int fileSize = (int) fileSystem.getFileSize( firstFile );
+        assertEquals( Byte.BYTES + data.length + Integer.BYTES, fileSize );
+        byte[] writtenBytes = new byte[fileSize];
+        try ( InputStream in = Files.newInputStream( firstFile ) )
+        {
+            in.read( writtenBytes );
+        }
+        ByteBuffer buffer = ByteBuffer.wrap( writtenBytes );
+
+        Checksum checksum = CHECKSUM_FACTORY.get();
+        checksum.update( data, 0, data.length );
+
+        assertEquals( (int) checksum.getValue(), channelChecksum );
+        assertEquals( 5, buffer.get() );
+        byte[] writtenData = new byte[data.length];
+        buffer.get( writtenData );
+        assertArrayEquals( data, writtenData );
+        assertEquals( (int) checksum.getValue(), buffer.getInt() );
+    }
 }
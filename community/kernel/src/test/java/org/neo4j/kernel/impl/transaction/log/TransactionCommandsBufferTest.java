@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.neo4j.memory.LocalMemoryTracker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.neo4j.kernel.impl.transaction.log.TransactionCommandsBuffer.INITIAL_CAPACITY;
+import static org.neo4j.kernel.impl.transaction.log.TransactionCommandsBuffer.MAX_RETAINED_CAPACITY;
+
+class TransactionCommandsBufferTest
+{
+    private final LocalMemoryTracker memoryTracker = new LocalMemoryTracker();
+
+    @Test
+    void shouldGrowWhileKeepingWrittenContent() throws IOException
+    {
+        try ( TransactionCommandsBuffer buffer = new TransactionCommandsBuffer( memoryTracker ) )
+        {
+            buffer.putLong( 1 ).putInt( 2 ).put( (byte) 3 );
+            buffer.put( new byte[INITIAL_CAPACITY * 3], INITIAL_CAPACITY * 3 );
+            buffer.putShort( (short) 4 );
+
+            ByteBuffer written = ByteBuffer.allocate( buffer.size() );
+            InMemoryClosableChannel channel = new InMemoryClosableChannel( buffer.size() );
+            buffer.writeTo( channel );
+            channel.get( written.array(), written.capacity() );
+
+            assertEquals( Long.BYTES + Integer.BYTES + Byte.BYTES + INITIAL_CAPACITY * 3 + Short.BYTES, buffer.size() );
+            assertEquals( 1, written.getLong() );
+            assertEquals( 2, written.getInt() );
+            assertEquals( 3, written.get() );
+            assertEquals( 4, written.getShort( written.capacity() - Short.BYTES ) );
+        }
+        assertEquals( 0, memoryTracker.usedNativeMemory() );
+    }
+
+    @Test
+    void shouldReleaseExcessMemoryOnClear()
+    {
+        try ( TransactionCommandsBuffer buffer = new TransactionCommandsBuffer( memoryTracker ) )
+        {
+            buffer.put( new byte[MAX_RETAINED_CAPACITY * 2], MAX_RETAINED_CAPACITY * 2 );
+            assertEquals( MAX_RETAINED_CAPACITY * 2, memoryTracker.usedNativeMemory() );
+
+            buffer.clear();
+            assertEquals( 0, buffer.size() );
+            assertEquals( INITIAL_CAPACITY, memoryTracker.usedNativeMemory() );
+        }
+        assertEquals( 0, memoryTracker.usedNativeMemory() );
+    }
+}
@@ -34,6 +34,8 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Stream;
 
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseSettings;
 import org.neo4j.internal.nativeimpl.NativeAccess;
 import org.neo4j.internal.nativeimpl.NativeCallResult;
 import org.neo4j.io.ByteUnit;
@@ -66,6 +68,8 @@ import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -246,6 +250,97 @@ class TransactionLogFileTest
         }
     }
 
+    @Test
+    void shouldRecyclePrunedLogFileAndReuseItOnRotation() throws Exception
+    {
+        LogFiles logFiles = buildLogFiles( Config.defaults( GraphDatabaseSettings.recycle_logical_logs, true ) );
+        life.start();
+        life.add( logFiles );
+
+        LogFile logFile = logFiles.getLogFile();
+        var writer = logFile.getTransactionLogWriter().getChannel();
+        byte[] someBytes = someBytes( 1000 );
+        writer.put( someBytes, someBytes.length );
+        logFile.rotate();
+        Path prunedFile = logFile.getLogFileForVersion( 1 );
+        long prunedFileSize = fileSystem.getFileSize( prunedFile );
+
+        assertTrue( logFile.recycleLogFile( 1 ) );
+        assertFalse( fileSystem.fileExists( prunedFile ) );
+        assertThat( logFile.getLowestLogVersion() ).isEqualTo( 2 );
+
+        Path rotatedTo = logFile.rotate();
+        assertEquals( logFile.getLogFileForVersion( 3 ), rotatedTo );
+        assertEquals( prunedFileSize, fileSystem.getFileSize( rotatedTo ) );
+        assertEquals( 3, logFile.extractHeader( 3 ).getLogVersion() );
+        try ( StoreChannel channel = fileSystem.read( rotatedTo ) )
+        {
+            ByteBuffer content = ByteBuffer.allocate( someBytes.length );
+            channel.position( CURRENT_FORMAT_LOG_HEADER_SIZE );
+            channel.read( content );
+            assertArrayEquals( new byte[someBytes.length], content.array() );
+        }
+        try ( ReadableLogChannel reader = logFile.getReader( logFile.extractHeader( 3 ).getStartPosition() ) )
+        {
+            assertNull( logEntryReader().readLogEntry( reader ) );
+        }
+    }
+
+    @Test
+    void shouldNotRecyclePrunedLogFileThatIsStillBeingRead() throws Exception
+    {
+        LogFiles logFiles = buildLogFiles( Config.defaults( GraphDatabaseSettings.recycle_logical_logs, true ) );
+        life.start();
+        life.add( logFiles );
+
+        LogFile logFile = logFiles.getLogFile();
+        var writer = logFile.getTransactionLogWriter().getChannel();
+        byte[] someBytes = someBytes( 1000 );
+        writer.put( someBytes, someBytes.length );
+        logFile.rotate();
+
+        try ( PhysicalLogVersionedStoreChannel reader = logFile.openForVersion( 1 ) )
+        {
+            assertFalse( logFile.recycleLogFile( 1 ) );
+            assertTrue( fileSystem.fileExists( logFile.getLogFileForVersion( 1 ) ) );
+
+            ByteBuffer content = ByteBuffer.allocate( someBytes.length );
+            reader.read( content );
+            assertArrayEquals( someBytes, content.array() );
+        }
+
+        assertTrue( logFile.recycleLogFile( 1 ) );
+        assertFalse( fileSystem.fileExists( logFile.getLogFileForVersion( 1 ) ) );
+    }
+
+    @Test
+    void shouldDeleteRecycledFilesOnStartWhenRecyclingIsDisabled() throws Exception
+    {
+        LogFiles logFiles = buildLogFiles();
+        Path recycledFile = logFiles.getLogFile().getLogFileForVersion( 5 );
+        recycledFile = recycledFile.resolveSibling( TransactionLogFilesHelper.RECYCLED_FILE_PREFIX + recycledFile.getFileName() );
+        fileSystem.mkdirs( recycledFile.getParent() );
+        fileSystem.write( recycledFile ).close();
+        life.start();
+        life.add( logFiles );
+
+        assertFalse( fileSystem.fileExists( recycledFile ) );
+    }
+
+    @Test
+    void shouldNotRecyclePrunedLogFileByDefault() throws Exception
+    {
+        LogFiles logFiles = buildLogFiles();
+        life.start();
+        life.add( logFiles );
+
+        LogFile logFile = logFiles.getLogFile();
+        logFile.rotate();
+
+        assertFalse( logFile.recycleLogFile( 1 ) );
+        assertTrue( fileSystem.fileExists( logFile.getLogFileForVersion( 1 ) ) );
+    }
+
     @Test
     void shouldVisitLogFile() throws Exception
     {
@@ -458,8 +553,14 @@ class TransactionLogFileTest
     }
 
     private LogFiles buildLogFiles() throws IOException
+    {
+        return buildLogFiles( Config.defaults() );
+    }
+
+    private LogFiles buildLogFiles( Config config ) throws IOException
     {
         return LogFilesBuilder.builder( databaseLayout, wrappingFileSystem )
+                .withConfig( config )
                 .withRotationThreshold( rotationThreshold )
                 .withTransactionIdStore( transactionIdStore )
                 .withLogVersionRepository( logVersionRepository )
@@ -534,6 +635,24 @@ class TransactionLogFileTest
             return NativeCallResult.SUCCESS;
         }
 
+        @Override
+        public NativeCallResult tryAdviseHugePages( long address, long length )
+        {
+            return NativeCallResult.SUCCESS;
+        }
+
+        @Override
+        public NativeCallResult tryPunchHole( int fd, long offset, long length )
+        {
+            return NativeCallResult.SUCCESS;
+        }
+
+        @Override
+        public int getCurrentCpu()
+        {
+            return 0;
+        }
+
         @Override
         public String describe()
         {
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.neo4j.kernel.database.DbmsLogEntryWriterFactory;
+import org.neo4j.kernel.impl.api.TestCommand;
+import org.neo4j.kernel.impl.api.TestCommandReaderFactory;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommand;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryParserSetVersion;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart;
+import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
+import org.neo4j.storageengine.api.StorageCommand;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.internal.kernel.api.security.AuthSubject.ANONYMOUS;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryParserSetVersion.LogEntryV4_0;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryParserSetVersion.LogEntryV4_2;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryParserSetVersion.LogEntryV4_3;
+
+class TransactionLogWriterTest
+{
+    private static final int CHANNEL_SIZE = 32 * 1024;
+
+    private final AtomicReference<LogEntryParserSetVersion> version = new AtomicReference<>( LogEntryV4_2 );
+    private final AtomicBoolean compress = new AtomicBoolean();
+
+    @Test
+    void shouldWriteSerializedCommandsLikeCommandsSerializedInPlace() throws IOException
+    {
+        TransactionRepresentation transaction = transaction();
+        InMemoryClosableChannel expectedChannel = new InMemoryClosableChannel( CHANNEL_SIZE );
+        InMemoryClosableChannel channel = new InMemoryClosableChannel( CHANNEL_SIZE );
+
+        int expectedChecksum = writer( expectedChannel ).append( transaction, 42, 17 );
+        int checksum;
+        try ( TransactionLogWriter writer = writer( channel ) )
+        {
+            TransactionCommandsBuffer commands = writer.serializeCommands( transaction );
+            checksum = writer.append( transaction, 42, 17, commands );
+            writer.release( commands );
+        }
+
+        assertEquals( expectedChecksum, checksum );
+        assertArrayEquals( writtenBytes( expectedChannel ), writtenBytes( channel ) );
+    }
+
+    @Test
+    void shouldSerializeCommandsAgainIfLogFormatChangedAfterSerialization() throws IOException
+    {
+        TransactionRepresentation transaction = transaction();
+        InMemoryClosableChannel expectedChannel = new InMemoryClosableChannel( CHANNEL_SIZE );
+        InMemoryClosableChannel channel = new InMemoryClosableChannel( CHANNEL_SIZE );
+
+        int checksum;
+        try ( TransactionLogWriter writer = writer( channel ) )
+        {
+            version.set( LogEntryV4_0 );
+            TransactionCommandsBuffer commands = writer.serializeCommands( transaction );
+            version.set( LogEntryV4_2 );
+            checksum = writer.append( transaction, 42, 17, commands );
+            writer.release( commands );
+        }
+        int expectedChecksum = writer( expectedChannel ).append( transaction, 42, 17 );
+
+        assertEquals( expectedChecksum, checksum );
+        assertArrayEquals( writtenBytes( expectedChannel ), writtenBytes( channel ) );
+    }
+
+    @Test
+    void shouldReadBackCompressedCommands() throws IOException
+    {
+        TransactionRepresentation transaction = transaction();
+        InMemoryClosableChannel uncompressedChannel = new InMemoryClosableChannel( CHANNEL_SIZE );
+        InMemoryClosableChannel channel = new InMemoryClosableChannel( CHANNEL_SIZE );
+        writer( uncompressedChannel ).append( transaction, 42, 17 );
+
+        compress.set( true );
+        int checksum;
+        try ( TransactionLogWriter writer = writer( channel ) )
+        {
+            TransactionCommandsBuffer commands = writer.serializeCommands( transaction );
+            checksum = writer.append( transaction, 42, 17, commands );
+            writer.release( commands );
+        }
+
+        assertTrue( channel.writerPosition() < uncompressedChannel.writerPosition() );
+        assertTransaction( channel, transaction, checksum );
+    }
+
+    @Test
+    void shouldReadBackSmallTransactionWhenCompressionEnabled() throws IOException
+    {
+        PhysicalTransactionRepresentation transaction = new PhysicalTransactionRepresentation( List.of( new TestCommand( new byte[]{1, 2, 3} ) ) );
+        transaction.setHeader( new byte[0], 1, 2, 3, -1, ANONYMOUS );
+        InMemoryClosableChannel channel = new InMemoryClosableChannel( CHANNEL_SIZE );
+
+        compress.set( true );
+        int checksum;
+        try ( TransactionLogWriter writer = writer( channel ) )
+        {
+            TransactionCommandsBuffer commands = writer.serializeCommands( transaction );
+            checksum = writer.append( transaction, 42, 17, commands );
+            writer.release( commands );
+        }
+
+        assertTransaction( channel, transaction, checksum );
+    }
+
+    @Test
+    void shouldNotLeakCompressedCommandsBetweenCursorsSharingReader() throws IOException
+    {
+        TransactionRepresentation transaction = transaction();
+        InMemoryClosableChannel channel = new InMemoryClosableChannel( CHANNEL_SIZE );
+        compress.set( true );
+        try ( TransactionLogWriter writer = writer( channel ) )
+        {
+            TransactionCommandsBuffer commands = writer.serializeCommands( transaction );
+            writer.append( transaction, 42, 17, commands );
+            writer.release( commands );
+        }
+        byte[] bytes = writtenBytes( channel );
+
+        VersionAwareLogEntryReader reader = new VersionAwareLogEntryReader( new TestCommandReaderFactory() );
+        try ( LogEntryCursor first = new LogEntryCursor( reader, new InMemoryClosableChannel( bytes, true, true ) );
+              LogEntryCursor second = new LogEntryCursor( reader, new InMemoryClosableChannel( bytes, true, true ) ) )
+        {
+            assertTrue( first.next() );
+            assertTrue( first.next() );
+            assertThat( first.get() ).isInstanceOf( LogEntryCommand.class );
+
+            assertTrue( second.next() );
+            assertThat( second.get() ).isInstanceOf( LogEntryStart.class );
+            assertTrue( first.next() );
+            assertThat( first.get() ).isInstanceOf( LogEntryCommand.class );
+        }
+    }
+
+    private static void assertTransaction( InMemoryClosableChannel writtenChannel, TransactionRepresentation transaction, int checksum ) throws IOException
+    {
+        try ( LogEntryCursor cursor = new LogEntryCursor( new VersionAwareLogEntryReader( new TestCommandReaderFactory() ), writtenChannel.reader() ) )
+        {
+            assertTrue( cursor.next() );
+            assertThat( cursor.get() ).isInstanceOf( LogEntryStart.class );
+            assertEquals( LogEntryV4_3.getVersionByte(), cursor.get().getVersion() );
+
+            List<StorageCommand> expectedCommands = new ArrayList<>();
+            transaction.accept( command ->
+            {
+                expectedCommands.add( command );
+                return false;
+            } );
+            List<StorageCommand> commands = new ArrayList<>();
+            while ( cursor.next() && cursor.get() instanceof LogEntryCommand )
+            {
+                commands.add( ((LogEntryCommand) cursor.get()).getCommand() );
+            }
+            assertEquals( expectedCommands, commands );
+
+            assertThat( cursor.get() ).isInstanceOf( LogEntryCommit.class );
+            assertEquals( checksum, ((LogEntryCommit) cursor.get()).getChecksum() );
+            assertFalse( cursor.next() );
+        }
+    }
+
+    private TransactionLogWriter writer( InMemoryClosableChannel channel )
+    {
+        return new TransactionLogWriter( channel, new DbmsLogEntryWriterFactory( version::get, compress::get ) );
+    }
+
+    private static TransactionRepresentation transaction()
+    {
+        PhysicalTransactionRepresentation transaction = new PhysicalTransactionRepresentation(
+                List.of( new TestCommand( new byte[]{1, 2, 3} ), new TestCommand( 20_000 ), new TestCommand() ) );
+        transaction.setHeader( new byte[]{4, 5}, 1, 2, 3, -1, ANONYMOUS );
+        return transaction;
+    }
+
+    private static byte[] writtenBytes( InMemoryClosableChannel channel ) throws IOException
+    {
+        byte[] bytes = new byte[channel.writerPosition()];
+        channel.get( bytes, bytes.length );
+        return bytes;
+    }
+}
@@ -143,6 +143,15 @@ class VersionAwareLogEntryReaderTest
         assertNull( logEntry );
     }
 
+    @Test
+    void shouldRejectCompressedCommandsWithCorruptLengths()
+    {
+        assertCorruptCompressedCommandsRejected( Integer.MAX_VALUE, 10 );
+        assertCorruptCompressedCommandsRejected( -1, 10 );
+        assertCorruptCompressedCommandsRejected( 100, -1 );
+        assertCorruptCompressedCommandsRejected( 100, Integer.MAX_VALUE );
+    }
+
     @Disabled // TODO it's not clear what the benefit verifying the chain will give us, so it's disable for now
     @Test
     void shouldValidateChecksumChain() throws IOException
@@ -184,6 +193,18 @@ class VersionAwareLogEntryReaderTest
         assertTrue( e.getMessage().contains( "The checksum chain is broken" ) );
     }
 
+    private void assertCorruptCompressedCommandsRejected( int uncompressedLength, int compressedLength )
+    {
+        InMemoryClosableChannel channel = new InMemoryClosableChannel( true );
+        channel.put( LogEntryParserSetVersion.LogEntryV4_3.getVersionByte() );
+        channel.put( LogEntryTypeCodes.COMPRESSED_COMMANDS );
+        channel.putInt( uncompressedLength );
+        channel.putInt( compressedLength );
+
+        IOException e = assertThrows( IOException.class, () -> logEntryReader.readLogEntry( channel ) );
+        assertTrue( e.getMessage().contains( "Invalid compressed commands entry" ) );
+    }
+
     private static void writeStartEntry( InMemoryClosableChannel channel, LogEntryStart start )
     {
         channel.beginChecksum();
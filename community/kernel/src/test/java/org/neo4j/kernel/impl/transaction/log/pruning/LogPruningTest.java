@@ -86,6 +86,20 @@ class LogPruningTest
         verifyNoMoreInteractions( fs );
     }
 
+    @Test
+    void mustNotDeleteLogFilesThatAreRecycled()
+    {
+        when( factory.strategyFromConfigValue( eq( fs ), eq( logFiles ), eq( logProvider ), eq( clock ), anyString() ) )
+                .thenReturn( upTo -> LongStream.range( 3, upTo ) );
+        when( logFiles.getLogFile().recycleLogFile( 3 ) ).thenReturn( true );
+        LogPruning pruning = new LogPruningImpl( fs, logFiles, logProvider, factory, clock, config );
+        pruning.pruneLogs( 5 );
+        InOrder order = inOrder( fs );
+        order.verify( fs ).deleteFile( Path.of( "4" ) );
+        // Log file 3 was recycled rather than deleted.
+        verifyNoMoreInteractions( fs );
+    }
+
     @Test
     void mustHaveLogFilesToPruneIfStrategyFindsFiles()
     {
@@ -22,8 +22,14 @@ package org.neo4j.kernel.monitoring.tracing;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.nio.file.Path;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseSettings;
 import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+import org.neo4j.io.pagecache.tracing.DefaultPagedFileTracer;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PagedFileTracer;
 import org.neo4j.kernel.impl.api.tracer.DefaultTracer;
 import org.neo4j.kernel.impl.transaction.tracing.DatabaseTracer;
 import org.neo4j.logging.AssertableLogProvider;
@@ -85,6 +91,20 @@ class TracersTest
         assertWarning( "there's nothing like this" );
     }
 
+    @Test
+    void mustBreakPageCacheActivityDownByFileWhenConfigured()
+    {
+        Path path = Path.of( "a" );
+        PageCacheTracer defaultTracer = createTracers( "default" ).getPageCacheTracer();
+        assertThat( defaultTracer.pagedFileTracer( path ) ).isSameAs( PagedFileTracer.NULL );
+
+        Config config = Config.defaults( GraphDatabaseSettings.pagecache_per_file_metrics, true );
+        PageCacheTracer perFileTracer = new Tracers( "default", log, monitors, jobScheduler, clock, config ).getPageCacheTracer();
+        assertThat( perFileTracer.pagedFileTracer( path ) ).isInstanceOf( DefaultPagedFileTracer.class );
+        assertThat( perFileTracer.pagedFileCounters() ).hasSize( 1 );
+        assertNoWarning();
+    }
+
     private Tracers createTracers( String s )
     {
         return new Tracers( s, log, monitors, jobScheduler, clock );
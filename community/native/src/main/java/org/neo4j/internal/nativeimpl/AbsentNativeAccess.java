@@ -51,6 +51,24 @@ public class AbsentNativeAccess implements NativeAccess
         return NativeCallResult.SUCCESS;
     }
 
+    @Override
+    public NativeCallResult tryAdviseHugePages( long address, long length )
+    {
+        return NativeCallResult.SUCCESS;
+    }
+
+    @Override
+    public NativeCallResult tryPunchHole( int fd, long offset, long length )
+    {
+        return NativeCallResult.SUCCESS;
+    }
+
+    @Override
+    public int getCurrentCpu()
+    {
+        return ERROR;
+    }
+
     @Override
     public String describe()
     {
@@ -47,6 +47,17 @@ public class LinuxNativeAccess implements NativeAccess
      */
     private static final int POSIX_FADV_DONTNEED = 4;
 
+    /**
+     * Constant defined in mman-common.h and suggest that the specified memory region should be backed by transparent huge pages.
+     * For more info check man page for madvise.
+     */
+    private static final int MADV_HUGEPAGE = 14;
+
+    /**
+     * Deallocate the given range of the file, without changing the file size.
+     */
+    private static final int FALLOC_FL_KEEP_SIZE_PUNCH_HOLE = 0x01 | 0x02;
+
     private static final int EINVAL = 22;
     private static final int ERANGE = 34;
 
@@ -98,6 +109,34 @@ public class LinuxNativeAccess implements NativeAccess
      */
     private static native int posix_fallocate( int fd, long offset, long len ) throws LastErrorException;
 
+    /**
+     * Manipulate the allocated disk space of the file referred to by the file descriptor fd for the byte range starting at offset and continuing
+     * for len bytes, as specified by mode.
+     * @param fd file descriptor
+     * @param mode operation to perform, like punching a hole in the file
+     * @param offset offset in the file
+     * @param len len in bytes
+     * @return 0 on success. On error, -1 is returned and errno is set
+     */
+    private static native int fallocate( int fd, int mode, long offset, long len ) throws LastErrorException;
+
+    /**
+     * Give advice about use of memory. Announce an intention to use the memory region starting at addr and extending for length bytes
+     * in a specific way, thus allowing the kernel to choose appropriate techniques for handling it, like backing it by huge pages.
+     * The address must be aligned to the operating system page size. The advice is not binding.
+     * @param addr start of the memory region
+     * @param length length of the memory region in bytes
+     * @param advice advise options
+     * @return 0 on success. On error, -1 is returned and errno is set
+     */
+    private static native int madvise( long addr, long length, int advice ) throws LastErrorException;
+
+    /**
+     * Determine CPU on which the calling thread is running.
+     * @return on success, a nonnegative CPU number. On error, -1 is returned and errno is set
+     */
+    private static native int sched_getcpu() throws LastErrorException;
+
     /**
      * Return pointer to a string describing error number, possibly using the LC_MESSAGES part of the current locale to select the appropriate language.
      * @param errnum error number to describe
@@ -156,6 +195,47 @@ public class LinuxNativeAccess implements NativeAccess
         return wrapResult( () -> posix_fallocate( fd, 0, bytes ) );
     }
 
+    @Override
+    public NativeCallResult tryAdviseHugePages( long address, long length )
+    {
+        if ( address == 0 )
+        {
+            return new NativeCallResult( ERROR, "Incorrect memory address." );
+        }
+        if ( length <= 0 )
+        {
+            return new NativeCallResult( ERROR, "Length of the memory region should be positive. Requested: " + length );
+        }
+        return wrapResult( () -> madvise( address, length, MADV_HUGEPAGE ) );
+    }
+
+    @Override
+    public NativeCallResult tryPunchHole( int fd, long offset, long length )
+    {
+        if ( fd <= 0 )
+        {
+            return new NativeCallResult( ERROR, "Incorrect file descriptor." );
+        }
+        if ( offset < 0 || length <= 0 )
+        {
+            return new NativeCallResult( ERROR, "Range to punch out of the file should be positive. Requested offset: " + offset + ", length: " + length );
+        }
+        return wrapResult( () -> fallocate( fd, FALLOC_FL_KEEP_SIZE_PUNCH_HOLE, offset, length ) );
+    }
+
+    @Override
+    public int getCurrentCpu()
+    {
+        try
+        {
+            return sched_getcpu();
+        }
+        catch ( LastErrorException e )
+        {
+            return ERROR;
+        }
+    }
+
     @Override
     public String describe()
     {
@@ -69,6 +69,32 @@ public interface NativeAccess
      */
     NativeCallResult tryPreallocateSpace( int fd, long bytes );
 
+    /**
+     * Try to advise that the memory region starting at the provided address should be backed by transparent huge pages.
+     * Useful for large, long lived, randomly accessed memory regions, where huge pages reduce the number of TLB misses. For example: page cache memory.
+     * @param address start of the memory region, aligned to the operating system page size
+     * @param length length of the memory region in bytes
+     * @return returns zero on success, or an error number on failure
+     */
+    NativeCallResult tryAdviseHugePages( long address, long length );
+
+    /**
+     * Try to deallocate the disk space of the given range of the file referenced by provided file descriptor, without changing the size of the file.
+     * Subsequent reads of the range will return zeros. Only whole file system blocks inside the range are deallocated.
+     * @param fd file descriptor
+     * @param offset offset in the file where the range starts
+     * @param length length of the range in bytes
+     * @return returns zero on success, or an error number on failure
+     */
+    NativeCallResult tryPunchHole( int fd, long offset, long length );
+
+    /**
+     * Get the number of the CPU that the calling thread is currently running on.
+     * Useful for preferring resources that are local to the NUMA node of the calling thread. The thread can be moved to another CPU at any time.
+     * @return the CPU number, or {@link #ERROR} if it could not be determined
+     */
+    int getCurrentCpu();
+
     /**
      * Details about native access provider
      * @return details about native access
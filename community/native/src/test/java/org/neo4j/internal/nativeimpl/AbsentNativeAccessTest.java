@@ -50,4 +50,24 @@ class AbsentNativeAccessTest
         assertEquals( SUCCESS, absentNativeAccess.tryPreallocateSpace( 1, 2L ) );
         assertEquals( SUCCESS, absentNativeAccess.tryPreallocateSpace( 3, 4L ) );
     }
+
+    @Test
+    void absentNativeAccessHugePagesAdviceAlwaysFinishSuccessfully()
+    {
+        assertEquals( SUCCESS, absentNativeAccess.tryAdviseHugePages( 0, 1L ) );
+        assertEquals( SUCCESS, absentNativeAccess.tryAdviseHugePages( 4096, 8192L ) );
+    }
+
+    @Test
+    void absentNativeAccessPunchHoleAlwaysFinishSuccessfully()
+    {
+        assertEquals( SUCCESS, absentNativeAccess.tryPunchHole( 0, 0, 1L ) );
+        assertEquals( SUCCESS, absentNativeAccess.tryPunchHole( 1, 4096, 8192L ) );
+    }
+
+    @Test
+    void absentNativeAccessDoesNotKnowCurrentCpu()
+    {
+        assertEquals( NativeAccess.ERROR, absentNativeAccess.getCurrentCpu() );
+    }
 }
@@ -19,6 +19,7 @@
  */
 package org.neo4j.internal.nativeimpl;
 
+import com.sun.jna.Native;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.DisabledOnOs;
@@ -28,6 +29,7 @@ import org.junit.jupiter.api.io.TempDir;
 
 import java.io.FileDescriptor;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.Channel;
 import java.nio.channels.FileChannel;
 import java.nio.file.FileStore;
@@ -43,10 +45,13 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.neo4j.internal.nativeimpl.NativeAccess.ERROR;
 
 class LinuxNativeAccessTest
 {
+    private static final long HUGE_PAGE_SIZE = 2 * 1024 * 1024;
+
     private final LinuxNativeAccess nativeAccess = new LinuxNativeAccess();
 
     @Test
@@ -166,6 +171,98 @@ class LinuxNativeAccessTest
                 assertFalse( nativeAccess.tryEvictFromCache( descriptor ).isError() );
             }
         }
+
+        @Test
+        void failToPunchHoleForIncorrectDescriptorOrRange() throws IOException, IllegalAccessException, ClassNotFoundException
+        {
+            assertEquals( ERROR, nativeAccess.tryPunchHole( 0, 0, 4096 ).getErrorCode() );
+            assertEquals( ERROR, nativeAccess.tryPunchHole( -1, 0, 4096 ).getErrorCode() );
+
+            Path file = tempFile.resolve( "holeFile" );
+            try ( FileChannel channel = FileChannel.open( file, READ, WRITE, CREATE ) )
+            {
+                int descriptor = getDescriptor( channel );
+                assertEquals( ERROR, nativeAccess.tryPunchHole( descriptor, -1, 4096 ).getErrorCode() );
+                assertEquals( ERROR, nativeAccess.tryPunchHole( descriptor, 0, 0 ).getErrorCode() );
+            }
+            int descriptor = getClosedDescriptor( tempFile.resolve( "closedHoleFile" ) );
+            assertTrue( nativeAccess.tryPunchHole( descriptor, 0, 4096 ).isError() );
+        }
+
+        @Test
+        void punchHoleZeroesRangeWithoutChangingFileSize() throws IOException, IllegalAccessException, ClassNotFoundException
+        {
+            long blockSize = Files.getFileStore( tempFile ).getBlockSize();
+            Path file = tempFile.resolve( "sparseFile" );
+            try ( FileChannel channel = FileChannel.open( file, READ, WRITE, CREATE ) )
+            {
+                ByteBuffer data = ByteBuffer.allocate( (int) (3 * blockSize) );
+                while ( data.hasRemaining() )
+                {
+                    data.put( (byte) 1 );
+                }
+                data.flip();
+                channel.write( data, 0 );
+
+                var nativeCallResult = nativeAccess.tryPunchHole( getDescriptor( channel ), blockSize, blockSize );
+                assumeTrue( !nativeCallResult.isError(), "File system does not support punching holes: " + nativeCallResult.getErrorMessage() );
+
+                assertEquals( 3 * blockSize, channel.size() );
+                ByteBuffer hole = ByteBuffer.allocate( (int) blockSize );
+                channel.read( hole, blockSize );
+                hole.flip();
+                while ( hole.hasRemaining() )
+                {
+                    assertEquals( 0, hole.get() );
+                }
+                ByteBuffer tail = ByteBuffer.allocate( 1 );
+                channel.read( tail, 2 * blockSize );
+                assertEquals( 1, tail.get( 0 ) );
+            }
+        }
+
+        @Test
+        void getCurrentCpu()
+        {
+            int cpu = nativeAccess.getCurrentCpu();
+            assertThat( cpu ).isGreaterThanOrEqualTo( 0 );
+        }
+
+        @Test
+        void failToAdviseHugePagesForIncorrectRegion()
+        {
+            assertEquals( ERROR, nativeAccess.tryAdviseHugePages( 0, HUGE_PAGE_SIZE ).getErrorCode() );
+            assertEquals( ERROR, nativeAccess.tryAdviseHugePages( 4096, 0 ).getErrorCode() );
+
+            long pointer = Native.malloc( 2 * HUGE_PAGE_SIZE );
+            try
+            {
+                // not aligned to the operating system page size
+                assertTrue( nativeAccess.tryAdviseHugePages( pointer | 1, HUGE_PAGE_SIZE ).isError() );
+            }
+            finally
+            {
+                Native.free( pointer );
+            }
+        }
+
+        @Test
+        void adviseHugePagesForAlignedRegion()
+        {
+            assumeTrue( Files.exists( Path.of( "/sys/kernel/mm/transparent_hugepage" ) ), "Transparent huge pages are not supported by this kernel" );
+            long pointer = Native.malloc( 2 * HUGE_PAGE_SIZE );
+            try
+            {
+                long aligned = (pointer + HUGE_PAGE_SIZE - 1) & -HUGE_PAGE_SIZE;
+                var nativeCallResult = nativeAccess.tryAdviseHugePages( aligned, HUGE_PAGE_SIZE );
+                assertEquals( 0, nativeCallResult.getErrorCode() );
+                assertFalse( nativeCallResult.isError() );
+            }
+            finally
+            {
+                Native.free( pointer );
+            }
+        }
     }
 
     private void preallocate( Path file, long bytes ) throws IOException, IllegalAccessException, ClassNotFoundException
@@ -26,12 +26,14 @@ import java.util.stream.StreamSupport;
 
 import org.neo4j.internal.batchimport.Configuration;
 import org.neo4j.internal.batchimport.stats.Keys;
+import org.neo4j.internal.batchimport.stats.Stat;
 import org.neo4j.internal.helpers.collection.Pair;
 
 import static java.lang.Integer.min;
 import static java.lang.Math.max;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.neo4j.internal.batchimport.stats.Keys.done_batches;
+import static org.neo4j.internal.batchimport.stats.Keys.queued_batches;
 
 /**
  * Monitors {@link StageExecution executions} and makes changes as the execution goes:
@@ -39,7 +41,9 @@ import static org.neo4j.internal.batchimport.stats.Keys.done_batches;
  * <li>Figures out roughly how many CPUs (henceforth called processors) are busy processing batches.
  * The most busy step will have its {@link Step#processors(int) processors} counted as 1 processor each, all other
  * will take into consideration how idle the CPUs executing each step is, counted as less than one.</li>
- * <li>Constantly figures out bottleneck steps and assigns more processors those.</li>
+ * <li>Constantly figures out bottleneck steps and assigns more processors those. A bottleneck step which doesn't
+ * have more {@link Keys#queued_batches queued batches} than it has processors already is starved by upstream
+ * and will not get more processors, since those would only sit idle.</li>
  * <li>Constantly figures out if there are steps that are way faster than the second fastest step and
  * removes processors from those steps.</li>
  * <li>At all times keeps the total number of processors assigned to steps to a total of less than or equal to
@@ -90,7 +94,8 @@ public class DynamicProcessorAssigner extends ExecutionMonitor.Adapter
         Step<?> bottleNeckStep = bottleNeck.first();
         long doneBatches = bottleNeckStep.longStat( done_batches );
         if ( bottleNeck.other() > 1.0f &&
-             batchesPassedSinceLastChange( bottleNeckStep, doneBatches ) >= config.movingAverageSize() )
+             batchesPassedSinceLastChange( bottleNeckStep, doneBatches ) >= config.movingAverageSize() &&
+             hasQueuedWorkForMoreProcessors( bottleNeckStep ) )
         {
             // Assign 1/10th of the remaining permits. This will have processors being assigned more
             // aggressively in the beginning of the run
@@ -149,6 +154,13 @@ public class DynamicProcessorAssigner extends ExecutionMonitor.Adapter
         return execution.stillExecuting() ? StreamSupport.stream( execution.steps().spliterator(), false ).mapToInt( step -> step.processors( 0 ) ).sum() : 0;
     }
 
+    private static boolean hasQueuedWorkForMoreProcessors( Step<?> step )
+    {
+        Stat queuedBatches = step.stats().stat( queued_batches );
+        // Steps not reporting their queue size are assumed to have work enough for more processors
+        return queuedBatches == null || queuedBatches.asLong() > step.processors( 0 );
+    }
+
     private long batchesPassedSinceLastChange( Step<?> step, long doneBatches )
     {
         return lastChangedProcessors.containsKey( step )
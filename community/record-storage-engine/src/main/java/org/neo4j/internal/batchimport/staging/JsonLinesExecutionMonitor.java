@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.batchimport.staging;
+
+import java.io.PrintStream;
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.internal.batchimport.stats.Key;
+import org.neo4j.internal.batchimport.stats.Stat;
+import org.neo4j.internal.batchimport.stats.StepStats;
+
+/**
+ * Machine readable {@link ExecutionMonitor} which prints one JSON object per line. Every {@link #check(StageExecution) check}
+ * prints one line per {@link Step} with all its {@link StepStats statistics} and number of assigned processors, e.g:
+ *
+ * <pre>
+ * {"time":1600000000000,"event":"step","stage":"Node import","step":"PROPERTIES","processors":3,"maxProcessors":0,
+ *     "stats":{"received_batches":120,"done_batches":100,"queued_batches":20,"avg_processing_time":1534}}
+ * </pre>
+ *
+ * This makes it possible to see, after the fact, which step was the bottleneck at any given time and how processors
+ * were moved around between steps, e.g. by {@link DynamicProcessorAssigner}.
+ */
+public class JsonLinesExecutionMonitor extends ExecutionMonitor.Adapter
+{
+    private final Clock clock;
+    private final PrintStream out;
+
+    public JsonLinesExecutionMonitor( Clock clock, long interval, TimeUnit unit, PrintStream out )
+    {
+        super( clock, interval, unit );
+        this.clock = clock;
+        this.out = out;
+    }
+
+    @Override
+    public void start( StageExecution execution )
+    {
+        out.println( event( "start" ).field( "stage", execution.name() ).end() );
+    }
+
+    @Override
+    public void end( StageExecution execution, long totalTimeMillis )
+    {
+        check( execution );
+        out.println( event( "end" ).field( "stage", execution.name() ).field( "totalTimeMillis", totalTimeMillis ).end() );
+    }
+
+    @Override
+    public void done( boolean successful, long totalTimeMillis, String additionalInformation )
+    {
+        out.println( event( "done" ).field( "successful", successful ).field( "totalTimeMillis", totalTimeMillis ).end() );
+        out.flush();
+    }
+
+    @Override
+    public void check( StageExecution execution )
+    {
+        for ( Step<?> step : execution.steps() )
+        {
+            StepStats stats = step.stats();
+            JsonLine line = event( "step" )
+                    .field( "stage", execution.name() )
+                    .field( "step", step.name() )
+                    .field( "processors", step.processors( 0 ) )
+                    .field( "maxProcessors", step.maxProcessors() )
+                    .field( "completed", step.isCompleted() );
+            line.object( "stats" );
+            for ( Key key : stats.keys() )
+            {
+                Stat stat = stats.stat( key );
+                if ( stat != null )
+                {
+                    line.field( key.name(), stat.asLong() );
+                }
+            }
+            out.println( line.endObject().end() );
+        }
+    }
+
+    private JsonLine event( String event )
+    {
+        return new JsonLine().field( "time", clock.millis() ).field( "event", event );
+    }
+
+    private static class JsonLine
+    {
+        private final StringBuilder builder = new StringBuilder( "{" );
+        private boolean first = true;
+
+        JsonLine field( String name, long value )
+        {
+            return name( name ).append( value );
+        }
+
+        JsonLine field( String name, boolean value )
+        {
+            return name( name ).append( value );
+        }
+
+        JsonLine field( String name, String value )
+        {
+            name( name );
+            quoted( value );
+            return this;
+        }
+
+        JsonLine object( String name )
+        {
+            name( name ).builder.append( '{' );
+            first = true;
+            return this;
+        }
+
+        JsonLine endObject()
+        {
+            builder.append( '}' );
+            first = false;
+            return this;
+        }
+
+        String end()
+        {
+            return builder.append( '}' ).toString();
+        }
+
+        private JsonLine name( String name )
+        {
+            if ( !first )
+            {
+                builder.append( ',' );
+            }
+            first = false;
+            quoted( name );
+            builder.append( ':' );
+            return this;
+        }
+
+        private JsonLine append( Object value )
+        {
+            builder.append( value );
+            return this;
+        }
+
+        private void quoted( String value )
+        {
+            builder.append( '"' );
+            for ( int i = 0; i < value.length(); i++ )
+            {
+                char c = value.charAt( i );
+                switch ( c )
+                {
+                case '"':
+                case '\\':
+                    builder.append( '\\' ).append( c );
+                    break;
+                case '\n':
+                    builder.append( "\\n" );
+                    break;
+                case '\r':
+                    builder.append( "\\r" );
+                    break;
+                case '\t':
+                    builder.append( "\\t" );
+                    break;
+                default:
+                    if ( c < 0x20 )
+                    {
+                        builder.append( String.format( "\\u%04x", (int) c ) );
+                    }
+                    else
+                    {
+                        builder.append( c );
+                    }
+                }
+            }
+            builder.append( '"' );
+        }
+    }
+}
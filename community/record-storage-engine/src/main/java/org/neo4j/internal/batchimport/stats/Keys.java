@@ -26,6 +26,7 @@ public enum Keys implements Key
 {
     received_batches( ">", "Number of batches received from upstream" ),
     done_batches( "!", "Number of batches processed and done, and sent off downstream" ),
+    queued_batches( "q", "Number of batches received, but not yet processed" ),
     total_processing_time( "=", "Total processing time for all done batches" ),
     upstream_idle_time( "^", "Time spent waiting for batch from upstream" ),
     downstream_idle_time( "v", "Time spent waiting for downstream to catch up" ),
@@ -34,6 +34,7 @@ public class ProcessingStats extends GenericStatsProvider
     {
         add( Keys.received_batches, Stats.longStat( receivedBatches ) );
         add( Keys.done_batches, Stats.longStat( doneBatches ) );
+        add( Keys.queued_batches, Stats.longStat( receivedBatches - doneBatches ) );
         add( Keys.total_processing_time, Stats.longStat( totalProcessingTime ) );
         add( Keys.upstream_idle_time, Stats.longStat( upstreamIdleTime ) );
         add( Keys.downstream_idle_time, Stats.longStat( downstreamIdleTime ) );
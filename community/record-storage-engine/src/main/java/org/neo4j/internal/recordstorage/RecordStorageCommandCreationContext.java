@@ -19,6 +19,7 @@
  */
 package org.neo4j.internal.recordstorage;
 
+import org.neo4j.internal.id.LocalIdSequence;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.kernel.impl.store.NeoStores;
 import org.neo4j.kernel.impl.store.PropertyStore;
@@ -29,6 +30,7 @@ import org.neo4j.memory.MemoryTracker;
 import org.neo4j.storageengine.api.CommandCreationContext;
 
 import static java.lang.Math.toIntExact;
+import static org.neo4j.io.IOUtils.closeAllUnchecked;
 
 /**
  * Holds commit data structures for creating records in a {@link NeoStores}.
@@ -43,6 +45,11 @@ class RecordStorageCommandCreationContext implements CommandCreationContext
     private final PropertyCreator propertyCreator;
     private final PropertyDeleter propertyDeleter;
     private final PageCursorTracer cursorTracer;
+    // Ids of the high volume stores are allocated through local sequences, kept for as long as the transaction using this context lives,
+    // to not contend on the id generators with other transactions. They are opened lazily since they may never be needed.
+    private LocalIdSequence nodeIds;
+    private LocalIdSequence relationshipIds;
+    private LocalIdSequence propertyIds;
 
     RecordStorageCommandCreationContext( NeoStores neoStores, int denseNodeThreshold, PageCursorTracer cursorTracer, MemoryTracker memoryTracker )
     {
@@ -58,8 +65,8 @@ class RecordStorageCommandCreationContext implements CommandCreationContext
         PropertyStore propertyStore = neoStores.getPropertyStore();
         this.propertyCreator = new PropertyCreator(
                 new StandardDynamicRecordAllocator( propertyStore.getStringStore(), propertyStore.getStringStore().getRecordDataSize() ),
-                new StandardDynamicRecordAllocator( propertyStore.getArrayStore(), propertyStore.getArrayStore().getRecordDataSize() ), propertyStore,
-                propertyTraverser, propertyStore.allowStorePointsAndTemporal(), cursorTracer, memoryTracker );
+                new StandardDynamicRecordAllocator( propertyStore.getArrayStore(), propertyStore.getArrayStore().getRecordDataSize() ),
+                tracer -> nextPropertyId(), propertyTraverser, propertyStore.allowStorePointsAndTemporal(), cursorTracer, memoryTracker );
     }
 
     private long nextId( StoreType storeType )
@@ -67,16 +74,33 @@ class RecordStorageCommandCreationContext implements CommandCreationContext
         return neoStores.getRecordStore( storeType ).nextId( cursorTracer );
     }
 
+    private long nextPropertyId()
+    {
+        if ( propertyIds == null )
+        {
+            propertyIds = neoStores.getPropertyStore().localIdSequence( cursorTracer );
+        }
+        return propertyIds.nextId( cursorTracer );
+    }
+
     @Override
     public long reserveNode()
     {
-        return nextId( StoreType.NODE );
+        if ( nodeIds == null )
+        {
+            nodeIds = neoStores.getNodeStore().localIdSequence( cursorTracer );
+        }
+        return nodeIds.nextId( cursorTracer );
     }
 
     @Override
     public long reserveRelationship()
     {
-        return nextId( StoreType.RELATIONSHIP );
+        if ( relationshipIds == null )
+        {
+            relationshipIds = neoStores.getRelationshipStore().localIdSequence( cursorTracer );
+        }
+        return relationshipIds.nextId( cursorTracer );
     }
 
     @Override
@@ -103,9 +127,19 @@ class RecordStorageCommandCreationContext implements CommandCreationContext
         return toIntExact( neoStores.getLabelTokenStore().nextId( cursorTracer ) );
     }
 
+    @Override
+    public void release()
+    {
+        closeAllUnchecked( nodeIds, relationshipIds, propertyIds );
+        nodeIds = null;
+        relationshipIds = null;
+        propertyIds = null;
+    }
+
     @Override
     public void close()
     {
+        release();
     }
 
     TransactionRecordState createTransactionRecordState( IntegrityValidator integrityValidator, long lastTransactionIdWhenStarted,
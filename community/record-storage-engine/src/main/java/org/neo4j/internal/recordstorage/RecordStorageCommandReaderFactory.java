@@ -19,6 +19,7 @@
  */
 package org.neo4j.internal.recordstorage;
 
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryParserSetVersion;
 import org.neo4j.storageengine.api.CommandReader;
 import org.neo4j.storageengine.api.CommandReaderFactory;
 
@@ -31,6 +32,11 @@ public class RecordStorageCommandReaderFactory implements CommandReaderFactory
     {
         // Historically the log entry version
 
+        if ( logEntryVersion == LogEntryParserSetVersion.LogEntryV4_3.getVersionByte() )
+        {
+            // This log entry version only added compressed command entries, the commands themselves are in the 4.2 format
+            return PhysicalLogCommandReaderV4_2.INSTANCE;
+        }
         switch ( logEntryVersion )
         {
         case PhysicalLogCommandReaderV3_0_10.FORMAT_ID:
@@ -43,6 +43,7 @@ import org.neo4j.internal.id.IdGeneratorFactory;
 import org.neo4j.internal.id.IdSequence;
 import org.neo4j.internal.id.IdType;
 import org.neo4j.internal.id.IdValidator;
+import org.neo4j.internal.id.LocalIdSequence;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageCursor;
@@ -61,6 +62,7 @@ import static java.lang.String.format;
 import static java.nio.file.StandardOpenOption.CREATE;
 import static org.neo4j.internal.helpers.Exceptions.throwIfUnchecked;
 import static org.neo4j.io.pagecache.PageCacheOpenOptions.ANY_PAGE_SIZE;
+import static org.neo4j.io.pagecache.PagedFile.PF_BYPASS_CACHE;
 import static org.neo4j.io.pagecache.PagedFile.PF_EAGER_FLUSH;
 import static org.neo4j.io.pagecache.PagedFile.PF_READ_AHEAD;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
@@ -420,6 +422,18 @@ public abstract class CommonAbstractStore<RECORD extends AbstractBaseRecord,HEAD
         return openPageCursorForReading( 0, PF_READ_AHEAD, cursorTracer );
     }
 
+    /**
+     * DANGER: make sure to always close this cursor.
+     *
+     * Opens a {@link PageCursor} to this store, mainly for use in {@link #getRecordByCursor(long, AbstractBaseRecord, RecordLoad, PageCursor)}.
+     * The opened cursor will make use of the {@link PagedFile#PF_BYPASS_CACHE} flag to not evict other pages when scanning.
+     */
+    @Override
+    public PageCursor openPageCursorForScanning( long id, PageCursorTracer cursorTracer )
+    {
+        return openPageCursorForReading( id, PF_BYPASS_CACHE, cursorTracer );
+    }
+
     /**
      * DANGER: make sure to always close this cursor.
      */
@@ -483,6 +497,18 @@ public abstract class CommonAbstractStore<RECORD extends AbstractBaseRecord,HEAD
         return idGenerator.nextId( cursorTracer );
     }
 
+    /**
+     * Returns a {@link LocalIdSequence} for this store's {@link IdGenerator}, for use by a single transaction at a time.
+     *
+     * @param cursorTracer underlying page cursor tracer.
+     * @return a new {@link LocalIdSequence}, which must be closed when no longer used.
+     */
+    public LocalIdSequence localIdSequence( PageCursorTracer cursorTracer )
+    {
+        assertIdGeneratorInitialized();
+        return idGenerator.localSequence( cursorTracer );
+    }
+
     private void assertIdGeneratorInitialized()
     {
         if ( idGenerator == null )
@@ -143,6 +143,20 @@ public interface RecordStore<RECORD extends AbstractBaseRecord> extends IdSequen
      */
     PageCursor openPageCursorForReadingWithPrefetching( long id, PageCursorTracer cursorTracer );
 
+    /**
+     * Opens a {@link PageCursor} on this store, capable of reading records using
+     * {@link #getRecordByCursor(long, AbstractBaseRecord, RecordLoad, PageCursor)}.
+     * The caller is responsible for closing it when done with it.
+     * The opened cursor reads pages which are not in the page cache straight from the store file in large blocks, without loading them
+     * into the page cache, see {@link org.neo4j.io.pagecache.PagedFile#PF_BYPASS_CACHE}. This makes it suitable for scanning through
+     * large parts of the store once without evicting the pages used by everything else, but slower for reading records randomly.
+     *
+     * @param id cursor will initially be placed at the page containing this record id.
+     * @param cursorTracer underlying page cursor tracer.
+     * @return PageCursor for reading records.
+     */
+    PageCursor openPageCursorForScanning( long id, PageCursorTracer cursorTracer );
+
     /**
      * Reads a record from the store into {@code target}, see
      * {@link RecordStore#getRecord(long, AbstractBaseRecord, RecordLoad, PageCursorTracer)}.
@@ -361,6 +375,12 @@ public interface RecordStore<RECORD extends AbstractBaseRecord> extends IdSequen
             return actual.openPageCursorForReadingWithPrefetching( id, cursorTracer );
         }
 
+        @Override
+        public PageCursor openPageCursorForScanning( long id, PageCursorTracer cursorTracer )
+        {
+            return actual.openPageCursorForScanning( id, cursorTracer );
+        }
+
         @Override
         public void getRecordByCursor( long id, R target, RecordLoad mode, PageCursor cursor ) throws InvalidRecordException
         {
@@ -52,6 +52,37 @@ class DynamicProcessorAssignerTest
         assertEquals( 1, fastStep.processors( 0 ) );
     }
 
+    @Test
+    void shouldNotAssignProcessorsToSlowestStepStarvedByUpstream()
+    {
+        // GIVEN
+        Configuration config = config( 10, 5 );
+        DynamicProcessorAssigner assigner = new DynamicProcessorAssigner( config );
+
+        ControlledStep<?> slowStep = stepWithStats( "slow", 0, Keys.avg_processing_time, 10L, Keys.done_batches, 10L,
+                Keys.queued_batches, 1L );
+        ControlledStep<?> fastStep = stepWithStats( "fast", 0, Keys.avg_processing_time, 2L, Keys.done_batches, 10L,
+                Keys.queued_batches, 0L );
+
+        StageExecution execution = executionOf( config, slowStep, fastStep );
+        assigner.start( execution );
+
+        // WHEN
+        assigner.check( execution );
+
+        // THEN the slow step already has a processor for every queued batch, more processors would only sit idle
+        assertEquals( 1, slowStep.processors( 0 ) );
+        assertEquals( 1, fastStep.processors( 0 ) );
+
+        // WHEN batches start to queue up in front of the slow step
+        slowStep.setStat( Keys.queued_batches, 8L );
+        assigner.check( execution );
+
+        // THEN
+        assertEquals( 4, slowStep.processors( 0 ) );
+        assertEquals( 1, fastStep.processors( 0 ) );
+    }
+
     @Test
     void shouldMoveProcessorFromOverlyAssignedStep()
     {
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.batchimport.staging;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+
+import org.neo4j.internal.batchimport.Configuration;
+import org.neo4j.internal.batchimport.stats.Keys;
+import org.neo4j.time.Clocks;
+import org.neo4j.time.FakeClock;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.internal.batchimport.staging.ControlledStep.stepWithStats;
+
+class JsonLinesExecutionMonitorTest
+{
+    @Test
+    void shouldPrintOneLinePerStepOnCheck()
+    {
+        // GIVEN
+        FakeClock clock = Clocks.fakeClock( 1000, SECONDS );
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        JsonLinesExecutionMonitor monitor = new JsonLinesExecutionMonitor( clock, 1, SECONDS, new PrintStream( bytes, true ) );
+        ControlledStep<?> first = stepWithStats( "first \"step\"", 0, Keys.done_batches, 10L );
+        ControlledStep<?> second = stepWithStats( "second", 2, Keys.done_batches, 5L ).setProcessors( 2 );
+        StageExecution execution = new StageExecution( "Test", null, Configuration.DEFAULT, Arrays.asList( first, second ), 0 );
+
+        // WHEN
+        monitor.start( execution );
+        monitor.check( execution );
+
+        // THEN
+        String[] lines = bytes.toString().split( System.lineSeparator() );
+        assertThat( lines ).containsExactly(
+                "{\"time\":1000000,\"event\":\"start\",\"stage\":\"Test\"}",
+                "{\"time\":1000000,\"event\":\"step\",\"stage\":\"Test\",\"step\":\"first \\\"step\\\"\",\"processors\":1,\"maxProcessors\":" +
+                        Integer.MAX_VALUE + ",\"completed\":false,\"stats\":{\"done_batches\":10}}",
+                "{\"time\":1000000,\"event\":\"step\",\"stage\":\"Test\",\"step\":\"second\",\"processors\":2,\"maxProcessors\":2," +
+                        "\"completed\":false,\"stats\":{\"done_batches\":5}}" );
+    }
+}
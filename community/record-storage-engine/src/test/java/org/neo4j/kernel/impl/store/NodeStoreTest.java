@@ -47,7 +47,9 @@ import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.io.pagecache.DelegatingPageCache;
 import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
@@ -179,6 +181,46 @@ class NodeStoreTest
         assertEquals( labels, readRecord.getLabelField() );
     }
 
+    @Test
+    void shouldScanRecordsWithoutFaultingPagesIntoPageCache()
+    {
+        // GIVEN
+        // -- a store with records on many pages, which are not in the page cache
+        nodeStore = newNodeStore( fs );
+        long highId = nodeStore.getRecordsPerPage() * 10L;
+        for ( long nodeId = 0; nodeId < highId; nodeId++ )
+        {
+            NodeRecord record = new NodeRecord( nodeId ).initialize( true, NO_NEXT_PROPERTY.intValue(), false, nodeId, 0 );
+            nodeStore.updateRecord( record, NULL );
+        }
+        neoStores.close();
+        nodeStore = newNodeStore( fs );
+
+        // WHEN
+        // -- scanning through them
+        var pageCacheTracer = new DefaultPageCacheTracer();
+        try ( var cursorTracer = pageCacheTracer.createPageCursorTracer( "shouldScanRecordsWithoutFaultingPagesIntoPageCache" ) )
+        {
+            try ( PageCursor cursor = nodeStore.openPageCursorForScanning( 0, cursorTracer ) )
+            {
+                NodeRecord record = nodeStore.newRecord();
+                for ( long nodeId = 0; nodeId < highId; nodeId++ )
+                {
+                    nodeStore.getRecordByCursor( nodeId, record, NORMAL, cursor );
+
+                    // THEN
+                    // -- the records are read correctly
+                    assertTrue( record.inUse() );
+                    assertEquals( nodeId, record.getNextRel() );
+                }
+            }
+
+            // THEN
+            // -- without loading them into the page cache
+            assertEquals( 0, cursorTracer.faults() );
+        }
+    }
+
     @Test
     void shouldKeepRecordLightWhenSettingLabelFieldWithoutDynamicRecords()
     {
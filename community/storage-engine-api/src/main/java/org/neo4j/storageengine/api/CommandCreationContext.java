@@ -70,6 +70,14 @@ public interface CommandCreationContext extends AutoCloseable
      */
     int reserveRelationshipTypeTokenId();
 
+    /**
+     * Called when the transaction using this context ends, before the context is handed to another transaction.
+     * Releases resources only needed for the duration of a transaction, e.g. ids that were reserved in bulk but not used.
+     */
+    default void release()
+    {
+    }
+
     @Override
     void close();
 }
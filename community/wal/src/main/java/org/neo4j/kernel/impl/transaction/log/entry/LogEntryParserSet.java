@@ -73,4 +73,13 @@ public abstract class LogEntryParserSet
     {
         return version;
     }
+
+    /**
+     * @return {@code true} if writers of this version should compress the commands of transactions,
+     * see {@link LogEntryTypeCodes#COMPRESSED_COMMANDS}.
+     */
+    public boolean compressesCommands()
+    {
+        return false;
+    }
 }
@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import com.github.luben.zstd.Zstd;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.io.fs.ReadPastEndException;
+import org.neo4j.io.fs.ReadableChannel;
+import org.neo4j.io.fs.ReadableChecksumChannel;
+import org.neo4j.kernel.impl.transaction.log.LogPositionMarker;
+import org.neo4j.storageengine.api.CommandReaderFactory;
+import org.neo4j.storageengine.api.StorageCommand;
+
+import static java.lang.Math.toIntExact;
+import static org.neo4j.io.ByteUnit.mebiBytes;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryParserSetV4_2.V4_2;
+
+/**
+ * Same entries as {@link LogEntryParserSetV4_2}, with the addition of {@link LogEntryTypeCodes#COMPRESSED_COMMANDS}.
+ * A compressed commands entry has the layout {@code [uncompressed length][compressed length][zstd compressed bytes]}, where the
+ * uncompressed bytes are a sequence of regular command entries, including their version and type bytes.
+ * <p>
+ * The checksum of the transaction covers the compressed bytes, as those are what is actually stored in the log.
+ */
+public class LogEntryParserSetV4_3 extends LogEntryParserSet
+{
+    public static final LogEntryParserSet V4_3 = new LogEntryParserSetV4_3();
+    /**
+     * Commands of larger transactions than this are never compressed, which lets readers reject entries claiming larger sizes as corrupt.
+     */
+    public static final int MAX_UNCOMPRESSED_COMMANDS_SIZE = toIntExact( mebiBytes( 64 ) );
+
+    private LogEntryParserSetV4_3()
+    {
+        super( LogEntryParserSetVersion.LogEntryV4_3 );
+        register( V4_2.select( LogEntryTypeCodes.TX_START ) );
+        register( V4_2.select( LogEntryTypeCodes.COMMAND ) );
+        register( V4_2.select( LogEntryTypeCodes.TX_COMMIT ) );
+        register( new LogEntryParser( LogEntryTypeCodes.COMPRESSED_COMMANDS )
+        {
+            @Override
+            public LogEntry parse( byte version, ReadableChecksumChannel channel, LogPositionMarker marker, CommandReaderFactory commandReaderFactory )
+                    throws IOException
+            {
+                int uncompressedLength = channel.getInt();
+                int compressedLength = channel.getInt();
+                // Both lengths come straight off of the log and the checksum of the transaction is only validated by its commit entry,
+                // so make sure that a corrupt entry can't have us allocate arbitrary amounts of memory
+                if ( uncompressedLength < 0 || uncompressedLength > MAX_UNCOMPRESSED_COMMANDS_SIZE ||
+                        compressedLength < 0 || compressedLength > Zstd.compressBound( uncompressedLength ) )
+                {
+                    throw new IOException( "Invalid compressed commands entry, uncompressed length " + uncompressedLength +
+                            " and compressed length " + compressedLength );
+                }
+                byte[] compressed = new byte[compressedLength];
+                channel.get( compressed, compressedLength );
+
+                byte[] uncompressed = new byte[uncompressedLength];
+                long result = Zstd.decompressByteArray( uncompressed, 0, uncompressedLength, compressed, 0, compressedLength );
+                if ( Zstd.isError( result ) )
+                {
+                    throw new IOException( "Unable to decompress commands: " + Zstd.getErrorName( result ) );
+                }
+                if ( result != uncompressedLength )
+                {
+                    throw new IOException( "Expected " + uncompressedLength + " bytes of decompressed commands, but got " + result );
+                }
+                return new LogEntryCompressedCommands( version, readCommands( uncompressed, commandReaderFactory ) );
+            }
+        } );
+    }
+
+    @Override
+    public boolean compressesCommands()
+    {
+        return true;
+    }
+
+    private static List<LogEntryCommand> readCommands( byte[] uncompressed, CommandReaderFactory commandReaderFactory ) throws IOException
+    {
+        List<LogEntryCommand> commands = new ArrayList<>();
+        ByteBufferReadableChannel channel = new ByteBufferReadableChannel( ByteBuffer.wrap( uncompressed ) );
+        try
+        {
+            while ( channel.hasRemaining() )
+            {
+                byte version = channel.get();
+                byte type = channel.get();
+                if ( type != LogEntryTypeCodes.COMMAND )
+                {
+                    throw new IOException( "Expected only command entries among the compressed commands, but found entry type " + type );
+                }
+                StorageCommand command = commandReaderFactory.get( version ).read( channel );
+                if ( command == null )
+                {
+                    throw new IOException( "Compressed commands ended prematurely" );
+                }
+                commands.add( new LogEntryCommand( version, command ) );
+            }
+        }
+        catch ( ReadPastEndException e )
+        {
+            // The compressed bytes have already been read and checksummed in full, so this is not the end of the log but corruption
+            throw new IOException( "Compressed commands ended prematurely", e );
+        }
+        return commands;
+    }
+
+    private static class ByteBufferReadableChannel implements ReadableChannel
+    {
+        private final ByteBuffer buffer;
+
+        ByteBufferReadableChannel( ByteBuffer buffer )
+        {
+            this.buffer = buffer;
+        }
+
+        boolean hasRemaining()
+        {
+            return buffer.hasRemaining();
+        }
+
+        @Override
+        public byte get() throws IOException
+        {
+            try
+            {
+                return buffer.get();
+            }
+            catch ( BufferUnderflowException e )
+            {
+                throw ReadPastEndException.INSTANCE;
+            }
+        }
+
+        @Override
+        public short getShort() throws IOException
+        {
+            try
+            {
+                return buffer.getShort();
+            }
+            catch ( BufferUnderflowException e )
+            {
+                throw ReadPastEndException.INSTANCE;
+            }
+        }
+
+        @Override
+        public int getInt() throws IOException
+        {
+            try
+            {
+                return buffer.getInt();
+            }
+            catch ( BufferUnderflowException e )
+            {
+                throw ReadPastEndException.INSTANCE;
+            }
+        }
+
+        @Override
+        public long getLong() throws IOException
+        {
+            try
+            {
+                return buffer.getLong();
+            }
+            catch ( BufferUnderflowException e )
+            {
+                throw ReadPastEndException.INSTANCE;
+            }
+        }
+
+        @Override
+        public float getFloat() throws IOException
+        {
+            try
+            {
+                return buffer.getFloat();
+            }
+            catch ( BufferUnderflowException e )
+            {
+                throw ReadPastEndException.INSTANCE;
+            }
+        }
+
+        @Override
+        public double getDouble() throws IOException
+        {
+            try
+            {
+                return buffer.getDouble();
+            }
+            catch ( BufferUnderflowException e )
+            {
+                throw ReadPastEndException.INSTANCE;
+            }
+        }
+
+        @Override
+        public void get( byte[] bytes, int length ) throws IOException
+        {
+            try
+            {
+                buffer.get( bytes, 0, length );
+            }
+            catch ( BufferUnderflowException e )
+            {
+                throw ReadPastEndException.INSTANCE;
+            }
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
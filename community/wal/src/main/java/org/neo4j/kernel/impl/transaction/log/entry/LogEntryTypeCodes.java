@@ -33,4 +33,6 @@ public class LogEntryTypeCodes
     public static final byte LEGACY_CHECK_POINT = (byte) 7;
 
     public static final byte DETACHED_CHECK_POINT = (byte) 8;
+
+    public static final byte COMPRESSED_COMMANDS = (byte) 9;
 }
@@ -35,6 +35,7 @@ public class TransactionLogFilesHelper
 {
     public static final String DEFAULT_NAME = "neostore.transaction.db";
     public static final String CHECKPOINT_FILE_PREFIX = "checkpoint";
+    public static final String RECYCLED_FILE_PREFIX = "recycled.";
     static final DirectoryStream.Filter<Path> DEFAULT_FILENAME_FILTER = new LogicalLogFilenameFilter( quote( DEFAULT_NAME ), quote( CHECKPOINT_FILE_PREFIX ) );
     public static final Predicate<String> DEFAULT_FILENAME_PREDICATE = file -> file.startsWith( DEFAULT_NAME ) || file.startsWith( CHECKPOINT_FILE_PREFIX );
 
@@ -45,6 +46,7 @@ public class TransactionLogFilesHelper
     private final Path logBaseName;
     private final FileSystemAbstraction fileSystem;
     private final DirectoryStream.Filter<Path> filenameFilter;
+    private final DirectoryStream.Filter<Path> recycledFilenameFilter;
 
     public TransactionLogFilesHelper( FileSystemAbstraction fileSystem, Path directory )
     {
@@ -56,6 +58,7 @@ public class TransactionLogFilesHelper
         this.fileSystem = fileSystem;
         this.logBaseName = directory.resolve( name );
         this.filenameFilter = new LogicalLogFilenameFilter( quote( name ) );
+        this.recycledFilenameFilter = new LogicalLogFilenameFilter( quote( RECYCLED_FILE_PREFIX + name ) );
     }
 
     public Path getLogFileForVersion( long version )
@@ -63,6 +66,16 @@ public class TransactionLogFilesHelper
         return Path.of( logBaseName.toAbsolutePath().toString() + VERSION_SUFFIX + version );
     }
 
+    /**
+     * @return the name a log file of the given version has once it has been recycled. Recycled files do not match the
+     * log file name filter, so they are not considered part of the log.
+     */
+    public Path getRecycledLogFileForVersion( long version )
+    {
+        Path logFile = getLogFileForVersion( version );
+        return logFile.resolveSibling( RECYCLED_FILE_PREFIX + logFile.getFileName() );
+    }
+
     public long getLogVersion( Path historyLogFile )
     {
         String historyLogFilename = historyLogFile.getFileName().toString();
@@ -89,6 +102,16 @@ public class TransactionLogFilesHelper
         return files;
     }
 
+    public Path[] getRecycledFiles()
+    {
+        Path[] files = fileSystem.listFiles( logBaseName.getParent(), recycledFilenameFilter );
+        if ( files.length == 0 )
+        {
+            return EMPTY_FILES_ARRAY;
+        }
+        return files;
+    }
+
     public void accept( LogVersionVisitor visitor )
     {
         for ( Path file : getMatchedFiles() )